@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.alerts;
+
+/**
+ * A comparison between an indicator and another indicator or a fixed threshold, which the {@link AlertEngine}
+ * reports on the bar it becomes true. A condition that stays true doesn't fire again until it has been false.
+ */
+public final class AlertCondition {
+
+    enum Operator {
+        ABOVE(" crosses above "), BELOW(" crosses below "), AT_OR_ABOVE(" reaches ");
+
+        private final String description;
+
+        Operator(final String description) {
+            this.description = description;
+        }
+
+        boolean test(final double left, final double right) {
+            switch (this) {
+                case ABOVE:
+                    return left > right;
+                case BELOW:
+                    return left < right;
+                default:
+                    return left >= right;
+            }
+        }
+    }
+
+    private final String name;
+    private final Indicator left;
+    private final Operator operator;
+    private final Indicator right;
+    private final double threshold;
+
+    private AlertCondition(final String name, final Indicator left, final Operator operator, final Indicator right,
+                           final double threshold) {
+        this.name = name != null ? name
+                : left + operator.description + (right != null ? right.toString() : String.valueOf(threshold));
+        this.left = left;
+        this.operator = operator;
+        this.right = right;
+        this.threshold = threshold;
+    }
+
+    /**
+     * e.g. crossesAbove(Indicator.close(), Indicator.sma(50))
+     */
+    public static AlertCondition crossesAbove(final Indicator left, final Indicator right) {
+        return new AlertCondition(null, left, Operator.ABOVE, right, Double.NaN);
+    }
+
+    public static AlertCondition crossesBelow(final Indicator left, final Indicator right) {
+        return new AlertCondition(null, left, Operator.BELOW, right, Double.NaN);
+    }
+
+    public static AlertCondition crossesAbove(final Indicator left, final double threshold) {
+        return new AlertCondition(null, left, Operator.ABOVE, null, threshold);
+    }
+
+    public static AlertCondition crossesBelow(final Indicator left, final double threshold) {
+        return new AlertCondition(null, left, Operator.BELOW, null, threshold);
+    }
+
+    /**
+     * e.g. reaches(Indicator.relativeStrengthPercentOfPeak(1), 100)
+     */
+    public static AlertCondition reaches(final Indicator left, final double threshold) {
+        return new AlertCondition(null, left, Operator.AT_OR_ABOVE, null, threshold);
+    }
+
+    /**
+     * @param name name to report in events
+     *
+     * @return copy of this condition with a different name
+     */
+    public AlertCondition named(final String name) {
+        return new AlertCondition(name, left, operator, right, threshold);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    Indicator getLeft() {
+        return left;
+    }
+
+    Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return indicator on the right side, or null if this condition compares against a threshold
+     */
+    Indicator getRight() {
+        return right;
+    }
+
+    double getThreshold() {
+        return threshold;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.alerts;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Evaluates registered alert conditions as each symbol's bars arrive, reporting only the bars on which a condition
+ * becomes true.
+ * <p>
+ * Each symbol keeps a running state for every distinct indicator its conditions use, plus the previous outcome of
+ * every condition. An update advances each indicator once and compares each condition once, both in O(1), instead of
+ * recomputing the indicators over the symbol's history. A condition whose indicators are NaN (e.g. not enough history
+ * yet) has no outcome and can't fire on the next bar either, since a crossing needs a known previous side.
+ * <p>
+ * Indicator state starts when a condition first uses it, so register conditions before replaying history to warm
+ * them up. Not thread-safe; partition symbols across engines to run them in parallel.
+ */
+public class AlertEngine {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+
+    private final Consumer<AlertEvent> listener;
+    private final Map<String, SymbolState> symbols = new HashMap<>();
+
+    private int comparisonEpochDay = Integer.MIN_VALUE;
+    private double comparisonClose = Double.NaN;
+
+    /**
+     * @param listener receives each alert, on the thread calling {@link #update(String, int, double, double)}
+     */
+    public AlertEngine(final Consumer<AlertEvent> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Registers a condition for a symbol.
+     *
+     * @param symbol    symbol
+     * @param condition condition
+     */
+    public void register(String symbol, AlertCondition condition) {
+        symbols.computeIfAbsent(symbol, SymbolState::new).addCondition(condition);
+    }
+
+    /**
+     * Sets the comparison (e.g. S&amp;P 500) close used by relative strength indicators. Call it before updating the
+     * symbols for the same day.
+     *
+     * @param epochDay day of the close, as days since 1970-01-01
+     * @param close    comparison close
+     */
+    public void updateComparison(int epochDay, double close) {
+        comparisonEpochDay = epochDay;
+        comparisonClose = close;
+    }
+
+    /**
+     * Advances a symbol's indicators by one bar and reports the conditions that became true.
+     *
+     * @param symbol   symbol
+     * @param epochDay day of the bar, as days since 1970-01-01; must be after the symbol's previous bar
+     * @param high     high
+     * @param close    close
+     *
+     * @return number of alerts reported
+     */
+    public int update(String symbol, int epochDay, double high, double close) {
+
+        SymbolState state = symbols.get(symbol);
+        if (state == null) {
+            return 0;
+        }
+
+        return state.update(epochDay, high, close, epochDay == comparisonEpochDay ? comparisonClose : Double.NaN);
+    }
+
+    /**
+     * Gets an indicator's value as of a symbol's last bar.
+     *
+     * @param symbol    symbol
+     * @param indicator indicator used by one of the symbol's conditions
+     *
+     * @return indicator value, or NaN if the symbol doesn't track it or has no bars yet
+     */
+    public double getValue(String symbol, Indicator indicator) {
+        SymbolState state = symbols.get(symbol);
+        Integer slot = state == null ? null : state.slots.get(indicator);
+        return slot == null ? Double.NaN : state.values[slot];
+    }
+
+    /**
+     * @return number of conditions registered across all symbols
+     */
+    public int getConditionCount() {
+        return symbols.values().stream().mapToInt(s -> s.conditionCount).sum();
+    }
+
+    private final class SymbolState {
+
+        private final String symbol;
+        private int lastEpochDay = Integer.MIN_VALUE;
+
+        // indicators, by slot
+        private final Map<Indicator, Integer> slots = new HashMap<>();
+        private Indicator.State[] indicatorStates = new Indicator.State[4];
+        private double[] values = new double[4];
+        private int indicatorCount;
+
+        // conditions, by registration order
+        private AlertCondition[] conditions = new AlertCondition[4];
+        private int[] leftSlots = new int[4];
+        private int[] rightSlots = new int[4];
+        private double[] thresholds = new double[4];
+        private byte[] previousOutcomes = new byte[4];
+        private int conditionCount;
+
+        SymbolState(final String symbol) {
+            this.symbol = symbol;
+        }
+
+        void addCondition(final AlertCondition condition) {
+
+            if (conditionCount == conditions.length) {
+                int capacity = conditionCount * 2;
+                conditions = Arrays.copyOf(conditions, capacity);
+                leftSlots = Arrays.copyOf(leftSlots, capacity);
+                rightSlots = Arrays.copyOf(rightSlots, capacity);
+                thresholds = Arrays.copyOf(thresholds, capacity);
+                previousOutcomes = Arrays.copyOf(previousOutcomes, capacity);
+            }
+
+            conditions[conditionCount] = condition;
+            leftSlots[conditionCount] = getSlot(condition.getLeft());
+            rightSlots[conditionCount] = condition.getRight() == null ? -1 : getSlot(condition.getRight());
+            thresholds[conditionCount] = condition.getThreshold();
+            previousOutcomes[conditionCount] = UNKNOWN;
+            conditionCount++;
+        }
+
+        private int getSlot(final Indicator indicator) {
+
+            Integer slot = slots.get(indicator);
+            if (slot != null) {
+                return slot;
+            }
+
+            if (indicatorCount == indicatorStates.length) {
+                indicatorStates = Arrays.copyOf(indicatorStates, indicatorCount * 2);
+                values = Arrays.copyOf(values, indicatorCount * 2);
+            }
+
+            indicatorStates[indicatorCount] = indicator.createState();
+            values[indicatorCount] = Double.NaN;
+            slots.put(indicator, indicatorCount);
+            return indicatorCount++;
+        }
+
+        int update(final int epochDay, final double high, final double close, final double comparisonClose) {
+
+            if (epochDay <= lastEpochDay) {
+                throw new IllegalArgumentException(
+                        "Bars for " + symbol + " must arrive in date order: " + epochDay + " after " + lastEpochDay);
+            }
+            lastEpochDay = epochDay;
+
+            for (int i = 0; i < indicatorCount; i++) {
+                values[i] = indicatorStates[i].update(epochDay, high, close, comparisonClose);
+            }
+
+            int alerts = 0;
+            for (int i = 0; i < conditionCount; i++) {
+
+                double left = values[leftSlots[i]];
+                double right = rightSlots[i] < 0 ? thresholds[i] : values[rightSlots[i]];
+
+                if (Double.isNaN(left) || Double.isNaN(right)) {
+                    previousOutcomes[i] = UNKNOWN;
+                } else if (conditions[i].getOperator().test(left, right)) {
+                    if (previousOutcomes[i] == FALSE) {
+                        listener.accept(new AlertEvent(symbol, epochDay, conditions[i], left));
+                        alerts++;
+                    }
+                    previousOutcomes[i] = TRUE;
+                } else {
+                    previousOutcomes[i] = FALSE;
+                }
+            }
+
+            return alerts;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.alerts;
+
+import com.scottjjohnson.util.DateUtils;
+
+/**
+ * Reports that an {@link AlertCondition} became true for a symbol.
+ */
+public class AlertEvent {
+
+    private final String symbol;
+    private final int epochDay;
+    private final AlertCondition condition;
+    private final double value;
+
+    public AlertEvent(final String symbol, final int epochDay, final AlertCondition condition, final double value) {
+        this.symbol = symbol;
+        this.epochDay = epochDay;
+        this.condition = condition;
+        this.value = value;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return day of the bar that triggered the alert, as days since 1970-01-01
+     */
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    public AlertCondition getCondition() {
+        return condition;
+    }
+
+    /**
+     * @return value of the condition's left-hand indicator
+     */
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "AlertEvent{" + "symbol='" + symbol + '\'' + ", date=" + DateUtils.toYearMonthDay(epochDay)
+                + ", condition=" + condition + ", value=" + value + '}';
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.alerts;
+
+import java.util.Objects;
+
+import com.scottjjohnson.finance.analysis.stats.RollingExtremes;
+import com.scottjjohnson.finance.analysis.stats.RollingStatistics;
+import com.scottjjohnson.util.DateUtils;
+
+/**
+ * An indicator the {@link AlertEngine} maintains per symbol. Indicators are value objects, so equal indicators used
+ * by several conditions on the same symbol share one running state.
+ */
+public final class Indicator {
+
+    private enum Type {
+        CLOSE, HIGH, SMA, PRIOR_MAX_HIGH, RS_PERCENT_OF_PEAK
+    }
+
+    private final Type type;
+    private final int parameter;
+
+    private Indicator(final Type type, final int parameter) {
+        this.type = type;
+        this.parameter = parameter;
+    }
+
+    /**
+     * @return the bar's close
+     */
+    public static Indicator close() {
+        return new Indicator(Type.CLOSE, 0);
+    }
+
+    /**
+     * @return the bar's high
+     */
+    public static Indicator high() {
+        return new Indicator(Type.HIGH, 0);
+    }
+
+    /**
+     * @param days number of bars in the average
+     *
+     * @return simple moving average of the closes, including the current bar, as
+     * {@link com.scottjjohnson.finance.analysis.calculators.SMACalculator} calculates it
+     */
+    public static Indicator sma(final int days) {
+        checkPositive(days);
+        return new Indicator(Type.SMA, days);
+    }
+
+    /**
+     * Gets the highest high of the bars before the current one, so high() crossing above priorMaxHigh(252) is a new
+     * 52-week high.
+     *
+     * @param days number of bars before the current one
+     *
+     * @return prior max high, or NaN on the first bar
+     */
+    public static Indicator priorMaxHigh(final int days) {
+        checkPositive(days);
+        return new Indicator(Type.PRIOR_MAX_HIGH, days);
+    }
+
+    /**
+     * Gets the relative strength percent of peak as
+     * {@link com.scottjjohnson.finance.analysis.calculators.RelativeStrengthPercentOfPeakCalculator} calculates it, so
+     * reaching 100 means the relative strength line is at a new high. Bars without a comparison close on the same day
+     * are left out, and the indicator is NaN on those bars.
+     *
+     * @param years number of years in the past
+     *
+     * @return RS percent of peak
+     */
+    public static Indicator relativeStrengthPercentOfPeak(final int years) {
+        checkPositive(years);
+        return new Indicator(Type.RS_PERCENT_OF_PEAK, years);
+    }
+
+    private static void checkPositive(final int parameter) {
+        if (parameter < 1) {
+            throw new IllegalArgumentException("Indicator parameter must be at least 1: " + parameter);
+        }
+    }
+
+    /**
+     * Creates the running state for one symbol.
+     */
+    State createState() {
+        switch (type) {
+            case CLOSE:
+                return (epochDay, high, close, comparisonClose) -> close;
+            case HIGH:
+                return (epochDay, high, close, comparisonClose) -> high;
+            case SMA:
+                return new SMAState(parameter);
+            case PRIOR_MAX_HIGH:
+                return new PriorMaxHighState(parameter);
+            case RS_PERCENT_OF_PEAK:
+                return new RSPercentOfPeakState(parameter);
+            default:
+                throw new IllegalStateException("Unknown indicator type " + type);
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Indicator indicator = (Indicator) o;
+        return parameter == indicator.parameter && type == indicator.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, parameter);
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case CLOSE:
+                return "close";
+            case HIGH:
+                return "high";
+            case SMA:
+                return "sma(" + parameter + ")";
+            case PRIOR_MAX_HIGH:
+                return "priorMaxHigh(" + parameter + ")";
+            default:
+                return "rsPercentOfPeak(" + parameter + ")";
+        }
+    }
+
+    /**
+     * Running indicator state for one symbol, advanced once per bar in O(1) amortized time.
+     */
+    @FunctionalInterface
+    interface State {
+
+        /**
+         * @param comparisonClose comparison close on the same day, or NaN if there isn't one
+         *
+         * @return indicator value as of this bar
+         */
+        double update(int epochDay, double high, double close, double comparisonClose);
+    }
+
+    private static final class SMAState implements State {
+
+        private final RollingStatistics closes;
+
+        SMAState(final int days) {
+            closes = new RollingStatistics(days);
+        }
+
+        @Override
+        public double update(final int epochDay, final double high, final double close, final double comparisonClose) {
+            closes.push(close);
+            return closes.getMean();
+        }
+    }
+
+    private static final class PriorMaxHighState implements State {
+
+        private final int days;
+        private final RollingExtremes highs = new RollingExtremes();
+        private int bar;
+
+        PriorMaxHighState(final int days) {
+            this.days = days;
+        }
+
+        @Override
+        public double update(final int epochDay, final double high, final double close, final double comparisonClose) {
+            highs.evictBefore(bar - days);
+            double priorMax = highs.getMax();
+            highs.push(bar++, high);
+            return priorMax;
+        }
+    }
+
+    private static final class RSPercentOfPeakState implements State {
+
+        private final int years;
+        private final RollingExtremes ratios = new RollingExtremes();
+
+        RSPercentOfPeakState(final int years) {
+            this.years = years;
+        }
+
+        @Override
+        public double update(final int epochDay, final double high, final double close, final double comparisonClose) {
+
+            if (Double.isNaN(comparisonClose)) {
+                return Double.NaN;
+            }
+
+            double ratio = close / comparisonClose * 100;
+            ratios.evictBefore(DateUtils.addYearsToEpochDay(epochDay, -years) + 1);
+            ratios.push(epochDay, ratio);
+
+            double max = ratios.getMax();
+            double min = ratios.getMin();
+            return max != min ? (ratio - min) / (max - min) * 100.0d : 0.0d;
+        }
+    }
+}
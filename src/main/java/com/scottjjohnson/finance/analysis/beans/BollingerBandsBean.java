@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.beans;
+
+/**
+ * Holds the Bollinger Bands for a single day.
+ */
+public class BollingerBandsBean {
+
+    private final double middle;
+    private final double upper;
+    private final double lower;
+    private final double close;
+
+    public BollingerBandsBean(final double middle, final double upper, final double lower, final double close) {
+        this.middle = middle;
+        this.upper = upper;
+        this.lower = lower;
+        this.close = close;
+    }
+
+    /**
+     * @return simple moving average of the closes
+     */
+    public double getMiddle() {
+        return middle;
+    }
+
+    public double getUpper() {
+        return upper;
+    }
+
+    public double getLower() {
+        return lower;
+    }
+
+    /**
+     * @return close the bands were evaluated against
+     */
+    public double getClose() {
+        return close;
+    }
+
+    /**
+     * Gets where the close sits relative to the bands: 0 at the lower band, 1 at the upper band.
+     *
+     * @return %B, or NaN if the bands have no width
+     */
+    public double getPercentB() {
+        double width = upper - lower;
+        return width > 0.0d ? (close - lower) / width : Double.NaN;
+    }
+
+    /**
+     * @return width of the bands as a fraction of the middle band
+     */
+    public double getBandwidth() {
+        return (upper - lower) / middle;
+    }
+
+    @Override
+    public String toString() {
+        return "BollingerBandsBean{" + "middle=" + middle + ", upper=" + upper + ", lower=" + lower + ", close=" + close
+                + '}';
+    }
+}
@@ -16,16 +16,15 @@
 
 package com.scottjjohnson.finance.analysis.beans;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Locale;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+import com.scottjjohnson.finance.analysis.quality.DataQualityCounter;
+import com.scottjjohnson.finance.analysis.quality.DataQualityIssue;
 import com.scottjjohnson.util.DateUtils;
+import com.scottjjohnson.util.TradingCalendar;
 
 /**
  * Holds a quote details for a single day.
@@ -37,11 +36,8 @@ public class DailyQuoteBean implements Serializable {
 
     private static final long serialVersionUID = -7900749416610148463L;
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(DailyQuoteBean.class);
-
-    // SimpleDateFormat is not thread-safe so use a ThreadLocal to give each thread it's own copy
-    private static final ThreadLocal<SimpleDateFormat> SIMPLE_DATE_FORMAT_WRAPPER = ThreadLocal.withInitial(
-            () -> new SimpleDateFormat("yyyy-MM-dd", new Locale("en", "US")));
+    // epochDay before it's been derived from the date fields; distinct from DateUtils.INVALID_EPOCH_DAY
+    private static final int UNKNOWN_EPOCH_DAY = Integer.MAX_VALUE;
 
     private String symbol;
     private String date;
@@ -55,26 +51,98 @@ public class DailyQuoteBean implements Serializable {
     private Date dateObj;
     private Long timestamp;
 
+    // derived from the date fields on first use. A single int, so a thread sees either UNKNOWN_EPOCH_DAY or the
+    // finished value and at worst derives it again. Transient, so it's reset in readObject.
+    private transient int epochDay = UNKNOWN_EPOCH_DAY;
+
     public String getSymbol() {
         return symbol;
     }
 
+    /**
+     * Gets the quote date. A date set with {@link #setDateObj(Date)} is returned as is; otherwise it's midnight at the
+     * stock exchange of the timestamp's day or of the date string.
+     *
+     * @return quote date, or null if the quote has no parseable date
+     */
     public Date getDate() {
 
-        if (dateObj == null) {
-            if (timestamp != null) {
-                dateObj = DateUtils.getMidnightForDate(new Date(timestamp));
-            } else if (date != null) {
+        if (dateObj != null) {
+            return new Date(dateObj.getTime());
+        }
 
-                try {
-                    dateObj = SIMPLE_DATE_FORMAT_WRAPPER.get().parse(date);
-                } catch (ParseException e) {
-                    LOGGER.warn("Failed to parse quote date. Full quote bean = {}.", this.toString());
+        int day = getEpochDay();
+        return day == DateUtils.INVALID_EPOCH_DAY ? null : DateUtils.getMidnightForEpochDay(day);
+    }
+
+    /**
+     * Gets the quote date as the number of days since 1970-01-01 at the stock exchange. Unlike {@link #getDate()} this
+     * doesn't allocate. The date object wins over the timestamp, which wins over the date string.
+     *
+     * @return epoch day, or {@link DateUtils#INVALID_EPOCH_DAY} if the quote has no parseable date
+     */
+    public int getEpochDay() {
+
+        int day = epochDay;
+        if (day == UNKNOWN_EPOCH_DAY) {
+            if (dateObj != null) {
+                day = DateUtils.getEpochDay(dateObj.getTime());
+            } else if (timestamp != null) {
+                day = DateUtils.getEpochDay(timestamp.longValue());
+            } else if (date != null) {
+                day = DateUtils.parseEpochDay(date);
+                if (day == DateUtils.INVALID_EPOCH_DAY) {
+                    // counted rather than logged; a bad feed can have thousands of these
+                    DataQualityCounter.increment(DataQualityIssue.UNPARSEABLE_DATE);
                 }
+            } else {
+                day = DateUtils.INVALID_EPOCH_DAY;
             }
+            epochDay = day;
         }
 
-        return (dateObj == null ? null : new Date(dateObj.getTime()));
+        return day;
+    }
+
+    /**
+     * Gets the quote date as a dense trading day index.
+     *
+     * @param calendar trading calendar
+     *
+     * @return trading day index, or {@link TradingCalendar#NOT_A_TRADING_DAY} if the quote is dated on a weekend or
+     *         holiday
+     */
+    public int getTradingDayIndex(final TradingCalendar calendar) {
+        return calendar.getTradingDayIndex(getEpochDay());
+    }
+
+    /**
+     * @return true if the quote has an open. {@link #getOpen()} falls back to the close when it doesn't.
+     */
+    public boolean hasOpen() {
+        return open != null;
+    }
+
+    /**
+     * @return true if the quote has a high. {@link #getHigh()} falls back to the close when it doesn't.
+     */
+    public boolean hasHigh() {
+        return high != null;
+    }
+
+    /**
+     * @return true if the quote has a low. {@link #getLow()} falls back to the close when it doesn't.
+     */
+    public boolean hasLow() {
+        return low != null;
+    }
+
+    public boolean hasClose() {
+        return close != null;
+    }
+
+    public boolean hasVolume() {
+        return volume != null;
     }
 
     public double getOpen() {
@@ -111,6 +179,7 @@ public class DailyQuoteBean implements Serializable {
 
     public void setDate(final String date) {
         this.date = date;
+        this.epochDay = UNKNOWN_EPOCH_DAY;
     }
 
     public void setOpen(final double open) {
@@ -143,10 +212,17 @@ public class DailyQuoteBean implements Serializable {
 
     public void setDateObj(final Date dateObj) {
         this.dateObj = new Date(dateObj.getTime());
+        this.epochDay = UNKNOWN_EPOCH_DAY;
     }
 
     public void setTimestamp(final long timestamp) {
         this.timestamp = timestamp;
+        this.epochDay = UNKNOWN_EPOCH_DAY;
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        epochDay = UNKNOWN_EPOCH_DAY;
     }
 
     @Override
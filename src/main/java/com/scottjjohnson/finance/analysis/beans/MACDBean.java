@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.beans;
+
+/**
+ * Holds the MACD values for a single day.
+ */
+public class MACDBean {
+
+    private final double line;
+    private final double signal;
+
+    public MACDBean(final double line, final double signal) {
+        this.line = line;
+        this.signal = signal;
+    }
+
+    /**
+     * @return fast EMA less slow EMA
+     */
+    public double getLine() {
+        return line;
+    }
+
+    /**
+     * @return EMA of the MACD line
+     */
+    public double getSignal() {
+        return signal;
+    }
+
+    /**
+     * @return MACD line less signal line
+     */
+    public double getHistogram() {
+        return line - signal;
+    }
+
+    @Override
+    public String toString() {
+        return "MACDBean{" + "line=" + line + ", signal=" + signal + '}';
+    }
+}
@@ -22,6 +22,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.QuoteAccessor;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
 
 public class AverageDailyShareVolumeCalculator {
 
@@ -36,12 +38,34 @@ public class AverageDailyShareVolumeCalculator {
      * @return average daily share volume
      */
     public long calculate(List<DailyQuoteBean> quotes, int days) {
+        return calculate(quotes, QuoteAccessor.LIST, days);
+    }
+
+    /**
+     * Calculates the average volume of the most recent bars in a quote series
+     *
+     * @param quotes quote series
+     * @param days   number of days in the past for which to calculate the average. Only days when the market is open are counted
+     *
+     * @return average daily share volume
+     */
+    public long calculate(QuoteSeries quotes, int days) {
+        return calculate(quotes, QuoteAccessor.SERIES, days);
+    }
+
+    /**
+     * Shared implementation of the List and QuoteSeries overloads.
+     */
+    private <T> long calculate(T quotes, QuoteAccessor<T> accessor, int days) {
 
-        int numberOfQuotes = quotes.size();
+        int numberOfQuotes = accessor.size(quotes);
         int daysToLookBack = Math.min(numberOfQuotes, days);
 
-        List<DailyQuoteBean> sublist = quotes.subList(numberOfQuotes - daysToLookBack, numberOfQuotes);
+        long sum = 0L;
+        for (int i = numberOfQuotes - daysToLookBack; i < numberOfQuotes; i++) {
+            sum += accessor.getVolume(quotes, i);
+        }
 
-        return sublist.stream().mapToLong(DailyQuoteBean::getVolume).sum() / daysToLookBack;
+        return sum / daysToLookBack;
     }
 }
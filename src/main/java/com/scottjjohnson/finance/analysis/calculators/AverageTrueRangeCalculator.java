@@ -22,9 +22,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.QuoteAccessor;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.stats.ExactSum;
+import com.scottjjohnson.finance.analysis.stats.RollingStatistics;
 
 /**
- * Calculates the average true range of a stock for a given period.
+ * Calculates the average true range of a stock for a given period. True ranges are summed exactly and rounded once,
+ * so the latest-value and series modes return the same bits for the same window.
  *
  * @see <a href="http://stockcharts.com/school/doku.php?id=chart_school:technical_indicators:average_true_range_atr">Average True Range</a>
  */
@@ -32,6 +37,9 @@ public class AverageTrueRangeCalculator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AverageTrueRangeCalculator.class);
 
+    // reused so the latest-value modes don't allocate; calculators are shared between threads
+    private static final ThreadLocal<ExactSum> WINDOW_SUM = ThreadLocal.withInitial(ExactSum::new);
+
     /**
      * Calculates the average true range
      *
@@ -39,32 +47,80 @@ public class AverageTrueRangeCalculator {
      * @param days   number of days in the past for which to calculate the average. Only days when the market is open are
      *               counted
      *
-     * @return average true range
+     * @return average true range, or NaN if a true range in the window is NaN or infinite
      */
     public double calculate(List<DailyQuoteBean> quotes, int days) {
+        return calculate(quotes, QuoteAccessor.LIST, days);
+    }
+
+    /**
+     * Calculates the average true range of the most recent bars in a quote series
+     *
+     * @param quotes quote series
+     * @param days   number of days in the past for which to calculate the average. Only days when the market is open are
+     *               counted
+     *
+     * @return average true range, or NaN if a true range in the window is NaN or infinite
+     */
+    public double calculate(QuoteSeries quotes, int days) {
+        return calculate(quotes, QuoteAccessor.SERIES, days);
+    }
 
-        double sumOfPercentRanges = 0;
+    /**
+     * Shared implementation of the List and QuoteSeries overloads.
+     */
+    private <T> double calculate(T quotes, QuoteAccessor<T> accessor, int days) {
 
-        int numberOfQuotes = quotes.size();
+        int numberOfQuotes = accessor.size(quotes);
         int daysToLookBack = Math.min(numberOfQuotes - 1, days); // we need the previous day's closing price so we can't
         // look back more than quotes.size() - 1 days.
 
-        for (int i = numberOfQuotes - 1; i >= numberOfQuotes - daysToLookBack; i--) {
+        ExactSum sumOfRanges = WINDOW_SUM.get();
+        sumOfRanges.clear();
+        for (int i = numberOfQuotes - daysToLookBack; i < numberOfQuotes; i++) {
+            double range = calculateDayPriceRange(accessor.getHigh(quotes, i), accessor.getLow(quotes, i),
+                    accessor.getClose(quotes, i - 1));
+            if (!Double.isFinite(range)) {
+                return Double.NaN;
+            }
+            sumOfRanges.add(range);
+        }
 
-            DailyQuoteBean currentQuote = quotes.get(i);
-            DailyQuoteBean previousQuote = quotes.get(i - 1);
+        return sumOfRanges.getSum() / daysToLookBack;
+    }
 
-            sumOfPercentRanges += calculateDayPriceRange(currentQuote, previousQuote);
+    /**
+     * Calculates the average true range as of every bar from precomputed true ranges. Element i is the value
+     * {@link #calculate(QuoteSeries, int)} returns for the bars up to and including i, bit for bit.
+     *
+     * @param trueRanges each bar's true range, the greatest of high - low, |high - previous close| and |low - previous
+     *                   close|. Element 0 is ignored since the first bar has no previous close.
+     * @param days       number of days in the past for which to calculate the average
+     *
+     * @return average true range for each bar, NaN for the first
+     */
+    public double[] calculateSeries(double[] trueRanges, int days) {
+
+        double[] series = new double[trueRanges.length];
+        RollingStatistics ranges = new RollingStatistics(days);
+
+        for (int i = 0; i < series.length; i++) {
+            if (i == 0) {
+                series[i] = Double.NaN;
+                continue;
+            }
+            ranges.push(trueRanges[i]);
+            series[i] = ranges.getMean();
         }
 
-        return sumOfPercentRanges / daysToLookBack;
+        return series;
     }
 
-    private double calculateDayPriceRange(DailyQuoteBean currentQuote, DailyQuoteBean previousQuote) {
+    private double calculateDayPriceRange(double high, double low, double previousClose) {
 
-        double highLowRange = currentQuote.getHigh() - currentQuote.getLow();
-        double highPreviousCloseRange = Math.abs(currentQuote.getHigh() - previousQuote.getClose());
-        double lowPreviousCloseRange = Math.abs(currentQuote.getLow() - previousQuote.getClose());
+        double highLowRange = high - low;
+        double highPreviousCloseRange = Math.abs(high - previousClose);
+        double lowPreviousCloseRange = Math.abs(low - previousClose);
 
         return Math.max(highLowRange, Math.max(highPreviousCloseRange, lowPreviousCloseRange));
     }
@@ -8,6 +8,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.quality.DataQualityCounter;
+import com.scottjjohnson.finance.analysis.quality.DataQualityIssue;
+import com.scottjjohnson.finance.analysis.series.AlignedPairSeries;
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
+import com.scottjjohnson.finance.analysis.stats.RollingCovariance;
 
 public class BetaCalculator {
 
@@ -23,6 +28,7 @@ public class BetaCalculator {
         double previousComparisonClose = 0.0d;
         double previousStockClose = 0.0d;
         int numberOfQuotesWithAComparison = 0;
+        int missingComparisons = 0;
 
         for (DailyQuoteBean q : quotes) {
             Date d = q.getDate();
@@ -42,10 +48,104 @@ public class BetaCalculator {
                 previousComparisonClose = comparisonQuote.getClose();
 
             } else {
-                LOGGER.warn("Missing comparison quote for date {}", d);
+                missingComparisons++;
             }
         }
 
+        countMissingComparisons(missingComparisons);
+
+        return calculate(combinedQuotesPercentChange, numberOfQuotesWithAComparison);
+    }
+
+    /**
+     * Calculates beta from date-indexed comparison closes. Gives the same result as
+     * {@link #calculate(List, Map)} without a map lookup per quote.
+     *
+     * @param quotes           list of stock quotes
+     * @param comparisonCloses comparison closes by date
+     *
+     * @return beta
+     */
+    public double calculate(List<DailyQuoteBean> quotes, DateIndexedSeries comparisonCloses) {
+
+        int numberOfQuotes = quotes.size();
+
+        double[][] combinedQuotesPercentChange = new double[2][Math.max(numberOfQuotes - 1, 0)];
+
+        // get percent change array
+        double previousComparisonClose = 0.0d;
+        double previousStockClose = 0.0d;
+        int numberOfQuotesWithAComparison = 0;
+        int missingComparisons = 0;
+
+        for (DailyQuoteBean q : quotes) {
+            int epochDay = q.getEpochDay();
+
+            if (comparisonCloses.contains(epochDay)) {
+                double comparisonClose = comparisonCloses.getClose(epochDay);
+
+                if (previousStockClose != 0.0d) {
+                    combinedQuotesPercentChange[0][numberOfQuotesWithAComparison] =
+                            q.getClose() / previousStockClose - 1.0d;
+                    combinedQuotesPercentChange[1][numberOfQuotesWithAComparison] =
+                            comparisonClose / previousComparisonClose - 1.0d;
+                    numberOfQuotesWithAComparison++;
+                }
+
+                previousStockClose = q.getClose();
+                previousComparisonClose = comparisonClose;
+
+            } else {
+                missingComparisons++;
+            }
+        }
+
+        countMissingComparisons(missingComparisons);
+
+        return calculate(combinedQuotesPercentChange, numberOfQuotesWithAComparison);
+    }
+
+    /**
+     * Calculates beta from a stock's and a benchmark's closes on the days both have a bar.
+     *
+     * @param closes aligned stock and benchmark closes
+     *
+     * @return beta
+     */
+    public double calculate(AlignedPairSeries closes) {
+
+        int numberOfReturns = Math.max(closes.size() - 1, 0);
+        double[][] combinedQuotesPercentChange = new double[2][numberOfReturns];
+
+        for (int i = 0; i < numberOfReturns; i++) {
+            combinedQuotesPercentChange[0][i] = closes.getClose(i + 1) / closes.getClose(i) - 1.0d;
+            combinedQuotesPercentChange[1][i] = closes.getBenchmarkClose(i + 1) / closes.getBenchmarkClose(i) - 1.0d;
+        }
+
+        return calculate(combinedQuotesPercentChange, numberOfReturns);
+    }
+
+    /**
+     * Calculates beta from the most recent returns of a stock's and a benchmark's closes on the days both have a bar.
+     *
+     * @param closes aligned stock and benchmark closes
+     * @param days   number of trailing daily returns
+     *
+     * @return beta, or NaN if there are fewer than 2 returns
+     */
+    public double calculate(AlignedPairSeries closes, int days) {
+
+        RollingCovariance returns = new RollingCovariance(days);
+        for (int i = Math.max(1, closes.size() - days); i < closes.size(); i++) {
+            returns.push(closes.getBenchmarkClose(i) / closes.getBenchmarkClose(i - 1) - 1.0d,
+                    closes.getClose(i) / closes.getClose(i - 1) - 1.0d);
+        }
+
+        return returns.getCount() < 2 ? Double.NaN : returns.getBeta();
+    }
+
+    private double calculate(double[][] combinedQuotesPercentChange, int numberOfQuotesWithAComparison) {
+
         // calculate averages
         double stockTotal = 0.0d;
         double comparisonTotal = 0.0d;
@@ -71,4 +171,62 @@ public class BetaCalculator {
         return totalCovariance / totalVariance;
     }
 
+    /**
+     * Calculates a rolling beta as of every stock quote. Element i is the beta of the most recent returns, up to days
+     * of them, through quote i. Returns are only taken between consecutive quotes that both have a comparison quote.
+     * Elements before the second return are NaN.
+     *
+     * @param quotes           list of stock quotes
+     * @param comparisonQuotes map of comparison quotes keyed by date
+     * @param days             number of daily returns in each window
+     *
+     * @return beta for each stock quote
+     */
+    public double[] calculateSeries(List<DailyQuoteBean> quotes, Map<Date, DailyQuoteBean> comparisonQuotes,
+                                    int days) {
+
+        int numberOfQuotes = quotes.size();
+        double[] series = new double[numberOfQuotes];
+        RollingCovariance returns = new RollingCovariance(days);
+
+        double previousComparisonClose = 0.0d;
+        double previousStockClose = 0.0d;
+        int missingComparisons = 0;
+
+        for (int i = 0; i < numberOfQuotes; i++) {
+            DailyQuoteBean q = quotes.get(i);
+            DailyQuoteBean comparisonQuote = comparisonQuotes.get(q.getDate());
+
+            if (comparisonQuote != null) {
+
+                if (previousStockClose != 0.0d) {
+                    returns.push(comparisonQuote.getClose() / previousComparisonClose - 1.0d,
+                            q.getClose() / previousStockClose - 1.0d);
+                }
+
+                previousStockClose = q.getClose();
+                previousComparisonClose = comparisonQuote.getClose();
+
+            } else {
+                missingComparisons++;
+            }
+
+            series[i] = returns.getCount() < 2 ? Double.NaN : returns.getBeta();
+        }
+
+        countMissingComparisons(missingComparisons);
+
+        return series;
+    }
+
+    /**
+     * Tallies quotes skipped for lack of a comparison quote. They're counted rather than logged one by one since a
+     * dirty universe can have thousands.
+     */
+    private void countMissingComparisons(int missingComparisons) {
+        if (missingComparisons > 0) {
+            DataQualityCounter.add(DataQualityIssue.MISSING_COMPARISON, missingComparisons);
+            LOGGER.debug("Skipped {} quotes without a comparison quote", missingComparisons);
+        }
+    }
 }
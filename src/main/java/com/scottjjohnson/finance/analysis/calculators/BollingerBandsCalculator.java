@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.calculators;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import com.scottjjohnson.finance.analysis.beans.BollingerBandsBean;
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.stats.RollingStatistics;
+import com.scottjjohnson.finance.analysis.stats.StreamingState;
+
+/**
+ * Calculates Bollinger Bands: the SMA of the closes plus and minus a multiple of the closes' population standard
+ * deviation over the same days. The middle band is the same double {@link SMACalculator} gives in every mode: the
+ * latest-value overloads take it from {@link SMACalculator#calculate(QuoteSeries, int)} and the series and streaming
+ * modes from {@link RollingStatistics#getMean()}, which sums the window the same exact way.
+ */
+public class BollingerBandsCalculator {
+
+    public static final int DEFAULT_DAYS = 20;
+    public static final double DEFAULT_MULTIPLIER = 2.0d;
+
+    private static final SMACalculator SMA_CALCULATOR = new SMACalculator();
+
+    /**
+     * Calculates the Bollinger Bands as of the most recent quote
+     *
+     * @param quotes     pre-sorted List of quotes
+     * @param days       number of days in the past for which to calculate the bands. Only days when the market is open are counted
+     * @param multiplier number of standard deviations between the middle band and the outer bands
+     *
+     * @return Bollinger Bands, or null if there are no quotes
+     */
+    public BollingerBandsBean calculate(List<DailyQuoteBean> quotes, int days, double multiplier) {
+
+        int numberOfQuotes = quotes.size();
+        if (numberOfQuotes == 0) {
+            return null;
+        }
+
+        int daysToLookBack = Math.min(numberOfQuotes, days);
+        double middle = SMA_CALCULATOR.calculate(quotes, days);
+
+        double sumOfSquaredDeviations = 0.0d;
+        for (int i = numberOfQuotes - daysToLookBack; i < numberOfQuotes; i++) {
+            double deviation = quotes.get(i).getClose() - middle;
+            sumOfSquaredDeviations += deviation * deviation;
+        }
+
+        return createBands(middle, Math.sqrt(sumOfSquaredDeviations / daysToLookBack), multiplier,
+                quotes.get(numberOfQuotes - 1).getClose());
+    }
+
+    /**
+     * Calculates the Bollinger Bands as of the most recent bar in a quote series
+     *
+     * @param quotes     quote series
+     * @param days       number of days in the past for which to calculate the bands. Only days when the market is open are counted
+     * @param multiplier number of standard deviations between the middle band and the outer bands
+     *
+     * @return Bollinger Bands, or null if the series is empty
+     */
+    public BollingerBandsBean calculate(QuoteSeries quotes, int days, double multiplier) {
+
+        int numberOfQuotes = quotes.size();
+        if (numberOfQuotes == 0) {
+            return null;
+        }
+
+        int daysToLookBack = Math.min(numberOfQuotes, days);
+        double middle = SMA_CALCULATOR.calculate(quotes, days);
+
+        double sumOfSquaredDeviations = 0.0d;
+        for (int i = numberOfQuotes - daysToLookBack; i < numberOfQuotes; i++) {
+            double deviation = quotes.getClose(i) - middle;
+            sumOfSquaredDeviations += deviation * deviation;
+        }
+
+        return createBands(middle, Math.sqrt(sumOfSquaredDeviations / daysToLookBack), multiplier,
+                quotes.getClose(numberOfQuotes - 1));
+    }
+
+    /**
+     * Calculates the Bollinger Bands as of every bar in a quote series. Element i covers the bars up to and including
+     * i, so the first days - 1 elements use fewer bars, and its middle band equals element i of
+     * {@link SMACalculator#calculateSeries(QuoteSeries, int)}.
+     *
+     * @param quotes     quote series
+     * @param days       number of days in the past for which to calculate the bands. Only days when the market is open are counted
+     * @param multiplier number of standard deviations between the middle band and the outer bands
+     *
+     * @return Bollinger Bands for each bar
+     */
+    public BollingerBandsBean[] calculateSeries(QuoteSeries quotes, int days, double multiplier) {
+
+        int numberOfQuotes = quotes.size();
+        BollingerBandsBean[] series = new BollingerBandsBean[numberOfQuotes];
+        State state = new State(days, multiplier);
+
+        for (int i = 0; i < numberOfQuotes; i++) {
+            state.update(quotes.getClose(i));
+            series[i] = state.getBands();
+        }
+
+        return series;
+    }
+
+    private static BollingerBandsBean createBands(double middle, double standardDeviation, double multiplier,
+                                                  double close) {
+        double offset = standardDeviation * multiplier;
+        return new BollingerBandsBean(middle, middle + offset, middle - offset, close);
+    }
+
+    /**
+     * Streaming Bollinger Bands, updated in constant time as each close arrives. Not thread-safe.
+     */
+    public static class State implements StreamingState {
+
+        private final double multiplier;
+        private final RollingStatistics closes;
+        private double lastClose = Double.NaN;
+
+        /**
+         * @param days       number of days in the bands' window
+         * @param multiplier number of standard deviations between the middle band and the outer bands
+         */
+        public State(final int days, final double multiplier) {
+            this.multiplier = multiplier;
+            closes = new RollingStatistics(days);
+        }
+
+        /**
+         * @param close next closing price
+         */
+        public void update(final double close) {
+            closes.push(close);
+            lastClose = close;
+        }
+
+        /**
+         * @return number of closes seen, up to the window size
+         */
+        public int getCount() {
+            return closes.getCount();
+        }
+
+        /**
+         * @return bands as of the last close, or null before the first one
+         */
+        public BollingerBandsBean getBands() {
+            return closes.getCount() == 0 ? null
+                    : createBands(closes.getMean(), closes.getStandardDeviation(), multiplier, lastClose);
+        }
+
+        @Override
+        public void writeState(final DataOutput out) throws IOException {
+            out.writeDouble(multiplier);
+            out.writeDouble(lastClose);
+            closes.writeState(out);
+        }
+
+        @Override
+        public void readState(final DataInput in) throws IOException {
+            double savedMultiplier = in.readDouble();
+            if (Double.compare(savedMultiplier, multiplier) != 0) {
+                throw new IOException("Saved multiplier " + savedMultiplier + " doesn't match " + multiplier);
+            }
+            lastClose = in.readDouble();
+            closes.readState(in);
+        }
+    }
+}
@@ -16,9 +16,15 @@
 
 package com.scottjjohnson.finance.analysis.calculators;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.QuoteAccessor;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.stats.StreamingState;
 
 public class EMACalculator {
 
@@ -32,16 +38,96 @@ public class EMACalculator {
      * @return exponential moving average
      */
     public double calculate(List<DailyQuoteBean> quotes, int days) {
+        return calculate(quotes, QuoteAccessor.LIST, days);
+    }
 
-        double calculatedAnswer = 0.0d;
+    /**
+     * Calculates the current day's EMA from only as many of the most recent quotes as a given accuracy needs.
+     * <p>
+     * The EMA is seeded with the SMA of days quotes and then run over the {@link #getSmoothingBars(int, double)}
+     * quotes after them, which is enough for the seed's weight in the result to fall below the tolerance. Because the
+     * seed and the EMA over the full history are both weighted averages of closes, the result differs from the EMA
+     * over an unlimited history by at most tolerance * (highest close - lowest close). If there are fewer quotes than
+     * that, the EMA is seeded from the first quotes and run over the rest, and the error bound no longer holds.
+     *
+     * @param quotes    List of quote beans
+     * @param days      number of days in the past for which to calculate the EMA. Only days when the market is open are counted
+     * @param tolerance largest weight the seed may keep in the result, e.g. 1e-9
+     *
+     * @return exponential moving average
+     */
+    public double calculate(List<DailyQuoteBean> quotes, int days, double tolerance) {
+        return calculate(quotes, QuoteAccessor.LIST, days, tolerance);
+    }
+
+    /**
+     * Calculates the current day's EMA from only as many of the most recent bars as a given accuracy needs. See
+     * {@link #calculate(List, int, double)}.
+     *
+     * @param quotes    quote series
+     * @param days      number of days in the past for which to calculate the EMA. Only days when the market is open are counted
+     * @param tolerance largest weight the seed may keep in the result, e.g. 1e-9
+     *
+     * @return exponential moving average
+     */
+    public double calculate(QuoteSeries quotes, int days, double tolerance) {
+        return calculate(quotes, QuoteAccessor.SERIES, days, tolerance);
+    }
+
+    /**
+     * Shared implementation of the List and QuoteSeries overloads with a tolerance.
+     */
+    private <T> double calculate(T quotes, QuoteAccessor<T> accessor, int days, double tolerance) {
+
+        int numberOfQuotes = accessor.size(quotes);
+        int seedStart = Math.max(0, numberOfQuotes - getLookback(days, tolerance));
+        int seedEnd = Math.min(numberOfQuotes, seedStart + days);
+
+        double sum = 0.0d;
+        for (int i = seedStart; i < seedEnd; i++) {
+            sum += accessor.getClose(quotes, i);
+        }
 
-        for (DailyQuoteBean quote : quotes) {
-            calculatedAnswer = calculate(calculatedAnswer, quote.getClose(), days);
+        double calculatedAnswer = sum / (seedEnd - seedStart);
+        for (int i = seedEnd; i < numberOfQuotes; i++) {
+            calculatedAnswer = calculate(calculatedAnswer, accessor.getClose(quotes, i), days);
         }
 
         return calculatedAnswer;
     }
 
+    /**
+     * Gets the number of EMA steps after which a seed's weight in the result, (1 - 2 / (days + 1))^k, is at most the
+     * tolerance.
+     *
+     * @param days      number of days in the EMA
+     * @param tolerance largest weight the seed may keep, greater than 0 and less than 1
+     *
+     * @return number of steps
+     */
+    public int getSmoothingBars(int days, double tolerance) {
+
+        if (!(tolerance > 0.0d && tolerance < 1.0d)) {
+            throw new IllegalArgumentException("Tolerance must be between 0 and 1: " + tolerance);
+        }
+
+        double decay = 1.0d - 2.0d / (days + 1.0d);
+        return decay <= 0.0d ? 0 : (int) Math.ceil(Math.log(tolerance) / Math.log(decay));
+    }
+
+    /**
+     * Gets the number of quotes {@link #calculate(List, int, double)} reads: days to seed the EMA plus the smoothing
+     * bars.
+     *
+     * @param days      number of days in the EMA
+     * @param tolerance largest weight the seed may keep, greater than 0 and less than 1
+     *
+     * @return number of quotes
+     */
+    public int getLookback(int days, double tolerance) {
+        return days + getSmoothingBars(days, tolerance);
+    }
+
     /**
      * Calculates the current day's EMA based on the previous day's EMA
      *
@@ -55,4 +141,95 @@ public class EMACalculator {
         double multiplier = 2.0d / (days + 1.0d);
         return (currentClose - previousEma) * multiplier + previousEma;
     }
+
+    /**
+     * Calculates the current day's EMA over all bars in a quote series. See {@link #calculate(List, int)}.
+     *
+     * @param quotes quote series
+     * @param days   number of days in the past for which to calculate the EMA. Only days when the market is open are counted
+     *
+     * @return exponential moving average
+     */
+    public double calculate(QuoteSeries quotes, int days) {
+        return calculate(quotes, QuoteAccessor.SERIES, days);
+    }
+
+    /**
+     * Shared implementation of the List and QuoteSeries overloads over all quotes.
+     */
+    private <T> double calculate(T quotes, QuoteAccessor<T> accessor, int days) {
+
+        double calculatedAnswer = 0.0d;
+        int numberOfQuotes = accessor.size(quotes);
+
+        for (int i = 0; i < numberOfQuotes; i++) {
+            calculatedAnswer = calculate(calculatedAnswer, accessor.getClose(quotes, i), days);
+        }
+
+        return calculatedAnswer;
+    }
+
+    /**
+     * Calculates the EMA as of every bar in a quote series. Element i is the value
+     * {@link #calculate(QuoteSeries, int)} returns for the bars up to and including i.
+     *
+     * @param quotes quote series
+     * @param days   number of days in the past for which to calculate the EMA. Only days when the market is open are counted
+     *
+     * @return exponential moving average for each bar
+     */
+    public double[] calculateSeries(QuoteSeries quotes, int days) {
+
+        double[] series = new double[quotes.size()];
+        double calculatedAnswer = 0.0d;
+
+        for (int i = 0; i < series.length; i++) {
+            calculatedAnswer = calculate(calculatedAnswer, quotes.getClose(i), days);
+            series[i] = calculatedAnswer;
+        }
+
+        return series;
+    }
+
+    /**
+     * Streaming EMA, updated in constant time as each close arrives. It starts at 0 like
+     * {@link #calculate(List, int)}, so after the same closes it holds the same value. Not thread-safe.
+     */
+    public static class State implements StreamingState {
+
+        private static final EMACalculator EMA_CALCULATOR = new EMACalculator();
+
+        private final int days;
+        private double ema;
+
+        /**
+         * @param days number of days in the EMA
+         */
+        public State(final int days) {
+            this.days = days;
+        }
+
+        /**
+         * @param close next closing price
+         */
+        public void update(final double close) {
+            ema = EMA_CALCULATOR.calculate(ema, close, days);
+        }
+
+        public double getEma() {
+            return ema;
+        }
+
+        @Override
+        public void writeState(final DataOutput out) throws IOException {
+            out.writeInt(days);
+            out.writeDouble(ema);
+        }
+
+        @Override
+        public void readState(final DataInput in) throws IOException {
+            StreamingState.checkConfiguration(in, "days", days);
+            ema = in.readDouble();
+        }
+    }
 }
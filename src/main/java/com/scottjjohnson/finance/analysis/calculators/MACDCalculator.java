@@ -0,0 +1,226 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.calculators;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.beans.MACDBean;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.stats.StreamingState;
+
+/**
+ * Calculates the Moving Average Convergence Divergence: the fast EMA of the closes less the slow EMA (the MACD line),
+ * an EMA of that line (the signal line), and their difference (the histogram).
+ * <p>
+ * All three EMAs use the recurrence in {@link EMACalculator#calculate(double, double, int)}. The price EMAs are seeded
+ * with the first close, and the signal line with the first MACD value, so the values start at 0 rather than drifting
+ * up from it.
+ */
+public class MACDCalculator {
+
+    public static final int DEFAULT_FAST_DAYS = 12;
+    public static final int DEFAULT_SLOW_DAYS = 26;
+    public static final int DEFAULT_SIGNAL_DAYS = 9;
+
+    /**
+     * Calculates the MACD as of the most recent quote
+     *
+     * @param quotes     pre-sorted List of quotes
+     * @param fastDays   days in the fast EMA
+     * @param slowDays   days in the slow EMA
+     * @param signalDays days in the signal line's EMA
+     *
+     * @return MACD, or null if there are no quotes
+     */
+    public MACDBean calculate(List<DailyQuoteBean> quotes, int fastDays, int slowDays, int signalDays) {
+
+        State state = new State(fastDays, slowDays, signalDays);
+        for (int i = 0; i < quotes.size(); i++) {
+            state.update(quotes.get(i).getClose());
+        }
+
+        return state.getMacd();
+    }
+
+    /**
+     * Calculates the MACD as of the most recent bar in a quote series
+     *
+     * @param quotes     quote series
+     * @param fastDays   days in the fast EMA
+     * @param slowDays   days in the slow EMA
+     * @param signalDays days in the signal line's EMA
+     *
+     * @return MACD, or null if the series is empty
+     */
+    public MACDBean calculate(QuoteSeries quotes, int fastDays, int slowDays, int signalDays) {
+
+        State state = new State(fastDays, slowDays, signalDays);
+        for (int i = 0; i < quotes.size(); i++) {
+            state.update(quotes.getClose(i));
+        }
+
+        return state.getMacd();
+    }
+
+    /**
+     * Calculates the MACD as of every bar in a quote series. Element i is the value
+     * {@link #calculate(QuoteSeries, int, int, int)} returns for the bars up to and including i.
+     *
+     * @param quotes     quote series
+     * @param fastDays   days in the fast EMA
+     * @param slowDays   days in the slow EMA
+     * @param signalDays days in the signal line's EMA
+     *
+     * @return MACD for each bar
+     */
+    public MACDBean[] calculateSeries(QuoteSeries quotes, int fastDays, int slowDays, int signalDays) {
+
+        MACDBean[] series = new MACDBean[quotes.size()];
+        State state = new State(fastDays, slowDays, signalDays);
+
+        for (int i = 0; i < series.length; i++) {
+            state.update(quotes.getClose(i));
+            series[i] = state.getMacd();
+        }
+
+        return series;
+    }
+
+    /**
+     * Streaming MACD, updated in constant time as each close arrives. Its running values can be packed into a slot of
+     * a shared double array so a universe of symbols can be held in one array. Not thread-safe.
+     */
+    public static class State implements StreamingState {
+
+        /**
+         * Number of doubles {@link #pack(double[], int)} writes.
+         */
+        public static final int PACKED_SIZE = 3;
+
+        private static final EMACalculator EMA_CALCULATOR = new EMACalculator();
+
+        private final int fastDays;
+        private final int slowDays;
+        private final int signalDays;
+        private double fastEma = Double.NaN;
+        private double slowEma = Double.NaN;
+        private double signal = Double.NaN;
+
+        /**
+         * @param fastDays   days in the fast EMA
+         * @param slowDays   days in the slow EMA
+         * @param signalDays days in the signal line's EMA
+         */
+        public State(final int fastDays, final int slowDays, final int signalDays) {
+            this.fastDays = fastDays;
+            this.slowDays = slowDays;
+            this.signalDays = signalDays;
+        }
+
+        /**
+         * @param close next closing price
+         */
+        public void update(final double close) {
+
+            if (Double.isNaN(fastEma)) {
+                fastEma = close;
+                slowEma = close;
+                signal = 0.0d;
+            } else {
+                fastEma = EMA_CALCULATOR.calculate(fastEma, close, fastDays);
+                slowEma = EMA_CALCULATOR.calculate(slowEma, close, slowDays);
+                signal = EMA_CALCULATOR.calculate(signal, fastEma - slowEma, signalDays);
+            }
+        }
+
+        /**
+         * @return MACD line, or NaN before the first close
+         */
+        public double getLine() {
+            return fastEma - slowEma;
+        }
+
+        /**
+         * @return signal line, or NaN before the first close
+         */
+        public double getSignal() {
+            return signal;
+        }
+
+        /**
+         * @return histogram, or NaN before the first close
+         */
+        public double getHistogram() {
+            return getLine() - signal;
+        }
+
+        /**
+         * @return MACD as of the last close, or null before the first one
+         */
+        public MACDBean getMacd() {
+            return Double.isNaN(fastEma) ? null : new MACDBean(getLine(), signal);
+        }
+
+        /**
+         * Writes the running values into {@link #PACKED_SIZE} doubles.
+         *
+         * @param array  destination array
+         * @param offset first element to write
+         */
+        public void pack(final double[] array, final int offset) {
+            array[offset] = fastEma;
+            array[offset + 1] = slowEma;
+            array[offset + 2] = signal;
+        }
+
+        /**
+         * Restores running values written by {@link #pack(double[], int)} from a state with the same days.
+         *
+         * @param array  source array
+         * @param offset first element to read
+         */
+        public void unpack(final double[] array, final int offset) {
+            fastEma = array[offset];
+            slowEma = array[offset + 1];
+            signal = array[offset + 2];
+        }
+
+        @Override
+        public void writeState(final DataOutput out) throws IOException {
+            out.writeInt(fastDays);
+            out.writeInt(slowDays);
+            out.writeInt(signalDays);
+            out.writeDouble(fastEma);
+            out.writeDouble(slowEma);
+            out.writeDouble(signal);
+        }
+
+        @Override
+        public void readState(final DataInput in) throws IOException {
+            StreamingState.checkConfiguration(in, "fast days", fastDays);
+            StreamingState.checkConfiguration(in, "slow days", slowDays);
+            StreamingState.checkConfiguration(in, "signal days", signalDays);
+            fastEma = in.readDouble();
+            slowEma = in.readDouble();
+            signal = in.readDouble();
+        }
+    }
+}
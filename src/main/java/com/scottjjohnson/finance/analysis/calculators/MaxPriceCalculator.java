@@ -16,10 +16,11 @@
 
 package com.scottjjohnson.finance.analysis.calculators;
 
-import java.util.Comparator;
 import java.util.List;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.QuoteAccessor;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
 
 public class MaxPriceCalculator {
 
@@ -31,7 +32,90 @@ public class MaxPriceCalculator {
      * @return max price
      */
     public double calculate(List<DailyQuoteBean> quotes) {
-        return quotes.stream().map(DailyQuoteBean::getHigh).max(Comparator.naturalOrder()).orElse(0.0d);
+        return calculate(quotes, QuoteAccessor.LIST, Integer.MAX_VALUE);
     }
 
+    /**
+     * Calculates the highest intraday price in a quote series
+     *
+     * @param quotes quote series
+     *
+     * @return max price
+     */
+    public double calculate(QuoteSeries quotes) {
+        return calculate(quotes, QuoteAccessor.SERIES, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Calculates the highest intraday price of the most recent bars in a quote series, e.g. the 52-week high with 252
+     * days. It's the last element of {@link #calculateSeries(QuoteSeries, int)}.
+     *
+     * @param quotes quote series
+     * @param days   number of bars to look back
+     *
+     * @return max price
+     */
+    public double calculate(QuoteSeries quotes, int days) {
+        return calculate(quotes, QuoteAccessor.SERIES, days);
+    }
+
+    /**
+     * Shared implementation of the List and QuoteSeries overloads.
+     */
+    private <T> double calculate(T quotes, QuoteAccessor<T> accessor, int days) {
+
+        int numberOfQuotes = accessor.size(quotes);
+        if (numberOfQuotes == 0) {
+            return 0.0d;
+        }
+
+        int first = Math.max(0, numberOfQuotes - days);
+        double max = accessor.getHigh(quotes, first);
+        for (int i = first + 1; i < numberOfQuotes; i++) {
+            max = Math.max(max, accessor.getHigh(quotes, i));
+        }
+
+        return max;
+    }
+
+    /**
+     * Calculates the highest intraday price over a trailing window as of every bar in a quote series, e.g. the 52-week
+     * high with a 252 day window. Element i is the max high of bars i - days + 1 through i.
+     *
+     * @param quotes quote series
+     * @param days   number of bars in the window
+     *
+     * @return max price for each bar
+     */
+    public double[] calculateSeries(QuoteSeries quotes, int days) {
+
+        int numberOfQuotes = quotes.size();
+        double[] series = new double[numberOfQuotes];
+
+        // indexes of bars whose highs are decreasing from head to tail. The head is always the window's max.
+        int[] deque = new int[Math.max(Math.min(days, numberOfQuotes), 1)];
+        int head = 0;
+        int count = 0;
+
+        for (int i = 0; i < numberOfQuotes; i++) {
+
+            double high = quotes.getHigh(i);
+
+            if (count > 0 && deque[head] <= i - days) {
+                head = (head + 1) % deque.length;
+                count--;
+            }
+
+            while (count > 0 && quotes.getHigh(deque[(head + count - 1) % deque.length]) <= high) {
+                count--;
+            }
+
+            deque[(head + count) % deque.length] = i;
+            count++;
+
+            series[i] = quotes.getHigh(deque[head]);
+        }
+
+        return series;
+    }
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.calculators;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.stats.StreamingState;
+
+/**
+ * Calculates Wilder's Relative Strength Index of the closes.
+ * <p>
+ * The first average gain and loss are simple averages over the first days price changes. After that they're smoothed
+ * with Wilder's recurrence, which is the EMA recurrence of {@link EMACalculator#calculate(double, double, int)} with
+ * 2 * days - 1 days.
+ */
+public class RSICalculator {
+
+    public static final int DEFAULT_DAYS = 14;
+
+    /**
+     * Calculates the RSI as of the most recent quote
+     *
+     * @param quotes pre-sorted List of quotes
+     * @param days   number of days in Wilder's smoothing period. Only days when the market is open are counted
+     *
+     * @return RSI from 0 to 100, or NaN until there are days price changes
+     */
+    public double calculate(List<DailyQuoteBean> quotes, int days) {
+
+        State state = new State(days);
+        for (int i = 0; i < quotes.size(); i++) {
+            state.update(quotes.get(i).getClose());
+        }
+
+        return state.getRsi();
+    }
+
+    /**
+     * Calculates the RSI as of the most recent bar in a quote series
+     *
+     * @param quotes quote series
+     * @param days   number of days in Wilder's smoothing period. Only days when the market is open are counted
+     *
+     * @return RSI from 0 to 100, or NaN until there are days price changes
+     */
+    public double calculate(QuoteSeries quotes, int days) {
+
+        State state = new State(days);
+        for (int i = 0; i < quotes.size(); i++) {
+            state.update(quotes.getClose(i));
+        }
+
+        return state.getRsi();
+    }
+
+    /**
+     * Calculates the RSI as of every bar in a quote series. Element i is the value
+     * {@link #calculate(QuoteSeries, int)} returns for the bars up to and including i.
+     *
+     * @param quotes quote series
+     * @param days   number of days in Wilder's smoothing period. Only days when the market is open are counted
+     *
+     * @return RSI for each bar
+     */
+    public double[] calculateSeries(QuoteSeries quotes, int days) {
+
+        double[] series = new double[quotes.size()];
+        State state = new State(days);
+
+        for (int i = 0; i < series.length; i++) {
+            state.update(quotes.getClose(i));
+            series[i] = state.getRsi();
+        }
+
+        return series;
+    }
+
+    /**
+     * Streaming RSI, updated in constant time as each close arrives. Its running values can be packed into a slot of
+     * a shared double array so a universe of symbols can be held in one array. Not thread-safe.
+     */
+    public static class State implements StreamingState {
+
+        /**
+         * Number of doubles {@link #pack(double[], int)} writes.
+         */
+        public static final int PACKED_SIZE = 4;
+
+        private static final EMACalculator EMA_CALCULATOR = new EMACalculator();
+
+        private final int days;
+        private int changes;
+        private double previousClose = Double.NaN;
+        private double averageGain;
+        private double averageLoss;
+
+        /**
+         * @param days number of days in Wilder's smoothing period
+         */
+        public State(final int days) {
+            if (days < 1) {
+                throw new IllegalArgumentException("Days must be at least 1: " + days);
+            }
+            this.days = days;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        /**
+         * @param close next closing price
+         */
+        public void update(final double close) {
+
+            if (!Double.isNaN(previousClose)) {
+                double change = close - previousClose;
+                double gain = change > 0.0d ? change : 0.0d;
+                double loss = change < 0.0d ? -change : 0.0d;
+
+                if (changes < days) {
+                    averageGain += gain;
+                    averageLoss += loss;
+                    if (++changes == days) {
+                        averageGain /= days;
+                        averageLoss /= days;
+                    }
+                } else {
+                    averageGain = EMA_CALCULATOR.calculate(averageGain, gain, 2 * days - 1);
+                    averageLoss = EMA_CALCULATOR.calculate(averageLoss, loss, 2 * days - 1);
+                }
+            }
+
+            previousClose = close;
+        }
+
+        /**
+         * @return RSI from 0 to 100 (100 when there have been no losses), or NaN until there are days price changes
+         */
+        public double getRsi() {
+            if (changes < days) {
+                return Double.NaN;
+            }
+            return averageLoss == 0.0d ? 100.0d : 100.0d - 100.0d / (1.0d + averageGain / averageLoss);
+        }
+
+        /**
+         * Writes the running values into {@link #PACKED_SIZE} doubles.
+         *
+         * @param array  destination array
+         * @param offset first element to write
+         */
+        public void pack(final double[] array, final int offset) {
+            array[offset] = changes;
+            array[offset + 1] = previousClose;
+            array[offset + 2] = averageGain;
+            array[offset + 3] = averageLoss;
+        }
+
+        /**
+         * Restores running values written by {@link #pack(double[], int)} from a state with the same days.
+         *
+         * @param array  source array
+         * @param offset first element to read
+         */
+        public void unpack(final double[] array, final int offset) {
+            changes = (int) array[offset];
+            previousClose = array[offset + 1];
+            averageGain = array[offset + 2];
+            averageLoss = array[offset + 3];
+        }
+
+        @Override
+        public void writeState(final DataOutput out) throws IOException {
+            out.writeInt(days);
+            out.writeInt(changes);
+            out.writeDouble(previousClose);
+            out.writeDouble(averageGain);
+            out.writeDouble(averageLoss);
+        }
+
+        @Override
+        public void readState(final DataInput in) throws IOException {
+            StreamingState.checkConfiguration(in, "days", days);
+            changes = in.readInt();
+            previousClose = in.readDouble();
+            averageGain = in.readDouble();
+            averageLoss = in.readDouble();
+        }
+    }
+}
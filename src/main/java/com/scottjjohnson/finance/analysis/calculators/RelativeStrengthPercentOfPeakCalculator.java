@@ -24,12 +24,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.quality.DataQualityCounter;
+import com.scottjjohnson.finance.analysis.quality.DataQualityIssue;
+import com.scottjjohnson.finance.analysis.series.AlignedPairSeries;
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
 import com.scottjjohnson.util.DateUtils;
 
 public class RelativeStrengthPercentOfPeakCalculator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RelativeStrengthPercentOfPeakCalculator.class);
 
+    /**
+     * Horizon for {@link #calculate(List, Map, int[])} covering every quote.
+     */
+    public static final int ALL_TIME = Integer.MAX_VALUE;
+
     /**
      * Calculates the ratio of current relative strength vs peak relative strength
      *
@@ -37,7 +46,8 @@ public class RelativeStrengthPercentOfPeakCalculator {
      * @param comparisonQuotes pre-sorted List of quotes for the stock/ETF/index that the stock should be compared to
      * @param years            number of years in the past for which to calculate the ratio
      *
-     * @return RS Ratio Percent Of Peak
+     * @return RS Ratio Percent Of Peak. Quotes without a comparison quote count as a ratio of 0 and are tallied in
+     * {@link DataQualityCounter}.
      */
     public double calculate(List<DailyQuoteBean> quotes, Map<Date, DailyQuoteBean> comparisonQuotes, int years) {
 
@@ -45,29 +55,209 @@ public class RelativeStrengthPercentOfPeakCalculator {
         double minRSRatio = Double.MAX_VALUE;
         double currentRSRatio = 0.0d;
         int numberOfQuotes = quotes.size();
+        int missingComparisons = 0;
 
-        // get the date 1 year prior to the last quote in the quote list. That will be our filter below.
-        Date filterDate = DateUtils.addYearsToDate(quotes.get(quotes.size() - 1).getDate(), -years);
+        if (numberOfQuotes > 0) {
+            // get the day 1 year prior to the last quote in the quote list. That will be our filter below.
+            int filterEpochDay = DateUtils.addYearsToEpochDay(quotes.get(numberOfQuotes - 1).getEpochDay(), -years);
+
+            DailyQuoteBean currentQuote = quotes.get(numberOfQuotes - 1);
+            currentRSRatio = calculateRSRatio(currentQuote, comparisonQuotes.get(currentQuote.getDate()));
+
+            for (int i = 0; i < numberOfQuotes; i++) {
+                DailyQuoteBean quote = quotes.get(i);
+                if (quote.getEpochDay() > filterEpochDay) {
+                    DailyQuoteBean comparisonQuote = comparisonQuotes.get(quote.getDate());
+                    if (comparisonQuote == null) {
+                        missingComparisons++;
+                    }
+                    double ratio = calculateRSRatio(quote, comparisonQuote);
+                    maxRSRatio = Math.max(maxRSRatio, ratio);
+                    minRSRatio = Math.min(minRSRatio, ratio);
+                }
+            }
+        }
+
+        countMissingComparisons(missingComparisons);
+
+        return calculatePercentOfPeak(currentRSRatio, minRSRatio, maxRSRatio);
+    }
+
+    /**
+     * Calculates the ratio of current relative strength vs peak relative strength over several horizons at once, e.g.
+     * 1, 2, 3 years and {@link #ALL_TIME}. Element h is the value {@link #calculate(List, Map, int)} returns for
+     * years[h], but each RS ratio is computed once: a single backward scan from the last quote widens one min/max
+     * pair and records it as each horizon's boundary is crossed, so k horizons cost about one pass over the longest.
+     *
+     * @param quotes           pre-sorted List of quotes
+     * @param comparisonQuotes pre-sorted List of quotes for the stock/ETF/index that the stock should be compared to
+     * @param years            numbers of years in the past for which to calculate the ratio, in any order
+     *
+     * @return RS Ratio Percent Of Peak for each horizon. Quotes without a comparison quote count as a ratio of 0 and
+     * are tallied once, over the longest horizon, in {@link DataQualityCounter}.
+     */
+    public double[] calculate(List<DailyQuoteBean> quotes, Map<Date, DailyQuoteBean> comparisonQuotes, int[] years) {
+
+        int numberOfHorizons = years.length;
+        double[] percentOfPeak = new double[numberOfHorizons];
+        int numberOfQuotes = quotes.size();
+
+        double maxRSRatio = 0.0d;
+        double minRSRatio = Double.MAX_VALUE;
+        double currentRSRatio = 0.0d;
+        int missingComparisons = 0;
+
+        // horizon indexes from shortest to longest, i.e. latest filter day first
+        int[] filterEpochDays = new int[numberOfHorizons];
+        int[] order = new int[numberOfHorizons];
+        for (int h = 0; h < numberOfHorizons; h++) {
+            filterEpochDays[h] = years[h] == ALL_TIME || numberOfQuotes == 0 ? Integer.MIN_VALUE
+                    : DateUtils.addYearsToEpochDay(quotes.get(numberOfQuotes - 1).getEpochDay(), -years[h]);
+
+            int j = h;
+            for (; j > 0 && filterEpochDays[order[j - 1]] < filterEpochDays[h]; j--) {
+                order[j] = order[j - 1];
+            }
+            order[j] = h;
+        }
+
+        int nextHorizon = 0;
 
         if (numberOfQuotes > 0) {
             DailyQuoteBean currentQuote = quotes.get(numberOfQuotes - 1);
             currentRSRatio = calculateRSRatio(currentQuote, comparisonQuotes.get(currentQuote.getDate()));
 
-            for (DailyQuoteBean quote : quotes) {
-                if (quote.getDate().after(filterDate)) {
-                    double ratio = calculateRSRatio(quote, comparisonQuotes.get(quote.getDate()));
+            for (int i = numberOfQuotes - 1; i >= 0 && nextHorizon < numberOfHorizons; i--) {
+                DailyQuoteBean quote = quotes.get(i);
+
+                while (nextHorizon < numberOfHorizons && quote.getEpochDay() <= filterEpochDays[order[nextHorizon]]) {
+                    percentOfPeak[order[nextHorizon++]] =
+                            calculatePercentOfPeak(currentRSRatio, minRSRatio, maxRSRatio);
+                }
+
+                if (nextHorizon < numberOfHorizons) {
+                    DailyQuoteBean comparisonQuote = comparisonQuotes.get(quote.getDate());
+                    if (comparisonQuote == null) {
+                        missingComparisons++;
+                    }
+                    double ratio = calculateRSRatio(quote, comparisonQuote);
+                    maxRSRatio = Math.max(maxRSRatio, ratio);
+                    minRSRatio = Math.min(minRSRatio, ratio);
+                }
+            }
+        }
+
+        // horizons reaching back past the first quote
+        while (nextHorizon < numberOfHorizons) {
+            percentOfPeak[order[nextHorizon++]] = calculatePercentOfPeak(currentRSRatio, minRSRatio, maxRSRatio);
+        }
+
+        countMissingComparisons(missingComparisons);
+
+        return percentOfPeak;
+    }
+
+    /**
+     * Calculates the ratio of current relative strength vs peak relative strength from date-indexed comparison
+     * closes. Gives the same result as {@link #calculate(List, Map, int)} without a map lookup per quote.
+     *
+     * @param quotes           pre-sorted List of quotes
+     * @param comparisonCloses closes of the stock/ETF/index that the stock should be compared to, by date
+     * @param years            number of years in the past for which to calculate the ratio
+     *
+     * @return RS Ratio Percent Of Peak
+     */
+    public double calculate(List<DailyQuoteBean> quotes, DateIndexedSeries comparisonCloses, int years) {
+
+        double maxRSRatio = 0.0d;
+        double minRSRatio = Double.MAX_VALUE;
+        double currentRSRatio = 0.0d;
+        int numberOfQuotes = quotes.size();
+        int missingComparisons = 0;
+
+        if (numberOfQuotes > 0) {
+            int filterEpochDay = DateUtils.addYearsToEpochDay(quotes.get(numberOfQuotes - 1).getEpochDay(), -years);
+
+            DailyQuoteBean currentQuote = quotes.get(numberOfQuotes - 1);
+            currentRSRatio = calculateRSRatio(currentQuote, comparisonCloses);
+
+            for (int i = 0; i < numberOfQuotes; i++) {
+                DailyQuoteBean quote = quotes.get(i);
+                if (quote.getEpochDay() > filterEpochDay) {
+                    if (!comparisonCloses.contains(quote.getEpochDay())) {
+                        missingComparisons++;
+                    }
+                    double ratio = calculateRSRatio(quote, comparisonCloses);
                     maxRSRatio = Math.max(maxRSRatio, ratio);
                     minRSRatio = Math.min(minRSRatio, ratio);
                 }
             }
         }
 
+        countMissingComparisons(missingComparisons);
+
+        return calculatePercentOfPeak(currentRSRatio, minRSRatio, maxRSRatio);
+    }
+
+    /**
+     * Calculates the ratio of current relative strength vs peak relative strength from a stock's and a benchmark's
+     * closes on the days both have a bar. Unlike the other overloads, days without a comparison quote are left out
+     * rather than counted as a ratio of 0.
+     *
+     * @param closes aligned stock and comparison closes
+     * @param years  number of years in the past for which to calculate the ratio
+     *
+     * @return RS Ratio Percent Of Peak
+     */
+    public double calculate(AlignedPairSeries closes, int years) {
+
+        double maxRSRatio = 0.0d;
+        double minRSRatio = Double.MAX_VALUE;
+        double currentRSRatio = 0.0d;
+        int numberOfQuotes = closes.size();
+
+        if (numberOfQuotes > 0) {
+            int filterEpochDay = DateUtils.addYearsToEpochDay(closes.getEpochDay(numberOfQuotes - 1), -years);
+
+            currentRSRatio = closes.getClose(numberOfQuotes - 1) / closes.getBenchmarkClose(numberOfQuotes - 1) * 100;
+
+            for (int i = numberOfQuotes - 1; i >= 0 && closes.getEpochDay(i) > filterEpochDay; i--) {
+                double ratio = closes.getClose(i) / closes.getBenchmarkClose(i) * 100;
+                maxRSRatio = Math.max(maxRSRatio, ratio);
+                minRSRatio = Math.min(minRSRatio, ratio);
+            }
+        }
+
+        return calculatePercentOfPeak(currentRSRatio, minRSRatio, maxRSRatio);
+    }
+
+    /**
+     * Tallies quotes without a comparison quote rather than logging each one.
+     */
+    private void countMissingComparisons(int missingComparisons) {
+        if (missingComparisons > 0) {
+            DataQualityCounter.add(DataQualityIssue.MISSING_COMPARISON, missingComparisons);
+            LOGGER.debug("{} quotes had no comparison quote", missingComparisons);
+        }
+    }
+
+    private double calculatePercentOfPeak(double currentRSRatio, double minRSRatio, double maxRSRatio) {
         if (maxRSRatio != minRSRatio)
             return (currentRSRatio - minRSRatio) / (maxRSRatio - minRSRatio) * 100.0d;
         else
             return 0.0d;
     }
 
+    private double calculateRSRatio(DailyQuoteBean quote, DateIndexedSeries comparisonCloses) {
+
+        int epochDay = quote.getEpochDay();
+        if (comparisonCloses.contains(epochDay)) {
+            return quote.getClose() / comparisonCloses.getClose(epochDay) * 100;
+        } else {
+            return 0.0d;
+        }
+    }
+
     private double calculateRSRatio(DailyQuoteBean quote, DailyQuoteBean comparisonQuote) {
 
         if (comparisonQuote != null) {
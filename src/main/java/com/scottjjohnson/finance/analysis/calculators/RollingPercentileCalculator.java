@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.calculators;
+
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToDoubleFunction;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.stats.OrderStatisticWindow;
+
+/**
+ * Calculates rolling percentiles and ranges of volume and closing price. Unlike the average volume, a median or
+ * percentile isn't pulled around by a single block trade or index rebalance day.
+ * <p>
+ * Percentiles run from 0 to 100 and interpolate linearly between ranks; 50 is the median.
+ */
+public class RollingPercentileCalculator {
+
+    /**
+     * Calculates a percentile of the most recent daily volumes
+     *
+     * @param quotes     pre-sorted List of quotes
+     * @param days       number of days in the past to include. Only days when the market is open are counted
+     * @param percentile percentile from 0 to 100
+     *
+     * @return volume percentile
+     */
+    public double calculateVolume(List<DailyQuoteBean> quotes, int days, double percentile) {
+        return calculate(quotes.size(), i -> quotes.get(i).getVolume(), days, percentile);
+    }
+
+    /**
+     * Calculates a percentile of the most recent daily volumes in a quote series
+     *
+     * @param quotes     quote series
+     * @param days       number of days in the past to include. Only days when the market is open are counted
+     * @param percentile percentile from 0 to 100
+     *
+     * @return volume percentile
+     */
+    public double calculateVolume(QuoteSeries quotes, int days, double percentile) {
+        return calculate(quotes.size(), quotes::getVolume, days, percentile);
+    }
+
+    /**
+     * Calculates a percentile of the most recent closes in a quote series
+     *
+     * @param quotes     quote series
+     * @param days       number of days in the past to include. Only days when the market is open are counted
+     * @param percentile percentile from 0 to 100
+     *
+     * @return closing price percentile
+     */
+    public double calculateClose(QuoteSeries quotes, int days, double percentile) {
+        return calculate(quotes.size(), quotes::getClose, days, percentile);
+    }
+
+    /**
+     * Calculates a volume percentile as of every bar in a quote series. Element i is the value
+     * {@link #calculateVolume(QuoteSeries, int, double)} returns for the bars up to and including i.
+     *
+     * @param quotes     quote series
+     * @param days       number of days in the past to include. Only days when the market is open are counted
+     * @param percentile percentile from 0 to 100
+     *
+     * @return volume percentile for each bar
+     */
+    public double[] calculateVolumeSeries(QuoteSeries quotes, int days, double percentile) {
+        return calculateSeries(quotes.size(), quotes::getVolume, days, w -> w.getPercentile(percentile));
+    }
+
+    /**
+     * Calculates a closing price percentile as of every bar in a quote series. Element i is the value
+     * {@link #calculateClose(QuoteSeries, int, double)} returns for the bars up to and including i.
+     *
+     * @param quotes     quote series
+     * @param days       number of days in the past to include. Only days when the market is open are counted
+     * @param percentile percentile from 0 to 100
+     *
+     * @return closing price percentile for each bar
+     */
+    public double[] calculateCloseSeries(QuoteSeries quotes, int days, double percentile) {
+        return calculateSeries(quotes.size(), quotes::getClose, days, w -> w.getPercentile(percentile));
+    }
+
+    /**
+     * Calculates the range (highest less lowest) of the daily volumes as of every bar in a quote series
+     *
+     * @param quotes quote series
+     * @param days   number of days in the past to include. Only days when the market is open are counted
+     *
+     * @return volume range for each bar
+     */
+    public double[] calculateVolumeRangeSeries(QuoteSeries quotes, int days) {
+        return calculateSeries(quotes.size(), quotes::getVolume, days, OrderStatisticWindow::getRange);
+    }
+
+    /**
+     * Calculates the range (highest less lowest) of the closes as of every bar in a quote series
+     *
+     * @param quotes quote series
+     * @param days   number of days in the past to include. Only days when the market is open are counted
+     *
+     * @return closing price range for each bar
+     */
+    public double[] calculateCloseRangeSeries(QuoteSeries quotes, int days) {
+        return calculateSeries(quotes.size(), quotes::getClose, days, OrderStatisticWindow::getRange);
+    }
+
+    private double calculate(int numberOfQuotes, IntToDoubleFunction values, int days, double percentile) {
+
+        int daysToLookBack = Math.min(numberOfQuotes, days);
+        OrderStatisticWindow window = new OrderStatisticWindow(Math.max(1, daysToLookBack));
+
+        for (int i = numberOfQuotes - daysToLookBack; i < numberOfQuotes; i++) {
+            window.push(values.applyAsDouble(i));
+        }
+
+        return window.getPercentile(percentile);
+    }
+
+    private double[] calculateSeries(int numberOfQuotes, IntToDoubleFunction values, int days,
+                                     ToDoubleFunction<OrderStatisticWindow> statistic) {
+
+        double[] series = new double[numberOfQuotes];
+        OrderStatisticWindow window = new OrderStatisticWindow(days);
+
+        for (int i = 0; i < numberOfQuotes; i++) {
+            window.push(values.applyAsDouble(i));
+            series[i] = statistic.applyAsDouble(window);
+        }
+
+        return series;
+    }
+}
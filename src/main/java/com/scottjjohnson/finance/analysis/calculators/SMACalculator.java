@@ -19,23 +19,85 @@ package com.scottjjohnson.finance.analysis.calculators;
 import java.util.List;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.QuoteAccessor;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.stats.ExactSum;
+import com.scottjjohnson.finance.analysis.stats.RollingStatistics;
 
+/**
+ * Calculates simple moving averages. Closes are summed exactly and rounded once, so every mode returns the same bits
+ * for the same window no matter how it got there.
+ */
 public class SMACalculator {
 
+    // reused so the latest-value modes don't allocate; calculators are shared between threads
+    private static final ThreadLocal<ExactSum> WINDOW_SUM = ThreadLocal.withInitial(ExactSum::new);
+
     /**
      * Scans a list of quote beans for the SMA
      *
      * @param quotes list of stock quotes
      * @param days   number of days in the past for which to calculate the SMA. Only days when the market is open are counted
      *
-     * @return simple moving average
+     * @return simple moving average, or NaN if a close in the window is NaN or infinite
      */
     public double calculate(List<DailyQuoteBean> quotes, int days) {
-        int numberOfQuotes = quotes.size();
+        return calculate(quotes, QuoteAccessor.LIST, days);
+    }
+
+    /**
+     * Calculates the SMA of the most recent closes in a quote series
+     *
+     * @param quotes quote series
+     * @param days   number of days in the past for which to calculate the SMA. Only days when the market is open are counted
+     *
+     * @return simple moving average, or NaN if a close in the window is NaN or infinite
+     */
+    public double calculate(QuoteSeries quotes, int days) {
+        return calculate(quotes, QuoteAccessor.SERIES, days);
+    }
+
+    /**
+     * Shared implementation of the List and QuoteSeries overloads.
+     */
+    private <T> double calculate(T quotes, QuoteAccessor<T> accessor, int days) {
+        int numberOfQuotes = accessor.size(quotes);
         int daysToLookBack = Math.min(numberOfQuotes, days);
 
-        List<DailyQuoteBean> sublist = quotes.subList(numberOfQuotes - daysToLookBack, numberOfQuotes);
+        ExactSum sum = WINDOW_SUM.get();
+        sum.clear();
+        for (int i = numberOfQuotes - daysToLookBack; i < numberOfQuotes; i++) {
+            double close = accessor.getClose(quotes, i);
+            if (!Double.isFinite(close)) {
+                return Double.NaN;
+            }
+            sum.add(close);
+        }
+
+        return sum.getSum() / daysToLookBack;
+    }
+
+    /**
+     * Calculates the SMA as of every bar in a quote series. Element i is the value {@link #calculate(QuoteSeries, int)}
+     * returns for the bars up to and including i, bit for bit, so the first days - 1 elements average fewer bars. A NaN
+     * close makes the elements NaN only until it leaves the window.
+     *
+     * @param quotes quote series
+     * @param days   number of days in the past for which to calculate the SMA. Only days when the market is open are counted
+     *
+     * @return simple moving average for each bar
+     */
+    public double[] calculateSeries(QuoteSeries quotes, int days) {
+
+        int numberOfQuotes = quotes.size();
+        double[] series = new double[numberOfQuotes];
+        RollingStatistics closes = new RollingStatistics(days);
+
+        for (int i = 0; i < numberOfQuotes; i++) {
+            closes.push(quotes.getClose(i));
+            series[i] = closes.getMean();
+        }
 
-        return sublist.stream().mapToDouble(DailyQuoteBean::getClose).sum() / daysToLookBack;
+        return series;
     }
 }
@@ -22,6 +22,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.QuoteAccessor;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
 
 /**
  * Calculates a stock's up/down volume ratio. It's the sum of the volume on up days divided by the volume on down (or
@@ -40,26 +42,104 @@ public class UpDownVolumeRatioCalculator {
      * @return up/down volume ratio
      */
     public float calculate(List<DailyQuoteBean> quotes, int days) {
+        return calculate(quotes, QuoteAccessor.LIST, days);
+    }
+
+    /**
+     * Calculate the up/down volume of the most recent bars in a quote series
+     *
+     * @param quotes quote series
+     * @param days   number of days to look back
+     *
+     * @return up/down volume ratio
+     */
+    public float calculate(QuoteSeries quotes, int days) {
+        return calculate(quotes, QuoteAccessor.SERIES, days);
+    }
+
+    /**
+     * Shared implementation of the List and QuoteSeries overloads.
+     */
+    private <T> float calculate(T quotes, QuoteAccessor<T> accessor, int days) {
 
         long upVolume = 0;
         long downVolume = 0;
 
-        int numberOfQuotes = quotes.size();
+        int numberOfQuotes = accessor.size(quotes);
         int daysToLookBack = Math.min(numberOfQuotes - 1, days); // we need the previous day's closing price so we can't
         // look back more than quotes.size() - 1 days.
 
         for (int i = numberOfQuotes - 1; i >= numberOfQuotes - daysToLookBack; i--) {
+            if (accessor.getClose(quotes, i) > accessor.getClose(quotes, i - 1)) {
+                upVolume += accessor.getVolume(quotes, i);
+            } else if (accessor.getClose(quotes, i) <= accessor.getClose(quotes, i - 1)) {
+                downVolume += accessor.getVolume(quotes, i);
+            }
+        }
+
+        return calculateRatio(upVolume, downVolume);
+    }
+
+    /**
+     * Calculates the up/down volume ratio as of every bar in a quote series. Element i is the value
+     * {@link #calculate(QuoteSeries, int)} returns for the bars up to and including i.
+     *
+     * @param quotes quote series
+     * @param days   number of days to look back
+     *
+     * @return up/down volume ratio for each bar
+     */
+    public float[] calculateSeries(QuoteSeries quotes, int days) {
 
-            DailyQuoteBean quote = quotes.get(i);
-            DailyQuoteBean previousQuote = quotes.get(i - 1);
+        double[] previousCloses = new double[quotes.size()];
+        for (int i = 1; i < previousCloses.length; i++) {
+            previousCloses[i] = quotes.getClose(i - 1);
+        }
 
-            if (quote.getClose() > previousQuote.getClose()) {
-                upVolume += quote.getVolume();
-            } else if (quote.getClose() <= previousQuote.getClose()) {
-                downVolume += quote.getVolume();
+        return calculateSeries(quotes, previousCloses, days);
+    }
+
+    /**
+     * Calculates the up/down volume ratio as of every bar from the quotes and precomputed previous closes, for callers
+     * that already have them. Element i is the value {@link #calculate(QuoteSeries, int)} returns for the bars up to
+     * and including i.
+     *
+     * @param quotes         quote series
+     * @param previousCloses each bar's previous close. Element 0 is ignored.
+     * @param days           number of days to look back
+     *
+     * @return up/down volume ratio for each bar
+     */
+    public float[] calculateSeries(QuoteSeries quotes, double[] previousCloses, int days) {
+
+        int numberOfQuotes = quotes.size();
+        float[] series = new float[numberOfQuotes];
+
+        long upVolume = 0;
+        long downVolume = 0;
+
+        for (int i = 0; i < numberOfQuotes; i++) {
+
+            if (i > 0) {
+                upVolume += getUpVolume(quotes, previousCloses, i);
+                downVolume += getDownVolume(quotes, previousCloses, i);
+            }
+
+            // drop the bar that just left the window
+            int expired = i - days;
+            if (expired > 0) {
+                upVolume -= getUpVolume(quotes, previousCloses, expired);
+                downVolume -= getDownVolume(quotes, previousCloses, expired);
             }
+
+            series[i] = calculateRatio(upVolume, downVolume);
         }
 
+        return series;
+    }
+
+    private float calculateRatio(long upVolume, long downVolume) {
+
         float ratio;
 
         if (downVolume == 0) // shouldn't happen except for new IPOs...
@@ -69,4 +149,12 @@ public class UpDownVolumeRatioCalculator {
 
         return ratio;
     }
+
+    private long getUpVolume(QuoteSeries quotes, double[] previousCloses, int i) {
+        return quotes.getClose(i) > previousCloses[i] ? quotes.getVolume(i) : 0L;
+    }
+
+    private long getDownVolume(QuoteSeries quotes, double[] previousCloses, int i) {
+        return quotes.getClose(i) <= previousCloses[i] ? quotes.getVolume(i) : 0L;
+    }
 }
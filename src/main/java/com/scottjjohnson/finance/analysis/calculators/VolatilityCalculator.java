@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.calculators;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.stats.RollingStatistics;
+import com.scottjjohnson.finance.analysis.stats.StreamingState;
+
+/**
+ * Calculates historical volatility: the sample standard deviation of daily log returns, annualized by the square root
+ * of {@link #TRADING_DAYS_PER_YEAR}.
+ */
+public class VolatilityCalculator {
+
+    public static final int TRADING_DAYS_PER_YEAR = 252;
+
+    private static final double ANNUALIZATION_FACTOR = Math.sqrt(TRADING_DAYS_PER_YEAR);
+
+    /**
+     * Calculates the annualized volatility as of the most recent quote
+     *
+     * @param quotes pre-sorted List of quotes
+     * @param days   number of daily returns to include. Only days when the market is open are counted
+     *
+     * @return annualized volatility, or NaN with fewer than 2 returns
+     */
+    public double calculate(List<DailyQuoteBean> quotes, int days) {
+
+        int numberOfQuotes = quotes.size();
+        State state = new State(days);
+
+        for (int i = Math.max(0, numberOfQuotes - days - 1); i < numberOfQuotes; i++) {
+            state.update(quotes.get(i).getClose());
+        }
+
+        return state.getVolatility();
+    }
+
+    /**
+     * Calculates the annualized volatility as of the most recent bar in a quote series
+     *
+     * @param quotes quote series
+     * @param days   number of daily returns to include. Only days when the market is open are counted
+     *
+     * @return annualized volatility, or NaN with fewer than 2 returns
+     */
+    public double calculate(QuoteSeries quotes, int days) {
+
+        int numberOfQuotes = quotes.size();
+        State state = new State(days);
+
+        for (int i = Math.max(0, numberOfQuotes - days - 1); i < numberOfQuotes; i++) {
+            state.update(quotes.getClose(i));
+        }
+
+        return state.getVolatility();
+    }
+
+    /**
+     * Calculates the annualized volatility as of every bar in a quote series. Element i covers the returns up to and
+     * including bar i, so early elements use fewer returns and the first two are NaN.
+     *
+     * @param quotes quote series
+     * @param days   number of daily returns to include. Only days when the market is open are counted
+     *
+     * @return annualized volatility for each bar
+     */
+    public double[] calculateSeries(QuoteSeries quotes, int days) {
+
+        int numberOfQuotes = quotes.size();
+        double[] series = new double[numberOfQuotes];
+        State state = new State(days);
+
+        for (int i = 0; i < numberOfQuotes; i++) {
+            state.update(quotes.getClose(i));
+            series[i] = state.getVolatility();
+        }
+
+        return series;
+    }
+
+    /**
+     * Streaming volatility, updated in constant time as each close arrives. Not thread-safe.
+     */
+    public static class State implements StreamingState {
+
+        private final RollingStatistics returns;
+        private double previousClose = Double.NaN;
+
+        /**
+         * @param days number of daily returns in the window
+         */
+        public State(final int days) {
+            returns = new RollingStatistics(days);
+        }
+
+        /**
+         * @param close next closing price
+         */
+        public void update(final double close) {
+            if (!Double.isNaN(previousClose)) {
+                returns.push(Math.log(close / previousClose));
+            }
+            previousClose = close;
+        }
+
+        /**
+         * @return annualized volatility, or NaN with fewer than 2 returns
+         */
+        public double getVolatility() {
+            return returns.getSampleStandardDeviation() * ANNUALIZATION_FACTOR;
+        }
+
+        @Override
+        public void writeState(final DataOutput out) throws IOException {
+            out.writeDouble(previousClose);
+            returns.writeState(out);
+        }
+
+        @Override
+        public void readState(final DataInput in) throws IOException {
+            previousClose = in.readDouble();
+            returns.readState(in);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.checkpoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.stats.StreamingState;
+import com.scottjjohnson.util.DateUtils;
+
+/**
+ * Binary checkpoint of streaming indicator state, so a restart resumes from the checkpoint plus the bars that arrived
+ * since, instead of replaying all history.
+ * <p>
+ * For each symbol the checkpoint holds the date and close of the last bar folded into its states and the bytes each
+ * named {@link StreamingState} wrote. On restore the last bar is looked up in the quote data; if it's missing or its
+ * close has changed (e.g. restated or re-adjusted data), the checkpoint is stale for that symbol and the caller replays
+ * from the start.
+ * <p>
+ * File layout, in {@link java.io.DataOutput} (big-endian) encoding:
+ * <pre>
+ * int    magic 'ICP1'
+ * int    version
+ * int    number of symbols
+ * per symbol:
+ *   UTF    symbol
+ *   int    epoch day of the last bar
+ *   double close of the last bar
+ *   int    number of states
+ *   per state:
+ *     UTF    state name
+ *     int    length
+ *     byte[] state written by StreamingState.writeState
+ * long   CRC-32 of everything above
+ * </pre>
+ * Length-prefixed states let a reader skip states it no longer knows about. Not thread-safe.
+ */
+public class IndicatorCheckpoint {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndicatorCheckpoint.class);
+
+    static final int MAGIC = 0x49435031; // "ICP1"
+    static final int VERSION = 1;
+
+    /**
+     * Returned by {@link #restore(String, Map, QuoteSeries)} when the states couldn't be restored.
+     */
+    public static final int REPLAY_ALL = 0;
+
+    private final Map<String, SymbolEntry> entries = new LinkedHashMap<>();
+
+    /**
+     * Captures a symbol's states, replacing any captured earlier.
+     *
+     * @param symbol       symbol
+     * @param lastEpochDay day of the last bar folded into the states, as days since 1970-01-01
+     * @param lastClose    close of that bar
+     * @param states       states by name
+     *
+     * @throws IOException if a state can't be written
+     */
+    public void put(String symbol, int lastEpochDay, double lastClose, Map<String, ? extends StreamingState> states)
+            throws IOException {
+
+        Map<String, byte[]> savedStates = new LinkedHashMap<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+
+        for (Map.Entry<String, ? extends StreamingState> state : states.entrySet()) {
+            bytes.reset();
+            DataOutputStream out = new DataOutputStream(bytes);
+            state.getValue().writeState(out);
+            out.flush();
+            savedStates.put(state.getKey(), bytes.toByteArray());
+        }
+
+        entries.put(symbol, new SymbolEntry(lastEpochDay, lastClose, savedStates));
+    }
+
+    public Set<String> getSymbols() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * @param symbol symbol
+     *
+     * @return day of the symbol's last captured bar, or {@link Integer#MIN_VALUE} if the symbol isn't in the checkpoint
+     */
+    public int getLastEpochDay(String symbol) {
+        SymbolEntry entry = entries.get(symbol);
+        return entry == null ? Integer.MIN_VALUE : entry.lastEpochDay;
+    }
+
+    /**
+     * Restores a symbol's states if the checkpoint still matches the symbol's quote data.
+     *
+     * @param symbol symbol
+     * @param states freshly constructed states, configured as they were when captured, by name
+     * @param quotes the symbol's quotes from the data store
+     *
+     * @return index of the first bar in quotes to feed the restored states, or {@link #REPLAY_ALL} if nothing was
+     * restored and the states should be fed every bar
+     *
+     * @throws IOException if a state doesn't match its saved configuration or its data is corrupt. States may have
+     *                     been partly restored, so the caller should construct new ones and replay.
+     */
+    public int restore(String symbol, Map<String, ? extends StreamingState> states, QuoteSeries quotes)
+            throws IOException {
+
+        SymbolEntry entry = entries.get(symbol);
+        if (entry == null) {
+            return REPLAY_ALL;
+        }
+
+        int lastIndex = findBar(quotes, entry.lastEpochDay);
+        if (lastIndex < 0 || Double.compare(quotes.getClose(lastIndex), entry.lastClose) != 0) {
+            LOGGER.info("Checkpoint for {} through {} doesn't match the quote data. Replaying all bars.", symbol,
+                    DateUtils.toYearMonthDay(entry.lastEpochDay));
+            return REPLAY_ALL;
+        }
+
+        for (String name : states.keySet()) {
+            if (!entry.states.containsKey(name)) {
+                LOGGER.info("Checkpoint for {} has no state {}. Replaying all bars.", symbol, name);
+                return REPLAY_ALL;
+            }
+        }
+
+        for (Map.Entry<String, ? extends StreamingState> state : states.entrySet()) {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry.states.get(state.getKey())));
+            state.getValue().readState(in);
+            if (in.available() != 0) {
+                throw new IOException("State " + state.getKey() + " for " + symbol + " has " + in.available()
+                        + " unread bytes");
+            }
+        }
+
+        return lastIndex + 1;
+    }
+
+    /**
+     * Writes the checkpoint, replacing the file atomically so a crash mid-write leaves the previous checkpoint intact.
+     *
+     * @param file destination
+     *
+     * @throws IOException if the file can't be written
+     */
+    public void write(Path file) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + entries.size() * 256);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries.size());
+
+        for (Map.Entry<String, SymbolEntry> symbolEntry : entries.entrySet()) {
+            SymbolEntry entry = symbolEntry.getValue();
+            out.writeUTF(symbolEntry.getKey());
+            out.writeInt(entry.lastEpochDay);
+            out.writeDouble(entry.lastClose);
+            out.writeInt(entry.states.size());
+            for (Map.Entry<String, byte[]> state : entry.states.entrySet()) {
+                out.writeUTF(state.getKey());
+                out.writeInt(state.getValue().length);
+                out.write(state.getValue());
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray(), 0, bytes.size());
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporaryFile, bytes.toByteArray());
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Reads a checkpoint written by {@link #write(Path)}.
+     *
+     * @param file checkpoint file
+     *
+     * @return checkpoint
+     *
+     * @throws IOException if the file can't be read, isn't a checkpoint, or is corrupt
+     */
+    public static IndicatorCheckpoint read(Path file) throws IOException {
+
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < 20) {
+            throw new IOException(file + " is not an indicator checkpoint file");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC) {
+            throw new IOException(file + " is not an indicator checkpoint file");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported indicator checkpoint version " + version + " in " + file);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 8);
+        long savedCrc = new DataInputStream(new ByteArrayInputStream(bytes, bytes.length - 8, 8)).readLong();
+        if (crc.getValue() != savedCrc) {
+            throw new IOException("Indicator checkpoint " + file + " is corrupt");
+        }
+
+        IndicatorCheckpoint checkpoint = new IndicatorCheckpoint();
+        int symbolCount = in.readInt();
+
+        for (int i = 0; i < symbolCount; i++) {
+            String symbol = in.readUTF();
+            int lastEpochDay = in.readInt();
+            double lastClose = in.readDouble();
+            int stateCount = in.readInt();
+
+            Map<String, byte[]> states = new LinkedHashMap<>();
+            for (int j = 0; j < stateCount; j++) {
+                String name = in.readUTF();
+                byte[] state = new byte[in.readInt()];
+                in.readFully(state);
+                states.put(name, state);
+            }
+
+            checkpoint.entries.put(symbol, new SymbolEntry(lastEpochDay, lastClose, states));
+        }
+
+        return checkpoint;
+    }
+
+    /**
+     * Binary search for a bar's index.
+     */
+    private static int findBar(QuoteSeries quotes, int epochDay) {
+
+        int low = 0;
+        int high = quotes.size() - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleDay = quotes.getEpochDay(middle);
+            if (middleDay < epochDay) {
+                low = middle + 1;
+            } else if (middleDay > epochDay) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    private static final class SymbolEntry {
+
+        private final int lastEpochDay;
+        private final double lastClose;
+        private final Map<String, byte[]> states;
+
+        SymbolEntry(final int lastEpochDay, final double lastClose, final Map<String, byte[]> states) {
+            this.lastEpochDay = lastEpochDay;
+            this.lastClose = lastClose;
+            this.states = states;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A coordinator's connection to one worker: a byte stream in each direction plus whatever has to be closed when the
+ * coordinator is done with it.
+ */
+public class ScanConnection implements Closeable {
+
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final Closeable resource;
+
+    /**
+     * @param in       bytes from the worker
+     * @param out      bytes to the worker
+     * @param resource closed along with the streams, e.g. a socket, or null
+     */
+    public ScanConnection(final InputStream in, final OutputStream out, final Closeable resource) {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.resource = resource;
+    }
+
+    public DataInputStream getInput() {
+        return in;
+    }
+
+    /**
+     * @return stream to the worker. It's buffered, so flush after each message.
+     */
+    public DataOutputStream getOutput() {
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            in.close();
+            if (resource != null) {
+                resource.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.distributed;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
+import com.scottjjohnson.finance.analysis.store.OffHeapQuoteSeries;
+import com.scottjjohnson.finance.analysis.store.OffHeapUniverseStore;
+
+/**
+ * Splits a universe scan across {@link ScanWorker}s by symbol hash and gathers the results.
+ * <p>
+ * Symbols are assigned to {@link #getPartition(String, int) partitions}, and each worker connection pulls partitions
+ * from a shared queue, so faster workers take more of them. The comparison series is sent once per connection. If a
+ * worker can't be reached, drops its connection or reports an error, its in-flight partition goes back on the queue
+ * for the remaining workers and the failed worker gets no more. The scan fails only if every worker has failed with
+ * partitions left to scan.
+ */
+public class ScanCoordinator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScanCoordinator.class);
+
+    private final List<ScanWorkerEndpoint> workers;
+    private final int partitionCount;
+
+    /**
+     * @param workers        worker endpoints
+     * @param partitionCount number of symbol partitions. A few times the number of workers balances the load without
+     *                       many round trips.
+     */
+    public ScanCoordinator(final List<ScanWorkerEndpoint> workers, final int partitionCount) {
+
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive: " + partitionCount);
+        }
+
+        this.workers = new ArrayList<>(workers);
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * Gets the partition a symbol belongs to. String hash codes are specified by the language, so every JVM agrees.
+     *
+     * @param symbol         symbol
+     * @param partitionCount number of partitions
+     *
+     * @return partition, 0 to partitionCount - 1
+     */
+    public static int getPartition(final String symbol, final int partitionCount) {
+        return Math.floorMod(symbol.hashCode(), partitionCount);
+    }
+
+    /**
+     * Runs a scan.
+     *
+     * @param metrics    metrics to compute for every symbol
+     * @param comparison comparison closes for relative strength and beta, or null
+     *
+     * @return metric values in the order requested, keyed by symbol in symbol order. Symbols with no bars are included
+     *         with NaN values.
+     *
+     * @throws IOException if every worker failed before the scan completed
+     */
+    public Map<String, double[]> run(final List<ScanMetric> metrics, final DateIndexedSeries comparison)
+            throws IOException {
+
+        LinkedBlockingQueue<Integer> pending = new LinkedBlockingQueue<>();
+        for (int partition = 0; partition < partitionCount; partition++) {
+            pending.add(partition);
+        }
+        AtomicInteger remaining = new AtomicInteger(partitionCount);
+        Map<String, double[]> results = new ConcurrentHashMap<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers.size());
+            for (ScanWorkerEndpoint worker : workers) {
+                futures.add(executor.submit(() -> {
+                    drive(worker, metrics, comparison, pending, remaining, results);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scanning", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Scan failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (remaining.get() > 0) {
+            throw new IOException("All workers failed with " + remaining.get() + " of " + partitionCount
+                    + " partitions unscanned");
+        }
+
+        return new TreeMap<>(results);
+    }
+
+    /**
+     * Feeds partitions to one worker until none remain or the worker fails.
+     */
+    private void drive(final ScanWorkerEndpoint worker, final List<ScanMetric> metrics,
+            final DateIndexedSeries comparison, final LinkedBlockingQueue<Integer> pending,
+            final AtomicInteger remaining, final Map<String, double[]> results) throws InterruptedException {
+
+        ScanConnection connection = null;
+        Integer partition = null;
+        try {
+            connection = worker.connect();
+            DataOutputStream out = connection.getOutput();
+            ScanProtocol.writeComparison(out, comparison);
+
+            // a partition another worker holds may still come back, so keep polling until all are done
+            while (remaining.get() > 0) {
+                partition = pending.poll(10, TimeUnit.MILLISECONDS);
+                if (partition == null) {
+                    continue;
+                }
+
+                ScanProtocol.writeScan(out, partition, partitionCount, metrics);
+                out.flush();
+
+                Map<String, double[]> partitionResults = new HashMap<>();
+                ScanProtocol.readResults(connection.getInput(), partition, metrics.size(), partitionResults);
+                results.putAll(partitionResults);
+                remaining.decrementAndGet();
+                partition = null;
+            }
+
+            out.writeByte(ScanProtocol.SHUTDOWN);
+            out.flush();
+        } catch (IOException e) {
+            LOGGER.warn("Worker {} failed{}", worker, partition == null ? "" : ", reassigning partition " + partition,
+                    e);
+            if (partition != null) {
+                pending.add(partition);
+            }
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (IOException e) {
+                    LOGGER.debug("Error closing connection to {}", worker, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans a universe store file with workers running as separate processes and prints the results as CSV.
+     * <p>
+     * Usage: {@code ScanCoordinator <store file> <comparison symbol> <host:port>...}, e.g. after starting workers
+     * with {@code ScanWorker 9101 universe.uqs} and {@code ScanWorker 9102 universe.uqs}. The coordinator only
+     * reads the comparison series from the store.
+     *
+     * @param args store file, comparison symbol and worker addresses
+     *
+     * @throws IOException if the store can't be read or every worker failed
+     */
+    public static void main(final String[] args) throws IOException {
+
+        if (args.length < 3) {
+            System.err.println("Usage: ScanCoordinator <store file> <comparison symbol> <host:port>...");
+            System.exit(2);
+        }
+
+        OffHeapQuoteSeries comparisonQuotes = OffHeapUniverseStore.open(Paths.get(args[0])).getSeries(args[1]);
+        if (comparisonQuotes == null) {
+            throw new IOException("No " + args[1] + " in " + args[0]);
+        }
+
+        List<ScanWorkerEndpoint> workers = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            int colon = args[i].lastIndexOf(':');
+            workers.add(ScanWorkerEndpoint.socket(args[i].substring(0, colon),
+                    Integer.parseInt(args[i].substring(colon + 1))));
+        }
+
+        List<ScanMetric> metrics = Arrays.asList(ScanMetric.sma(50), ScanMetric.sma(200),
+                ScanMetric.averageDailyVolume(50), ScanMetric.maxHigh(252),
+                ScanMetric.relativeStrengthPercentOfPeak(1), ScanMetric.beta(252));
+        Map<String, double[]> results = new ScanCoordinator(workers, workers.size() * 4).run(metrics,
+                DateIndexedSeries.fromSeries(comparisonQuotes));
+
+        StringBuilder line = new StringBuilder("symbol");
+        for (ScanMetric metric : metrics) {
+            line.append(',').append(metric);
+        }
+        System.out.println(line);
+        for (Map.Entry<String, double[]> entry : results.entrySet()) {
+            line.setLength(0);
+            line.append(entry.getKey());
+            for (double value : entry.getValue()) {
+                line.append(',').append(value);
+            }
+            System.out.println(line);
+        }
+    }
+}
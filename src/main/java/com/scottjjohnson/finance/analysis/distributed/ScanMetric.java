@@ -0,0 +1,232 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.distributed;
+
+import java.util.Objects;
+
+import com.scottjjohnson.finance.analysis.calculators.AverageDailyShareVolumeCalculator;
+import com.scottjjohnson.finance.analysis.calculators.AverageTrueRangeCalculator;
+import com.scottjjohnson.finance.analysis.calculators.BetaCalculator;
+import com.scottjjohnson.finance.analysis.calculators.EMACalculator;
+import com.scottjjohnson.finance.analysis.calculators.MaxPriceCalculator;
+import com.scottjjohnson.finance.analysis.calculators.RSICalculator;
+import com.scottjjohnson.finance.analysis.calculators.RelativeStrengthPercentOfPeakCalculator;
+import com.scottjjohnson.finance.analysis.calculators.SMACalculator;
+import com.scottjjohnson.finance.analysis.calculators.UpDownVolumeRatioCalculator;
+import com.scottjjohnson.finance.analysis.calculators.VolatilityCalculator;
+import com.scottjjohnson.finance.analysis.series.AlignedPairSeries;
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+
+/**
+ * A calculator and its parameter, evaluated as of the last bar of each symbol in a distributed scan. Metrics travel to
+ * workers as a type code and an int parameter, so only the calculators in {@link Type} can be requested.
+ */
+public final class ScanMetric {
+
+    /**
+     * Metric types. The codes are part of the wire format so existing ones must not change.
+     */
+    public enum Type {
+        SMA(1),
+        EMA(2),
+        AVERAGE_TRUE_RANGE(3),
+        AVERAGE_DAILY_VOLUME(4),
+        UP_DOWN_VOLUME_RATIO(5),
+        MAX_HIGH(6),
+        RSI(7),
+        VOLATILITY(8),
+        RS_PERCENT_OF_PEAK(9),
+        BETA(10);
+
+        private final int code;
+
+        Type(final int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        static Type fromCode(final int code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown metric type " + code);
+        }
+    }
+
+    private static final SMACalculator SMA_CALCULATOR = new SMACalculator();
+    private static final EMACalculator EMA_CALCULATOR = new EMACalculator();
+    private static final AverageTrueRangeCalculator ATR_CALCULATOR = new AverageTrueRangeCalculator();
+    private static final AverageDailyShareVolumeCalculator ADV_CALCULATOR = new AverageDailyShareVolumeCalculator();
+    private static final UpDownVolumeRatioCalculator UP_DOWN_CALCULATOR = new UpDownVolumeRatioCalculator();
+    private static final MaxPriceCalculator MAX_PRICE_CALCULATOR = new MaxPriceCalculator();
+    private static final RSICalculator RSI_CALCULATOR = new RSICalculator();
+    private static final VolatilityCalculator VOLATILITY_CALCULATOR = new VolatilityCalculator();
+    private static final RelativeStrengthPercentOfPeakCalculator RS_CALCULATOR = new RelativeStrengthPercentOfPeakCalculator();
+    private static final BetaCalculator BETA_CALCULATOR = new BetaCalculator();
+
+    private final Type type;
+    private final int parameter;
+
+    private ScanMetric(final Type type, final int parameter) {
+        if (parameter <= 0) {
+            throw new IllegalArgumentException(type + " parameter must be positive: " + parameter);
+        }
+        this.type = type;
+        this.parameter = parameter;
+    }
+
+    /**
+     * @param type      metric type
+     * @param parameter days, or years for {@link Type#RS_PERCENT_OF_PEAK}
+     *
+     * @return metric
+     */
+    public static ScanMetric of(final Type type, final int parameter) {
+        return new ScanMetric(Objects.requireNonNull(type, "type"), parameter);
+    }
+
+    public static ScanMetric sma(final int days) {
+        return of(Type.SMA, days);
+    }
+
+    public static ScanMetric ema(final int days) {
+        return of(Type.EMA, days);
+    }
+
+    public static ScanMetric averageTrueRange(final int days) {
+        return of(Type.AVERAGE_TRUE_RANGE, days);
+    }
+
+    public static ScanMetric averageDailyVolume(final int days) {
+        return of(Type.AVERAGE_DAILY_VOLUME, days);
+    }
+
+    public static ScanMetric upDownVolumeRatio(final int days) {
+        return of(Type.UP_DOWN_VOLUME_RATIO, days);
+    }
+
+    /**
+     * @param days number of bars, e.g. 252 for the 52-week high
+     *
+     * @return highest intraday price over the trailing bars
+     */
+    public static ScanMetric maxHigh(final int days) {
+        return of(Type.MAX_HIGH, days);
+    }
+
+    public static ScanMetric rsi(final int days) {
+        return of(Type.RSI, days);
+    }
+
+    public static ScanMetric volatility(final int days) {
+        return of(Type.VOLATILITY, days);
+    }
+
+    /**
+     * @param years number of years of relative strength history
+     *
+     * @return relative strength percent of peak against the broadcast comparison series
+     */
+    public static ScanMetric relativeStrengthPercentOfPeak(final int years) {
+        return of(Type.RS_PERCENT_OF_PEAK, years);
+    }
+
+    /**
+     * @param days number of trailing daily returns on days both the symbol and the comparison series have a close
+     *
+     * @return beta against the broadcast comparison series
+     */
+    public static ScanMetric beta(final int days) {
+        return of(Type.BETA, days);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getParameter() {
+        return parameter;
+    }
+
+    /**
+     * Evaluates the metric as of the last bar in a series.
+     *
+     * @param quotes     quote series
+     * @param comparison comparison closes, or null if the scan has none
+     *
+     * @return metric value, or NaN if the series is empty or the metric needs a comparison series that isn't there
+     */
+    public double evaluate(final QuoteSeries quotes, final DateIndexedSeries comparison) {
+
+        if (quotes.size() == 0) {
+            return Double.NaN;
+        }
+
+        switch (type) {
+            case SMA:
+                return SMA_CALCULATOR.calculate(quotes, parameter);
+            case EMA:
+                return EMA_CALCULATOR.calculate(quotes, parameter);
+            case AVERAGE_TRUE_RANGE:
+                return ATR_CALCULATOR.calculate(quotes, parameter);
+            case AVERAGE_DAILY_VOLUME:
+                return ADV_CALCULATOR.calculate(quotes, parameter);
+            case UP_DOWN_VOLUME_RATIO:
+                return UP_DOWN_CALCULATOR.calculate(quotes, parameter);
+            case MAX_HIGH:
+                return MAX_PRICE_CALCULATOR.calculate(quotes, parameter);
+            case RSI:
+                return RSI_CALCULATOR.calculate(quotes, parameter);
+            case VOLATILITY:
+                return VOLATILITY_CALCULATOR.calculate(quotes, parameter);
+            case RS_PERCENT_OF_PEAK:
+                return comparison == null ? Double.NaN
+                        : RS_CALCULATOR.calculate(AlignedPairSeries.join(quotes, comparison), parameter);
+            case BETA:
+                return comparison == null ? Double.NaN
+                        : BETA_CALCULATOR.calculate(AlignedPairSeries.join(quotes, comparison), parameter);
+            default:
+                throw new IllegalStateException("Unhandled metric type " + type);
+        }
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof ScanMetric))
+            return false;
+        ScanMetric other = (ScanMetric) obj;
+        return type == other.type && parameter == other.parameter;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * type.hashCode() + parameter;
+    }
+
+    @Override
+    public String toString() {
+        return type + "(" + parameter + ")";
+    }
+}
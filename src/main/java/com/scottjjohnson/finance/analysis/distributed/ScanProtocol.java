@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.distributed;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
+
+/**
+ * Messages exchanged between a {@link ScanCoordinator} and a {@link ScanWorker}, in {@link DataOutput} (big-endian)
+ * encoding. Each message starts with a one byte type:
+ * <pre>
+ * coordinator to worker
+ *   COMPARISON  boolean present; if present: UTF symbol, int n, n * (int epoch day, double close)
+ *   SCAN        int partition, int partition count, int metric count, per metric: byte type, int parameter
+ *   SHUTDOWN
+ * worker to coordinator
+ *   RESULTS     int partition, int metric count, int symbol count, per symbol: UTF symbol, double[metric count]
+ *   ERROR       UTF message
+ * </pre>
+ * The comparison series is sent once per connection, before the first SCAN. A worker answers each SCAN with exactly
+ * one RESULTS or ERROR.
+ */
+final class ScanProtocol {
+
+    static final byte COMPARISON = 1;
+    static final byte SCAN = 2;
+    static final byte SHUTDOWN = 3;
+    static final byte RESULTS = 10;
+    static final byte ERROR = 11;
+
+    private ScanProtocol() {
+    }
+
+    static void writeComparison(final DataOutput out, final DateIndexedSeries comparison) throws IOException {
+
+        out.writeByte(COMPARISON);
+        out.writeBoolean(comparison != null);
+        if (comparison == null) {
+            return;
+        }
+
+        out.writeUTF(comparison.getSymbol() == null ? "" : comparison.getSymbol());
+        out.writeInt(comparison.getNumberOfCloses());
+        if (comparison.getNumberOfCloses() > 0) {
+            for (int day = comparison.getFirstEpochDay(); day <= comparison.getLastEpochDay(); day++) {
+                if (comparison.contains(day)) {
+                    out.writeInt(day);
+                    out.writeDouble(comparison.getClose(day));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the body of a COMPARISON message, after its type byte.
+     */
+    static DateIndexedSeries readComparison(final DataInput in) throws IOException {
+
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        String symbol = in.readUTF();
+        int n = in.readInt();
+        int[] epochDays = new int[n];
+        double[] closes = new double[n];
+        for (int i = 0; i < n; i++) {
+            epochDays[i] = in.readInt();
+            closes[i] = in.readDouble();
+        }
+
+        return DateIndexedSeries.of(symbol.isEmpty() ? null : symbol, epochDays, closes);
+    }
+
+    static void writeScan(final DataOutput out, final int partition, final int partitionCount,
+            final List<ScanMetric> metrics) throws IOException {
+
+        out.writeByte(SCAN);
+        out.writeInt(partition);
+        out.writeInt(partitionCount);
+        out.writeInt(metrics.size());
+        for (ScanMetric metric : metrics) {
+            out.writeByte(metric.getType().getCode());
+            out.writeInt(metric.getParameter());
+        }
+    }
+
+    /**
+     * Reads the metrics of a SCAN message, after its partition fields.
+     */
+    static List<ScanMetric> readMetrics(final DataInput in) throws IOException {
+
+        int n = in.readInt();
+        List<ScanMetric> metrics = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            metrics.add(ScanMetric.of(ScanMetric.Type.fromCode(in.readByte()), in.readInt()));
+        }
+
+        return metrics;
+    }
+
+    static void writeResults(final DataOutput out, final int partition, final int metricCount,
+            final List<String> symbols, final List<double[]> values) throws IOException {
+
+        out.writeByte(RESULTS);
+        out.writeInt(partition);
+        out.writeInt(metricCount);
+        out.writeInt(symbols.size());
+        for (int i = 0; i < symbols.size(); i++) {
+            out.writeUTF(symbols.get(i));
+            for (double value : values.get(i)) {
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    /**
+     * Reads a worker's answer to a SCAN into a result map.
+     *
+     * @throws IOException if the worker reported an error or answered a different partition
+     */
+    static void readResults(final DataInput in, final int expectedPartition, final int expectedMetricCount,
+            final Map<String, double[]> results) throws IOException {
+
+        byte type = in.readByte();
+        if (type == ERROR) {
+            throw new IOException("Worker failed partition " + expectedPartition + ": " + in.readUTF());
+        }
+        if (type != RESULTS) {
+            throw new IOException("Unexpected message type " + type);
+        }
+
+        int partition = in.readInt();
+        int metricCount = in.readInt();
+        if (partition != expectedPartition || metricCount != expectedMetricCount) {
+            throw new IOException("Expected partition " + expectedPartition + " with " + expectedMetricCount
+                    + " metrics but got partition " + partition + " with " + metricCount);
+        }
+
+        int symbolCount = in.readInt();
+        for (int i = 0; i < symbolCount; i++) {
+            String symbol = in.readUTF();
+            double[] values = new double[metricCount];
+            for (int m = 0; m < metricCount; m++) {
+                values[m] = in.readDouble();
+            }
+            results.put(symbol, values);
+        }
+    }
+}
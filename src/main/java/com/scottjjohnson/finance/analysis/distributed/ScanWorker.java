@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.store.OffHeapUniverseStore;
+
+/**
+ * Computes {@link ScanMetric}s for the symbols in the partitions a {@link ScanCoordinator} sends it.
+ * <p>
+ * A worker only reads the series in the partitions it's asked for, so with a memory-mapped
+ * {@link OffHeapUniverseStore} only those symbols' pages are ever loaded. Any worker may be handed any partition when
+ * another fails, so every worker must be able to read the whole universe, e.g. from a store file they share.
+ * Connections are independent and may be served concurrently.
+ */
+public class ScanWorker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScanWorker.class);
+
+    private final List<QuoteSeries> universe;
+
+    /**
+     * @param universe series for each symbol
+     */
+    public ScanWorker(final Collection<? extends QuoteSeries> universe) {
+        this.universe = new ArrayList<>(universe);
+    }
+
+    /**
+     * Serves one coordinator connection until it sends SHUTDOWN or closes the stream. Both streams are closed on
+     * return.
+     *
+     * @param in  bytes from the coordinator
+     * @param out bytes to the coordinator
+     *
+     * @throws IOException if the connection fails
+     */
+    public void serve(final InputStream in, final OutputStream out) throws IOException {
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(in));
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(out))) {
+
+            DateIndexedSeries comparison = null;
+
+            while (true) {
+                byte type;
+                try {
+                    type = input.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+
+                switch (type) {
+                    case ScanProtocol.COMPARISON:
+                        comparison = ScanProtocol.readComparison(input);
+                        break;
+                    case ScanProtocol.SCAN:
+                        int partition = input.readInt();
+                        int partitionCount = input.readInt();
+                        List<ScanMetric> metrics = ScanProtocol.readMetrics(input);
+                        scan(output, partition, partitionCount, metrics, comparison);
+                        output.flush();
+                        break;
+                    case ScanProtocol.SHUTDOWN:
+                        return;
+                    default:
+                        throw new IOException("Unexpected message type " + type);
+                }
+            }
+        }
+    }
+
+    private void scan(final DataOutputStream output, final int partition, final int partitionCount,
+            final List<ScanMetric> metrics, final DateIndexedSeries comparison) throws IOException {
+
+        List<QuoteSeries> assigned = universe.stream()
+                                             .filter(quotes -> ScanCoordinator.getPartition(quotes.getSymbol(),
+                                                     partitionCount) == partition)
+                                             .collect(Collectors.toList());
+
+        List<double[]> values;
+        try {
+            values = assigned.parallelStream()
+                             .map(quotes -> evaluate(quotes, metrics, comparison))
+                             .collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            // a calculator bug shouldn't take the connection down with it; the coordinator decides what to do
+            LOGGER.warn("Scan of partition {} failed", partition, e);
+            output.writeByte(ScanProtocol.ERROR);
+            output.writeUTF(String.valueOf(e));
+            return;
+        }
+
+        List<String> symbols = assigned.stream().map(QuoteSeries::getSymbol).collect(Collectors.toList());
+        ScanProtocol.writeResults(output, partition, metrics.size(), symbols, values);
+    }
+
+    private static double[] evaluate(final QuoteSeries quotes, final List<ScanMetric> metrics,
+            final DateIndexedSeries comparison) {
+
+        double[] values = new double[metrics.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = metrics.get(i).evaluate(quotes, comparison);
+        }
+
+        return values;
+    }
+
+    /**
+     * Accepts coordinator connections until the server socket is closed, serving each on its own thread.
+     *
+     * @param serverSocket bound server socket
+     *
+     * @throws IOException if accepting fails for a reason other than the socket being closed
+     */
+    public void listen(final ServerSocket serverSocket) throws IOException {
+
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+
+            socket.setTcpNoDelay(true);
+            Thread thread = new Thread(() -> {
+                try (Socket s = socket) {
+                    serve(s.getInputStream(), s.getOutputStream());
+                } catch (IOException e) {
+                    LOGGER.warn("Connection from {} failed", socket.getRemoteSocketAddress(), e);
+                }
+            }, "scan-worker-" + socket.getRemoteSocketAddress());
+            thread.start();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ScanWorker{" + universe.size() + " symbols}";
+    }
+
+    /**
+     * Runs a worker process over a universe store file.
+     * <p>
+     * Usage: {@code ScanWorker <port> <store file>}. A port of 0 picks a free one. Once listening, the worker prints
+     * "listening on &lt;port&gt;" to standard output.
+     *
+     * @param args port and store file
+     *
+     * @throws IOException if the store can't be read or the port can't be bound
+     */
+    public static void main(final String[] args) throws IOException {
+
+        if (args.length != 2) {
+            System.err.println("Usage: ScanWorker <port> <store file>");
+            System.exit(2);
+        }
+
+        OffHeapUniverseStore store = OffHeapUniverseStore.open(Paths.get(args[1]));
+        ScanWorker worker = new ScanWorker(store.getAllSeries());
+
+        try (ServerSocket serverSocket = new ServerSocket(Integer.parseInt(args[0]))) {
+            System.out.println("listening on " + serverSocket.getLocalPort());
+            System.out.flush();
+            worker.listen(serverSocket);
+        }
+    }
+}
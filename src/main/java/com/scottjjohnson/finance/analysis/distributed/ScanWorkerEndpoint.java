@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.distributed;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.Socket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Somewhere a {@link ScanCoordinator} can reach a {@link ScanWorker}.
+ */
+public interface ScanWorkerEndpoint {
+
+    /**
+     * Opens a new connection to the worker.
+     *
+     * @return connection
+     *
+     * @throws IOException if the worker can't be reached
+     */
+    ScanConnection connect() throws IOException;
+
+    /**
+     * Gets an endpoint for a worker listening on a TCP port, e.g. one started with {@link ScanWorker#main(String[])}.
+     *
+     * @param host host name
+     * @param port port number
+     *
+     * @return endpoint
+     */
+    static ScanWorkerEndpoint socket(final String host, final int port) {
+        return new ScanWorkerEndpoint() {
+
+            @Override
+            public ScanConnection connect() throws IOException {
+                Socket socket = new Socket(host, port);
+                socket.setTcpNoDelay(true);
+                return new ScanConnection(socket.getInputStream(), socket.getOutputStream(), socket);
+            }
+
+            @Override
+            public String toString() {
+                return host + ":" + port;
+            }
+        };
+    }
+
+    /**
+     * Gets an endpoint that serves each connection from a worker in this JVM on its own thread, connected by pipes.
+     * It goes through the same encoding as a socket, so it stands in for remote workers in tests.
+     *
+     * @param worker worker
+     *
+     * @return endpoint
+     */
+    static ScanWorkerEndpoint inProcess(final ScanWorker worker) {
+        return new ScanWorkerEndpoint() {
+
+            private final Logger logger = LoggerFactory.getLogger(ScanWorkerEndpoint.class);
+
+            @Override
+            public ScanConnection connect() throws IOException {
+
+                PipedOutputStream toWorker = new PipedOutputStream();
+                PipedInputStream workerIn = new PipedInputStream(toWorker, 1 << 16);
+                PipedOutputStream workerOut = new PipedOutputStream();
+                PipedInputStream fromWorker = new PipedInputStream(workerOut, 1 << 16);
+
+                Thread thread = new Thread(() -> {
+                    try {
+                        worker.serve(workerIn, workerOut);
+                    } catch (IOException e) {
+                        logger.debug("In-process worker connection ended", e);
+                    }
+                }, "scan-worker-in-process");
+                thread.setDaemon(true);
+                thread.start();
+
+                return new ScanConnection(fromWorker, toWorker, null);
+            }
+
+            @Override
+            public String toString() {
+                return "in-process " + worker;
+            }
+        };
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+
+/**
+ * Lazily evaluates and memoizes {@link IndicatorNode}s for one symbol, so intermediates shared by several indicators,
+ * e.g. benchmark-aligned closes for relative strength and beta, are computed once per data version.
+ * <p>
+ * A node is computed the first time it's asked for and kept until data it depends on changes. Appending a bar
+ * invalidates the nodes downstream of {@link IndicatorNode#BARS}; replacing the benchmark invalidates those downstream
+ * of {@link IndicatorNode#BENCHMARK}. Other memoized values are kept. Invalidation stops at nodes that are already
+ * invalid, since nothing computed from them can still be valid. Not thread-safe.
+ */
+public class IndicatorGraph {
+
+    private final Map<IndicatorNode<?>, Entry> entries = new HashMap<>();
+    private final ColumnarQuoteSeries quotes;
+    private final Deque<IndicatorNode<?>> computing = new ArrayDeque<>();
+    private long dataVersion;
+
+    /**
+     * @param quotes    the symbol's bars. Add new bars through {@link #append}, not directly.
+     * @param benchmark benchmark closes, or null
+     */
+    public IndicatorGraph(final ColumnarQuoteSeries quotes, final DateIndexedSeries benchmark) {
+        this.quotes = quotes;
+        entry(IndicatorNode.BARS).set(quotes);
+        entry(IndicatorNode.BENCHMARK).set(benchmark);
+    }
+
+    /**
+     * Gets a node's value, computing it and any invalid nodes it depends on.
+     *
+     * @param node node
+     * @param <T>  value type
+     *
+     * @return value
+     *
+     * @throws IllegalStateException if the node depends on itself or, while another node is being computed, isn't one
+     *                               of that node's declared dependencies
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(final IndicatorNode<T> node) {
+
+        IndicatorNode<?> caller = computing.peek();
+        if (caller != null && !caller.getDependencies().contains(node)) {
+            throw new IllegalStateException(caller + " read " + node + " without declaring it as a dependency");
+        }
+
+        Entry entry = entry(node);
+        if (entry.valid) {
+            return (T) entry.value;
+        }
+        if (computing.contains(node)) {
+            throw new IllegalStateException("Dependency cycle through " + node);
+        }
+
+        if (!entry.registered) {
+            for (IndicatorNode<?> dependency : node.getDependencies()) {
+                entry(dependency).dependents.add(node);
+            }
+            entry.registered = true;
+        }
+
+        computing.push(node);
+        try {
+            entry.set(node.compute(this));
+        } finally {
+            computing.pop();
+        }
+        entry.computations++;
+
+        return (T) entry.value;
+    }
+
+    /**
+     * Appends a bar and invalidates everything computed from the bars.
+     */
+    public void append(final int epochDay, final double open, final double high, final double low,
+            final double close, final long volume) {
+        quotes.append(epochDay, open, high, low, close, volume);
+        dataChanged(IndicatorNode.BARS, quotes);
+    }
+
+    /**
+     * Replaces the benchmark closes and invalidates everything computed from them.
+     *
+     * @param benchmark benchmark closes, or null
+     */
+    public void setBenchmark(final DateIndexedSeries benchmark) {
+        dataChanged(IndicatorNode.BENCHMARK, benchmark);
+    }
+
+    /**
+     * Invalidates a node and everything downstream of it, e.g. after changing data a custom node reads from outside
+     * the graph. Invalidating a root invalidates its dependents.
+     *
+     * @param node node
+     */
+    public void invalidate(final IndicatorNode<?> node) {
+
+        Entry entry = entries.get(node);
+        if (entry == null) {
+            return;
+        }
+        if (node.isRoot()) {
+            dataVersion++;
+            invalidateDependents(entry);
+        } else if (entry.valid) {
+            dataVersion++;
+            entry.invalidate();
+            invalidateDependents(entry);
+        }
+    }
+
+    /**
+     * @return number of data changes so far. Memoized values belong to the current version.
+     */
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    /**
+     * @param node node
+     *
+     * @return true if the node has a memoized value for the current data
+     */
+    public boolean isValid(final IndicatorNode<?> node) {
+        Entry entry = entries.get(node);
+        return entry != null && entry.valid;
+    }
+
+    /**
+     * @param node node
+     *
+     * @return number of times the node has been computed
+     */
+    public int getComputationCount(final IndicatorNode<?> node) {
+        Entry entry = entries.get(node);
+        return entry == null ? 0 : entry.computations;
+    }
+
+    private void dataChanged(final IndicatorNode<?> root, final Object value) {
+        Entry entry = entry(root);
+        entry.set(value);
+        dataVersion++;
+        invalidateDependents(entry);
+    }
+
+    private void invalidateDependents(final Entry root) {
+
+        List<IndicatorNode<?>> pending = new ArrayList<>(root.dependents);
+        while (!pending.isEmpty()) {
+            Entry entry = entries.get(pending.remove(pending.size() - 1));
+            if (entry.valid) {
+                entry.invalidate();
+                pending.addAll(entry.dependents);
+            }
+        }
+    }
+
+    private Entry entry(final IndicatorNode<?> node) {
+        return entries.computeIfAbsent(node, n -> new Entry());
+    }
+
+    /**
+     * A node's memoized value and the nodes that read it.
+     */
+    private static final class Entry {
+
+        private final List<IndicatorNode<?>> dependents = new ArrayList<>();
+        private Object value;
+        private boolean valid;
+        private boolean registered;
+        private int computations;
+
+        void set(final Object value) {
+            this.value = value;
+            this.valid = true;
+        }
+
+        void invalidate() {
+            value = null;
+            valid = false;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.graph;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import com.scottjjohnson.finance.analysis.calculators.AverageTrueRangeCalculator;
+import com.scottjjohnson.finance.analysis.calculators.BetaCalculator;
+import com.scottjjohnson.finance.analysis.calculators.RelativeStrengthPercentOfPeakCalculator;
+import com.scottjjohnson.finance.analysis.calculators.SMACalculator;
+import com.scottjjohnson.finance.analysis.calculators.UpDownVolumeRatioCalculator;
+import com.scottjjohnson.finance.analysis.series.AlignedPairSeries;
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+
+/**
+ * A value an {@link IndicatorGraph} computes from other nodes and memoizes. A node declares the nodes it reads, and
+ * only those; the graph uses the declarations to invalidate exactly the nodes downstream of changed data.
+ * <p>
+ * Nodes are identified by name, so two nodes with the same name are the same node and are computed once per graph.
+ * Built-in shared intermediates are primitive series with one element per bar.
+ *
+ * @param <T> value type
+ */
+public final class IndicatorNode<T> {
+
+    /**
+     * The symbol's bars. A root: its value is set by the graph, not computed.
+     */
+    public static final IndicatorNode<QuoteSeries> BARS = new IndicatorNode<>("BARS", null,
+            Collections.emptyList());
+
+    /**
+     * The benchmark's closes, or null if the graph has no benchmark. A root: its value is set by the graph.
+     */
+    public static final IndicatorNode<DateIndexedSeries> BENCHMARK = new IndicatorNode<>("BENCHMARK", null,
+            Collections.emptyList());
+
+    /**
+     * Each bar's previous close, NaN for the first bar.
+     */
+    public static final IndicatorNode<double[]> PREVIOUS_CLOSES = of("PREVIOUS_CLOSES", graph -> {
+        QuoteSeries quotes = graph.get(BARS);
+        double[] previousCloses = new double[quotes.size()];
+        if (previousCloses.length > 0) {
+            previousCloses[0] = Double.NaN;
+        }
+        for (int i = 1; i < previousCloses.length; i++) {
+            previousCloses[i] = quotes.getClose(i - 1);
+        }
+        return previousCloses;
+    }, BARS);
+
+    /**
+     * Each bar's true range, the greatest of high - low, |high - previous close| and |low - previous close|. NaN for
+     * the first bar.
+     */
+    public static final IndicatorNode<double[]> TRUE_RANGE = of("TRUE_RANGE", graph -> {
+        QuoteSeries quotes = graph.get(BARS);
+        double[] previousCloses = graph.get(PREVIOUS_CLOSES);
+        double[] trueRange = new double[previousCloses.length];
+        for (int i = 0; i < trueRange.length; i++) {
+            double high = quotes.getHigh(i);
+            double low = quotes.getLow(i);
+            trueRange[i] = Math.max(high - low,
+                    Math.max(Math.abs(high - previousCloses[i]), Math.abs(low - previousCloses[i])));
+        }
+        return trueRange;
+    }, BARS, PREVIOUS_CLOSES);
+
+    /**
+     * The symbol's and the benchmark's closes on the days both have a bar, or null if the graph has no benchmark.
+     */
+    public static final IndicatorNode<AlignedPairSeries> ALIGNED_CLOSES = of("ALIGNED_CLOSES", graph -> {
+        DateIndexedSeries benchmark = graph.get(BENCHMARK);
+        return benchmark == null ? null : AlignedPairSeries.join(graph.get(BARS), benchmark);
+    }, BARS, BENCHMARK);
+
+    private static final SMACalculator SMA_CALCULATOR = new SMACalculator();
+    private static final AverageTrueRangeCalculator ATR_CALCULATOR = new AverageTrueRangeCalculator();
+    private static final UpDownVolumeRatioCalculator UP_DOWN_CALCULATOR = new UpDownVolumeRatioCalculator();
+    private static final BetaCalculator BETA_CALCULATOR = new BetaCalculator();
+    private static final RelativeStrengthPercentOfPeakCalculator RS_CALCULATOR = new RelativeStrengthPercentOfPeakCalculator();
+
+    private final String name;
+    private final Function<IndicatorGraph, T> function;
+    private final List<IndicatorNode<?>> dependencies;
+
+    private IndicatorNode(final String name, final Function<IndicatorGraph, T> function,
+            final List<IndicatorNode<?>> dependencies) {
+        this.name = name;
+        this.function = function;
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * Defines a node.
+     *
+     * @param name         unique name, including any parameters, e.g. "SMA(50)"
+     * @param function     computes the value, reading only the declared dependencies from the graph it's given
+     * @param dependencies nodes the function reads
+     * @param <T>          value type
+     *
+     * @return node
+     */
+    public static <T> IndicatorNode<T> of(final String name, final Function<IndicatorGraph, T> function,
+            final IndicatorNode<?>... dependencies) {
+        return new IndicatorNode<>(name, Objects.requireNonNull(function, "function"),
+                Collections.unmodifiableList(Arrays.asList(dependencies.clone())));
+    }
+
+    /**
+     * @param days number of days in the average
+     *
+     * @return simple moving average as of every bar, as {@link SMACalculator#calculateSeries(QuoteSeries, int)}
+     */
+    public static IndicatorNode<double[]> sma(final int days) {
+        return of("SMA(" + days + ")", graph -> SMA_CALCULATOR.calculateSeries(graph.get(BARS), days), BARS);
+    }
+
+    /**
+     * @param days number of days in the average
+     *
+     * @return average true range as of every bar, as {@link AverageTrueRangeCalculator#calculateSeries(double[], int)}.
+     *         NaN for the first bar.
+     */
+    public static IndicatorNode<double[]> averageTrueRange(final int days) {
+        return of("ATR(" + days + ")", graph -> ATR_CALCULATOR.calculateSeries(graph.get(TRUE_RANGE), days),
+                TRUE_RANGE);
+    }
+
+    /**
+     * @param days number of days to look back
+     *
+     * @return up/down volume ratio as of every bar, as
+     *         {@link UpDownVolumeRatioCalculator#calculateSeries(QuoteSeries, int)}
+     */
+    public static IndicatorNode<double[]> upDownVolumeRatio(final int days) {
+        return of("UP_DOWN_VOLUME_RATIO(" + days + ")", graph -> {
+            float[] ratios = UP_DOWN_CALCULATOR.calculateSeries(graph.get(BARS), graph.get(PREVIOUS_CLOSES), days);
+            double[] series = new double[ratios.length];
+            for (int i = 0; i < series.length; i++) {
+                series[i] = ratios[i];
+            }
+            return series;
+        }, BARS, PREVIOUS_CLOSES);
+    }
+
+    /**
+     * @param years number of years of relative strength history
+     *
+     * @return relative strength percent of peak as of the last aligned bar, or NaN without a benchmark
+     */
+    public static IndicatorNode<Double> relativeStrengthPercentOfPeak(final int years) {
+        return of("RS_PERCENT_OF_PEAK(" + years + ")", graph -> {
+            AlignedPairSeries closes = graph.get(ALIGNED_CLOSES);
+            return closes == null ? Double.NaN : RS_CALCULATOR.calculate(closes, years);
+        }, ALIGNED_CLOSES);
+    }
+
+    /**
+     * @param days number of trailing daily returns on days both the symbol and the benchmark have a close
+     *
+     * @return beta as of the last aligned bar, or NaN without a benchmark or with fewer than 2 returns
+     */
+    public static IndicatorNode<Double> beta(final int days) {
+        return of("BETA(" + days + ")", graph -> {
+            AlignedPairSeries closes = graph.get(ALIGNED_CLOSES);
+            return closes == null ? Double.NaN : BETA_CALCULATOR.calculate(closes, days);
+        }, ALIGNED_CLOSES);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return nodes this node reads
+     */
+    public List<IndicatorNode<?>> getDependencies() {
+        return dependencies;
+    }
+
+    boolean isRoot() {
+        return function == null;
+    }
+
+    T compute(final IndicatorGraph graph) {
+        return function.apply(graph);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return this == obj || (obj instanceof IndicatorNode && name.equals(((IndicatorNode<?>) obj).name));
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
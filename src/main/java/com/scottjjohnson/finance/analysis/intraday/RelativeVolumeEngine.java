@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.intraday;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Projects each symbol's full-session volume from the volume traded so far today and compares it to the symbol's
+ * average, e.g. 2.5 when a stock at 10:30am has traded what it usually trades by 10:30am two and a half times over.
+ * <p>
+ * The universe's {@link IntradayVolumeCurve}s are packed into one char array, 780 bytes per symbol, and each update is
+ * a constant-time add, lookup and divide with no allocation. Look symbols up once with {@link #getSymbolIndex(String)}
+ * and update by index. Projections on early close days use the full-session curve and run low late in the day. Not
+ * thread-safe.
+ */
+public class RelativeVolumeEngine {
+
+    private static final int MINUTES = IntradayVolumeCurve.MINUTES_PER_SESSION;
+
+    private final Map<String, Integer> indexBySymbol;
+    private final String[] symbols;
+    private final char[] cumulativeFractions;
+    private final double[] averageDailyVolumes;
+    private final long[] sessionVolumes;
+
+    /**
+     * @param curves one curve per symbol
+     */
+    public RelativeVolumeEngine(final Collection<IntradayVolumeCurve> curves) {
+
+        int n = curves.size();
+        indexBySymbol = new HashMap<>(n * 2);
+        symbols = new String[n];
+        cumulativeFractions = new char[n * MINUTES];
+        averageDailyVolumes = new double[n];
+        sessionVolumes = new long[n];
+
+        int i = 0;
+        for (IntradayVolumeCurve curve : curves) {
+            if (indexBySymbol.put(curve.getSymbol(), i) != null) {
+                throw new IllegalArgumentException("Duplicate curve for " + curve.getSymbol());
+            }
+            symbols[i] = curve.getSymbol();
+            for (int m = 0; m < MINUTES; m++) {
+                cumulativeFractions[i * MINUTES + m] = curve.getScaledFraction(m);
+            }
+            averageDailyVolumes[i] = curve.getAverageDailyVolume();
+            i++;
+        }
+    }
+
+    /**
+     * @param symbol symbol
+     *
+     * @return index for {@link #update(int, int, long)}, or -1 if the engine has no curve for the symbol
+     */
+    public int getSymbolIndex(final String symbol) {
+        Integer index = indexBySymbol.get(symbol);
+        return index == null ? -1 : index;
+    }
+
+    public String getSymbol(final int symbolIndex) {
+        return symbols[symbolIndex];
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+
+    /**
+     * Clears every symbol's volume for a new session.
+     */
+    public void startSession() {
+        Arrays.fill(sessionVolumes, 0L);
+    }
+
+    /**
+     * Adds a bar's volume to a symbol's session total.
+     *
+     * @param symbolIndex     index from {@link #getSymbolIndex(String)}
+     * @param minuteOfSession minute of the bar, 0 through 389
+     * @param volume          volume of the bar
+     *
+     * @return relative volume as of the end of the bar; see {@link #getRelativeVolume(int, int)}
+     */
+    public double update(final int symbolIndex, final int minuteOfSession, final long volume) {
+        // checked before the volume is added so a bad bar leaves the session total alone
+        checkMinute(minuteOfSession);
+        sessionVolumes[symbolIndex] += volume;
+        return getRelativeVolume(symbolIndex, minuteOfSession);
+    }
+
+    /**
+     * Gets a symbol's projected session volume divided by its average session volume, given the volume so far.
+     *
+     * @param symbolIndex     index from {@link #getSymbolIndex(String)}
+     * @param minuteOfSession minute the session volume runs through, 0 through 389
+     *
+     * @return relative volume, or NaN if the symbol's curve expects no volume by that minute
+     */
+    public double getRelativeVolume(final int symbolIndex, final int minuteOfSession) {
+
+        checkMinute(minuteOfSession);
+
+        // projected / average = (volume / fraction) / average
+        double expected = cumulativeFractions[symbolIndex * MINUTES + minuteOfSession]
+                * averageDailyVolumes[symbolIndex];
+        return expected > 0.0d ? sessionVolumes[symbolIndex] * (double) IntradayVolumeCurve.FRACTION_SCALE / expected
+                : Double.NaN;
+    }
+
+    /**
+     * @param symbolIndex index from {@link #getSymbolIndex(String)}
+     *
+     * @return volume so far this session
+     */
+    public long getSessionVolume(final int symbolIndex) {
+        return sessionVolumes[symbolIndex];
+    }
+
+    private static void checkMinute(final int minuteOfSession) {
+        if (minuteOfSession < 0 || minuteOfSession >= MINUTES) {
+            throw new IllegalArgumentException("Minute of session must be 0 to " + (MINUTES - 1) + ": "
+                    + minuteOfSession);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Memory-maps a file written by {@link ColumnarResultWriter}. Values are read straight from the mapped file, so
+ * opening a file only reads its header and footer and nothing is parsed per row. Batches are mapped in segments of up
+ * to 1 GB, so files larger than 2 GB work. Safe to share between threads once opened.
+ */
+public class ColumnarResultReader {
+
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final List<String> columnNames;
+    private final int rowsPerBatch;
+    private final long rowCount;
+    private final Batch[] batches;
+
+    private ColumnarResultReader(final List<String> columnNames, final int rowsPerBatch, final long rowCount,
+            final Batch[] batches) {
+        this.columnNames = Collections.unmodifiableList(columnNames);
+        this.rowsPerBatch = rowsPerBatch;
+        this.rowCount = rowCount;
+        this.batches = batches;
+    }
+
+    /**
+     * Memory-maps a result file read-only.
+     *
+     * @param file path of a file written by {@link ColumnarResultWriter}
+     *
+     * @return reader
+     *
+     * @throws IOException if the file can't be read, isn't a result file or wasn't closed properly
+     */
+    public static ColumnarResultReader open(final Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < 16 || header.getInt() != ColumnarResultWriter.MAGIC) {
+                throw new IOException(file + " is not a columnar result file");
+            }
+            int version = header.getInt();
+            if (version != ColumnarResultWriter.VERSION) {
+                throw new IOException("Unsupported columnar result version " + version + " in " + file);
+            }
+            int columnCount = header.getInt();
+            int rowsPerBatch = header.getInt();
+
+            ByteBuffer footer = ByteBuffer.allocate(ColumnarResultWriter.FOOTER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(footer, size - ColumnarResultWriter.FOOTER_SIZE);
+            footer.flip();
+            long rowCount = footer.getLong();
+            int batchCount = footer.getInt();
+            if (footer.getInt() != ColumnarResultWriter.MAGIC) {
+                throw new IOException(file + " has no footer; it may not have been closed");
+            }
+            long footerStart = size - ColumnarResultWriter.FOOTER_SIZE - 8L * batchCount;
+
+            ByteBuffer offsets = ByteBuffer.allocate(8 * batchCount).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(offsets, footerStart);
+            offsets.flip();
+
+            // the column names run from the header to the first batch, or to the footer if there are none
+            long namesEnd = batchCount > 0 ? offsets.getLong(0) : footerStart;
+            ByteBuffer names = ByteBuffer.allocate((int) (namesEnd - 16)).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(names, 16);
+            names.flip();
+            List<String> columnNames = new ArrayList<>(columnCount);
+            for (int c = 0; c < columnCount; c++) {
+                byte[] bytes = new byte[names.getShort()];
+                names.get(bytes);
+                columnNames.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+
+            Batch[] batches = new Batch[batchCount];
+            ByteBuffer segment = null;
+            long segmentStart = 0;
+            long segmentEnd = 0;
+            for (int b = 0; b < batchCount; b++) {
+
+                long batchStart = offsets.getLong(8 * b);
+                long batchEnd = b + 1 < batchCount ? offsets.getLong(8 * (b + 1)) : footerStart;
+
+                if (segment == null || batchEnd > segmentEnd) {
+                    segmentStart = batchStart;
+                    segmentEnd = Math.min(footerStart, segmentStart + Math.max(MAX_SEGMENT_SIZE, batchEnd - batchStart));
+                    segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentEnd - segmentStart)
+                                     .order(ByteOrder.LITTLE_ENDIAN);
+                }
+
+                batches[b] = new Batch(segment, (int) (batchStart - segmentStart));
+            }
+
+            return new ColumnarResultReader(columnNames, rowsPerBatch, rowCount, batches);
+        }
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @param row row number, 0 to row count - 1
+     *
+     * @return symbol
+     */
+    public String getSymbol(final long row) {
+
+        Batch batch = getBatch(row);
+        int i = (int) (row % rowsPerBatch);
+        int start = batch.segment.getInt(batch.symbolOffsets + 4 * i);
+        int end = batch.segment.getInt(batch.symbolOffsets + 4 * (i + 1));
+
+        byte[] bytes = new byte[end - start];
+        for (int k = 0; k < bytes.length; k++) {
+            bytes[k] = batch.segment.get(batch.symbolBytes + start + k);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param row row number, 0 to row count - 1
+     *
+     * @return days since 1970-01-01
+     */
+    public int getEpochDay(final long row) {
+        Batch batch = getBatch(row);
+        return batch.segment.getInt(batch.epochDays + 4 * (int) (row % rowsPerBatch));
+    }
+
+    /**
+     * @param row    row number, 0 to row count - 1
+     * @param column column number, in the order of {@link #getColumnNames()}
+     *
+     * @return value
+     */
+    public double getValue(final long row, final int column) {
+
+        if (column < 0 || column >= columnNames.size()) {
+            throw new IndexOutOfBoundsException("Column " + column + " of " + columnNames.size());
+        }
+
+        Batch batch = getBatch(row);
+        return batch.segment.getDouble(batch.values + 8 * (column * batch.rows + (int) (row % rowsPerBatch)));
+    }
+
+    private Batch getBatch(final long row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+        }
+        return batches[(int) (row / rowsPerBatch)];
+    }
+
+    /**
+     * Positions of one batch's sections within its mapped segment.
+     */
+    private static final class Batch {
+
+        private final ByteBuffer segment;
+        private final int rows;
+        private final int symbolOffsets;
+        private final int symbolBytes;
+        private final int epochDays;
+        private final int values;
+
+        Batch(final ByteBuffer segment, final int offset) {
+            this.segment = segment;
+            this.rows = segment.getInt(offset);
+            int symbolLength = segment.getInt(offset + 4);
+            this.symbolOffsets = offset + 8;
+            this.symbolBytes = symbolOffsets + 4 * (rows + 1);
+            this.epochDays = align(symbolBytes + symbolLength);
+            this.values = align(epochDays + 4 * rows);
+        }
+
+        private static int align(final int offset) {
+            return (offset + 7) & ~7;
+        }
+    }
+}
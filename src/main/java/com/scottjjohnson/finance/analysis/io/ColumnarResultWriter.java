@@ -0,0 +1,260 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes indicator results in a columnar binary format that {@link ColumnarResultReader} memory-maps without parsing.
+ * <p>
+ * Rows are collected into batches of a fixed number of rows; each full batch is written column by column and the
+ * batch arrays are reused, so memory use depends on the batch size, not the number of rows. A footer of batch offsets
+ * is written on close, as in the Arrow IPC file format, but the layout is this class's own. File layout,
+ * little-endian, with every section starting on an 8 byte boundary:
+ *
+ * <pre>
+ * header  int magic 'RCF1', int version, int column count, int rows per batch,
+ *         per column: short name length, UTF-8 name bytes; padded to 8 bytes
+ * batch   int row count, int symbol bytes length, int[rows + 1] symbol offsets, UTF-8 symbol bytes, padded;
+ *         int[rows] epoch days, padded; per column: double[rows] values
+ * footer  long[batch count] batch offsets, long row count, int batch count, int magic 'RCF1'
+ * </pre>
+ *
+ * Every batch but the last holds exactly rows per batch rows, so a row's batch is found by division.
+ */
+public class ColumnarResultWriter implements ResultWriter {
+
+    static final int MAGIC = 0x52434631; // "RCF1"
+    static final int VERSION = 1;
+    static final int FOOTER_SIZE = 16;
+
+    public static final int DEFAULT_ROWS_PER_BATCH = 8192;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int columnCount;
+    private final int rowsPerBatch;
+
+    private final int[] symbolOffsets;
+    private final int[] epochDays;
+    private final double[] values; // column-major, rowsPerBatch values per column
+    private byte[] symbolBytes = new byte[1024];
+    private int rows;
+
+    private String lastSymbol;
+    private byte[] lastSymbolBytes;
+
+    private long position;
+    private long rowCount;
+    private long[] batchOffsets = new long[16];
+    private int batchCount;
+    private boolean closed;
+
+    /**
+     * Creates or replaces a file and writes the header.
+     *
+     * @param file        path of the file
+     * @param columnNames name of each value column
+     *
+     * @throws IOException if the file can't be written
+     */
+    public ColumnarResultWriter(final Path file, final List<String> columnNames) throws IOException {
+        this(file, columnNames, DEFAULT_ROWS_PER_BATCH);
+    }
+
+    /**
+     * Creates or replaces a file and writes the header.
+     *
+     * @param file         path of the file
+     * @param columnNames  name of each value column
+     * @param rowsPerBatch number of rows held in memory before they're written
+     *
+     * @throws IOException if the file can't be written
+     */
+    public ColumnarResultWriter(final Path file, final List<String> columnNames, final int rowsPerBatch)
+            throws IOException {
+
+        if (rowsPerBatch <= 0) {
+            throw new IllegalArgumentException("Rows per batch must be positive: " + rowsPerBatch);
+        }
+
+        this.columnCount = columnNames.size();
+        this.rowsPerBatch = rowsPerBatch;
+        this.symbolOffsets = new int[rowsPerBatch + 1];
+        this.epochDays = new int[rowsPerBatch];
+        this.values = new double[columnCount * rowsPerBatch];
+        this.buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        ensureRemaining(16);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(columnCount).putInt(rowsPerBatch);
+        position = 16;
+        for (String name : columnNames) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            ensureRemaining(2 + bytes.length);
+            buffer.putShort((short) bytes.length).put(bytes);
+            position += 2 + bytes.length;
+        }
+        pad();
+    }
+
+    @Override
+    public void write(final String symbol, final int epochDay, final double[] rowValues) throws IOException {
+
+        if (closed) {
+            throw new IOException("Writer is closed");
+        }
+        if (rowValues.length != columnCount) {
+            throw new IllegalArgumentException("Expected " + columnCount + " values but got " + rowValues.length);
+        }
+
+        // per-date results repeat a symbol many times in a row, so only encode it when it changes
+        if (!symbol.equals(lastSymbol)) {
+            lastSymbol = symbol;
+            lastSymbolBytes = symbol.getBytes(StandardCharsets.UTF_8);
+        }
+        int start = symbolOffsets[rows];
+        if (start + lastSymbolBytes.length > symbolBytes.length) {
+            symbolBytes = Arrays.copyOf(symbolBytes, Math.max(symbolBytes.length * 2, start + lastSymbolBytes.length));
+        }
+        System.arraycopy(lastSymbolBytes, 0, symbolBytes, start, lastSymbolBytes.length);
+        symbolOffsets[rows + 1] = start + lastSymbolBytes.length;
+
+        epochDays[rows] = epochDay;
+        for (int c = 0; c < columnCount; c++) {
+            values[c * rowsPerBatch + rows] = rowValues[c];
+        }
+
+        if (++rows == rowsPerBatch) {
+            writeBatch();
+        }
+    }
+
+    /**
+     * Writes any partial batch and the footer, then closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (rows > 0) {
+                writeBatch();
+            }
+
+            for (int b = 0; b < batchCount; b++) {
+                ensureRemaining(8);
+                buffer.putLong(batchOffsets[b]);
+            }
+            ensureRemaining(FOOTER_SIZE);
+            buffer.putLong(rowCount).putInt(batchCount).putInt(MAGIC);
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeBatch() throws IOException {
+
+        if (batchCount == batchOffsets.length) {
+            batchOffsets = Arrays.copyOf(batchOffsets, batchCount * 2);
+        }
+        batchOffsets[batchCount++] = position;
+
+        int symbolLength = symbolOffsets[rows];
+        ensureRemaining(8);
+        buffer.putInt(rows).putInt(symbolLength);
+        for (int i = 0; i <= rows; i++) {
+            ensureRemaining(4);
+            buffer.putInt(symbolOffsets[i]);
+        }
+        position += 8 + 4L * (rows + 1);
+        putBytes(symbolBytes, symbolLength);
+        pad();
+
+        for (int i = 0; i < rows; i++) {
+            ensureRemaining(4);
+            buffer.putInt(epochDays[i]);
+        }
+        position += 4L * rows;
+        pad();
+
+        for (int c = 0; c < columnCount; c++) {
+            int offset = c * rowsPerBatch;
+            for (int i = 0; i < rows; i++) {
+                ensureRemaining(8);
+                buffer.putDouble(values[offset + i]);
+            }
+        }
+        position += 8L * rows * columnCount;
+
+        rowCount += rows;
+        rows = 0;
+    }
+
+    private void putBytes(final byte[] bytes, final int length) throws IOException {
+
+        int written = 0;
+        while (written < length) {
+            ensureRemaining(1);
+            int chunk = Math.min(buffer.remaining(), length - written);
+            buffer.put(bytes, written, chunk);
+            written += chunk;
+        }
+        position += length;
+    }
+
+    private void pad() throws IOException {
+        while (position % 8 != 0) {
+            ensureRemaining(1);
+            buffer.put((byte) 0);
+            position++;
+        }
+    }
+
+    private void ensureRemaining(final int needed) throws IOException {
+        if (buffer.remaining() < needed) {
+            drain();
+            if (buffer.capacity() < needed) {
+                throw new IOException("Record of " + needed + " bytes doesn't fit the write buffer");
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
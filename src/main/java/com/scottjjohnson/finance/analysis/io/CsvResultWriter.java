@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.scottjjohnson.util.DateUtils;
+
+/**
+ * Writes indicator results as CSV, for tools that can't read {@link ColumnarResultWriter} files. The header row is
+ * Symbol, Date and the column names; dates are yyyy-MM-dd and NaN values are written as empty fields, which is how
+ * {@link QuoteFileParser} reads missing prices. Each row is built in a reused buffer.
+ */
+public class CsvResultWriter implements ResultWriter {
+
+    private final BufferedWriter writer;
+    private final int columnCount;
+    private final StringBuilder line = new StringBuilder(128);
+    private char[] chars = new char[128];
+
+    /**
+     * Creates or replaces a file and writes the header row.
+     *
+     * @param file        path of the file
+     * @param columnNames name of each value column
+     *
+     * @throws IOException if the file can't be written
+     */
+    public CsvResultWriter(final Path file, final List<String> columnNames) throws IOException {
+
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        this.columnCount = columnNames.size();
+
+        line.append("Symbol,Date");
+        for (String name : columnNames) {
+            line.append(',').append(name);
+        }
+        writeLine();
+    }
+
+    @Override
+    public void write(final String symbol, final int epochDay, final double[] values) throws IOException {
+
+        if (values.length != columnCount) {
+            throw new IllegalArgumentException("Expected " + columnCount + " values but got " + values.length);
+        }
+
+        int yearMonthDay = DateUtils.toYearMonthDay(epochDay);
+        int month = yearMonthDay / 100 % 100;
+        int day = yearMonthDay % 100;
+
+        line.append(symbol).append(',').append(yearMonthDay / 10000).append(month < 10 ? "-0" : "-").append(month)
+            .append(day < 10 ? "-0" : "-").append(day);
+        for (double value : values) {
+            line.append(',');
+            if (!Double.isNaN(value)) {
+                line.append(value);
+            }
+        }
+        writeLine();
+    }
+
+    private void writeLine() throws IOException {
+        line.append('\n');
+        if (line.length() > chars.length) {
+            chars = new char[Math.max(line.length(), chars.length * 2)];
+        }
+        line.getChars(0, line.length(), chars, 0);
+        writer.write(chars, 0, line.length());
+        line.setLength(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
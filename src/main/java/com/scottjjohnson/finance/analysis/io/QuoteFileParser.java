@@ -0,0 +1,650 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.util.DateUtils;
+
+/**
+ * Parses Yahoo-style daily quote CSV files into columnar series.
+ * <p>
+ * The file is memory-mapped and dates and numbers are parsed straight from the mapped bytes, so no String is created
+ * per row. A new String is only created when the symbol changes from one row to the next. Large files are split into
+ * chunks at line boundaries and the chunks are parsed in parallel, then stitched back together in file order.
+ * <p>
+ * The header row decides which columns are read. Recognized columns are Symbol, Date, Open, High, Low, Close and
+ * Volume (case-insensitive); anything else, including Adj Close, is skipped. Files without a Symbol column hold a
+ * single symbol that is passed in by the caller. "null" or empty prices are read as NaN and "null" or empty volumes as
+ * 0. Rows that can't be parsed are skipped and counted in a single warning.
+ */
+public class QuoteFileParser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuoteFileParser.class);
+
+    private static final int DEFAULT_MIN_CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_CHUNK_SIZE = 1 << 30;
+    private static final int BOUNDARY_SCAN_SIZE = 64 * 1024;
+
+    private static final int COLUMN_SKIPPED = 0;
+    private static final int COLUMN_SYMBOL = 1;
+    private static final int COLUMN_DATE = 2;
+    private static final int COLUMN_OPEN = 3;
+    private static final int COLUMN_HIGH = 4;
+    private static final int COLUMN_LOW = 5;
+    private static final int COLUMN_CLOSE = 6;
+    private static final int COLUMN_VOLUME = 7;
+
+    // 10^0 through 10^22 are exact doubles
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0d;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0d;
+        }
+    }
+
+    private final int minChunkSize;
+    private final int parallelism;
+
+    public QuoteFileParser() {
+        this(DEFAULT_MIN_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param minChunkSize smallest number of bytes worth handing to a separate thread
+     * @param parallelism  maximum number of chunks to parse concurrently
+     */
+    public QuoteFileParser(final int minChunkSize, final int parallelism) {
+        this.minChunkSize = Math.max(minChunkSize, 1);
+        this.parallelism = Math.max(parallelism, 1);
+    }
+
+    /**
+     * Parses a multi-symbol file with a Symbol column.
+     *
+     * @param file path of the CSV file
+     *
+     * @return series by symbol in the order the symbols first appear in the file
+     *
+     * @throws IOException if the file can't be read or has no Date column
+     */
+    public Map<String, ColumnarQuoteSeries> parse(final Path file) throws IOException {
+        return parse(file, null);
+    }
+
+    /**
+     * Parses a file. If the file has no Symbol column all rows belong to the given symbol.
+     *
+     * @param file          path of the CSV file
+     * @param defaultSymbol symbol for files without a Symbol column
+     *
+     * @return series by symbol in the order the symbols first appear in the file
+     *
+     * @throws IOException if the file can't be read or has no Date column
+     */
+    public Map<String, ColumnarQuoteSeries> parse(final Path file, final String defaultSymbol) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            long fileSize = channel.size();
+            Map<String, ColumnarQuoteSeries> seriesBySymbol = new LinkedHashMap<>();
+            if (fileSize == 0) {
+                return seriesBySymbol;
+            }
+
+            ByteBuffer headerBuffer = ByteBuffer.allocate((int) Math.min(fileSize, BOUNDARY_SCAN_SIZE));
+            channel.read(headerBuffer, 0);
+            int headerLength = findLineEnd(headerBuffer, 0, headerBuffer.position());
+            if (headerLength < 0) {
+                throw new IOException("No header row found in " + file);
+            }
+            int[] columns = parseHeader(new String(headerBuffer.array(), 0, headerLength, StandardCharsets.UTF_8));
+
+            List<Long> boundaries = findChunkBoundaries(channel, headerLength + 1, fileSize);
+
+            List<ChunkResult> results = IntStream.range(0, boundaries.size() - 1)
+                                                 .parallel()
+                                                 .mapToObj(i -> parseChunk(channel, boundaries.get(i),
+                                                         boundaries.get(i + 1), columns, defaultSymbol))
+                                                 .collect(Collectors.toList());
+
+            int rejectedRows = 0;
+            for (ChunkResult result : results) {
+                if (result.exception != null) {
+                    throw result.exception;
+                }
+                rejectedRows += result.rejectedRows;
+                for (ColumnarQuoteSeries segment : result.segments) {
+                    if (segment.size() == 0) {
+                        // a chunk whose rows were all rejected
+                        continue;
+                    }
+                    ColumnarQuoteSeries series = seriesBySymbol.get(segment.getSymbol());
+                    if (series == null) {
+                        seriesBySymbol.put(segment.getSymbol(), segment);
+                    } else {
+                        series.appendAll(segment);
+                    }
+                }
+            }
+
+            for (ColumnarQuoteSeries series : seriesBySymbol.values()) {
+                series.trimToSize();
+            }
+
+            if (rejectedRows > 0) {
+                LOGGER.warn("Skipped {} malformed rows in {}", rejectedRows, file);
+            }
+
+            return seriesBySymbol;
+        }
+    }
+
+    private int[] parseHeader(final String header) throws IOException {
+
+        // drop a UTF-8 byte order mark
+        String[] names = header.replace("\uFEFF", "").trim().split(",");
+        int[] columns = new int[names.length];
+        boolean hasDate = false;
+
+        for (int i = 0; i < names.length; i++) {
+            switch (names[i].trim().toLowerCase(Locale.US)) {
+                case "symbol":
+                    columns[i] = COLUMN_SYMBOL;
+                    break;
+                case "date":
+                    columns[i] = COLUMN_DATE;
+                    hasDate = true;
+                    break;
+                case "open":
+                    columns[i] = COLUMN_OPEN;
+                    break;
+                case "high":
+                    columns[i] = COLUMN_HIGH;
+                    break;
+                case "low":
+                    columns[i] = COLUMN_LOW;
+                    break;
+                case "close":
+                    columns[i] = COLUMN_CLOSE;
+                    break;
+                case "volume":
+                    columns[i] = COLUMN_VOLUME;
+                    break;
+                default:
+                    columns[i] = COLUMN_SKIPPED;
+            }
+        }
+
+        if (!hasDate) {
+            throw new IOException("Quote file header has no Date column: " + header);
+        }
+
+        return columns;
+    }
+
+    /**
+     * Splits the file into roughly equal chunks that each start at the beginning of a line.
+     */
+    private List<Long> findChunkBoundaries(final FileChannel channel, final long start, final long end)
+            throws IOException {
+
+        long length = end - start;
+        long chunks = Math.max(1, Math.min(parallelism, length / minChunkSize));
+        chunks = Math.max(chunks, (length + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(start);
+
+        ByteBuffer scanBuffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        for (long i = 1; i < chunks; i++) {
+            long position = start + length * i / chunks;
+            long previous = boundaries.get(boundaries.size() - 1);
+
+            while (position < end) {
+                scanBuffer.clear();
+                int read = channel.read(scanBuffer, position);
+                int lineEnd = findLineEnd(scanBuffer, 0, Math.max(read, 0));
+                if (lineEnd >= 0) {
+                    position += lineEnd + 1;
+                    break;
+                }
+                position += Math.max(read, 0);
+                if (read <= 0) {
+                    position = end;
+                }
+            }
+
+            if (position > previous && position < end) {
+                boundaries.add(position);
+            }
+        }
+
+        boundaries.add(end);
+        return boundaries;
+    }
+
+    private ChunkResult parseChunk(final FileChannel channel, final long start, final long end, final int[] columns,
+            final String defaultSymbol) {
+
+        ChunkResult result = new ChunkResult();
+
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            new ChunkParser(buffer, columns, defaultSymbol, result).parse();
+        } catch (IOException e) {
+            result.exception = e;
+        }
+
+        return result;
+    }
+
+    /**
+     * @return index of the first '\n' in the range or -1
+     */
+    private static int findLineEnd(final ByteBuffer buffer, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class ChunkResult {
+        private final List<ColumnarQuoteSeries> segments = new ArrayList<>();
+        private int rejectedRows;
+        private IOException exception;
+    }
+
+    /**
+     * Parses the rows in one chunk. All state lives in fields so the per-row work allocates nothing.
+     */
+    private static final class ChunkParser {
+
+        private final ByteBuffer buffer;
+        private final int limit;
+        private final int[] columns;
+        private final ChunkResult result;
+
+        private int position;
+        private boolean fieldValid;
+
+        private ColumnarQuoteSeries current;
+        private byte[] currentSymbol = new byte[0];
+
+        // the row being parsed
+        private int symbolStart;
+        private int symbolLength;
+        private int epochDay;
+        private double open;
+        private double high;
+        private double low;
+        private double close;
+        private long volume;
+
+        private ChunkParser(final ByteBuffer buffer, final int[] columns, final String defaultSymbol,
+                final ChunkResult result) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+            this.columns = columns;
+            this.result = result;
+
+            if (defaultSymbol != null && !hasSymbolColumn(columns)) {
+                current = new ColumnarQuoteSeries(defaultSymbol, estimateRows());
+                result.segments.add(current);
+            }
+        }
+
+        private static boolean hasSymbolColumn(final int[] columns) {
+            for (int column : columns) {
+                if (column == COLUMN_SYMBOL) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int estimateRows() {
+            // a Yahoo daily row is about 70 bytes
+            return Math.max(16, limit / 64);
+        }
+
+        private void parse() {
+            while (position < limit) {
+                if (!parseRow()) {
+                    result.rejectedRows++;
+                }
+                skipToNextLine();
+            }
+        }
+
+        private boolean parseRow() {
+
+            int lineStart = position;
+            boolean valid = true;
+            boolean dateFound = false;
+            symbolLength = -1;
+            open = Double.NaN;
+            high = Double.NaN;
+            low = Double.NaN;
+            close = Double.NaN;
+            volume = 0;
+
+            for (int column = 0; column < columns.length; column++) {
+
+                fieldValid = true;
+
+                switch (columns[column]) {
+                    case COLUMN_SYMBOL:
+                        symbolStart = position;
+                        skipField();
+                        symbolLength = position - symbolStart;
+                        break;
+                    case COLUMN_DATE:
+                        epochDay = parseDate();
+                        dateFound = fieldValid;
+                        break;
+                    case COLUMN_OPEN:
+                        open = parseDouble();
+                        break;
+                    case COLUMN_HIGH:
+                        high = parseDouble();
+                        break;
+                    case COLUMN_LOW:
+                        low = parseDouble();
+                        break;
+                    case COLUMN_CLOSE:
+                        close = parseDouble();
+                        break;
+                    case COLUMN_VOLUME:
+                        volume = parseLong();
+                        break;
+                    default:
+                        skipField();
+                }
+
+                valid &= fieldValid;
+
+                if (column < columns.length - 1) {
+                    if (position >= limit || buffer.get(position) != ',') {
+                        return position == lineStart && isEndOfLine(); // blank line
+                    }
+                    position++;
+                }
+            }
+
+            if (!valid || !dateFound || !isEndOfLine()) {
+                return false;
+            }
+
+            ColumnarQuoteSeries series = symbolLength >= 0 ? seriesForSymbol() : current;
+            if (series == null) {
+                return false;
+            }
+
+            series.append(epochDay, open, high, low, close, volume);
+            return true;
+        }
+
+        private ColumnarQuoteSeries seriesForSymbol() {
+
+            boolean same = symbolLength == currentSymbol.length && current != null;
+            for (int i = 0; same && i < symbolLength; i++) {
+                same = buffer.get(symbolStart + i) == currentSymbol[i];
+            }
+
+            if (!same) {
+                currentSymbol = new byte[symbolLength];
+                for (int i = 0; i < symbolLength; i++) {
+                    currentSymbol[i] = buffer.get(symbolStart + i);
+                }
+                current = new ColumnarQuoteSeries(new String(currentSymbol, StandardCharsets.UTF_8).trim());
+                result.segments.add(current);
+            }
+
+            return current;
+        }
+
+        private boolean isEndOfLine() {
+            if (position >= limit) {
+                return true;
+            }
+            byte b = buffer.get(position);
+            return b == '\n' || b == '\r';
+        }
+
+        private void skipField() {
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if (b == ',' || b == '\n' || b == '\r') {
+                    return;
+                }
+                position++;
+            }
+        }
+
+        private void skipToNextLine() {
+            while (position < limit && buffer.get(position) != '\n') {
+                position++;
+            }
+            position++;
+        }
+
+        /**
+         * Parses yyyy-MM-dd, rejecting days past the end of the month.
+         */
+        private int parseDate() {
+
+            int fieldStart = position;
+            int year = parseDigits(4);
+            boolean separators = position < limit && buffer.get(position++) == '-';
+            int month = parseDigits(2);
+            separators &= position < limit && buffer.get(position++) == '-';
+            int day = parseDigits(2);
+
+            if (!separators || year < 0 || month < 1 || month > 12 || day < 1
+                    || day > DateUtils.getDaysInMonth(year, month)) {
+                position = fieldStart;
+                skipField();
+                fieldValid = false;
+                return 0;
+            }
+
+            return DateUtils.toEpochDay(year, month, day);
+        }
+
+        private int parseDigits(final int count) {
+            int value = 0;
+            for (int i = 0; i < count; i++) {
+                if (position >= limit) {
+                    return -1;
+                }
+                int digit = buffer.get(position) - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+                position++;
+            }
+            return value;
+        }
+
+        private double parseDouble() {
+
+            int fieldStart = position;
+            boolean negative = false;
+            long mantissa = 0;
+            int significantDigits = 0;
+            int fractionDigits = 0;
+            boolean inFraction = false;
+            boolean anyDigits = false;
+
+            if (position < limit && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+                negative = buffer.get(position) == '-';
+                position++;
+            }
+
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if (b >= '0' && b <= '9') {
+                    anyDigits = true;
+                    if (mantissa != 0 || b != '0') {
+                        significantDigits++;
+                    }
+                    if (significantDigits <= 18) {
+                        mantissa = mantissa * 10 + (b - '0');
+                        if (inFraction) {
+                            fractionDigits++;
+                        }
+                    } else if (!inFraction) {
+                        // too many digits for the fast path
+                        return parseDoubleSlowly(fieldStart);
+                    }
+                } else if (b == '.' && !inFraction) {
+                    inFraction = true;
+                } else {
+                    break;
+                }
+                position++;
+            }
+
+            if (!anyDigits) {
+                return parseMissingValue(fieldStart);
+            }
+
+            if (!isFieldEnd()) {
+                // exponent or other unusual syntax
+                return parseDoubleSlowly(fieldStart);
+            }
+
+            if (mantissa > (1L << 53) || fractionDigits >= POWERS_OF_TEN.length) {
+                return parseDoubleSlowly(fieldStart);
+            }
+
+            // both operands are exact so the division is correctly rounded
+            double value = mantissa / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+
+        private double parseDoubleSlowly(final int fieldStart) {
+
+            position = fieldStart;
+            skipField();
+
+            byte[] bytes = new byte[position - fieldStart];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(fieldStart + i);
+            }
+
+            try {
+                return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                fieldValid = false;
+                return Double.NaN;
+            }
+        }
+
+        private long parseLong() {
+
+            int fieldStart = position;
+            long value = 0;
+            boolean anyDigits = false;
+            boolean overflow = false;
+
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                anyDigits = true;
+                int digit = b - '0';
+                if (value > (Long.MAX_VALUE - digit) / 10) {
+                    overflow = true;
+                } else {
+                    value = value * 10 + digit;
+                }
+                position++;
+            }
+
+            // some sources write volumes as "1234.0"
+            if (anyDigits && position < limit && buffer.get(position) == '.') {
+                position++;
+                while (position < limit && buffer.get(position) == '0') {
+                    position++;
+                }
+            }
+
+            if (!anyDigits) {
+                parseMissingValue(fieldStart);
+                return 0;
+            }
+
+            // too many digits for a long is as malformed as a stray character
+            if (overflow || !isFieldEnd()) {
+                position = fieldStart;
+                skipField();
+                fieldValid = false;
+                return 0;
+            }
+
+            return value;
+        }
+
+        /**
+         * Accepts an empty field or "null" as a missing value.
+         */
+        private double parseMissingValue(final int fieldStart) {
+
+            position = fieldStart;
+            skipField();
+
+            int length = position - fieldStart;
+            boolean isNull = length == 4 && buffer.get(fieldStart) == 'n' && buffer.get(fieldStart + 1) == 'u'
+                    && buffer.get(fieldStart + 2) == 'l' && buffer.get(fieldStart + 3) == 'l';
+
+            if (length != 0 && !isNull) {
+                fieldValid = false;
+            }
+
+            return Double.NaN;
+        }
+
+        private boolean isFieldEnd() {
+            return position >= limit || buffer.get(position) == ',' || isEndOfLine();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Streams rows of indicator results to a file. Each row is a symbol, a date and one value per column, so the same
+ * writer handles one row per symbol (e.g. a universe scan as of a date) and one row per symbol per date (e.g. a full
+ * indicator series). Rows are written in the order given. Not thread-safe.
+ */
+public interface ResultWriter extends Closeable {
+
+    /**
+     * Writes one row. The values are copied, so the caller can reuse the array.
+     *
+     * @param symbol   symbol
+     * @param epochDay days since 1970-01-01
+     * @param values   one value per column
+     *
+     * @throws IOException if the file can't be written
+     */
+    void write(String symbol, int epochDay, double[] values) throws IOException;
+
+    /**
+     * Writes one row per symbol, all with the same date.
+     *
+     * @param results  values keyed by symbol, e.g. from a universe scan
+     * @param epochDay days since 1970-01-01
+     *
+     * @throws IOException if the file can't be written
+     */
+    default void writeAll(final Map<String, double[]> results, final int epochDay) throws IOException {
+        for (Map.Entry<String, double[]> entry : results.entrySet()) {
+            write(entry.getKey(), epochDay, entry.getValue());
+        }
+    }
+
+    /**
+     * Writes one row per date for a symbol, taking column c's value from columns[c].
+     *
+     * @param symbol    symbol
+     * @param epochDays date of each row
+     * @param columns   one series per column, each as long as epochDays
+     *
+     * @throws IOException if the file can't be written
+     */
+    default void writeSeries(final String symbol, final int[] epochDays, final double[]... columns)
+            throws IOException {
+
+        double[] row = new double[columns.length];
+        for (int i = 0; i < epochDays.length; i++) {
+            for (int c = 0; c < columns.length; c++) {
+                row[c] = columns[c][i];
+            }
+            write(symbol, epochDays[i], row);
+        }
+    }
+}
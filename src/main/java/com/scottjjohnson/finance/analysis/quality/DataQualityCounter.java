@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.quality;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide tallies of data problems the calculators run into, such as a stock quote without a comparison quote.
+ * Hot loops count problems here instead of logging each one; check or log the totals once per run.
+ * <p>
+ * Thread-safe, and cheap enough to call from calculator loops.
+ */
+public final class DataQualityCounter {
+
+    private static final DataQualityIssue[] ISSUES = DataQualityIssue.values();
+    private static final LongAdder[] COUNTS = new LongAdder[ISSUES.length];
+
+    static {
+        for (int i = 0; i < COUNTS.length; i++) {
+            COUNTS[i] = new LongAdder();
+        }
+    }
+
+    private DataQualityCounter() {
+    }
+
+    public static void increment(DataQualityIssue issue) {
+        COUNTS[issue.ordinal()].increment();
+    }
+
+    public static void add(DataQualityIssue issue, long count) {
+        if (count != 0L) {
+            COUNTS[issue.ordinal()].add(count);
+        }
+    }
+
+    /**
+     * @param issue kind of problem
+     *
+     * @return number counted since startup or the last {@link #reset()}
+     */
+    public static long get(DataQualityIssue issue) {
+        return COUNTS[issue.ordinal()].sum();
+    }
+
+    /**
+     * @return counts of every issue
+     */
+    public static Map<DataQualityIssue, Long> getAll() {
+        Map<DataQualityIssue, Long> counts = new EnumMap<>(DataQualityIssue.class);
+        for (DataQualityIssue issue : ISSUES) {
+            counts.put(issue, get(issue));
+        }
+        return counts;
+    }
+
+    public static void reset() {
+        for (LongAdder count : COUNTS) {
+            count.reset();
+        }
+    }
+}
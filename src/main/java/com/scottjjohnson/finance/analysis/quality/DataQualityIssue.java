@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.quality;
+
+/**
+ * Kinds of problems found in quote data.
+ */
+public enum DataQualityIssue {
+
+    UNPARSEABLE_DATE("bars without a parseable date"),
+    NON_MONOTONIC_DATE("bars dated on or before the previous bar"),
+    NON_TRADING_DAY("bars dated on a weekend or holiday"),
+    CALENDAR_GAP("trading days without a bar"),
+    MISSING_COMPARISON("bars without a comparison quote on the same day"),
+    MISSING_PRICE("bars missing an open, high, low or close"),
+    SENTINEL_VALUE("bars with a -9999 placeholder price or volume");
+
+    private final String description;
+
+    DataQualityIssue(final String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
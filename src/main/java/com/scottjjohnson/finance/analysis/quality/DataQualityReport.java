@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.quality;
+
+import java.util.Arrays;
+
+import com.scottjjohnson.util.DateUtils;
+
+/**
+ * Counts of each {@link DataQualityIssue} found in one symbol's quotes, with the dates of the first few occurrences.
+ */
+public class DataQualityReport {
+
+    /**
+     * Number of sample dates kept per issue.
+     */
+    public static final int MAX_SAMPLES = 10;
+
+    static final int NO_DATE = DateUtils.INVALID_EPOCH_DAY;
+
+    private final String symbol;
+    private int numberOfBars;
+    private final long[] counts = new long[DataQualityIssue.values().length];
+    private final int[][] samples = new int[DataQualityIssue.values().length][MAX_SAMPLES];
+    private final int[] sampleCounts = new int[DataQualityIssue.values().length];
+
+    public DataQualityReport(final String symbol) {
+        this.symbol = symbol;
+    }
+
+    void addBar() {
+        numberOfBars++;
+    }
+
+    void record(final DataQualityIssue issue, final int epochDay) {
+        record(issue, 1, epochDay);
+    }
+
+    /**
+     * @param epochDay date of the first occurrence, or {@link #NO_DATE} if there isn't one
+     */
+    void record(final DataQualityIssue issue, final long count, final int epochDay) {
+        int i = issue.ordinal();
+        counts[i] += count;
+        if (epochDay != NO_DATE && sampleCounts[i] < MAX_SAMPLES) {
+            samples[i][sampleCounts[i]++] = epochDay;
+        }
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return number of bars checked
+     */
+    public int getNumberOfBars() {
+        return numberOfBars;
+    }
+
+    public long getCount(DataQualityIssue issue) {
+        return counts[issue.ordinal()];
+    }
+
+    /**
+     * @param issue kind of problem
+     *
+     * @return epoch days of up to {@link #MAX_SAMPLES} occurrences, earliest found first
+     */
+    public int[] getSampleEpochDays(DataQualityIssue issue) {
+        return Arrays.copyOf(samples[issue.ordinal()], sampleCounts[issue.ordinal()]);
+    }
+
+    /**
+     * @return total of all issue counts
+     */
+    public long getTotalCount() {
+        return Arrays.stream(counts).sum();
+    }
+
+    public boolean isClean() {
+        return getTotalCount() == 0L;
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder sb = new StringBuilder("DataQualityReport{symbol='").append(symbol).append("', bars=")
+                                                                          .append(numberOfBars);
+
+        for (DataQualityIssue issue : DataQualityIssue.values()) {
+            long count = getCount(issue);
+            if (count > 0L) {
+                sb.append(", ").append(count).append(' ').append(issue.getDescription());
+                int[] days = getSampleEpochDays(issue);
+                if (days.length > 0) {
+                    sb.append(" (first ").append(DateUtils.toYearMonthDay(days[0])).append(')');
+                }
+            }
+        }
+
+        return sb.append('}').toString();
+    }
+}
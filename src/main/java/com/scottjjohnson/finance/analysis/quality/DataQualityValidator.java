@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.quality;
+
+import java.util.List;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.util.DateUtils;
+import com.scottjjohnson.util.TradingCalendar;
+
+/**
+ * Checks a symbol's quotes for problems in one pass: unparseable or out-of-order dates, bars on days the market was
+ * closed, trading days with no bar, bars with no comparison quote, and missing or placeholder prices. The result is a
+ * {@link DataQualityReport} of counts rather than a log line per problem.
+ * <p>
+ * Calendar checks only apply to days the trading calendar covers. Thread-safe.
+ */
+public class DataQualityValidator {
+
+    static final double SENTINEL = -9999d;
+
+    private final TradingCalendar calendar;
+
+    public DataQualityValidator() {
+        this(TradingCalendar.getNyseCalendar());
+    }
+
+    public DataQualityValidator(final TradingCalendar calendar) {
+        this.calendar = calendar;
+    }
+
+    /**
+     * Checks a list of quote beans.
+     *
+     * @param symbol           symbol to put in the report
+     * @param quotes           quotes, expected in chronological order
+     * @param comparisonCloses comparison closes to check each bar's date against, or null to skip that check
+     *
+     * @return report
+     */
+    public DataQualityReport validate(String symbol, List<DailyQuoteBean> quotes, DateIndexedSeries comparisonCloses) {
+
+        Pass pass = new Pass(symbol, comparisonCloses);
+
+        for (DailyQuoteBean quote : quotes) {
+            boolean missingPrice = !quote.hasOpen() || !quote.hasHigh() || !quote.hasLow() || !quote.hasClose();
+            boolean sentinel = quote.hasOpen() && quote.getOpen() == SENTINEL
+                    || quote.hasHigh() && quote.getHigh() == SENTINEL
+                    || quote.hasLow() && quote.getLow() == SENTINEL
+                    || quote.hasClose() && quote.getClose() == SENTINEL
+                    || quote.hasVolume() && quote.getVolume() == (long) SENTINEL;
+            pass.checkBar(quote.getEpochDay(), missingPrice, sentinel);
+        }
+
+        return pass.report;
+    }
+
+    /**
+     * Checks a quote series. NaN prices count as missing.
+     *
+     * @param quotes           quote series, expected in chronological order
+     * @param comparisonCloses comparison closes to check each bar's date against, or null to skip that check
+     *
+     * @return report
+     */
+    public DataQualityReport validate(QuoteSeries quotes, DateIndexedSeries comparisonCloses) {
+
+        Pass pass = new Pass(quotes.getSymbol(), comparisonCloses);
+
+        for (int i = 0; i < quotes.size(); i++) {
+            double open = quotes.getOpen(i);
+            double high = quotes.getHigh(i);
+            double low = quotes.getLow(i);
+            double close = quotes.getClose(i);
+            boolean missingPrice = Double.isNaN(open) || Double.isNaN(high) || Double.isNaN(low)
+                    || Double.isNaN(close);
+            boolean sentinel = open == SENTINEL || high == SENTINEL || low == SENTINEL || close == SENTINEL
+                    || quotes.getVolume(i) == (long) SENTINEL;
+            pass.checkBar(quotes.getEpochDay(i), missingPrice, sentinel);
+        }
+
+        return pass.report;
+    }
+
+    /**
+     * State carried from one bar to the next.
+     */
+    private final class Pass {
+
+        // bars with no date return before they become the previous bar, so the invalid day can't collide
+        private static final int NO_PREVIOUS_DAY = DateUtils.INVALID_EPOCH_DAY;
+
+        private final DataQualityReport report;
+        private final DateIndexedSeries comparisonCloses;
+        private int previousEpochDay = NO_PREVIOUS_DAY;
+
+        Pass(final String symbol, final DateIndexedSeries comparisonCloses) {
+            this.report = new DataQualityReport(symbol);
+            this.comparisonCloses = comparisonCloses;
+        }
+
+        void checkBar(final int epochDay, final boolean missingPrice, final boolean sentinel) {
+
+            report.addBar();
+
+            if (missingPrice) {
+                report.record(DataQualityIssue.MISSING_PRICE, epochDay);
+            }
+            if (sentinel) {
+                report.record(DataQualityIssue.SENTINEL_VALUE, epochDay);
+            }
+
+            if (epochDay == DateUtils.INVALID_EPOCH_DAY) {
+                report.record(DataQualityIssue.UNPARSEABLE_DATE, 1, DataQualityReport.NO_DATE);
+                return;
+            }
+
+            if (comparisonCloses != null && !comparisonCloses.contains(epochDay)) {
+                report.record(DataQualityIssue.MISSING_COMPARISON, epochDay);
+            }
+
+            if (previousEpochDay != NO_PREVIOUS_DAY && epochDay <= previousEpochDay) {
+                report.record(DataQualityIssue.NON_MONOTONIC_DATE, epochDay);
+                return;
+            }
+
+            if (calendar.covers(epochDay)) {
+                boolean tradingDay = calendar.isTradingDay(epochDay);
+                if (!tradingDay) {
+                    report.record(DataQualityIssue.NON_TRADING_DAY, epochDay);
+                }
+
+                if (previousEpochDay != NO_PREVIOUS_DAY && calendar.covers(previousEpochDay)) {
+                    int missingSessions = calendar.getTradingDaysBetween(previousEpochDay, epochDay)
+                            - (tradingDay ? 1 : 0);
+                    if (missingSessions > 0) {
+                        int firstMissingDay = calendar.getEpochDay(
+                                calendar.getTradingDayIndexOnOrBefore(previousEpochDay) + 1);
+                        report.record(DataQualityIssue.CALENDAR_GAP, missingSessions, firstMissingDay);
+                    }
+                }
+            }
+
+            previousEpochDay = epochDay;
+        }
+    }
+}
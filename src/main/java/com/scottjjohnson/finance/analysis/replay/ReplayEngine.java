@@ -0,0 +1,249 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.replay;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+
+/**
+ * Replays a universe's stored bars date by date into per-symbol streaming state, e.g. from
+ * {@link com.scottjjohnson.finance.analysis.store.OffHeapUniverseStore#getAllSeries()}.
+ * <p>
+ * Symbols are dealt round-robin to a fixed number of threads. For each date in the union of the universe's dates,
+ * every thread folds its symbols' bars for that date into their states and then waits at a barrier; the barrier's
+ * action calls {@link ReplayListener#onDate(ReplaySnapshot)} with the whole universe's state as of the date. A
+ * symbol's state is only ever touched by one thread, in date order, so runs are repeatable whatever the thread count
+ * or scheduling, provided the listener's per-symbol logic only reads its own symbol's state.
+ * <p>
+ * Each bar is visited once, and per date the cost is one barrier crossing, so a replay is linear in the number of
+ * bars.
+ */
+public class ReplayEngine {
+
+    private final QuoteSeries[] universe;
+    private final int threads;
+
+    /**
+     * @param universe series for each symbol. Each must be in chronological order.
+     * @param threads  number of replay threads
+     */
+    public ReplayEngine(final Collection<? extends QuoteSeries> universe, final int threads) {
+
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+
+        this.universe = universe.toArray(new QuoteSeries[0]);
+        this.threads = Math.max(1, Math.min(threads, this.universe.length));
+    }
+
+    /**
+     * Gets every date on which at least one symbol has a bar. The series are already sorted, so they're merged with a
+     * min-heap of symbols keyed by the day of each one's next bar, which keeps memory to the symbols plus the unique
+     * days.
+     *
+     * @return epoch days in increasing order
+     */
+    public int[] getEpochDays() {
+
+        int[] cursors = new int[universe.length];
+        int[] heapSymbols = new int[universe.length];
+        int[] heapDays = new int[universe.length];
+        int heapSize = 0;
+
+        for (int s = 0; s < universe.length; s++) {
+            if (universe[s].size() > 0) {
+                heapSymbols[heapSize] = s;
+                heapDays[heapSize] = universe[s].getEpochDay(0);
+                siftUp(heapSymbols, heapDays, heapSize++);
+            }
+        }
+
+        int[] days = new int[256];
+        int unique = 0;
+
+        while (heapSize > 0) {
+            int s = heapSymbols[0];
+            int day = heapDays[0];
+            if (unique == 0 || day != days[unique - 1]) {
+                if (unique == days.length) {
+                    days = Arrays.copyOf(days, unique * 2);
+                }
+                days[unique++] = day;
+            }
+
+            QuoteSeries quotes = universe[s];
+            if (++cursors[s] < quotes.size()) {
+                heapDays[0] = quotes.getEpochDay(cursors[s]);
+            } else {
+                heapSize--;
+                heapSymbols[0] = heapSymbols[heapSize];
+                heapDays[0] = heapDays[heapSize];
+            }
+            siftDown(heapSymbols, heapDays, 0, heapSize);
+        }
+
+        return Arrays.copyOf(days, unique);
+    }
+
+    /**
+     * Replays every bar in the universe.
+     *
+     * @param listener receives the bars and the per-date snapshots
+     * @param <S>      per-symbol state
+     *
+     * @return the final states in universe order
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the replay
+     */
+    public <S> List<S> run(final ReplayListener<S> listener) throws InterruptedException {
+
+        @SuppressWarnings("unchecked")
+        S[] states = (S[]) new Object[universe.length];
+        for (int s = 0; s < universe.length; s++) {
+            states[s] = listener.createState(universe[s]);
+        }
+
+        int[] epochDays = getEpochDays();
+        int[] cursors = new int[universe.length];
+        ReplaySnapshot<S> snapshot = new ReplaySnapshot<>(universe, states, cursors);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // the barrier action runs on the last thread to arrive, after every thread has finished the date
+        int[] dateIndex = new int[1];
+        CyclicBarrier barrier = new CyclicBarrier(threads, () -> {
+            if (failure.get() != null) {
+                // a thread gave up on the date; throwing breaks the barrier for the rest
+                throw new IllegalStateException("Replay failed");
+            }
+            snapshot.setEpochDay(epochDays[dateIndex[0]++]);
+            listener.onDate(snapshot);
+        });
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    for (int epochDay : epochDays) {
+                        for (int s = thread; s < universe.length; s += threads) {
+                            QuoteSeries quotes = universe[s];
+                            int cursor = cursors[s];
+                            while (cursor < quotes.size() && quotes.getEpochDay(cursor) <= epochDay) {
+                                listener.onBar(states[s], quotes, cursor++);
+                            }
+                            cursors[s] = cursor;
+                        }
+                        barrier.await();
+                    }
+                } catch (BrokenBarrierException e) {
+                    // another thread failed and broke the barrier; its failure is the one reported
+                } catch (InterruptedException e) {
+                    // being interrupted while waiting has already broken the barrier
+                    failure.compareAndSet(null, e);
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                    breakBarrier(barrier);
+                }
+            }, "replay-" + t);
+            workers[t].start();
+        }
+
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            throw e;
+        }
+
+        Throwable t = failure.get();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new IllegalStateException("Replay thread was interrupted", t);
+        }
+
+        return Arrays.asList(states);
+    }
+
+    /**
+     * Breaks a barrier for the threads waiting at it and for any that arrive later. Unlike reset(), which only
+     * releases the threads already waiting, a timed-out wait leaves the barrier broken.
+     */
+    private static void breakBarrier(final CyclicBarrier barrier) {
+        try {
+            barrier.await(0L, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (BrokenBarrierException | TimeoutException | RuntimeException e) {
+            // broken, which is the point
+        }
+    }
+
+    private static void siftUp(final int[] symbols, final int[] days, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (days[parent] <= days[i]) {
+                return;
+            }
+            swap(symbols, days, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(final int[] symbols, final int[] days, int i, final int size) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && days[left] < days[smallest]) {
+                smallest = left;
+            }
+            if (right < size && days[right] < days[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(symbols, days, smallest, i);
+            i = smallest;
+        }
+    }
+
+    private static void swap(final int[] symbols, final int[] days, final int i, final int j) {
+        int symbol = symbols[i];
+        symbols[i] = symbols[j];
+        symbols[j] = symbol;
+        int day = days[i];
+        days[i] = days[j];
+        days[j] = day;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.replay;
+
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+
+/**
+ * Receives bars from a {@link ReplayEngine}.
+ *
+ * @param <S> per-symbol state, e.g. a holder of streaming indicator states
+ */
+public interface ReplayListener<S> {
+
+    /**
+     * Creates a symbol's state before the replay starts. Called on the thread that started the replay, in universe
+     * order.
+     *
+     * @param quotes the symbol's series
+     *
+     * @return state passed to {@link #onBar(Object, QuoteSeries, int)} for the symbol
+     */
+    S createState(QuoteSeries quotes);
+
+    /**
+     * Folds one bar into a symbol's state. A symbol's bars arrive in chronological order, all on the same thread, and
+     * never concurrently with {@link #onDate(ReplaySnapshot)}. Different symbols' bars for a date arrive concurrently.
+     *
+     * @param state state from {@link #createState(QuoteSeries)}
+     * @param quotes the symbol's series
+     * @param index index of the bar in the series
+     */
+    void onBar(S state, QuoteSeries quotes, int index);
+
+    /**
+     * Called once per date after every symbol's bar for the date has been folded in and before any bar for the next
+     * date, while no other listener method is running. Cross-sectional logic such as ranking goes here.
+     *
+     * @param snapshot every symbol's state as of the date
+     */
+    void onDate(ReplaySnapshot<S> snapshot);
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.replay;
+
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+
+/**
+ * The universe as of one date in a replay. Only valid during {@link ReplayListener#onDate(ReplaySnapshot)}; the
+ * engine reuses it for the next date.
+ *
+ * @param <S> per-symbol state
+ */
+public class ReplaySnapshot<S> {
+
+    private final QuoteSeries[] universe;
+    private final S[] states;
+    private final int[] cursors;
+    private int epochDay;
+
+    ReplaySnapshot(final QuoteSeries[] universe, final S[] states, final int[] cursors) {
+        this.universe = universe;
+        this.states = states;
+        this.cursors = cursors;
+    }
+
+    void setEpochDay(final int epochDay) {
+        this.epochDay = epochDay;
+    }
+
+    /**
+     * @return days since 1970-01-01 of the date just replayed
+     */
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    /**
+     * @return number of symbols, in universe order
+     */
+    public int size() {
+        return universe.length;
+    }
+
+    public QuoteSeries getSeries(final int symbolIndex) {
+        return universe[symbolIndex];
+    }
+
+    public S getState(final int symbolIndex) {
+        return states[symbolIndex];
+    }
+
+    /**
+     * @param symbolIndex symbol's position in the universe
+     *
+     * @return index of the symbol's last bar on or before the date, or -1 if it has none yet
+     */
+    public int getBarIndex(final int symbolIndex) {
+        return cursors[symbolIndex] - 1;
+    }
+
+    /**
+     * @param symbolIndex symbol's position in the universe
+     *
+     * @return true if the symbol has a bar on the date, false if it hasn't started trading, has stopped or skipped it
+     */
+    public boolean hasBar(final int symbolIndex) {
+        int index = cursors[symbolIndex] - 1;
+        return index >= 0 && universe[symbolIndex].getEpochDay(index) == epochDay;
+    }
+}
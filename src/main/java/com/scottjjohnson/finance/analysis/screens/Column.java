@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.screens;
+
+/**
+ * An indicator evaluated at every bar of a symbol's history.
+ */
+@FunctionalInterface
+public interface Column {
+
+    /**
+     * @param context indicator columns for the symbol
+     *
+     * @return one value per bar. Callers must not modify the array since it may be shared.
+     */
+    double[] getValues(ScreenContext context);
+
+    static Column close() {
+        return ScreenContext::getClose;
+    }
+
+    static Column open() {
+        return ScreenContext::getOpen;
+    }
+
+    static Column high() {
+        return ScreenContext::getHigh;
+    }
+
+    static Column low() {
+        return ScreenContext::getLow;
+    }
+
+    static Column volume() {
+        return ScreenContext::getVolume;
+    }
+
+    static Column sma(final int days) {
+        return context -> context.getSMA(days);
+    }
+
+    static Column ema(final int days) {
+        return context -> context.getEMA(days);
+    }
+
+    static Column maxHigh(final int days) {
+        return context -> context.getMaxHigh(days);
+    }
+
+    static Column upDownVolumeRatio(final int days) {
+        return context -> context.getUpDownVolumeRatio(days);
+    }
+}
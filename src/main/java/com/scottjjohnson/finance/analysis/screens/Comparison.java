@@ -0,0 +1,320 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.screens;
+
+import java.util.BitSet;
+
+/**
+ * Comparison operators, in the order the expression compiler tries them so that two-character symbols win.
+ * <p>
+ * Each operator has its own loop for a column against a constant and for two columns, so the comparison is inlined
+ * into the loop rather than called per bar. A constant on the left uses the mirrored operator's loop. Every operator
+ * is false when either side is NaN, including {@code !=}, which is why a comparison's false bars are its complement's
+ * true bars and NaN bars end up in neither.
+ */
+enum Comparison {
+
+    GREATER_OR_EQUAL(">=") {
+        @Override
+        boolean test(final double l, final double r) {
+            return l >= r;
+        }
+
+        @Override
+        BitSet test(final double[] l, final double r) {
+            BitSet bits = new BitSet(l.length);
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] >= r) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        BitSet test(final double[] l, final double[] r) {
+            BitSet bits = new BitSet(l.length);
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] >= r[i]) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        Comparison complement() {
+            return LESS;
+        }
+
+        @Override
+        Comparison mirror() {
+            return LESS_OR_EQUAL;
+        }
+    },
+
+    LESS_OR_EQUAL("<=") {
+        @Override
+        boolean test(final double l, final double r) {
+            return l <= r;
+        }
+
+        @Override
+        BitSet test(final double[] l, final double r) {
+            BitSet bits = new BitSet(l.length);
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] <= r) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        BitSet test(final double[] l, final double[] r) {
+            BitSet bits = new BitSet(l.length);
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] <= r[i]) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        Comparison complement() {
+            return GREATER;
+        }
+
+        @Override
+        Comparison mirror() {
+            return GREATER_OR_EQUAL;
+        }
+    },
+
+    EQUAL("==") {
+        @Override
+        boolean test(final double l, final double r) {
+            return l == r;
+        }
+
+        @Override
+        BitSet test(final double[] l, final double r) {
+            BitSet bits = new BitSet(l.length);
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] == r) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        BitSet test(final double[] l, final double[] r) {
+            BitSet bits = new BitSet(l.length);
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] == r[i]) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        Comparison complement() {
+            return NOT_EQUAL;
+        }
+
+        @Override
+        Comparison mirror() {
+            return EQUAL;
+        }
+    },
+
+    NOT_EQUAL("!=") {
+        @Override
+        boolean test(final double l, final double r) {
+            return l < r || l > r;
+        }
+
+        @Override
+        BitSet test(final double[] l, final double r) {
+            BitSet bits = new BitSet(l.length);
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] < r || l[i] > r) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        BitSet test(final double[] l, final double[] r) {
+            BitSet bits = new BitSet(l.length);
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] < r[i] || l[i] > r[i]) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        Comparison complement() {
+            return EQUAL;
+        }
+
+        @Override
+        Comparison mirror() {
+            return NOT_EQUAL;
+        }
+    },
+
+    GREATER(">") {
+        @Override
+        boolean test(final double l, final double r) {
+            return l > r;
+        }
+
+        @Override
+        BitSet test(final double[] l, final double r) {
+            BitSet bits = new BitSet(l.length);
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] > r) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        BitSet test(final double[] l, final double[] r) {
+            BitSet bits = new BitSet(l.length);
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] > r[i]) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        Comparison complement() {
+            return LESS_OR_EQUAL;
+        }
+
+        @Override
+        Comparison mirror() {
+            return LESS;
+        }
+    },
+
+    LESS("<") {
+        @Override
+        boolean test(final double l, final double r) {
+            return l < r;
+        }
+
+        @Override
+        BitSet test(final double[] l, final double r) {
+            BitSet bits = new BitSet(l.length);
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] < r) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        BitSet test(final double[] l, final double[] r) {
+            BitSet bits = new BitSet(l.length);
+            for (int i = 0; i < l.length; i++) {
+                if (l[i] < r[i]) {
+                    bits.set(i);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        Comparison complement() {
+            return GREATER_OR_EQUAL;
+        }
+
+        @Override
+        Comparison mirror() {
+            return GREATER;
+        }
+    };
+
+    private final String symbol;
+
+    Comparison(final String symbol) {
+        this.symbol = symbol;
+    }
+
+    String getSymbol() {
+        return symbol;
+    }
+
+    abstract boolean test(double l, double r);
+
+    abstract BitSet test(double[] l, double r);
+
+    abstract BitSet test(double[] l, double[] r);
+
+    /**
+     * @return the operator that's true exactly where this one is false and neither side is NaN
+     */
+    abstract Comparison complement();
+
+    /**
+     * @return the operator that gives the same result with its operands swapped
+     */
+    abstract Comparison mirror();
+
+    Condition compare(final Column left, final Column right) {
+        Comparison complement = complement();
+        return new ThreeValuedCondition(context -> test(left.getValues(context), right.getValues(context)),
+                context -> complement.test(left.getValues(context), right.getValues(context)));
+    }
+
+    Condition compare(final Column left, final double right) {
+        Comparison complement = complement();
+        return new ThreeValuedCondition(context -> test(left.getValues(context), right),
+                context -> complement.test(left.getValues(context), right));
+    }
+
+    Condition compare(final double left, final Column right) {
+        return mirror().compare(right, left);
+    }
+
+    Condition compare(final double left, final double right) {
+        boolean isTrue = test(left, right);
+        boolean isFalse = complement().test(left, right);
+        return new ThreeValuedCondition(context -> fill(context, isTrue), context -> fill(context, isFalse));
+    }
+
+    private static BitSet fill(final ScreenContext context, final boolean value) {
+        BitSet bits = new BitSet(context.size());
+        if (value) {
+            bits.set(0, context.size());
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.screens;
+
+import java.util.BitSet;
+
+/**
+ * A screen condition evaluated at every bar of a symbol's history at once. Bit i of the result is set when the
+ * condition holds as of bar i.
+ * <p>
+ * Conditions use three-valued logic: a comparison involving NaN, e.g. against a missing close, is neither true nor
+ * false, so it stays out of both {@link #evaluate} and {@link #evaluateFalse} and negating it doesn't make it pass.
+ * {@code and} and {@code or} follow the usual rules, so {@code unknown && false} is false and
+ * {@code unknown || true} is true.
+ */
+@FunctionalInterface
+public interface Condition {
+
+    BitSet evaluate(ScreenContext context);
+
+    /**
+     * Gets the bars where the condition is known not to hold. By default that's every bar {@link #evaluate} leaves
+     * clear, which is right for conditions that are never unknown.
+     *
+     * @param context indicator columns for the symbol
+     *
+     * @return bits set where the condition is false
+     */
+    default BitSet evaluateFalse(final ScreenContext context) {
+        BitSet result = evaluate(context);
+        result.flip(0, context.size());
+        return result;
+    }
+
+    default Condition and(final Condition other) {
+        return new ThreeValuedCondition(context -> {
+            BitSet result = evaluate(context);
+            result.and(other.evaluate(context));
+            return result;
+        }, context -> {
+            BitSet result = evaluateFalse(context);
+            result.or(other.evaluateFalse(context));
+            return result;
+        });
+    }
+
+    default Condition or(final Condition other) {
+        return new ThreeValuedCondition(context -> {
+            BitSet result = evaluate(context);
+            result.or(other.evaluate(context));
+            return result;
+        }, context -> {
+            BitSet result = evaluateFalse(context);
+            result.and(other.evaluateFalse(context));
+            return result;
+        });
+    }
+
+    default Condition negate() {
+        return new ThreeValuedCondition(this::evaluateFalse, this::evaluate);
+    }
+}
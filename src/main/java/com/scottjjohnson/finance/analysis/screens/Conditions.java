@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.screens;
+
+import java.util.BitSet;
+
+/**
+ * Factory methods for the comparisons screens are built from. Comparisons involving NaN are unknown rather than
+ * false, so they don't pass when negated either; see {@link Condition}.
+ */
+public final class Conditions {
+
+    /**
+     * Private constructor to avoid instantiation
+     */
+    private Conditions() {
+    }
+
+    public static Condition greaterThan(final Column left, final Column right) {
+        return Comparison.GREATER.compare(left, right);
+    }
+
+    public static Condition greaterThan(final Column left, final double right) {
+        return Comparison.GREATER.compare(left, right);
+    }
+
+    public static Condition lessThan(final Column left, final Column right) {
+        return greaterThan(right, left);
+    }
+
+    public static Condition lessThan(final Column left, final double right) {
+        return Comparison.LESS.compare(left, right);
+    }
+
+    /**
+     * Passes when a value is no more than a percentage below a reference, e.g. a close within 25% of the 52-week high.
+     *
+     * @param value     column being tested
+     * @param reference column the value is compared to
+     * @param percent   allowed distance below the reference, e.g. 25.0
+     *
+     * @return condition
+     */
+    public static Condition withinPercentBelow(final Column value, final Column reference, final double percent) {
+        double factor = 1.0d - percent / 100.0d;
+        return new ThreeValuedCondition(context -> {
+            double[] v = value.getValues(context);
+            double[] r = reference.getValues(context);
+            BitSet result = new BitSet(v.length);
+            for (int i = 0; i < v.length; i++) {
+                if (v[i] >= r[i] * factor) {
+                    result.set(i);
+                }
+            }
+            return result;
+        }, context -> {
+            double[] v = value.getValues(context);
+            double[] r = reference.getValues(context);
+            BitSet result = new BitSet(v.length);
+            for (int i = 0; i < v.length; i++) {
+                if (v[i] < r[i] * factor) {
+                    result.set(i);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Passes once a symbol has enough bars for the indicators to cover full windows, e.g. 200 for a 200-day SMA.
+     *
+     * @param bars minimum number of bars up to and including the current one
+     *
+     * @return condition
+     */
+    public static Condition hasHistory(final int bars) {
+        return context -> {
+            BitSet result = new BitSet(context.size());
+            result.set(Math.max(bars - 1, 0), Math.max(context.size(), bars - 1));
+            return result;
+        };
+    }
+}
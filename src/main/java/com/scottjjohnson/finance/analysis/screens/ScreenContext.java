@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.screens;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.scottjjohnson.finance.analysis.calculators.EMACalculator;
+import com.scottjjohnson.finance.analysis.calculators.MaxPriceCalculator;
+import com.scottjjohnson.finance.analysis.calculators.SMACalculator;
+import com.scottjjohnson.finance.analysis.calculators.UpDownVolumeRatioCalculator;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+
+/**
+ * Full-history indicator columns for one symbol. Each indicator is computed at most once per context no matter how
+ * many conditions in a screen refer to it.
+ * <p>
+ * A context belongs to a single screen evaluation on a single thread.
+ */
+public class ScreenContext {
+
+    private final QuoteSeries quotes;
+    private final Map<String, double[]> columns = new HashMap<>();
+
+    public ScreenContext(final QuoteSeries quotes) {
+        this.quotes = quotes;
+    }
+
+    public QuoteSeries getQuotes() {
+        return quotes;
+    }
+
+    /**
+     * @return number of bars, which is also the length of every column
+     */
+    public int size() {
+        return quotes.size();
+    }
+
+    public double[] getClose() {
+        return getColumn("close", q -> {
+            double[] column = new double[q.size()];
+            for (int i = 0; i < column.length; i++) {
+                column[i] = q.getClose(i);
+            }
+            return column;
+        });
+    }
+
+    public double[] getOpen() {
+        return getColumn("open", q -> {
+            double[] column = new double[q.size()];
+            for (int i = 0; i < column.length; i++) {
+                column[i] = q.getOpen(i);
+            }
+            return column;
+        });
+    }
+
+    public double[] getHigh() {
+        return getColumn("high", q -> {
+            double[] column = new double[q.size()];
+            for (int i = 0; i < column.length; i++) {
+                column[i] = q.getHigh(i);
+            }
+            return column;
+        });
+    }
+
+    public double[] getLow() {
+        return getColumn("low", q -> {
+            double[] column = new double[q.size()];
+            for (int i = 0; i < column.length; i++) {
+                column[i] = q.getLow(i);
+            }
+            return column;
+        });
+    }
+
+    public double[] getVolume() {
+        return getColumn("volume", q -> {
+            double[] column = new double[q.size()];
+            for (int i = 0; i < column.length; i++) {
+                column[i] = q.getVolume(i);
+            }
+            return column;
+        });
+    }
+
+    public double[] getSMA(final int days) {
+        return getColumn("sma(" + days + ")", q -> new SMACalculator().calculateSeries(q, days));
+    }
+
+    public double[] getEMA(final int days) {
+        return getColumn("ema(" + days + ")", q -> new EMACalculator().calculateSeries(q, days));
+    }
+
+    /**
+     * @param days number of bars in the window, e.g. 252 for the 52-week high
+     *
+     * @return trailing max high
+     */
+    public double[] getMaxHigh(final int days) {
+        return getColumn("maxhigh(" + days + ")", q -> new MaxPriceCalculator().calculateSeries(q, days));
+    }
+
+    public double[] getUpDownVolumeRatio(final int days) {
+        return getColumn("updown(" + days + ")", q -> {
+            float[] ratios = new UpDownVolumeRatioCalculator().calculateSeries(q, days);
+            double[] column = new double[ratios.length];
+            for (int i = 0; i < column.length; i++) {
+                column[i] = ratios[i];
+            }
+            return column;
+        });
+    }
+
+    /**
+     * Gets a column, computing it the first time its key is requested.
+     *
+     * @param key     unique name of the column including its parameters, e.g. "sma(50)"
+     * @param compute builds the column from the quotes
+     *
+     * @return column with one value per bar
+     */
+    public double[] getColumn(final String key, final Function<QuoteSeries, double[]> compute) {
+        double[] column = columns.get(key);
+        if (column == null) {
+            column = compute.apply(quotes);
+            columns.put(key, column);
+        }
+        return column;
+    }
+
+    /**
+     * Gets a column derived from other columns, computing it the first time its key is requested.
+     *
+     * @param key     unique name of the column, e.g. "(close*1.1)"
+     * @param compute builds the column, usually from other columns of this context
+     *
+     * @return column with one value per bar
+     */
+    public double[] getDerivedColumn(final String key, final Column compute) {
+        double[] column = columns.get(key);
+        if (column == null) {
+            column = compute.getValues(this);
+            columns.put(key, column);
+        }
+        return column;
+    }
+}
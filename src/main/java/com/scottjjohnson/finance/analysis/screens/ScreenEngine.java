@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.screens;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+
+/**
+ * Evaluates a screen at every historical date for every symbol in a universe. Each symbol's indicators are computed
+ * once as full-history columns, the conditions are combined as bitsets, and symbols are evaluated in parallel.
+ */
+public class ScreenEngine {
+
+    /**
+     * Runs a screen over a universe.
+     *
+     * @param universe series for each symbol
+     * @param screen   condition to evaluate
+     *
+     * @return epoch days on which each symbol passed, keyed by symbol in universe order. Symbols that never passed map
+     *         to an empty array.
+     */
+    public Map<String, int[]> run(final Collection<? extends QuoteSeries> universe, final Condition screen) {
+
+        List<int[]> passingDays = universe.parallelStream()
+                                          .map(quotes -> run(quotes, screen))
+                                          .collect(Collectors.toList());
+
+        Map<String, int[]> results = new LinkedHashMap<>();
+        int i = 0;
+        for (QuoteSeries quotes : universe) {
+            results.put(quotes.getSymbol(), passingDays.get(i++));
+        }
+
+        return results;
+    }
+
+    /**
+     * Runs a screen over one symbol's history.
+     *
+     * @param quotes series for the symbol
+     * @param screen condition to evaluate
+     *
+     * @return epoch days on which the symbol passed in chronological order
+     */
+    public int[] run(final QuoteSeries quotes, final Condition screen) {
+
+        BitSet passed = screen.evaluate(new ScreenContext(quotes));
+
+        int[] days = new int[passed.cardinality()];
+        int d = 0;
+        for (int i = passed.nextSetBit(0); i >= 0 && i < quotes.size(); i = passed.nextSetBit(i + 1)) {
+            days[d++] = quotes.getEpochDay(i);
+        }
+
+        return d == days.length ? days : Arrays.copyOf(days, d);
+    }
+}
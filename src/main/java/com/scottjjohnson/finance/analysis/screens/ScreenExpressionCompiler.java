@@ -0,0 +1,543 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.screens;
+
+import java.util.Locale;
+
+/**
+ * Compiles screen expressions such as {@code close > sma(50) && updown(50) > 1.2} into a {@link Condition}.
+ * <p>
+ * The expression is parsed once and turned directly into column operations: every numeric subexpression becomes a
+ * loop over primitive arrays and every comparison a loop that fills a bitset, with the loop for the operator and the
+ * operand shapes chosen at compile time. Constant subexpressions are folded. Each numeric subexpression is keyed by
+ * its canonical text so that repeated subexpressions, e.g. {@code sma(50)} on both sides of an {@code ||}, are computed once per symbol.
+ * <p>
+ * Grammar, loosest binding first:
+ *
+ * <pre>
+ * expression := and ('||' and)*
+ * and        := not ('&amp;&amp;' not)*
+ * not        := '!' not | comparison
+ * comparison := sum (('&gt;' | '&gt;=' | '&lt;' | '&lt;=' | '==' | '!=') sum)?
+ * sum        := product (('+' | '-') product)*
+ * product    := unary (('*' | '/') unary)*
+ * unary      := '-' unary | primary
+ * primary    := number | field | function '(' integer ')' | '(' expression ')'
+ * field      := open | high | low | close | volume
+ * function   := sma | ema | max | updown | history
+ * </pre>
+ *
+ * {@code max(n)} is the trailing n-bar high and {@code history(n)} is true once a symbol has at least n bars.
+ */
+public final class ScreenExpressionCompiler {
+
+    private final String expression;
+    private int position;
+
+    private ScreenExpressionCompiler(final String expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * Compiles a screen expression.
+     *
+     * @param expression screen expression
+     *
+     * @return condition that evaluates the expression at every bar
+     *
+     * @throws IllegalArgumentException if the expression is malformed or isn't a boolean expression
+     */
+    public static Condition compile(final String expression) {
+
+        ScreenExpressionCompiler compiler = new ScreenExpressionCompiler(expression);
+        Operand result = compiler.parseExpression();
+
+        compiler.skipWhitespace();
+        if (compiler.position < expression.length()) {
+            throw compiler.error("Unexpected '" + expression.charAt(compiler.position) + "'");
+        }
+
+        return compiler.requireBoolean(result).condition;
+    }
+
+    private Operand parseExpression() {
+        Operand left = parseAnd();
+        while (accept("||")) {
+            Condition l = requireBoolean(left).condition;
+            Condition r = requireBoolean(parseAnd()).condition;
+            left = new Operand(l.or(r));
+        }
+        return left;
+    }
+
+    private Operand parseAnd() {
+        Operand left = parseNot();
+        while (accept("&&")) {
+            Condition l = requireBoolean(left).condition;
+            Condition r = requireBoolean(parseNot()).condition;
+            left = new Operand(l.and(r));
+        }
+        return left;
+    }
+
+    private Operand parseNot() {
+        if (peek('!') && !peek("!=")) {
+            position++;
+            return new Operand(requireBoolean(parseNot()).condition.negate());
+        }
+        return parseComparison();
+    }
+
+    private Operand parseComparison() {
+
+        Operand left = parseSum();
+
+        for (Comparison op : Comparison.values()) {
+            if (accept(op.getSymbol())) {
+                Operand right = parseSum();
+                return new Operand(compare(op, requireNumeric(left), requireNumeric(right)));
+            }
+        }
+
+        return left;
+    }
+
+    private Operand parseSum() {
+        Operand left = parseProduct();
+        while (true) {
+            if (accept("+")) {
+                left = arithmetic(Arithmetic.ADD, requireNumeric(left), requireNumeric(parseProduct()));
+            } else if (accept("-")) {
+                left = arithmetic(Arithmetic.SUBTRACT, requireNumeric(left), requireNumeric(parseProduct()));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Operand parseProduct() {
+        Operand left = parseUnary();
+        while (true) {
+            if (accept("*")) {
+                left = arithmetic(Arithmetic.MULTIPLY, requireNumeric(left), requireNumeric(parseUnary()));
+            } else if (accept("/")) {
+                left = arithmetic(Arithmetic.DIVIDE, requireNumeric(left), requireNumeric(parseUnary()));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Operand parseUnary() {
+        if (accept("-")) {
+            return arithmetic(Arithmetic.MULTIPLY, new Operand(-1.0d), requireNumeric(parseUnary()));
+        }
+        return parsePrimary();
+    }
+
+    private Operand parsePrimary() {
+
+        skipWhitespace();
+
+        if (accept("(")) {
+            Operand inner = parseExpression();
+            expect(")");
+            return inner;
+        }
+
+        if (position < expression.length() && isNumberStart(expression.charAt(position))) {
+            return new Operand(parseNumber());
+        }
+
+        String name = parseIdentifier();
+        switch (name) {
+            case "open":
+                return new Operand("open", Column.open());
+            case "high":
+                return new Operand("high", Column.high());
+            case "low":
+                return new Operand("low", Column.low());
+            case "close":
+                return new Operand("close", Column.close());
+            case "volume":
+                return new Operand("volume", Column.volume());
+            default:
+                return parseFunction(name);
+        }
+    }
+
+    private Operand parseFunction(final String name) {
+
+        String key;
+        switch (name) {
+            case "sma":
+            case "ema":
+            case "updown":
+            case "history":
+                key = name;
+                break;
+            case "max":
+                key = "maxhigh";
+                break;
+            default:
+                throw error("Unknown name '" + name + "'");
+        }
+
+        int days = parseArgument();
+
+        // the built-in indicators are cached by the context under these same keys
+        key = key + "(" + days + ")";
+
+        switch (name) {
+            case "sma":
+                return new Operand(key, Column.sma(days));
+            case "ema":
+                return new Operand(key, Column.ema(days));
+            case "updown":
+                return new Operand(key, Column.upDownVolumeRatio(days));
+            case "max":
+                return new Operand(key, Column.maxHigh(days));
+            default:
+                return new Operand(Conditions.hasHistory(days));
+        }
+    }
+
+    /**
+     * Parses "(n)" for a function with a positive integer argument.
+     */
+    private int parseArgument() {
+        expect("(");
+        skipWhitespace();
+        int start = position;
+        while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+            position++;
+        }
+        if (start == position) {
+            throw error("Expected a whole number of bars");
+        }
+        int days = Integer.parseInt(expression.substring(start, position));
+        if (days < 1) {
+            throw error("Number of bars must be at least 1");
+        }
+        expect(")");
+        return days;
+    }
+
+    private double parseNumber() {
+        int start = position;
+        while (position < expression.length() && isNumberStart(expression.charAt(position))) {
+            position++;
+        }
+        try {
+            return Double.parseDouble(expression.substring(start, position));
+        } catch (NumberFormatException e) {
+            position = start;
+            throw error("Malformed number");
+        }
+    }
+
+    private String parseIdentifier() {
+        int start = position;
+        while (position < expression.length() && Character.isLetter(expression.charAt(position))) {
+            position++;
+        }
+        if (start == position) {
+            throw error(position < expression.length()
+                    ? "Unexpected '" + expression.charAt(position) + "'"
+                    : "Unexpected end of expression");
+        }
+        return expression.substring(start, position).toLowerCase(Locale.US);
+    }
+
+    private static boolean isNumberStart(final char c) {
+        return Character.isDigit(c) || c == '.';
+    }
+
+    private boolean accept(final String token) {
+        skipWhitespace();
+        if (expression.startsWith(token, position)) {
+            position += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(final String token) {
+        if (!accept(token)) {
+            throw error("Expected '" + token + "'");
+        }
+    }
+
+    private boolean peek(final char c) {
+        skipWhitespace();
+        return position < expression.length() && expression.charAt(position) == c;
+    }
+
+    private boolean peek(final String token) {
+        skipWhitespace();
+        return expression.startsWith(token, position);
+    }
+
+    private void skipWhitespace() {
+        while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+            position++;
+        }
+    }
+
+    private Operand requireBoolean(final Operand operand) {
+        if (operand.condition == null) {
+            throw error("Expected a condition but found " + operand.key);
+        }
+        return operand;
+    }
+
+    private Operand requireNumeric(final Operand operand) {
+        if (operand.condition != null) {
+            throw error("Expected a number but found a condition");
+        }
+        return operand;
+    }
+
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException(message + " at position " + position + " in screen: " + expression);
+    }
+
+    private static Operand arithmetic(final Arithmetic op, final Operand left, final Operand right) {
+
+        if (left.isConstant() && right.isConstant()) {
+            return new Operand(op.apply(left.value, right.value));
+        }
+
+        String key = "(" + left.key + op.symbol + right.key + ")";
+        Column compute;
+
+        if (right.isConstant()) {
+            Column l = left.column;
+            double r = right.value;
+            compute = context -> op.apply(l.getValues(context), r);
+        } else if (left.isConstant()) {
+            double l = left.value;
+            Column r = right.column;
+            compute = context -> op.apply(l, r.getValues(context));
+        } else {
+            Column l = left.column;
+            Column r = right.column;
+            compute = context -> op.apply(l.getValues(context), r.getValues(context));
+        }
+
+        return new Operand(key, context -> context.getDerivedColumn(key, compute));
+    }
+
+    private static Condition compare(final Comparison op, final Operand left, final Operand right) {
+        if (left.isConstant()) {
+            return right.isConstant() ? op.compare(left.value, right.value) : op.compare(left.value, right.column);
+        }
+        return right.isConstant() ? op.compare(left.column, right.value) : op.compare(left.column, right.column);
+    }
+
+    /**
+     * Arithmetic operators, each with its own loop for every operand shape so the operator is inlined into the loop.
+     */
+    private enum Arithmetic {
+
+        ADD('+') {
+            @Override
+            double apply(final double l, final double r) {
+                return l + r;
+            }
+
+            @Override
+            double[] apply(final double[] l, final double r) {
+                double[] result = new double[l.length];
+                for (int i = 0; i < l.length; i++) {
+                    result[i] = l[i] + r;
+                }
+                return result;
+            }
+
+            @Override
+            double[] apply(final double l, final double[] r) {
+                double[] result = new double[r.length];
+                for (int i = 0; i < r.length; i++) {
+                    result[i] = l + r[i];
+                }
+                return result;
+            }
+
+            @Override
+            double[] apply(final double[] l, final double[] r) {
+                double[] result = new double[l.length];
+                for (int i = 0; i < l.length; i++) {
+                    result[i] = l[i] + r[i];
+                }
+                return result;
+            }
+        },
+
+        SUBTRACT('-') {
+            @Override
+            double apply(final double l, final double r) {
+                return l - r;
+            }
+
+            @Override
+            double[] apply(final double[] l, final double r) {
+                double[] result = new double[l.length];
+                for (int i = 0; i < l.length; i++) {
+                    result[i] = l[i] - r;
+                }
+                return result;
+            }
+
+            @Override
+            double[] apply(final double l, final double[] r) {
+                double[] result = new double[r.length];
+                for (int i = 0; i < r.length; i++) {
+                    result[i] = l - r[i];
+                }
+                return result;
+            }
+
+            @Override
+            double[] apply(final double[] l, final double[] r) {
+                double[] result = new double[l.length];
+                for (int i = 0; i < l.length; i++) {
+                    result[i] = l[i] - r[i];
+                }
+                return result;
+            }
+        },
+
+        MULTIPLY('*') {
+            @Override
+            double apply(final double l, final double r) {
+                return l * r;
+            }
+
+            @Override
+            double[] apply(final double[] l, final double r) {
+                double[] result = new double[l.length];
+                for (int i = 0; i < l.length; i++) {
+                    result[i] = l[i] * r;
+                }
+                return result;
+            }
+
+            @Override
+            double[] apply(final double l, final double[] r) {
+                double[] result = new double[r.length];
+                for (int i = 0; i < r.length; i++) {
+                    result[i] = l * r[i];
+                }
+                return result;
+            }
+
+            @Override
+            double[] apply(final double[] l, final double[] r) {
+                double[] result = new double[l.length];
+                for (int i = 0; i < l.length; i++) {
+                    result[i] = l[i] * r[i];
+                }
+                return result;
+            }
+        },
+
+        DIVIDE('/') {
+            @Override
+            double apply(final double l, final double r) {
+                return l / r;
+            }
+
+            @Override
+            double[] apply(final double[] l, final double r) {
+                double[] result = new double[l.length];
+                for (int i = 0; i < l.length; i++) {
+                    result[i] = l[i] / r;
+                }
+                return result;
+            }
+
+            @Override
+            double[] apply(final double l, final double[] r) {
+                double[] result = new double[r.length];
+                for (int i = 0; i < r.length; i++) {
+                    result[i] = l / r[i];
+                }
+                return result;
+            }
+
+            @Override
+            double[] apply(final double[] l, final double[] r) {
+                double[] result = new double[l.length];
+                for (int i = 0; i < l.length; i++) {
+                    result[i] = l[i] / r[i];
+                }
+                return result;
+            }
+        };
+
+        private final char symbol;
+
+        Arithmetic(final char symbol) {
+            this.symbol = symbol;
+        }
+
+        abstract double apply(double l, double r);
+
+        abstract double[] apply(double[] l, double r);
+
+        abstract double[] apply(double l, double[] r);
+
+        abstract double[] apply(double[] l, double[] r);
+    }
+
+    /**
+     * Result of compiling a subexpression: a constant, a numeric column or a condition.
+     */
+    private static final class Operand {
+
+        private final String key;
+        private final Column column;
+        private final double value;
+        private final Condition condition;
+
+        private Operand(final double value) {
+            this.key = Double.toString(value);
+            this.column = null;
+            this.value = value;
+            this.condition = null;
+        }
+
+        private Operand(final String key, final Column column) {
+            this.key = key;
+            this.column = column;
+            this.value = Double.NaN;
+            this.condition = null;
+        }
+
+        private Operand(final Condition condition) {
+            this.key = null;
+            this.column = null;
+            this.value = Double.NaN;
+            this.condition = condition;
+        }
+
+        private boolean isConstant() {
+            return column == null && condition == null;
+        }
+    }
+}
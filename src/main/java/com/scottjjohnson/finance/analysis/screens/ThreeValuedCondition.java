@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.screens;
+
+import java.util.BitSet;
+
+/**
+ * A condition that can be unknown at some bars, with the bars where it's true and the bars where it's false computed
+ * separately.
+ */
+final class ThreeValuedCondition implements Condition {
+
+    private final Condition whenTrue;
+    private final Condition whenFalse;
+
+    /**
+     * @param whenTrue  sets the bars where the condition holds
+     * @param whenFalse sets the bars where the condition is known not to hold
+     */
+    ThreeValuedCondition(final Condition whenTrue, final Condition whenFalse) {
+        this.whenTrue = whenTrue;
+        this.whenFalse = whenFalse;
+    }
+
+    @Override
+    public BitSet evaluate(final ScreenContext context) {
+        return whenTrue.evaluate(context);
+    }
+
+    @Override
+    public BitSet evaluateFalse(final ScreenContext context) {
+        return whenFalse.evaluate(context);
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+/**
+ * Adjusted view over a series of unadjusted bars. Adjustment factors from a {@link CorporateActionTable} are applied as
+ * values are read, so one stored series can serve unadjusted, split-adjusted and split+dividend-adjusted views without
+ * copying any bars. Recording a new action only invalidates the view's per-segment factors, which are rebuilt on the
+ * next read with a binary search per ex-date. Appending bars to the raw series only moves the starts of segments
+ * whose ex-dates were past its old end, so reading after each append stays cheap.
+ * <p>
+ * Volumes are adjusted for splits only since dividends have no effect on volume.
+ */
+public class AdjustedQuoteSeries implements QuoteSeries {
+
+    public enum Adjustment {
+        NONE,
+        SPLITS,
+        SPLITS_AND_DIVIDENDS
+    }
+
+    private final QuoteSeries raw;
+    private final CorporateActionTable actions;
+    private final Adjustment adjustment;
+
+    private volatile Segments segments;
+
+    public AdjustedQuoteSeries(final QuoteSeries raw, final CorporateActionTable actions,
+            final Adjustment adjustment) {
+        this.raw = raw;
+        this.actions = actions;
+        this.adjustment = adjustment;
+    }
+
+    public Adjustment getAdjustment() {
+        return adjustment;
+    }
+
+    @Override
+    public String getSymbol() {
+        return raw.getSymbol();
+    }
+
+    @Override
+    public int size() {
+        return raw.size();
+    }
+
+    @Override
+    public int getEpochDay(final int index) {
+        return raw.getEpochDay(index);
+    }
+
+    @Override
+    public double getOpen(final int index) {
+        return raw.getOpen(index) * getPriceFactor(index);
+    }
+
+    @Override
+    public double getHigh(final int index) {
+        return raw.getHigh(index) * getPriceFactor(index);
+    }
+
+    @Override
+    public double getLow(final int index) {
+        return raw.getLow(index) * getPriceFactor(index);
+    }
+
+    @Override
+    public double getClose(final int index) {
+        return raw.getClose(index) * getPriceFactor(index);
+    }
+
+    @Override
+    public long getVolume(final int index) {
+        if (adjustment == Adjustment.NONE) {
+            return raw.getVolume(index);
+        }
+        Segments current = getSegments();
+        return Math.round(raw.getVolume(index) / current.splitFactors[current.find(index)]);
+    }
+
+    /**
+     * Gets the multiplier applied to the unadjusted prices of a bar.
+     *
+     * @param index bar index
+     *
+     * @return price adjustment factor
+     */
+    public double getPriceFactor(final int index) {
+        if (adjustment == Adjustment.NONE) {
+            return 1.0d;
+        }
+        Segments current = getSegments();
+        return current.priceFactors[current.find(index)];
+    }
+
+    private Segments getSegments() {
+
+        Segments current = segments;
+
+        if (current == null || current.version != actions.getVersion()) {
+            current = new Segments(raw, actions, adjustment);
+            segments = current;
+        } else if (current.rawSize != raw.size()) {
+            // bars are only ever appended, so only segments starting at the old end can have moved
+            current = current.extend(raw);
+            segments = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * Immutable snapshot of the bar ranges between actions and their factors.
+     */
+    private static final class Segments {
+
+        private final int version;
+        private final int rawSize;
+
+        // ex-date that starts each segment after the first, and the bar index where each segment starts
+        private final int[] exEpochDays;
+        private final int[] startIndexes;
+        private final double[] priceFactors;
+        private final double[] splitFactors;
+
+        private Segments(final QuoteSeries raw, final CorporateActionTable actions, final Adjustment adjustment) {
+
+            version = actions.getVersion();
+            rawSize = raw.size();
+
+            int numberOfSegments = actions.size() + 1;
+            exEpochDays = new int[numberOfSegments - 1];
+            startIndexes = new int[numberOfSegments];
+            priceFactors = new double[numberOfSegments];
+            splitFactors = new double[numberOfSegments];
+
+            int barIndex = 0;
+            for (int segment = 0; segment < numberOfSegments; segment++) {
+                if (segment > 0) {
+                    exEpochDays[segment - 1] = actions.getExEpochDay(segment - 1);
+                    barIndex = findFirstBarOnOrAfter(raw, barIndex, rawSize, exEpochDays[segment - 1]);
+                }
+                startIndexes[segment] = barIndex;
+                splitFactors[segment] = actions.getSplitFactor(segment);
+                priceFactors[segment] = adjustment == Adjustment.SPLITS_AND_DIVIDENDS
+                        ? splitFactors[segment] * actions.getDividendFactor(segment)
+                        : splitFactors[segment];
+            }
+        }
+
+        private Segments(final Segments previous, final int rawSize, final int[] startIndexes) {
+            this.version = previous.version;
+            this.rawSize = rawSize;
+            this.exEpochDays = previous.exEpochDays;
+            this.startIndexes = startIndexes;
+            this.priceFactors = previous.priceFactors;
+            this.splitFactors = previous.splitFactors;
+        }
+
+        /**
+         * Gets the segments after bars were appended to the raw series. Segments that started before the old end keep
+         * their starts, so only the ones whose ex-dates were past it are searched again, among the new bars.
+         */
+        private Segments extend(final QuoteSeries raw) {
+
+            int newRawSize = raw.size();
+            int last = startIndexes.length - 1;
+            if (startIndexes[last] < rawSize) {
+                return new Segments(this, newRawSize, startIndexes);
+            }
+
+            int[] newStartIndexes = startIndexes.clone();
+            int first = last;
+            while (first > 0 && startIndexes[first - 1] == rawSize) {
+                first--;
+            }
+
+            int barIndex = rawSize;
+            for (int segment = Math.max(first, 1); segment <= last; segment++) {
+                barIndex = findFirstBarOnOrAfter(raw, barIndex, newRawSize, exEpochDays[segment - 1]);
+                newStartIndexes[segment] = barIndex;
+            }
+
+            return new Segments(this, newRawSize, newStartIndexes);
+        }
+
+        /**
+         * @return index of the first bar in [from, to) dated on or after the day, or to if there isn't one
+         */
+        private static int findFirstBarOnOrAfter(final QuoteSeries raw, final int from, final int to,
+                final int epochDay) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (raw.getEpochDay(middle) < epochDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the last segment starting at or before the bar
+         */
+        private int find(final int index) {
+            int low = 0;
+            int high = startIndexes.length - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (startIndexes[middle] <= index) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+import java.util.Arrays;
+
+/**
+ * A stock's and a benchmark's closes on the days both have a bar, in chronological order. Built by a merge join of
+ * the two series' dates, which takes one linear pass and no hashing.
+ * <p>
+ * Immutable.
+ */
+public class AlignedPairSeries {
+
+    private final String symbol;
+    private final String benchmarkSymbol;
+    private final int[] epochDays;
+    private final double[] closes;
+    private final double[] benchmarkCloses;
+
+    private AlignedPairSeries(final String symbol, final String benchmarkSymbol, final int[] epochDays,
+                              final double[] closes, final double[] benchmarkCloses) {
+        this.symbol = symbol;
+        this.benchmarkSymbol = benchmarkSymbol;
+        this.epochDays = epochDays;
+        this.closes = closes;
+        this.benchmarkCloses = benchmarkCloses;
+    }
+
+    /**
+     * Joins two quote series on their dates.
+     *
+     * @param stock     stock's quotes in chronological order
+     * @param benchmark benchmark's quotes in chronological order
+     *
+     * @return closes on the days in both series
+     */
+    public static AlignedPairSeries join(final QuoteSeries stock, final QuoteSeries benchmark) {
+
+        int stockSize = stock.size();
+        int benchmarkSize = benchmark.size();
+        int capacity = Math.min(stockSize, benchmarkSize);
+        int[] epochDays = new int[capacity];
+        double[] closes = new double[capacity];
+        double[] benchmarkCloses = new double[capacity];
+
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < stockSize && j < benchmarkSize) {
+            int stockDay = stock.getEpochDay(i);
+            int benchmarkDay = benchmark.getEpochDay(j);
+            if (stockDay < benchmarkDay) {
+                i++;
+            } else if (stockDay > benchmarkDay) {
+                j++;
+            } else {
+                epochDays[count] = stockDay;
+                closes[count] = stock.getClose(i++);
+                benchmarkCloses[count] = benchmark.getClose(j++);
+                count++;
+            }
+        }
+
+        return new AlignedPairSeries(stock.getSymbol(), benchmark.getSymbol(), Arrays.copyOf(epochDays, count),
+                Arrays.copyOf(closes, count), Arrays.copyOf(benchmarkCloses, count));
+    }
+
+    /**
+     * Joins a quote series with date-indexed benchmark closes, using a direct lookup for each stock bar.
+     *
+     * @param stock     stock's quotes in chronological order
+     * @param benchmark benchmark's closes
+     *
+     * @return closes on the days in both series
+     */
+    public static AlignedPairSeries join(final QuoteSeries stock, final DateIndexedSeries benchmark) {
+
+        int stockSize = stock.size();
+        int[] epochDays = new int[stockSize];
+        double[] closes = new double[stockSize];
+        double[] benchmarkCloses = new double[stockSize];
+
+        int count = 0;
+        for (int i = 0; i < stockSize; i++) {
+            int epochDay = stock.getEpochDay(i);
+            if (benchmark.contains(epochDay)) {
+                epochDays[count] = epochDay;
+                closes[count] = stock.getClose(i);
+                benchmarkCloses[count] = benchmark.getClose(epochDay);
+                count++;
+            }
+        }
+
+        return new AlignedPairSeries(stock.getSymbol(), benchmark.getSymbol(), Arrays.copyOf(epochDays, count),
+                Arrays.copyOf(closes, count), Arrays.copyOf(benchmarkCloses, count));
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getBenchmarkSymbol() {
+        return benchmarkSymbol;
+    }
+
+    /**
+     * @return number of days in both series
+     */
+    public int size() {
+        return epochDays.length;
+    }
+
+    public int getEpochDay(final int index) {
+        return epochDays[index];
+    }
+
+    public double getClose(final int index) {
+        return closes[index];
+    }
+
+    public double getBenchmarkClose(final int index) {
+        return benchmarkCloses[index];
+    }
+}
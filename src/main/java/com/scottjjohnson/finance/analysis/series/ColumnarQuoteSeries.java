@@ -0,0 +1,216 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.util.DateUtils;
+
+/**
+ * Quote series backed by growable primitive arrays, one per column. Bars must be appended in chronological order.
+ * <p>
+ * Not thread-safe while bars are being appended. Once loaded, concurrent readers are fine.
+ */
+public class ColumnarQuoteSeries implements QuoteSeries {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private final String symbol;
+    private int size;
+    private int[] epochDays;
+    private double[] opens;
+    private double[] highs;
+    private double[] lows;
+    private double[] closes;
+    private long[] volumes;
+
+    public ColumnarQuoteSeries(final String symbol) {
+        this(symbol, DEFAULT_CAPACITY);
+    }
+
+    public ColumnarQuoteSeries(final String symbol, final int initialCapacity) {
+        this.symbol = symbol;
+        int capacity = Math.max(initialCapacity, 1);
+        epochDays = new int[capacity];
+        opens = new double[capacity];
+        highs = new double[capacity];
+        lows = new double[capacity];
+        closes = new double[capacity];
+        volumes = new long[capacity];
+    }
+
+    /**
+     * Copies a list of quote beans into columns.
+     *
+     * @param quotes pre-sorted List of quotes
+     *
+     * @return columnar series with the bean's symbol
+     */
+    public static ColumnarQuoteSeries fromQuotes(final List<DailyQuoteBean> quotes) {
+
+        ColumnarQuoteSeries series = new ColumnarQuoteSeries(quotes.isEmpty() ? null : quotes.get(0).getSymbol(),
+                quotes.size());
+
+        for (DailyQuoteBean quote : quotes) {
+            series.append(quote.getEpochDay(), quote.getOpen(), quote.getHigh(), quote.getLow(), quote.getClose(),
+                    quote.getVolume());
+        }
+
+        return series;
+    }
+
+    /**
+     * Adds a bar to the end of the series.
+     */
+    public void append(final int epochDay, final double open, final double high, final double low,
+            final double close, final long volume) {
+
+        if (size == epochDays.length) {
+            grow();
+        }
+
+        epochDays[size] = epochDay;
+        opens[size] = open;
+        highs[size] = high;
+        lows[size] = low;
+        closes[size] = close;
+        volumes[size] = volume;
+        size++;
+    }
+
+    /**
+     * Adds all bars of another series to the end of this one.
+     *
+     * @param other series whose bars all come after the bars in this series
+     */
+    public void appendAll(final ColumnarQuoteSeries other) {
+
+        int newSize = size + other.size;
+        if (newSize > epochDays.length) {
+            resize(newSize);
+        }
+
+        System.arraycopy(other.epochDays, 0, epochDays, size, other.size);
+        System.arraycopy(other.opens, 0, opens, size, other.size);
+        System.arraycopy(other.highs, 0, highs, size, other.size);
+        System.arraycopy(other.lows, 0, lows, size, other.size);
+        System.arraycopy(other.closes, 0, closes, size, other.size);
+        System.arraycopy(other.volumes, 0, volumes, size, other.size);
+        size = newSize;
+    }
+
+    /**
+     * Releases unused capacity once the series is fully loaded.
+     */
+    public void trimToSize() {
+        if (size < epochDays.length) {
+            resize(size);
+        }
+    }
+
+    /**
+     * Builds quote beans for code that still works with bean lists. Each bean's date is midnight at the exchange.
+     *
+     * @return new List of quote beans
+     */
+    public List<DailyQuoteBean> toQuotes() {
+
+        List<DailyQuoteBean> quotes = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            DailyQuoteBean quote = new DailyQuoteBean();
+            quote.setSymbol(symbol);
+            quote.setDateObj(DateUtils.getMidnightForEpochDay(epochDays[i]));
+            quote.setOpen(opens[i]);
+            quote.setHigh(highs[i]);
+            quote.setLow(lows[i]);
+            quote.setClose(closes[i]);
+            quote.setVolume(volumes[i]);
+            quotes.add(quote);
+        }
+
+        return quotes;
+    }
+
+    @Override
+    public String getSymbol() {
+        return symbol;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getEpochDay(final int index) {
+        return epochDays[checkIndex(index)];
+    }
+
+    @Override
+    public double getOpen(final int index) {
+        return opens[checkIndex(index)];
+    }
+
+    @Override
+    public double getHigh(final int index) {
+        return highs[checkIndex(index)];
+    }
+
+    @Override
+    public double getLow(final int index) {
+        return lows[checkIndex(index)];
+    }
+
+    @Override
+    public double getClose(final int index) {
+        return closes[checkIndex(index)];
+    }
+
+    @Override
+    public long getVolume(final int index) {
+        return volumes[checkIndex(index)];
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarQuoteSeries{" + "symbol='" + symbol + '\'' + ", size=" + size + '}';
+    }
+
+    private int checkIndex(final int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is past the end of the series (" + size + ")");
+        }
+        return index;
+    }
+
+    private void grow() {
+        resize(epochDays.length + (epochDays.length >> 1) + 1);
+    }
+
+    private void resize(final int capacity) {
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        opens = Arrays.copyOf(opens, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+import java.util.Arrays;
+
+/**
+ * Immutable quote series stored as bit-packed fixed-point integers.
+ * <p>
+ * Prices are rounded to ticks of 10^-decimals (e.g. 4 decimals for ten-thousandths). Bars are grouped in blocks of
+ * {@value #BLOCK_SIZE} and each column of a block is stored with frame-of-reference encoding: the block's minimum plus
+ * each value's offset from it, packed with just enough bits for the largest offset. Open, high and low are stored
+ * relative to the bar's close, so they usually need far fewer bits than the close itself. Volumes use the same scheme,
+ * which gives them a different width in every block. NaN prices are kept as a sentinel that costs a full width
+ * block, and a bar with a NaN close reads back NaN for its open, high and low too.
+ * <p>
+ * Any single value can be read in O(1) without decoding its block, so the calculators can read through the series
+ * directly. {@link #decodeBlock(Field, int, double[])} unpacks a whole block for bulk scans. Instances are safe to
+ * share between threads.
+ */
+public class CompressedQuoteSeries implements QuoteSeries {
+
+    public static final int BLOCK_SIZE = 128;
+
+    public enum Field {
+        EPOCH_DAY,
+        OPEN,
+        HIGH,
+        LOW,
+        CLOSE,
+        VOLUME
+    }
+
+    private static final int FIELDS = Field.values().length;
+    private static final long NAN_TICKS = Long.MIN_VALUE;
+
+    private final String symbol;
+    private final int size;
+    private final double scale;
+
+    // indexed by block * FIELDS + field
+    private final long[] bases;
+    private final byte[] widths;
+    private final long[] bitOffsets;
+
+    private final long[] data;
+
+    private CompressedQuoteSeries(final String symbol, final int size, final double scale, final long[] bases,
+            final byte[] widths, final long[] bitOffsets, final long[] data) {
+        this.symbol = symbol;
+        this.size = size;
+        this.scale = scale;
+        this.bases = bases;
+        this.widths = widths;
+        this.bitOffsets = bitOffsets;
+        this.data = data;
+    }
+
+    /**
+     * Compresses a series.
+     *
+     * @param quotes   series to compress
+     * @param decimals number of decimal places to keep in prices, 0 through 9
+     *
+     * @return compressed copy of the series
+     */
+    public static CompressedQuoteSeries encode(final QuoteSeries quotes, final int decimals) {
+
+        if (decimals < 0 || decimals > 9) {
+            throw new IllegalArgumentException("Decimals must be between 0 and 9: " + decimals);
+        }
+
+        double scale = Math.pow(10, decimals);
+        int size = quotes.size();
+        int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        long[] bases = new long[blocks * FIELDS];
+        byte[] widths = new byte[blocks * FIELDS];
+        long[] bitOffsets = new long[blocks * FIELDS];
+
+        long[][] values = new long[FIELDS][BLOCK_SIZE];
+        BitWriter writer = new BitWriter(Math.max(size, 1));
+
+        for (int block = 0; block < blocks; block++) {
+
+            int start = block * BLOCK_SIZE;
+            int count = Math.min(BLOCK_SIZE, size - start);
+
+            for (int i = 0; i < count; i++) {
+                int bar = start + i;
+                long close = toTicks(quotes.getClose(bar), scale);
+                values[Field.EPOCH_DAY.ordinal()][i] = quotes.getEpochDay(bar);
+                values[Field.OPEN.ordinal()][i] = relativeTicks(quotes.getOpen(bar), close, scale);
+                values[Field.HIGH.ordinal()][i] = relativeTicks(quotes.getHigh(bar), close, scale);
+                values[Field.LOW.ordinal()][i] = relativeTicks(quotes.getLow(bar), close, scale);
+                values[Field.CLOSE.ordinal()][i] = close;
+                values[Field.VOLUME.ordinal()][i] = quotes.getVolume(bar);
+            }
+
+            for (int field = 0; field < FIELDS; field++) {
+
+                long min = values[field][0];
+                long max = values[field][0];
+                for (int i = 1; i < count; i++) {
+                    min = Math.min(min, values[field][i]);
+                    max = Math.max(max, values[field][i]);
+                }
+
+                // max - min is treated as unsigned so even a NaN sentinel in the block fits in 64 bits
+                int width = 64 - Long.numberOfLeadingZeros(max - min);
+
+                int slot = block * FIELDS + field;
+                bases[slot] = min;
+                widths[slot] = (byte) width;
+                bitOffsets[slot] = writer.getBitPosition();
+
+                for (int i = 0; i < count; i++) {
+                    writer.write(values[field][i] - min, width);
+                }
+            }
+        }
+
+        return new CompressedQuoteSeries(quotes.getSymbol(), size, scale, bases, widths, bitOffsets,
+                writer.toArray());
+    }
+
+    /**
+     * @return approximate number of bytes used by the encoded columns and block headers
+     */
+    public long getEncodedSizeInBytes() {
+        return 8L * data.length + 17L * widths.length;
+    }
+
+    public int getBlockCount() {
+        return (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    /**
+     * Unpacks one column of a block.
+     *
+     * @param field column to decode
+     * @param block block index
+     * @param out   receives the values of bars block * BLOCK_SIZE onwards. Must hold at least BLOCK_SIZE values.
+     *
+     * @return number of bars in the block
+     */
+    public int decodeBlock(final Field field, final int block, final double[] out) {
+
+        int start = block * BLOCK_SIZE;
+        int count = Math.min(BLOCK_SIZE, size - start);
+
+        switch (field) {
+            case EPOCH_DAY:
+            case VOLUME:
+                for (int i = 0; i < count; i++) {
+                    out[i] = readRaw(field, start + i);
+                }
+                break;
+            case CLOSE:
+                for (int i = 0; i < count; i++) {
+                    out[i] = fromTicks(readRaw(field, start + i));
+                }
+                break;
+            default:
+                for (int i = 0; i < count; i++) {
+                    out[i] = readRelative(field, start + i);
+                }
+        }
+
+        return count;
+    }
+
+    @Override
+    public String getSymbol() {
+        return symbol;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getEpochDay(final int index) {
+        return (int) readRaw(Field.EPOCH_DAY, index);
+    }
+
+    @Override
+    public double getOpen(final int index) {
+        return readRelative(Field.OPEN, index);
+    }
+
+    @Override
+    public double getHigh(final int index) {
+        return readRelative(Field.HIGH, index);
+    }
+
+    @Override
+    public double getLow(final int index) {
+        return readRelative(Field.LOW, index);
+    }
+
+    @Override
+    public double getClose(final int index) {
+        return fromTicks(readRaw(Field.CLOSE, index));
+    }
+
+    @Override
+    public long getVolume(final int index) {
+        return readRaw(Field.VOLUME, index);
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedQuoteSeries{" + "symbol='" + symbol + '\'' + ", size=" + size + ", bytes="
+                + getEncodedSizeInBytes() + '}';
+    }
+
+    private double readRelative(final Field field, final int index) {
+        long close = readRaw(Field.CLOSE, index);
+        long relative = readRaw(field, index);
+        if (close == NAN_TICKS || relative == NAN_TICKS) {
+            return Double.NaN;
+        }
+        return (close + relative) / scale;
+    }
+
+    private double fromTicks(final long ticks) {
+        return ticks == NAN_TICKS ? Double.NaN : ticks / scale;
+    }
+
+    private long readRaw(final Field field, final int index) {
+
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside the series (" + size + ")");
+        }
+
+        int slot = (index / BLOCK_SIZE) * FIELDS + field.ordinal();
+        int width = widths[slot];
+        if (width == 0) {
+            return bases[slot];
+        }
+
+        long bit = bitOffsets[slot] + (long) (index % BLOCK_SIZE) * width;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+
+        long value = data[word] >>> shift;
+        if (shift + width > 64) {
+            value |= data[word + 1] << (64 - shift);
+        }
+        if (width < 64) {
+            value &= (1L << width) - 1;
+        }
+
+        return bases[slot] + value;
+    }
+
+    private static long toTicks(final double price, final double scale) {
+        return Double.isNaN(price) ? NAN_TICKS : Math.round(price * scale);
+    }
+
+    private static long relativeTicks(final double price, final long closeTicks, final double scale) {
+        long ticks = toTicks(price, scale);
+        return ticks == NAN_TICKS || closeTicks == NAN_TICKS ? NAN_TICKS : ticks - closeTicks;
+    }
+
+    /**
+     * Appends little-endian bit fields to a growable long array.
+     */
+    private static final class BitWriter {
+
+        private long[] words;
+        private long bitPosition;
+
+        private BitWriter(final int initialWords) {
+            words = new long[initialWords];
+        }
+
+        private long getBitPosition() {
+            return bitPosition;
+        }
+
+        private void write(final long value, final int width) {
+
+            if (width == 0) {
+                return;
+            }
+
+            int word = (int) (bitPosition >>> 6);
+            int shift = (int) (bitPosition & 63);
+            if (word + 1 >= words.length) {
+                words = Arrays.copyOf(words, Math.max(words.length * 2, word + 2));
+            }
+
+            words[word] |= value << shift;
+            if (shift + width > 64) {
+                words[word + 1] |= value >>> (64 - shift);
+            }
+
+            bitPosition += width;
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(words, (int) ((bitPosition + 63) >>> 6) + 1);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+import java.util.Arrays;
+
+/**
+ * Splits and cash dividends for one symbol, kept as cumulative adjustment factors.
+ * <p>
+ * Each action has a price factor that applies to every bar before its ex-date: 1/ratio for a split and
+ * (1 - dividend/previous close) for a dividend. The table keeps running products of those factors in ex-date order so
+ * that the factor for any bar is total / prefix, and recording an action dated after all the others is O(1). Actions
+ * recorded out of order are inserted and the products after them recomputed.
+ * <p>
+ * Not thread-safe while actions are being recorded.
+ */
+public class CorporateActionTable {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private int size;
+    private int[] exEpochDays = new int[DEFAULT_CAPACITY];
+    private double[] splitFactors = new double[DEFAULT_CAPACITY];
+    private double[] dividendFactors = new double[DEFAULT_CAPACITY];
+
+    // cumulative products of the factors of actions 0..i-1, so index 0 is always 1.0
+    private double[] splitProducts = new double[DEFAULT_CAPACITY + 1];
+    private double[] dividendProducts = new double[DEFAULT_CAPACITY + 1];
+
+    private int version;
+
+    public CorporateActionTable() {
+        splitProducts[0] = 1.0d;
+        dividendProducts[0] = 1.0d;
+    }
+
+    /**
+     * Records a stock split.
+     *
+     * @param exEpochDay first day the stock trades at the post-split price
+     * @param ratio      new shares per old share, e.g. 7.0 for a 7-for-1 split or 0.1 for a 1-for-10 reverse split
+     */
+    public void recordSplit(final int exEpochDay, final double ratio) {
+        if (!(ratio > 0.0d)) {
+            throw new IllegalArgumentException("Split ratio must be positive: " + ratio);
+        }
+        record(exEpochDay, 1.0d / ratio, 1.0d);
+    }
+
+    /**
+     * Records a cash dividend.
+     *
+     * @param exEpochDay    ex-dividend day
+     * @param amount        dividend per share
+     * @param previousClose unadjusted close on the session before the ex-dividend day
+     */
+    public void recordDividend(final int exEpochDay, final double amount, final double previousClose) {
+        if (!(previousClose > amount) || amount < 0.0d) {
+            throw new IllegalArgumentException(
+                    "Dividend " + amount + " must be non-negative and less than the previous close " + previousClose);
+        }
+        record(exEpochDay, 1.0d, 1.0d - amount / previousClose);
+    }
+
+    /**
+     * @return number of recorded actions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a counter that changes every time an action is recorded. Views use it to tell when their cached segments are
+     * stale.
+     *
+     * @return version number
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @param index action index in ex-date order
+     *
+     * @return ex-date of the action
+     */
+    public int getExEpochDay(final int index) {
+        return exEpochDays[checkIndex(index)];
+    }
+
+    /**
+     * Gets the split factor for prices on days before the given action's ex-date and on or after the previous action's
+     * ex-date.
+     *
+     * @param segment number of actions with an ex-date on or before the bar's date
+     *
+     * @return multiplier for unadjusted prices
+     */
+    public double getSplitFactor(final int segment) {
+        return splitProducts[size] / splitProducts[segment];
+    }
+
+    /**
+     * Gets the dividend factor for a segment. See {@link #getSplitFactor(int)}.
+     *
+     * @param segment number of actions with an ex-date on or before the bar's date
+     *
+     * @return multiplier for unadjusted prices
+     */
+    public double getDividendFactor(final int segment) {
+        return dividendProducts[size] / dividendProducts[segment];
+    }
+
+    /**
+     * Finds the segment a day falls in.
+     *
+     * @param epochDay number of days since 1970-01-01
+     *
+     * @return number of actions with an ex-date on or before the day
+     */
+    public int getSegment(final int epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (exEpochDays[middle] <= epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void record(final int exEpochDay, final double splitFactor, final double dividendFactor) {
+
+        if (size == exEpochDays.length) {
+            int capacity = size * 2;
+            exEpochDays = Arrays.copyOf(exEpochDays, capacity);
+            splitFactors = Arrays.copyOf(splitFactors, capacity);
+            dividendFactors = Arrays.copyOf(dividendFactors, capacity);
+            splitProducts = Arrays.copyOf(splitProducts, capacity + 1);
+            dividendProducts = Arrays.copyOf(dividendProducts, capacity + 1);
+        }
+
+        // actions on the same day as an existing one go after it
+        int position = getSegment(exEpochDay);
+        int moved = size - position;
+
+        System.arraycopy(exEpochDays, position, exEpochDays, position + 1, moved);
+        System.arraycopy(splitFactors, position, splitFactors, position + 1, moved);
+        System.arraycopy(dividendFactors, position, dividendFactors, position + 1, moved);
+
+        exEpochDays[position] = exEpochDay;
+        splitFactors[position] = splitFactor;
+        dividendFactors[position] = dividendFactor;
+        size++;
+
+        // only the products after the insertion point change, which is just the last one for an in-order action
+        for (int i = position; i < size; i++) {
+            splitProducts[i + 1] = splitProducts[i] * splitFactors[i];
+            dividendProducts[i + 1] = dividendProducts[i] * dividendFactors[i];
+        }
+
+        version++;
+    }
+
+    private int checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Action index " + index + " is outside the table (" + size + ")");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+import java.util.BitSet;
+import java.util.Date;
+import java.util.Map;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.util.DateUtils;
+
+/**
+ * Closing prices addressed directly by date, for looking up a benchmark's close on a stock's bar dates.
+ * <p>
+ * Closes are held in a dense array indexed by the epoch day's offset from the first day, with a bitmap of the days
+ * that have a close. A lookup is an array read, with no {@link Date} copies, hashing or bean dereferences. Weekends
+ * and holidays cost 8 bytes each, so about 12 KB per year of history.
+ * <p>
+ * Immutable.
+ */
+public class DateIndexedSeries {
+
+    private final String symbol;
+    private final int baseEpochDay;
+    private final double[] closes;
+    private final BitSet present;
+
+    private DateIndexedSeries(final String symbol, final int baseEpochDay, final double[] closes,
+                              final BitSet present) {
+        this.symbol = symbol;
+        this.baseEpochDay = baseEpochDay;
+        this.closes = closes;
+        this.present = present;
+    }
+
+    /**
+     * Builds a series from comparison quotes keyed by date, e.g. the ones passed to
+     * {@link com.scottjjohnson.finance.analysis.calculators.BetaCalculator}. Quotes without a parseable date are
+     * skipped.
+     *
+     * @param quotes quotes keyed by date
+     *
+     * @return date-indexed closes
+     */
+    public static DateIndexedSeries fromMap(final Map<Date, DailyQuoteBean> quotes) {
+
+        int first = 0;
+        int last = 0;
+        int dated = 0;
+        String symbol = null;
+
+        for (DailyQuoteBean quote : quotes.values()) {
+            int epochDay = quote.getEpochDay();
+            if (epochDay != DateUtils.INVALID_EPOCH_DAY) {
+                first = dated == 0 ? epochDay : Math.min(first, epochDay);
+                last = dated == 0 ? epochDay : Math.max(last, epochDay);
+                dated++;
+                symbol = quote.getSymbol();
+            }
+        }
+
+        if (dated == 0) {
+            return new DateIndexedSeries(symbol, 0, new double[0], new BitSet());
+        }
+
+        double[] closes = new double[last - first + 1];
+        BitSet present = new BitSet(closes.length);
+
+        for (DailyQuoteBean quote : quotes.values()) {
+            int epochDay = quote.getEpochDay();
+            if (epochDay != DateUtils.INVALID_EPOCH_DAY) {
+                closes[epochDay - first] = quote.getClose();
+                present.set(epochDay - first);
+            }
+        }
+
+        return new DateIndexedSeries(symbol, first, closes, present);
+    }
+
+    /**
+     * Builds a series from the closes of a quote series.
+     *
+     * @param quotes quote series in chronological order
+     *
+     * @return date-indexed closes
+     */
+    public static DateIndexedSeries fromSeries(final QuoteSeries quotes) {
+
+        int numberOfQuotes = quotes.size();
+        if (numberOfQuotes == 0) {
+            return new DateIndexedSeries(quotes.getSymbol(), 0, new double[0], new BitSet());
+        }
+
+        int first = quotes.getEpochDay(0);
+        double[] closes = new double[quotes.getEpochDay(numberOfQuotes - 1) - first + 1];
+        BitSet present = new BitSet(closes.length);
+
+        for (int i = 0; i < numberOfQuotes; i++) {
+            int offset = quotes.getEpochDay(i) - first;
+            closes[offset] = quotes.getClose(i);
+            present.set(offset);
+        }
+
+        return new DateIndexedSeries(quotes.getSymbol(), first, closes, present);
+    }
+
+    /**
+     * Builds a series from parallel arrays of dates and closes.
+     *
+     * @param symbol    symbol, or null
+     * @param epochDays days since 1970-01-01, in increasing order
+     * @param closes    close for each day
+     *
+     * @return date-indexed closes
+     */
+    public static DateIndexedSeries of(final String symbol, final int[] epochDays, final double[] closes) {
+
+        if (epochDays.length != closes.length) {
+            throw new IllegalArgumentException(
+                    "Got " + epochDays.length + " dates but " + closes.length + " closes");
+        }
+        if (epochDays.length == 0) {
+            return new DateIndexedSeries(symbol, 0, new double[0], new BitSet());
+        }
+
+        for (int i = 1; i < epochDays.length; i++) {
+            if (epochDays[i] <= epochDays[i - 1]) {
+                throw new IllegalArgumentException("Dates must be increasing: " + epochDays[i] + " after "
+                        + epochDays[i - 1]);
+            }
+        }
+
+        int first = epochDays[0];
+        double[] denseCloses = new double[epochDays[epochDays.length - 1] - first + 1];
+        BitSet present = new BitSet(denseCloses.length);
+
+        for (int i = 0; i < epochDays.length; i++) {
+            denseCloses[epochDays[i] - first] = closes[i];
+            present.set(epochDays[i] - first);
+        }
+
+        return new DateIndexedSeries(symbol, first, denseCloses, present);
+    }
+
+    /**
+     * @return symbol, or null if the source didn't have one
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return first day covered, as days since 1970-01-01
+     */
+    public int getFirstEpochDay() {
+        return baseEpochDay;
+    }
+
+    /**
+     * @return last day covered, as days since 1970-01-01
+     */
+    public int getLastEpochDay() {
+        return baseEpochDay + closes.length - 1;
+    }
+
+    /**
+     * @return number of days that have a close
+     */
+    public int getNumberOfCloses() {
+        return present.cardinality();
+    }
+
+    /**
+     * @param epochDay days since 1970-01-01
+     *
+     * @return true if there's a close for the day
+     */
+    public boolean contains(final int epochDay) {
+        int offset = epochDay - baseEpochDay;
+        return offset >= 0 && offset < closes.length && present.get(offset);
+    }
+
+    /**
+     * @param epochDay days since 1970-01-01
+     *
+     * @return close for the day, or NaN if there isn't one
+     */
+    public double getClose(final int epochDay) {
+        return contains(epochDay) ? closes[epochDay - baseEpochDay] : Double.NaN;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+import java.util.List;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+
+/**
+ * Stateless reader of bars from a quote container, so a calculator can keep one implementation for both its List and
+ * its {@link QuoteSeries} overloads. The container is passed to every call rather than wrapped, so reading a List this
+ * way doesn't allocate even when the JIT can't remove a wrapper.
+ *
+ * @param <T> container type
+ */
+public interface QuoteAccessor<T> {
+
+    /**
+     * Reads pre-sorted Lists of quote beans.
+     */
+    QuoteAccessor<List<DailyQuoteBean>> LIST = new QuoteAccessor<List<DailyQuoteBean>>() {
+
+        @Override
+        public int size(final List<DailyQuoteBean> quotes) {
+            return quotes.size();
+        }
+
+        @Override
+        public double getHigh(final List<DailyQuoteBean> quotes, final int index) {
+            return quotes.get(index).getHigh();
+        }
+
+        @Override
+        public double getLow(final List<DailyQuoteBean> quotes, final int index) {
+            return quotes.get(index).getLow();
+        }
+
+        @Override
+        public double getClose(final List<DailyQuoteBean> quotes, final int index) {
+            return quotes.get(index).getClose();
+        }
+
+        @Override
+        public long getVolume(final List<DailyQuoteBean> quotes, final int index) {
+            return quotes.get(index).getVolume();
+        }
+    };
+
+    /**
+     * Reads quote series.
+     */
+    QuoteAccessor<QuoteSeries> SERIES = new QuoteAccessor<QuoteSeries>() {
+
+        @Override
+        public int size(final QuoteSeries quotes) {
+            return quotes.size();
+        }
+
+        @Override
+        public double getHigh(final QuoteSeries quotes, final int index) {
+            return quotes.getHigh(index);
+        }
+
+        @Override
+        public double getLow(final QuoteSeries quotes, final int index) {
+            return quotes.getLow(index);
+        }
+
+        @Override
+        public double getClose(final QuoteSeries quotes, final int index) {
+            return quotes.getClose(index);
+        }
+
+        @Override
+        public long getVolume(final QuoteSeries quotes, final int index) {
+            return quotes.getVolume(index);
+        }
+    };
+
+    /**
+     * @param quotes quote container
+     *
+     * @return number of bars
+     */
+    int size(T quotes);
+
+    double getHigh(T quotes, int index);
+
+    double getLow(T quotes, int index);
+
+    double getClose(T quotes, int index);
+
+    long getVolume(T quotes, int index);
+}
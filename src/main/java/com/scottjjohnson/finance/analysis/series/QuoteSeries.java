@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+/**
+ * Read-only, index-addressed view of a symbol's daily bars in chronological order. Implementations keep the values in
+ * primitive columns so the calculators can read them without boxing or per-bar objects.
+ */
+public interface QuoteSeries {
+
+    String getSymbol();
+
+    /**
+     * @return number of bars in the series
+     */
+    int size();
+
+    /**
+     * @param index bar index, 0 for the oldest bar
+     *
+     * @return number of days since 1970-01-01 for the bar
+     */
+    int getEpochDay(int index);
+
+    double getOpen(int index);
+
+    double getHigh(int index);
+
+    double getLow(int index);
+
+    double getClose(int index);
+
+    long getVolume(int index);
+}
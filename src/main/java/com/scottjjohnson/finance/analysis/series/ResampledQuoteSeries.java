@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+import java.util.Arrays;
+
+import com.scottjjohnson.util.DateUtils;
+
+/**
+ * Weekly or monthly bars aggregated from a daily series: first open, highest high, lowest low, last close and total
+ * volume. Each bar is dated with the last daily bar in its week or month.
+ * <p>
+ * Nothing is aggregated until the view is first read. After that, daily bars appended to the source are folded into
+ * the last bucket (or start a new one) the next time the view is read, so the cost of an update is proportional to
+ * the number of new daily bars. The source must only ever grow by appending.
+ * <p>
+ * Not thread-safe since reads can update the cached buckets.
+ */
+public class ResampledQuoteSeries implements QuoteSeries {
+
+    public enum Period {
+        /**
+         * Monday through Sunday weeks.
+         */
+        WEEKLY,
+        MONTHLY
+    }
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final QuoteSeries daily;
+    private final Period period;
+
+    private int consumed;
+    private int size;
+    private int[] bucketKeys = new int[DEFAULT_CAPACITY];
+    private int[] epochDays = new int[DEFAULT_CAPACITY];
+    private double[] opens = new double[DEFAULT_CAPACITY];
+    private double[] highs = new double[DEFAULT_CAPACITY];
+    private double[] lows = new double[DEFAULT_CAPACITY];
+    private double[] closes = new double[DEFAULT_CAPACITY];
+    private long[] volumes = new long[DEFAULT_CAPACITY];
+
+    public ResampledQuoteSeries(final QuoteSeries daily, final Period period) {
+        this.daily = daily;
+        this.period = period;
+    }
+
+    public Period getPeriod() {
+        return period;
+    }
+
+    @Override
+    public String getSymbol() {
+        return daily.getSymbol();
+    }
+
+    @Override
+    public int size() {
+        refresh();
+        return size;
+    }
+
+    @Override
+    public int getEpochDay(final int index) {
+        return epochDays[checkIndex(index)];
+    }
+
+    @Override
+    public double getOpen(final int index) {
+        return opens[checkIndex(index)];
+    }
+
+    @Override
+    public double getHigh(final int index) {
+        return highs[checkIndex(index)];
+    }
+
+    @Override
+    public double getLow(final int index) {
+        return lows[checkIndex(index)];
+    }
+
+    @Override
+    public double getClose(final int index) {
+        return closes[checkIndex(index)];
+    }
+
+    @Override
+    public long getVolume(final int index) {
+        return volumes[checkIndex(index)];
+    }
+
+    /**
+     * Folds any daily bars appended since the last read into the buckets.
+     */
+    private void refresh() {
+
+        int dailySize = daily.size();
+
+        for (; consumed < dailySize; consumed++) {
+
+            int epochDay = daily.getEpochDay(consumed);
+            int key = getBucketKey(epochDay);
+
+            if (size > 0 && bucketKeys[size - 1] == key) {
+                int last = size - 1;
+                epochDays[last] = epochDay;
+                highs[last] = Math.max(highs[last], daily.getHigh(consumed));
+                lows[last] = Math.min(lows[last], daily.getLow(consumed));
+                closes[last] = daily.getClose(consumed);
+                volumes[last] += daily.getVolume(consumed);
+            } else {
+                if (size == bucketKeys.length) {
+                    grow();
+                }
+                bucketKeys[size] = key;
+                epochDays[size] = epochDay;
+                opens[size] = daily.getOpen(consumed);
+                highs[size] = daily.getHigh(consumed);
+                lows[size] = daily.getLow(consumed);
+                closes[size] = daily.getClose(consumed);
+                volumes[size] = daily.getVolume(consumed);
+                size++;
+            }
+        }
+    }
+
+    private int getBucketKey(final int epochDay) {
+        if (period == Period.WEEKLY) {
+            // 1970-01-01 was a Thursday, so shifting by 3 makes weeks start on Monday
+            return Math.floorDiv(epochDay + 3, 7);
+        } else {
+            int yearMonthDay = DateUtils.toYearMonthDay(epochDay);
+            return yearMonthDay / 100;
+        }
+    }
+
+    private int checkIndex(final int index) {
+        refresh();
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is past the end of the series (" + size + ")");
+        }
+        return index;
+    }
+
+    private void grow() {
+        int capacity = bucketKeys.length * 2;
+        bucketKeys = Arrays.copyOf(bucketKeys, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        opens = Arrays.copyOf(opens, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.stats;
+
+/**
+ * Exact sum of finite doubles, held as a list of non-overlapping partial sums (Shewchuk's algorithm, as in Python's
+ * math.fsum). Values can be added and subtracted in any order and {@link #getSum()} is always the exact sum rounded
+ * to the nearest double, so a sliding window summed incrementally gives the same bits as the window summed from
+ * scratch.
+ * <p>
+ * A sum of doubles never needs more than about 40 partials, so the partials array is sized once and updates don't
+ * allocate. Not thread-safe.
+ */
+public final class ExactSum {
+
+    // partials are non-overlapping, so their count is bounded by the double exponent range: (2098 bits / 53) + 1
+    private static final int MAX_PARTIALS = 41;
+
+    private final double[] partials = new double[MAX_PARTIALS];
+    private int size;
+
+    /**
+     * @param value finite value to add
+     */
+    public void add(final double value) {
+
+        double x = value;
+        int kept = 0;
+
+        for (int i = 0; i < size; i++) {
+            double y = partials[i];
+            if (Math.abs(x) < Math.abs(y)) {
+                double swap = x;
+                x = y;
+                y = swap;
+            }
+            double hi = x + y;
+            double lo = y - (hi - x);
+            if (lo != 0.0d) {
+                partials[kept++] = lo;
+            }
+            x = hi;
+        }
+
+        partials[kept] = x;
+        size = kept + 1;
+    }
+
+    /**
+     * @param value finite value to subtract
+     */
+    public void subtract(final double value) {
+        add(-value);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return exact sum rounded to the nearest double, ties to even
+     */
+    public double getSum() {
+
+        int n = size;
+        if (n == 0) {
+            return 0.0d;
+        }
+
+        double hi = partials[--n];
+        double lo = 0.0d;
+        while (n > 0) {
+            double x = hi;
+            double y = partials[--n];
+            hi = x + y;
+            lo = y - (hi - x);
+            if (lo != 0.0d) {
+                break;
+            }
+        }
+
+        // hi + lo is exact, but when lo is exactly half an ulp of hi the partials below decide which way to round
+        if (n > 0 && ((lo < 0.0d && partials[n - 1] < 0.0d) || (lo > 0.0d && partials[n - 1] > 0.0d))) {
+            double y = lo * 2.0d;
+            double x = hi + y;
+            if (y == x - hi) {
+                hi = x;
+            }
+        }
+
+        return hi;
+    }
+}
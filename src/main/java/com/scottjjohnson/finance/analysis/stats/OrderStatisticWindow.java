@@ -0,0 +1,316 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Sliding window of the most recent values that answers rank queries: median, arbitrary percentiles, minimum, maximum
+ * and range.
+ * <p>
+ * The values are kept in a treap ordered by value, with each node tracking its subtree size so the k-th smallest
+ * value is found in one walk from the root. Nodes live in parallel primitive arrays sized to the window and are
+ * recycled as values are evicted, so pushing a value allocates nothing and costs O(log w) expected time. Values are
+ * ordered by {@link Double#compare(double, double)}, which puts NaN above every other value.
+ * <p>
+ * Not thread-safe.
+ */
+public class OrderStatisticWindow implements StreamingState {
+
+    private static final int NIL = 0;
+
+    private final double[] window;
+    private int head;
+    private int count;
+
+    // treap nodes; index 0 is the empty tree
+    private final double[] keys;
+    private final int[] priorities;
+    private final int[] lefts;
+    private final int[] rights;
+    private final int[] sizes;
+    private final int[] freeNodes;
+    private int freeNodeCount;
+    private int root = NIL;
+    private int seed = 0x9E3779B9;
+
+    // results of split, which yields two trees
+    private int splitLeft;
+    private int splitRight;
+
+    /**
+     * @param windowSize number of values in the window
+     */
+    public OrderStatisticWindow(final int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1: " + windowSize);
+        }
+
+        window = new double[windowSize];
+        keys = new double[windowSize + 1];
+        priorities = new int[windowSize + 1];
+        lefts = new int[windowSize + 1];
+        rights = new int[windowSize + 1];
+        sizes = new int[windowSize + 1];
+        freeNodes = new int[windowSize];
+        clear();
+    }
+
+    /**
+     * Adds a value, evicting the oldest one if the window is full.
+     *
+     * @param value new value
+     */
+    public void push(final double value) {
+
+        if (count == window.length) {
+            remove(window[head]);
+        } else {
+            count++;
+        }
+
+        window[head] = value;
+        head = head + 1 == window.length ? 0 : head + 1;
+        insert(value);
+    }
+
+    /**
+     * Empties the window.
+     */
+    public void clear() {
+        head = 0;
+        count = 0;
+        root = NIL;
+        freeNodeCount = freeNodes.length;
+        for (int i = 0; i < freeNodeCount; i++) {
+            freeNodes[i] = freeNodeCount - i;
+        }
+    }
+
+    public int getWindowSize() {
+        return window.length;
+    }
+
+    /**
+     * @return number of values in the window
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isFull() {
+        return count == window.length;
+    }
+
+    /**
+     * Gets the value with a given rank.
+     *
+     * @param rank 0 for the smallest value up to count - 1 for the largest
+     *
+     * @return value
+     */
+    public double select(final int rank) {
+
+        if (rank < 0 || rank >= count) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " is outside the window (" + count + ")");
+        }
+
+        int node = root;
+        int remaining = rank;
+        while (true) {
+            int leftSize = sizes[lefts[node]];
+            if (remaining < leftSize) {
+                node = lefts[node];
+            } else if (remaining == leftSize) {
+                return keys[node];
+            } else {
+                remaining -= leftSize + 1;
+                node = rights[node];
+            }
+        }
+    }
+
+    /**
+     * Gets a percentile of the values in the window, interpolating linearly between the two nearest ranks the way a
+     * spreadsheet's PERCENTILE.INC does.
+     *
+     * @param percentile percentile from 0 to 100
+     *
+     * @return percentile value, or NaN if the window is empty
+     */
+    public double getPercentile(final double percentile) {
+
+        if (!(percentile >= 0.0d && percentile <= 100.0d)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        double rank = percentile / 100.0d * (count - 1);
+        int lowerRank = (int) rank;
+        double lower = select(lowerRank);
+        double fraction = rank - lowerRank;
+
+        return fraction == 0.0d ? lower : lower + (select(lowerRank + 1) - lower) * fraction;
+    }
+
+    /**
+     * @return median, or NaN if the window is empty
+     */
+    public double getMedian() {
+        return getPercentile(50.0d);
+    }
+
+    /**
+     * @return smallest value, or NaN if the window is empty
+     */
+    public double getMin() {
+        return count == 0 ? Double.NaN : select(0);
+    }
+
+    /**
+     * @return largest value, or NaN if the window is empty
+     */
+    public double getMax() {
+        return count == 0 ? Double.NaN : select(count - 1);
+    }
+
+    /**
+     * @return largest value less the smallest value, or NaN if the window is empty
+     */
+    public double getRange() {
+        return getMax() - getMin();
+    }
+
+    /**
+     * Writes the window's values, oldest first. The tree isn't saved since reinserting the values rebuilds an
+     * equivalent one.
+     */
+    @Override
+    public void writeState(final DataOutput out) throws IOException {
+        out.writeInt(window.length);
+        out.writeInt(count);
+        for (int age = count - 1; age >= 0; age--) {
+            int index = head - 1 - age;
+            out.writeDouble(window[index < 0 ? index + window.length : index]);
+        }
+    }
+
+    @Override
+    public void readState(final DataInput in) throws IOException {
+        StreamingState.checkConfiguration(in, "window size", window.length);
+        int savedCount = in.readInt();
+        if (savedCount < 0 || savedCount > window.length) {
+            throw new IOException("Invalid saved window count " + savedCount);
+        }
+        clear();
+        for (int i = 0; i < savedCount; i++) {
+            push(in.readDouble());
+        }
+    }
+
+    private void insert(final double value) {
+
+        int node = freeNodes[--freeNodeCount];
+        keys[node] = value;
+        priorities[node] = nextPriority();
+        lefts[node] = NIL;
+        rights[node] = NIL;
+        sizes[node] = 1;
+
+        split(root, value, false);
+        int right = splitRight;
+        root = merge(merge(splitLeft, node), right);
+    }
+
+    private void remove(final double value) {
+
+        split(root, value, false);
+        int less = splitLeft;
+        split(splitRight, value, true);
+        int equal = splitLeft;
+        int greater = splitRight;
+
+        // equal values are interchangeable, so drop whichever one is at the top
+        freeNodes[freeNodeCount++] = equal;
+        root = merge(less, merge(merge(lefts[equal], rights[equal]), greater));
+    }
+
+    /**
+     * Splits a tree into values below the given one (or not above it, if inclusive) and the rest, leaving the roots
+     * in splitLeft and splitRight.
+     */
+    private void split(final int node, final double value, final boolean inclusive) {
+
+        if (node == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+            return;
+        }
+
+        int comparison = Double.compare(keys[node], value);
+        if (comparison < 0 || inclusive && comparison == 0) {
+            split(rights[node], value, inclusive);
+            rights[node] = splitLeft;
+            updateSize(node);
+            splitLeft = node;
+        } else {
+            split(lefts[node], value, inclusive);
+            lefts[node] = splitRight;
+            updateSize(node);
+            splitRight = node;
+        }
+    }
+
+    /**
+     * Merges two trees where every value in the first is no greater than every value in the second.
+     */
+    private int merge(final int left, final int right) {
+
+        if (left == NIL) {
+            return right;
+        }
+        if (right == NIL) {
+            return left;
+        }
+
+        if (priorities[left] > priorities[right]) {
+            rights[left] = merge(rights[left], right);
+            updateSize(left);
+            return left;
+        } else {
+            lefts[right] = merge(left, lefts[right]);
+            updateSize(right);
+            return right;
+        }
+    }
+
+    private void updateSize(final int node) {
+        sizes[node] = sizes[lefts[node]] + sizes[rights[node]] + 1;
+    }
+
+    private int nextPriority() {
+        // xorshift; a fixed seed keeps runs reproducible
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.stats;
+
+/**
+ * Covariance, correlation and beta of two series over a sliding window of the most recent pairs. Updates are O(1)
+ * using Welford-style add and remove steps for the co-moment and both variances.
+ * <p>
+ * Pairs with a NaN or infinite value are kept out of the running sums. The statistics are NaN while the window holds
+ * one and recover once it's evicted.
+ * <p>
+ * Not thread-safe.
+ */
+public class RollingCovariance {
+
+    private final double[] xWindow;
+    private final double[] yWindow;
+    private int head;
+    private int count;
+    private int nonFiniteCount;
+
+    private double sumX;
+    private double sumY;
+    private double sumOfSquaredDeviationsX;
+    private double sumOfSquaredDeviationsY;
+    private double coMoment;
+
+    /**
+     * @param windowSize number of pairs in the window
+     */
+    public RollingCovariance(final int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1: " + windowSize);
+        }
+        xWindow = new double[windowSize];
+        yWindow = new double[windowSize];
+    }
+
+    /**
+     * Adds a pair, evicting the oldest one if the window is full.
+     *
+     * @param x value of the first series, e.g. the benchmark's return
+     * @param y value of the second series, e.g. the stock's return
+     */
+    public void push(final double x, final double y) {
+
+        if (count == xWindow.length) {
+            remove(xWindow[head], yWindow[head]);
+        }
+
+        xWindow[head] = x;
+        yWindow[head] = y;
+        head = head + 1 == xWindow.length ? 0 : head + 1;
+        add(x, y);
+    }
+
+    /**
+     * Empties the window.
+     */
+    public void clear() {
+        head = 0;
+        count = 0;
+        nonFiniteCount = 0;
+        clearSums();
+    }
+
+    public int getWindowSize() {
+        return xWindow.length;
+    }
+
+    /**
+     * @return number of pairs in the window
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isFull() {
+        return count == xWindow.length;
+    }
+
+    /**
+     * @return mean of x, or NaN if the window is empty or holds a NaN or infinite value
+     */
+    public double getMeanX() {
+        return count == 0 || nonFiniteCount > 0 ? Double.NaN : sumX / count;
+    }
+
+    /**
+     * @return mean of y, or NaN if the window is empty or holds a NaN or infinite value
+     */
+    public double getMeanY() {
+        return count == 0 || nonFiniteCount > 0 ? Double.NaN : sumY / count;
+    }
+
+    /**
+     * @return population covariance, or NaN if the window is empty or holds a NaN or infinite value
+     */
+    public double getCovariance() {
+        return count == 0 || nonFiniteCount > 0 ? Double.NaN : coMoment / count;
+    }
+
+    /**
+     * @return sample covariance, or NaN with fewer than 2 pairs or if the window holds a NaN or infinite value
+     */
+    public double getSampleCovariance() {
+        return count < 2 || nonFiniteCount > 0 ? Double.NaN : coMoment / (count - 1);
+    }
+
+    /**
+     * @return population variance of x
+     */
+    public double getVarianceX() {
+        return count == 0 || nonFiniteCount > 0 ? Double.NaN : sumOfSquaredDeviationsX / count;
+    }
+
+    /**
+     * @return population variance of y
+     */
+    public double getVarianceY() {
+        return count == 0 || nonFiniteCount > 0 ? Double.NaN : sumOfSquaredDeviationsY / count;
+    }
+
+    /**
+     * @return Pearson correlation, or NaN if either series has no dispersion or the window holds a NaN or infinite
+     *         value
+     */
+    public double getCorrelation() {
+        double denominator = Math.sqrt(sumOfSquaredDeviationsX * sumOfSquaredDeviationsY);
+        return denominator > 0.0d && nonFiniteCount == 0 ? coMoment / denominator : Double.NaN;
+    }
+
+    /**
+     * Gets cov(x, y) / var(x), which is a stock's beta when x holds the benchmark's returns and y the stock's.
+     *
+     * @return beta, or NaN if x has no dispersion or the window holds a NaN or infinite value
+     */
+    public double getBeta() {
+        return sumOfSquaredDeviationsX > 0.0d && nonFiniteCount == 0 ? coMoment / sumOfSquaredDeviationsX : Double.NaN;
+    }
+
+    private void add(final double x, final double y) {
+
+        count++;
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            nonFiniteCount++;
+            return;
+        }
+
+        int finiteCount = count - nonFiniteCount;
+        double previousMeanX = finiteCount == 1 ? 0.0d : sumX / (finiteCount - 1);
+        double previousMeanY = finiteCount == 1 ? 0.0d : sumY / (finiteCount - 1);
+        sumX += x;
+        sumY += y;
+        double meanX = sumX / finiteCount;
+        double meanY = sumY / finiteCount;
+        sumOfSquaredDeviationsX += (x - previousMeanX) * (x - meanX);
+        sumOfSquaredDeviationsY += (y - previousMeanY) * (y - meanY);
+        coMoment += (x - previousMeanX) * (y - meanY);
+    }
+
+    private void remove(final double x, final double y) {
+
+        count--;
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            nonFiniteCount--;
+            return;
+        }
+
+        int finiteCount = count - nonFiniteCount;
+        if (finiteCount == 0) {
+            clearSums();
+            return;
+        }
+        double previousMeanX = sumX / (finiteCount + 1);
+        double previousMeanY = sumY / (finiteCount + 1);
+        sumX -= x;
+        sumY -= y;
+        double meanX = sumX / finiteCount;
+        double meanY = sumY / finiteCount;
+        sumOfSquaredDeviationsX = Math.max(0.0d, sumOfSquaredDeviationsX - (x - previousMeanX) * (x - meanX));
+        sumOfSquaredDeviationsY = Math.max(0.0d, sumOfSquaredDeviationsY - (y - previousMeanY) * (y - meanY));
+        coMoment -= (x - previousMeanX) * (y - meanY);
+    }
+
+    private void clearSums() {
+        sumX = 0.0d;
+        sumY = 0.0d;
+        sumOfSquaredDeviationsX = 0.0d;
+        sumOfSquaredDeviationsY = 0.0d;
+        coMoment = 0.0d;
+    }
+}
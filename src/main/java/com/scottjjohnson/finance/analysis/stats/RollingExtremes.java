@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.stats;
+
+/**
+ * Running maximum and minimum over a sliding window, in amortized O(1) per value.
+ * <p>
+ * Each value is pushed with a position, such as a bar number or an epoch day, and positions must not decrease. The
+ * caller moves the start of the window with {@link #evictBefore(int)}, so a window can be a fixed number of bars or a
+ * span of calendar time. Two monotonic deques hold the only values that can still become the window's maximum or
+ * minimum.
+ * <p>
+ * Not thread-safe.
+ */
+public class RollingExtremes {
+
+    private final Deque maxima = new Deque();
+    private final Deque minima = new Deque();
+
+    /**
+     * Adds a value to the end of the window. NaN values are ignored.
+     *
+     * @param position position of the value, no less than the previous one's
+     * @param value    value
+     */
+    public void push(final int position, final double value) {
+
+        if (Double.isNaN(value)) {
+            return;
+        }
+
+        while (!maxima.isEmpty() && maxima.lastValue() <= value) {
+            maxima.removeLast();
+        }
+        maxima.addLast(position, value);
+
+        while (!minima.isEmpty() && minima.lastValue() >= value) {
+            minima.removeLast();
+        }
+        minima.addLast(position, value);
+    }
+
+    /**
+     * Drops every value with a position before the given one.
+     *
+     * @param position first position to keep
+     */
+    public void evictBefore(final int position) {
+        maxima.removeFirstBefore(position);
+        minima.removeFirstBefore(position);
+    }
+
+    /**
+     * Empties the window.
+     */
+    public void clear() {
+        maxima.clear();
+        minima.clear();
+    }
+
+    public boolean isEmpty() {
+        return maxima.isEmpty();
+    }
+
+    /**
+     * @return largest value in the window, or NaN if it's empty
+     */
+    public double getMax() {
+        return maxima.isEmpty() ? Double.NaN : maxima.firstValue();
+    }
+
+    /**
+     * @return smallest value in the window, or NaN if it's empty
+     */
+    public double getMin() {
+        return minima.isEmpty() ? Double.NaN : minima.firstValue();
+    }
+
+    /**
+     * Growable ring buffer of (position, value) pairs.
+     */
+    private static final class Deque {
+
+        private int[] positions = new int[16];
+        private double[] values = new double[16];
+        private int head;
+        private int count;
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        double firstValue() {
+            return values[head];
+        }
+
+        double lastValue() {
+            return values[(head + count - 1) & (values.length - 1)];
+        }
+
+        void addLast(final int position, final double value) {
+            if (count == values.length) {
+                grow();
+            }
+            int index = (head + count) & (values.length - 1);
+            positions[index] = position;
+            values[index] = value;
+            count++;
+        }
+
+        void removeLast() {
+            count--;
+        }
+
+        void removeFirstBefore(final int position) {
+            while (count > 0 && positions[head] < position) {
+                head = (head + 1) & (values.length - 1);
+                count--;
+            }
+        }
+
+        void clear() {
+            head = 0;
+            count = 0;
+        }
+
+        private void grow() {
+            int[] newPositions = new int[positions.length * 2];
+            double[] newValues = new double[values.length * 2];
+            for (int i = 0; i < count; i++) {
+                int index = (head + i) & (values.length - 1);
+                newPositions[i] = positions[index];
+                newValues[i] = values[index];
+            }
+            positions = newPositions;
+            values = newValues;
+            head = 0;
+        }
+    }
+}
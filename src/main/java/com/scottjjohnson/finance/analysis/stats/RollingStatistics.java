@@ -0,0 +1,245 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Mean, variance, standard deviation and z-score over a sliding window of the most recent values.
+ * <p>
+ * Each push is O(1): the mean comes from a running {@link ExactSum}, so it's the same double the window would give
+ * summed from scratch, and the sum of squared deviations is updated with Welford's add and remove steps, so there's
+ * no catastrophic cancellation from a sum of squares. Until the window fills, the statistics cover the values pushed
+ * so far, the same way the calculators treat histories shorter than their period.
+ * <p>
+ * NaN and infinite values are kept out of the running sums. The statistics are NaN while the window holds one and
+ * recover once it's evicted.
+ * <p>
+ * Not thread-safe.
+ */
+public class RollingStatistics implements StreamingState {
+
+    private final double[] window;
+    private int head;
+    private int count;
+
+    private final ExactSum sum = new ExactSum();
+    private int nonFiniteCount;
+    private double mean;
+    private double sumOfSquaredDeviations;
+
+    /**
+     * @param windowSize number of values in the window
+     */
+    public RollingStatistics(final int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1: " + windowSize);
+        }
+        window = new double[windowSize];
+    }
+
+    /**
+     * Adds a value, evicting the oldest one if the window is full.
+     *
+     * @param value new value
+     */
+    public void push(final double value) {
+
+        if (count == window.length) {
+            remove(window[head]);
+        }
+
+        window[head] = value;
+        head = head + 1 == window.length ? 0 : head + 1;
+        add(value);
+    }
+
+    /**
+     * Empties the window.
+     */
+    public void clear() {
+        head = 0;
+        count = 0;
+        nonFiniteCount = 0;
+        clearSums();
+    }
+
+    public int getWindowSize() {
+        return window.length;
+    }
+
+    /**
+     * @return number of values in the window
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isFull() {
+        return count == window.length;
+    }
+
+    /**
+     * @return sum of the values in the window rounded to the nearest double, or NaN if it holds a NaN or infinite value
+     */
+    public double getSum() {
+        return nonFiniteCount > 0 ? Double.NaN : sum.getSum();
+    }
+
+    /**
+     * @return mean of the values in the window, or NaN if it's empty or holds a NaN or infinite value
+     */
+    public double getMean() {
+        return count == 0 || nonFiniteCount > 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return population variance, or NaN if the window is empty or holds a NaN or infinite value
+     */
+    public double getVariance() {
+        return count == 0 || nonFiniteCount > 0 ? Double.NaN : sumOfSquaredDeviations / count;
+    }
+
+    /**
+     * @return sample variance, or NaN with fewer than 2 values or if the window holds a NaN or infinite value
+     */
+    public double getSampleVariance() {
+        return count < 2 || nonFiniteCount > 0 ? Double.NaN : sumOfSquaredDeviations / (count - 1);
+    }
+
+    /**
+     * @return population standard deviation
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * @return sample standard deviation
+     */
+    public double getSampleStandardDeviation() {
+        return Math.sqrt(getSampleVariance());
+    }
+
+    /**
+     * Gets the number of population standard deviations a value is from the window's mean.
+     *
+     * @param value value to score
+     *
+     * @return z-score, or NaN if the window has no dispersion
+     */
+    public double getZScore(final double value) {
+        double standardDeviation = getStandardDeviation();
+        return standardDeviation > 0.0d ? (value - getMean()) / standardDeviation : Double.NaN;
+    }
+
+    /**
+     * Gets a value in the window.
+     *
+     * @param age 0 for the newest value, 1 for the one before it, and so on
+     *
+     * @return value
+     */
+    public double get(final int age) {
+        if (age < 0 || age >= count) {
+            throw new IndexOutOfBoundsException("Age " + age + " is outside the window (" + count + ")");
+        }
+        int index = head - 1 - age;
+        return window[index < 0 ? index + window.length : index];
+    }
+
+    @Override
+    public void writeState(final DataOutput out) throws IOException {
+        out.writeInt(window.length);
+        out.writeInt(head);
+        out.writeInt(count);
+        out.writeDouble(getSum());
+        out.writeDouble(sumOfSquaredDeviations);
+        for (int i = 0; i < count; i++) {
+            out.writeDouble(window[i]);
+        }
+    }
+
+    @Override
+    public void readState(final DataInput in) throws IOException {
+        StreamingState.checkConfiguration(in, "window size", window.length);
+        head = in.readInt();
+        count = in.readInt();
+        if (count < 0 || count > window.length || head < 0 || head >= window.length) {
+            throw new IOException("Invalid saved window position " + head + " and count " + count);
+        }
+        // the exact sum is rebuilt from the window, so the saved rounded sum is only informational
+        in.readDouble();
+        double savedSumOfSquaredDeviations = in.readDouble();
+
+        nonFiniteCount = 0;
+        clearSums();
+        for (int i = 0; i < count; i++) {
+            window[i] = in.readDouble();
+            if (Double.isFinite(window[i])) {
+                sum.add(window[i]);
+            } else {
+                nonFiniteCount++;
+            }
+        }
+        int finiteCount = count - nonFiniteCount;
+        mean = finiteCount == 0 ? 0.0d : sum.getSum() / finiteCount;
+        sumOfSquaredDeviations = savedSumOfSquaredDeviations;
+    }
+
+    private void add(final double value) {
+
+        count++;
+        if (!Double.isFinite(value)) {
+            nonFiniteCount++;
+            return;
+        }
+
+        int finiteCount = count - nonFiniteCount;
+        double previousMean = mean;
+        sum.add(value);
+        mean = sum.getSum() / finiteCount;
+        sumOfSquaredDeviations += (value - previousMean) * (value - mean);
+    }
+
+    private void remove(final double value) {
+
+        count--;
+        if (!Double.isFinite(value)) {
+            nonFiniteCount--;
+            return;
+        }
+
+        int finiteCount = count - nonFiniteCount;
+        if (finiteCount == 0) {
+            clearSums();
+            return;
+        }
+        double previousMean = mean;
+        sum.subtract(value);
+        mean = sum.getSum() / finiteCount;
+        sumOfSquaredDeviations = Math.max(0.0d, sumOfSquaredDeviations - (value - previousMean) * (value - mean));
+    }
+
+    private void clearSums() {
+        sum.clear();
+        mean = 0.0d;
+        sumOfSquaredDeviations = 0.0d;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Running indicator state that can be saved and restored, so a restart can pick up where the last run left off
+ * instead of replaying all history. See {@link com.scottjjohnson.finance.analysis.checkpoint.IndicatorCheckpoint}.
+ * <p>
+ * Configuration such as the number of days is set by the constructor, not restored. It's written along with the
+ * running values only so a restore into a differently configured state fails rather than silently mixing the two.
+ */
+public interface StreamingState {
+
+    /**
+     * Writes the running values.
+     *
+     * @param out destination
+     *
+     * @throws IOException if the values can't be written
+     */
+    void writeState(DataOutput out) throws IOException;
+
+    /**
+     * Replaces the running values with ones written by {@link #writeState(DataOutput)}.
+     *
+     * @param in source
+     *
+     * @throws IOException if the values can't be read or were written by a differently configured state
+     */
+    void readState(DataInput in) throws IOException;
+
+    /**
+     * Reads a configuration value and checks it matches this state's.
+     *
+     * @param in       source
+     * @param name     name of the value, for the error message
+     * @param expected this state's value
+     *
+     * @throws IOException if the value can't be read or doesn't match
+     */
+    static void checkConfiguration(DataInput in, String name, int expected) throws IOException {
+        int actual = in.readInt();
+        if (actual != expected) {
+            throw new IOException("Saved " + name + " " + actual + " doesn't match " + expected);
+        }
+    }
+}
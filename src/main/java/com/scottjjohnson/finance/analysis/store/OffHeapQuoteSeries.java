@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+
+/**
+ * View of one symbol's columns in an {@link OffHeapUniverseStore}. Values are read with absolute gets from a private
+ * duplicate of the store's buffer, so views are safe to read from any number of threads.
+ */
+public class OffHeapQuoteSeries implements QuoteSeries {
+
+    private final String symbol;
+    private final ByteBuffer buffer;
+    private final int size;
+
+    private final int epochDayOffset;
+    private final int openOffset;
+    private final int highOffset;
+    private final int lowOffset;
+    private final int closeOffset;
+    private final int volumeOffset;
+
+    OffHeapQuoteSeries(final String symbol, final ByteBuffer segment, final int offset, final int size) {
+
+        this.symbol = symbol;
+        this.buffer = segment.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.size = size;
+
+        int columnSize = 8 * size;
+        epochDayOffset = offset;
+        openOffset = offset + (int) (OffHeapUniverseStore.getDataSize(size) - 5L * columnSize);
+        highOffset = openOffset + columnSize;
+        lowOffset = highOffset + columnSize;
+        closeOffset = lowOffset + columnSize;
+        volumeOffset = closeOffset + columnSize;
+    }
+
+    @Override
+    public String getSymbol() {
+        return symbol;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getEpochDay(final int index) {
+        return buffer.getInt(epochDayOffset + (checkIndex(index) << 2));
+    }
+
+    @Override
+    public double getOpen(final int index) {
+        return buffer.getDouble(openOffset + (checkIndex(index) << 3));
+    }
+
+    @Override
+    public double getHigh(final int index) {
+        return buffer.getDouble(highOffset + (checkIndex(index) << 3));
+    }
+
+    @Override
+    public double getLow(final int index) {
+        return buffer.getDouble(lowOffset + (checkIndex(index) << 3));
+    }
+
+    @Override
+    public double getClose(final int index) {
+        return buffer.getDouble(closeOffset + (checkIndex(index) << 3));
+    }
+
+    @Override
+    public long getVolume(final int index) {
+        return buffer.getLong(volumeOffset + (checkIndex(index) << 3));
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapQuoteSeries{" + "symbol='" + symbol + '\'' + ", size=" + size + '}';
+    }
+
+    private int checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside the series (" + size + ")");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+
+/**
+ * Universe of daily bars stored outside the Java heap, either in a memory-mapped file or in direct buffers. The heap
+ * only holds the symbol directory and one small view object per symbol, so historical data adds nothing for the
+ * garbage collector to trace.
+ * <p>
+ * File layout, little-endian:
+ *
+ * <pre>
+ * header     int magic 'UQS1', int version, int symbol count, int reserved
+ * directory  per symbol: long data offset, int bar count, short symbol length, UTF-8 symbol bytes
+ * data       per symbol, starting on an 8 byte boundary: int[n] epoch days (padded to 8 bytes),
+ *            double[n] open, double[n] high, double[n] low, double[n] close, long[n] volume
+ * </pre>
+ *
+ * Symbols are mapped in segments of up to 1 GB so files larger than 2 GB work with ByteBuffer's int offsets. A store
+ * is read-only once created and its views can be shared freely between threads.
+ */
+public class OffHeapUniverseStore {
+
+    static final int MAGIC = 0x55515331;
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final Map<String, OffHeapQuoteSeries> seriesBySymbol;
+
+    private OffHeapUniverseStore(final Map<String, OffHeapQuoteSeries> seriesBySymbol) {
+        this.seriesBySymbol = Collections.unmodifiableMap(seriesBySymbol);
+    }
+
+    /**
+     * Writes series to a store file.
+     *
+     * @param file     path of the file to create or replace
+     * @param universe series to store. Symbols must be unique.
+     *
+     * @throws IOException if the file can't be written
+     */
+    public static void write(final Path file, final Collection<? extends QuoteSeries> universe) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+            List<byte[]> symbols = new ArrayList<>(universe.size());
+            long directorySize = 0;
+            for (QuoteSeries series : universe) {
+                byte[] symbol = series.getSymbol().getBytes(StandardCharsets.UTF_8);
+                symbols.add(symbol);
+                directorySize += 14 + symbol.length;
+            }
+
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(universe.size()).putInt(0);
+
+            long dataOffset = align(HEADER_SIZE + directorySize);
+            int i = 0;
+            for (QuoteSeries series : universe) {
+                byte[] symbol = symbols.get(i++);
+                flushIfFull(channel, buffer, 14 + symbol.length);
+                buffer.putLong(dataOffset).putInt(series.size()).putShort((short) symbol.length).put(symbol);
+                dataOffset += getDataSize(series.size());
+            }
+
+            // pad to the first data block
+            while ((HEADER_SIZE + directorySize) % 8 != 0) {
+                flushIfFull(channel, buffer, 1);
+                buffer.put((byte) 0);
+                directorySize++;
+            }
+
+            for (QuoteSeries series : universe) {
+                writeData(channel, buffer, series);
+            }
+
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Memory-maps a store file read-only.
+     *
+     * @param file path of a file created by {@link #write(Path, Collection)}
+     *
+     * @return store
+     *
+     * @throws IOException if the file can't be read or isn't a store file
+     */
+    public static OffHeapUniverseStore open(final Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a universe store file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported universe store version " + version + " in " + file);
+            }
+            int symbolCount = header.getInt();
+
+            // the directory ends where the first symbol's data begins
+            ByteBuffer firstEntry = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            long directoryEnd = HEADER_SIZE;
+            if (symbolCount > 0) {
+                channel.read(firstEntry, HEADER_SIZE);
+                firstEntry.flip();
+                directoryEnd = firstEntry.getLong();
+            }
+            ByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, directoryEnd - HEADER_SIZE)
+                                          .order(ByteOrder.LITTLE_ENDIAN);
+
+            Map<String, OffHeapQuoteSeries> seriesBySymbol = new LinkedHashMap<>();
+            ByteBuffer segment = null;
+            long segmentStart = 0;
+            long segmentEnd = 0;
+
+            for (int i = 0; i < symbolCount; i++) {
+
+                long dataOffset = directory.getLong();
+                int barCount = directory.getInt();
+                byte[] symbolBytes = new byte[directory.getShort()];
+                directory.get(symbolBytes);
+                String symbol = new String(symbolBytes, StandardCharsets.UTF_8);
+                long dataSize = getDataSize(barCount);
+
+                if (segment == null || dataOffset + dataSize > segmentEnd) {
+                    segmentStart = dataOffset;
+                    segmentEnd = Math.min(channel.size(), segmentStart + Math.max(MAX_SEGMENT_SIZE, dataSize));
+                    segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentEnd - segmentStart)
+                                     .order(ByteOrder.LITTLE_ENDIAN);
+                }
+
+                seriesBySymbol.put(symbol,
+                        new OffHeapQuoteSeries(symbol, segment, (int) (dataOffset - segmentStart), barCount));
+            }
+
+            return new OffHeapUniverseStore(seriesBySymbol);
+        }
+    }
+
+    /**
+     * Copies series into direct buffers without going through a file.
+     *
+     * @param universe series to store. Symbols must be unique.
+     *
+     * @return store
+     */
+    public static OffHeapUniverseStore allocate(final Collection<? extends QuoteSeries> universe) {
+
+        Map<String, OffHeapQuoteSeries> seriesBySymbol = new LinkedHashMap<>();
+        List<QuoteSeries> pending = new ArrayList<>();
+        long pendingSize = 0;
+
+        for (QuoteSeries series : universe) {
+            long dataSize = getDataSize(series.size());
+            if (!pending.isEmpty() && pendingSize + dataSize > MAX_SEGMENT_SIZE) {
+                allocateSegment(pending, pendingSize, seriesBySymbol);
+                pending.clear();
+                pendingSize = 0;
+            }
+            pending.add(series);
+            pendingSize += dataSize;
+        }
+        if (!pending.isEmpty()) {
+            allocateSegment(pending, pendingSize, seriesBySymbol);
+        }
+
+        return new OffHeapUniverseStore(seriesBySymbol);
+    }
+
+    /**
+     * @return symbols in the order they were stored
+     */
+    public Collection<String> getSymbols() {
+        return seriesBySymbol.keySet();
+    }
+
+    /**
+     * @return views of every symbol's series in the order they were stored
+     */
+    public Collection<OffHeapQuoteSeries> getAllSeries() {
+        return seriesBySymbol.values();
+    }
+
+    /**
+     * @param symbol ticker symbol
+     *
+     * @return series for the symbol or null if the store doesn't have it
+     */
+    public OffHeapQuoteSeries getSeries(final String symbol) {
+        return seriesBySymbol.get(symbol);
+    }
+
+    /**
+     * @return number of symbols
+     */
+    public int size() {
+        return seriesBySymbol.size();
+    }
+
+    private static void allocateSegment(final List<QuoteSeries> universe, final long size,
+            final Map<String, OffHeapQuoteSeries> seriesBySymbol) {
+
+        ByteBuffer segment = ByteBuffer.allocateDirect((int) size).order(ByteOrder.LITTLE_ENDIAN);
+
+        for (QuoteSeries series : universe) {
+            int offset = segment.position();
+            putData(segment, series);
+            seriesBySymbol.put(series.getSymbol(),
+                    new OffHeapQuoteSeries(series.getSymbol(), segment, offset, series.size()));
+        }
+    }
+
+    private static void writeData(final FileChannel channel, final ByteBuffer buffer, final QuoteSeries series)
+            throws IOException {
+
+        long dataSize = getDataSize(series.size());
+
+        if (dataSize <= buffer.capacity()) {
+            flushIfFull(channel, buffer, (int) dataSize);
+            putData(buffer, series);
+            return;
+        }
+
+        // a series bigger than the buffer goes through a temporary heap buffer, which only happens for
+        // absurdly long histories
+        flushIfFull(channel, buffer, buffer.capacity());
+        ByteBuffer large = ByteBuffer.allocate((int) dataSize).order(ByteOrder.LITTLE_ENDIAN);
+        putData(large, series);
+        large.flip();
+        while (large.hasRemaining()) {
+            channel.write(large);
+        }
+    }
+
+    /**
+     * Writes one symbol's columns at the buffer's position, leaving the position at the end of the block.
+     */
+    private static void putData(final ByteBuffer buffer, final QuoteSeries series) {
+
+        int n = series.size();
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(series.getEpochDay(i));
+        }
+        if (n % 2 != 0) {
+            buffer.putInt(0);
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putDouble(series.getOpen(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putDouble(series.getHigh(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putDouble(series.getLow(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putDouble(series.getClose(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putLong(series.getVolume(i));
+        }
+    }
+
+    private static void flushIfFull(final FileChannel channel, final ByteBuffer buffer, final int needed)
+            throws IOException {
+        if (buffer.remaining() < needed) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    static long getDataSize(final int barCount) {
+        return align(4L * barCount) + 5L * 8L * barCount;
+    }
+
+    private static long align(final long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
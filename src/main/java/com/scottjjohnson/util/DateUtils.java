@@ -16,17 +16,65 @@
 
 package com.scottjjohnson.util;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.List;
 import java.util.TimeZone;
 
 /**
  * Date utility methods
+ * <p>
+ * The epoch day and millisecond methods are thread-safe and don't allocate. Exchange time zone offsets come from a
+ * table of the zone's transitions through {@link #LAST_TRANSITION_TABLE_YEAR}, built once, so converting a timestamp
+ * is a binary search rather than a Calendar.
  */
 public final class DateUtils {
 
-    private static final TimeZone exchangeTZ = TimeZone.getTimeZone("America/New_York");
+    /**
+     * Returned by {@link #parseEpochDay(CharSequence)} for text that isn't a valid date.
+     */
+    public static final int INVALID_EPOCH_DAY = Integer.MIN_VALUE;
+
+    static final int LAST_TRANSITION_TABLE_YEAR = 2100;
+
+    private static final String EXCHANGE_ZONE_ID = "America/New_York";
+
+    private static final TimeZone exchangeTZ = TimeZone.getTimeZone(EXCHANGE_ZONE_ID);
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    // TRANSITION_MILLIS[i] is the instant the offset changes to OFFSET_MILLIS[i + 1]; OFFSET_MILLIS[0] applies before
+    // the first transition
+    private static final long[] TRANSITION_MILLIS;
+    private static final int[] OFFSET_MILLIS;
+
+    static {
+        ZoneRules rules = ZoneId.of(EXCHANGE_ZONE_ID).getRules();
+        long end = Instant.parse((LAST_TRANSITION_TABLE_YEAR + 1) + "-01-01T00:00:00Z").toEpochMilli();
+
+        List<ZoneOffsetTransition> transitions = new ArrayList<>();
+        ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochMilli(Long.MIN_VALUE / 2));
+        while (transition != null && transition.toEpochSecond() * 1000L < end) {
+            transitions.add(transition);
+            transition = rules.nextTransition(transition.getInstant());
+        }
+
+        TRANSITION_MILLIS = new long[transitions.size()];
+        OFFSET_MILLIS = new int[transitions.size() + 1];
+        OFFSET_MILLIS[0] = transitions.isEmpty() ? rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000
+                : transitions.get(0).getOffsetBefore().getTotalSeconds() * 1000;
+        for (int i = 0; i < transitions.size(); i++) {
+            TRANSITION_MILLIS[i] = transitions.get(i).toEpochSecond() * 1000L;
+            OFFSET_MILLIS[i + 1] = transitions.get(i).getOffsetAfter().getTotalSeconds() * 1000;
+        }
+    }
 
     /**
      * Private constructor to avoid instantiation
@@ -44,24 +92,258 @@ public final class DateUtils {
      */
     public static Date addYearsToDate(final Date d, final int years) {
 
-        Calendar cal = getStockExchangeCalendar();
-        cal.setTime(d);
+        long millis = d.getTime();
+        int epochDay = getEpochDay(millis);
+        long millisOfDay = millis + getExchangeOffsetMillis(millis) - epochDay * MILLIS_PER_DAY;
 
-        cal.add(Calendar.YEAR, years);
-
-        return cal.getTime();
+        return new Date(toUtcMillis(addYearsToEpochDay(epochDay, years) * MILLIS_PER_DAY + millisOfDay));
     }
 
+    /**
+     * Gets midnight at the stock exchange on the day a Date falls on there.
+     *
+     * @param d date
+     *
+     * @return midnight in the stock exchange time zone
+     */
     public static Date getMidnightForDate(final Date d) {
+        return new Date(getMidnightMillisForEpochDay(getEpochDay(d.getTime())));
+    }
+
+    /**
+     * Converts a Date to the number of days since 1970-01-01 for the calendar date on which it falls at the stock
+     * exchange.
+     *
+     * @param d date to be converted
+     *
+     * @return epoch day in the stock exchange time zone
+     */
+    public static int getEpochDay(final Date d) {
+        return getEpochDay(d.getTime());
+    }
+
+    /**
+     * Converts a timestamp to the number of days since 1970-01-01 for the calendar date on which it falls at the stock
+     * exchange.
+     *
+     * @param millis milliseconds since 1970-01-01T00:00:00Z
+     *
+     * @return epoch day in the stock exchange time zone
+     */
+    public static int getEpochDay(final long millis) {
+        return (int) Math.floorDiv(millis + getExchangeOffsetMillis(millis), MILLIS_PER_DAY);
+    }
+
+    /**
+     * Gets the stock exchange's offset from UTC at an instant.
+     *
+     * @param millis milliseconds since 1970-01-01T00:00:00Z
+     *
+     * @return offset in milliseconds, e.g. -14400000 during daylight saving time
+     */
+    public static int getExchangeOffsetMillis(final long millis) {
 
-        Calendar todayCalendar = DateUtils.getStockExchangeCalendar();
-        todayCalendar.setTime(d);
-        todayCalendar.set(Calendar.HOUR_OF_DAY, 0);
-        todayCalendar.set(Calendar.MINUTE, 0);
-        todayCalendar.set(Calendar.SECOND, 0);
-        todayCalendar.set(Calendar.MILLISECOND, 0);
+        if (TRANSITION_MILLIS.length == 0 || millis >= TRANSITION_MILLIS[TRANSITION_MILLIS.length - 1]
+                + 366L * MILLIS_PER_DAY) {
+            // past the table, where the zone's current rules are the best guess anyway
+            return exchangeTZ.getOffset(millis);
+        }
 
-        return todayCalendar.getTime();
+        int i = Arrays.binarySearch(TRANSITION_MILLIS, millis);
+        // an exact match is the first instant of the new offset
+        return OFFSET_MILLIS[i >= 0 ? i + 1 : -i - 1];
+    }
+
+    /**
+     * Converts an epoch day to a Date representing midnight of that day at the stock exchange.
+     *
+     * @param epochDay number of days since 1970-01-01
+     *
+     * @return midnight for the day in the stock exchange time zone
+     */
+    public static Date getMidnightForEpochDay(final int epochDay) {
+        return new Date(getMidnightMillisForEpochDay(epochDay));
+    }
+
+    /**
+     * Converts an epoch day to the timestamp of midnight of that day at the stock exchange.
+     *
+     * @param epochDay number of days since 1970-01-01
+     *
+     * @return milliseconds since 1970-01-01T00:00:00Z of midnight in the stock exchange time zone
+     */
+    public static long getMidnightMillisForEpochDay(final int epochDay) {
+        return toUtcMillis(epochDay * MILLIS_PER_DAY);
+    }
+
+    /**
+     * Converts a wall-clock time at the exchange, as milliseconds since 1970-01-01T00:00 local time, to a timestamp.
+     */
+    private static long toUtcMillis(final long localMillis) {
+        // the offset at the local time can differ from the offset at the same UTC time only if a DST transition
+        // happens in between, so a second pass settles it
+        long millis = localMillis - getExchangeOffsetMillis(localMillis);
+        return localMillis - getExchangeOffsetMillis(millis);
+    }
+
+    /**
+     * Parses a yyyy-MM-dd date without allocating. Single-digit months and days are accepted, and anything after a
+     * 'T' or space following the date, such as a time, is ignored.
+     *
+     * @param text date text
+     *
+     * @return number of days since 1970-01-01, or {@link #INVALID_EPOCH_DAY} if the text isn't a valid date
+     */
+    public static int parseEpochDay(final CharSequence text) {
+
+        int length = text.length();
+        int position = 0;
+
+        int year = 0;
+        int digits = 0;
+        for (; position < length && digits < 4 && isDigit(text.charAt(position)); position++, digits++) {
+            year = year * 10 + text.charAt(position) - '0';
+        }
+        if (digits != 4 || position >= length || text.charAt(position++) != '-') {
+            return INVALID_EPOCH_DAY;
+        }
+
+        int month = 0;
+        digits = 0;
+        for (; position < length && digits < 2 && isDigit(text.charAt(position)); position++, digits++) {
+            month = month * 10 + text.charAt(position) - '0';
+        }
+        if (digits == 0 || position >= length || text.charAt(position++) != '-') {
+            return INVALID_EPOCH_DAY;
+        }
+
+        int day = 0;
+        digits = 0;
+        for (; position < length && digits < 2 && isDigit(text.charAt(position)); position++, digits++) {
+            day = day * 10 + text.charAt(position) - '0';
+        }
+        if (digits == 0 || (position < length && text.charAt(position) != 'T' && text.charAt(position) != ' ')) {
+            return INVALID_EPOCH_DAY;
+        }
+
+        if (month < 1 || month > 12 || day < 1 || day > getDaysInMonth(year, month)) {
+            return INVALID_EPOCH_DAY;
+        }
+
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * @param year  year
+     * @param month month, 1 through 12
+     *
+     * @return number of days in the month
+     */
+    public static int getDaysInMonth(final int year, final int month) {
+        if (month == 2) {
+            return isLeapYear(year) ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Converts a year/month/day to the number of days since 1970-01-01 in the proleptic Gregorian calendar.
+     *
+     * @param year  year
+     * @param month month, 1 through 12
+     * @param day   day of the month, 1 through 31
+     *
+     * @return epoch day
+     */
+    public static int toEpochDay(final int year, final int month, final int day) {
+        // see Howard Hinnant's days_from_civil algorithm
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Gets the year of an epoch day.
+     *
+     * @param epochDay number of days since 1970-01-01
+     *
+     * @return year
+     */
+    public static int getYear(final int epochDay) {
+        int yearMonthDay = toYearMonthDay(epochDay);
+        return yearMonthDay / 10000;
+    }
+
+    /**
+     * Converts an epoch day to a packed yyyyMMdd integer, e.g. 20190821.
+     *
+     * @param epochDay number of days since 1970-01-01
+     *
+     * @return packed year/month/day
+     */
+    public static int toYearMonthDay(final int epochDay) {
+        // see Howard Hinnant's civil_from_days algorithm
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * Gets the day of the week of an epoch day.
+     *
+     * @param epochDay number of days since 1970-01-01
+     *
+     * @return day of week, 1 (Monday) through 7 (Sunday), matching java.time.DayOfWeek
+     */
+    public static int getDayOfWeek(final int epochDay) {
+        return Math.floorMod(epochDay + 3, 7) + 1;
+    }
+
+    /**
+     * Adds years to an epoch day. Like {@link #addYearsToDate(Date, int)}, February 29th becomes February 28th when
+     * the target year is not a leap year.
+     *
+     * @param epochDay number of days since 1970-01-01
+     * @param years    number of years
+     *
+     * @return adjusted epoch day
+     */
+    public static int addYearsToEpochDay(final int epochDay, final int years) {
+        int yearMonthDay = toYearMonthDay(epochDay);
+        int year = yearMonthDay / 10000 + years;
+        int month = yearMonthDay / 100 % 100;
+        int day = yearMonthDay % 100;
+
+        if (month == 2 && day == 29 && !isLeapYear(year)) {
+            day = 28;
+        }
+
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Checks for a leap year in the proleptic Gregorian calendar.
+     *
+     * @param year year
+     *
+     * @return true if the year has 366 days
+     */
+    public static boolean isLeapYear(final int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
     }
 
     /**
@@ -0,0 +1,378 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.util;
+
+import java.util.BitSet;
+import java.util.Date;
+
+/**
+ * Precomputed NYSE trading calendar. Every calendar day in the configured year range is mapped to a dense trading day
+ * index (0 for the first session in the range, 1 for the next, and so on) so that "N trading days before" and "N years
+ * before" questions are answered with array lookups instead of Calendar arithmetic.
+ * <p>
+ * Holidays follow the current NYSE rules (New Year's Day is not observed on the prior Friday, MLK Day from 1998,
+ * Juneteenth from 2022) plus the unscheduled closures since 1985. Early closes are the 1:00pm sessions before
+ * Independence Day, after Thanksgiving and on Christmas Eve.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+public final class TradingCalendar {
+
+    /**
+     * Returned by {@link #getTradingDayIndex(int)} for weekends and holidays.
+     */
+    public static final int NOT_A_TRADING_DAY = -1;
+
+    private static final int DEFAULT_FIRST_YEAR = 1970;
+    private static final int DEFAULT_LAST_YEAR = 2060;
+
+    private static final int[] UNSCHEDULED_CLOSURES = { 19850927, // Hurricane Gloria
+            19940427, // President Nixon's funeral
+            20010911, 20010912, 20010913, 20010914, // September 11th attacks
+            20040611, // President Reagan's funeral
+            20070102, // President Ford's funeral
+            20121029, 20121030, // Hurricane Sandy
+            20181205, // President George H.W. Bush's funeral
+            20250109 // President Carter's funeral
+    };
+
+    private final int firstYear;
+    private final int lastYear;
+    private final int firstEpochDay;
+    private final int lastEpochDay;
+
+    // indexed by (epochDay - firstEpochDay). The index of the trading day on or before the calendar day, or -1 for days
+    // before the first session.
+    private final int[] tradingDayIndexOnOrBefore;
+    private final BitSet tradingDays;
+    private final BitSet earlyCloses;
+
+    // indexed by trading day index
+    private final int[] tradingDayEpochDays;
+
+    private TradingCalendar(final int firstYear, final int lastYear) {
+
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.firstEpochDay = DateUtils.toEpochDay(firstYear, 1, 1);
+        this.lastEpochDay = DateUtils.toEpochDay(lastYear, 12, 31);
+
+        int numberOfDays = lastEpochDay - firstEpochDay + 1;
+
+        BitSet holidays = new BitSet(numberOfDays);
+        earlyCloses = new BitSet(numberOfDays);
+
+        for (int year = firstYear; year <= lastYear; year++) {
+            addHolidaysAndEarlyCloses(year, holidays);
+        }
+
+        for (int yearMonthDay : UNSCHEDULED_CLOSURES) {
+            int year = yearMonthDay / 10000;
+            if (year >= firstYear && year <= lastYear) {
+                holidays.set(toOffset(yearMonthDay / 10000, yearMonthDay / 100 % 100, yearMonthDay % 100));
+            }
+        }
+
+        tradingDays = new BitSet(numberOfDays);
+        tradingDayIndexOnOrBefore = new int[numberOfDays];
+
+        int tradingDayIndex = -1;
+        for (int offset = 0; offset < numberOfDays; offset++) {
+            int dayOfWeek = DateUtils.getDayOfWeek(firstEpochDay + offset);
+            if (dayOfWeek <= 5 && !holidays.get(offset)) {
+                tradingDays.set(offset);
+                tradingDayIndex++;
+            }
+            tradingDayIndexOnOrBefore[offset] = tradingDayIndex;
+        }
+
+        // an early close can't fall on a day the market is closed
+        earlyCloses.and(tradingDays);
+
+        tradingDayEpochDays = new int[tradingDayIndex + 1];
+        for (int offset = tradingDays.nextSetBit(0), i = 0; offset >= 0; offset = tradingDays.nextSetBit(offset + 1)) {
+            tradingDayEpochDays[i++] = firstEpochDay + offset;
+        }
+    }
+
+    /**
+     * Gets the shared NYSE calendar covering 1970 through 2060.
+     *
+     * @return NYSE trading calendar
+     */
+    public static TradingCalendar getNyseCalendar() {
+        return DefaultCalendarHolder.INSTANCE;
+    }
+
+    /**
+     * Builds an NYSE calendar for a range of years.
+     *
+     * @param firstYear first year to include
+     * @param lastYear  last year to include
+     *
+     * @return NYSE trading calendar
+     */
+    public static TradingCalendar getNyseCalendar(final int firstYear, final int lastYear) {
+        if (lastYear < firstYear) {
+            throw new IllegalArgumentException("Last year " + lastYear + " is before first year " + firstYear);
+        }
+        return new TradingCalendar(firstYear, lastYear);
+    }
+
+    public int getFirstYear() {
+        return firstYear;
+    }
+
+    public int getLastYear() {
+        return lastYear;
+    }
+
+    /**
+     * @return number of trading days in the calendar
+     */
+    public int getNumberOfTradingDays() {
+        return tradingDayEpochDays.length;
+    }
+
+    /**
+     * Checks whether an epoch day falls inside the calendar's year range.
+     *
+     * @param epochDay number of days since 1970-01-01
+     *
+     * @return true if the calendar covers the day
+     */
+    public boolean covers(final int epochDay) {
+        return epochDay >= firstEpochDay && epochDay <= lastEpochDay;
+    }
+
+    /**
+     * @param epochDay number of days since 1970-01-01
+     *
+     * @return true if the market has a session on the day
+     */
+    public boolean isTradingDay(final int epochDay) {
+        return tradingDays.get(toOffset(epochDay));
+    }
+
+    /**
+     * @param epochDay number of days since 1970-01-01
+     *
+     * @return true if the day is a weekday on which the market is closed
+     */
+    public boolean isHoliday(final int epochDay) {
+        return DateUtils.getDayOfWeek(epochDay) <= 5 && !tradingDays.get(toOffset(epochDay));
+    }
+
+    /**
+     * @param epochDay number of days since 1970-01-01
+     *
+     * @return true if the market closes early on the day
+     */
+    public boolean isEarlyClose(final int epochDay) {
+        return earlyCloses.get(toOffset(epochDay));
+    }
+
+    /**
+     * Gets the dense trading day index for a day.
+     *
+     * @param epochDay number of days since 1970-01-01
+     *
+     * @return trading day index or {@link #NOT_A_TRADING_DAY} for weekends and holidays
+     */
+    public int getTradingDayIndex(final int epochDay) {
+        int offset = toOffset(epochDay);
+        return tradingDays.get(offset) ? tradingDayIndexOnOrBefore[offset] : NOT_A_TRADING_DAY;
+    }
+
+    /**
+     * Gets the trading day index for a Date.
+     *
+     * @param d date
+     *
+     * @return trading day index or {@link #NOT_A_TRADING_DAY} for weekends and holidays
+     */
+    public int getTradingDayIndex(final Date d) {
+        return getTradingDayIndex(DateUtils.getEpochDay(d));
+    }
+
+    /**
+     * Gets the index of the last trading day on or before a day, e.g. the Friday session for a Saturday.
+     *
+     * @param epochDay number of days since 1970-01-01
+     *
+     * @return trading day index, or -1 if there is no session in the calendar on or before the day
+     */
+    public int getTradingDayIndexOnOrBefore(final int epochDay) {
+        return tradingDayIndexOnOrBefore[toOffset(epochDay)];
+    }
+
+    /**
+     * Gets the epoch day of a trading day index.
+     *
+     * @param tradingDayIndex trading day index
+     *
+     * @return number of days since 1970-01-01
+     */
+    public int getEpochDay(final int tradingDayIndex) {
+        if (tradingDayIndex < 0 || tradingDayIndex >= tradingDayEpochDays.length) {
+            throw new IllegalArgumentException("Trading day index " + tradingDayIndex + " is outside the calendar");
+        }
+        return tradingDayEpochDays[tradingDayIndex];
+    }
+
+    /**
+     * Counts the sessions in the half-open range (fromEpochDay, toEpochDay].
+     *
+     * @param fromEpochDay start day, exclusive
+     * @param toEpochDay   end day, inclusive
+     *
+     * @return number of trading days
+     */
+    public int getTradingDaysBetween(final int fromEpochDay, final int toEpochDay) {
+        return getTradingDayIndexOnOrBefore(toEpochDay) - getTradingDayIndexOnOrBefore(fromEpochDay);
+    }
+
+    /**
+     * Gets the trading day that is a number of sessions before a day. For a day on which the market is closed the
+     * count starts from the previous session.
+     *
+     * @param epochDay    number of days since 1970-01-01
+     * @param tradingDays number of sessions to go back
+     *
+     * @return trading day index, or -1 if that is before the start of the calendar
+     */
+    public int getTradingDayIndexTradingDaysBefore(final int epochDay, final int tradingDays) {
+        int index = getTradingDayIndexOnOrBefore(epochDay) - tradingDays;
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * Gets the last trading day on or before the same calendar date a number of years before a day. This is the
+     * trading day equivalent of {@link DateUtils#addYearsToDate(Date, int)} with negative years.
+     *
+     * @param epochDay number of days since 1970-01-01
+     * @param years    number of years to go back
+     *
+     * @return trading day index, or -1 if that is before the start of the calendar
+     */
+    public int getTradingDayIndexYearsBefore(final int epochDay, final int years) {
+        int target = DateUtils.addYearsToEpochDay(epochDay, -years);
+        return target < firstEpochDay ? -1 : getTradingDayIndexOnOrBefore(target);
+    }
+
+    private int toOffset(final int epochDay) {
+        if (epochDay < firstEpochDay || epochDay > lastEpochDay) {
+            throw new IllegalArgumentException(
+                    "Epoch day " + epochDay + " is outside the calendar years " + firstYear + "-" + lastYear);
+        }
+        return epochDay - firstEpochDay;
+    }
+
+    private int toOffset(final int year, final int month, final int day) {
+        return DateUtils.toEpochDay(year, month, day) - firstEpochDay;
+    }
+
+    private void addHolidaysAndEarlyCloses(final int year, final BitSet holidays) {
+
+        // New Year's Day isn't moved to the prior Friday when it falls on a Saturday
+        int newYearsDay = DateUtils.toEpochDay(year, 1, 1);
+        if (DateUtils.getDayOfWeek(newYearsDay) == 7) {
+            holidays.set(newYearsDay + 1 - firstEpochDay);
+        } else {
+            holidays.set(newYearsDay - firstEpochDay);
+        }
+
+        if (year >= 1998) {
+            holidays.set(nthDayOfWeek(year, 1, 1, 3) - firstEpochDay); // Martin Luther King, Jr. Day
+        }
+        holidays.set(nthDayOfWeek(year, 2, 1, 3) - firstEpochDay); // Washington's Birthday
+        holidays.set(getEaster(year) - 2 - firstEpochDay); // Good Friday
+        holidays.set(lastDayOfWeek(year, 5, 1) - firstEpochDay); // Memorial Day
+        if (year >= 2022) {
+            setObservedHoliday(year, 6, 19, holidays); // Juneteenth
+        }
+        setObservedHoliday(year, 7, 4, holidays); // Independence Day
+        holidays.set(nthDayOfWeek(year, 9, 1, 1) - firstEpochDay); // Labor Day
+        int thanksgiving = nthDayOfWeek(year, 11, 4, 4);
+        holidays.set(thanksgiving - firstEpochDay);
+        setObservedHoliday(year, 12, 25, holidays); // Christmas
+
+        int independenceDayEve = DateUtils.toEpochDay(year, 7, 3);
+        int independenceDayOfWeek = DateUtils.getDayOfWeek(independenceDayEve + 1);
+        if (independenceDayOfWeek >= 2 && independenceDayOfWeek <= 5) {
+            earlyCloses.set(independenceDayEve - firstEpochDay);
+        }
+        earlyCloses.set(thanksgiving + 1 - firstEpochDay);
+        int christmasEve = DateUtils.toEpochDay(year, 12, 24);
+        if (DateUtils.getDayOfWeek(christmasEve) <= 4) {
+            earlyCloses.set(christmasEve - firstEpochDay);
+        }
+    }
+
+    /**
+     * Saturday holidays are observed on Friday and Sunday holidays on Monday. Observed days that would fall outside
+     * the calendar are ignored.
+     */
+    private void setObservedHoliday(final int year, final int month, final int day, final BitSet holidays) {
+        int epochDay = DateUtils.toEpochDay(year, month, day);
+        int dayOfWeek = DateUtils.getDayOfWeek(epochDay);
+        if (dayOfWeek == 6) {
+            epochDay--;
+        } else if (dayOfWeek == 7) {
+            epochDay++;
+        }
+        if (epochDay >= firstEpochDay && epochDay <= lastEpochDay) {
+            holidays.set(epochDay - firstEpochDay);
+        }
+    }
+
+    private static int nthDayOfWeek(final int year, final int month, final int dayOfWeek, final int n) {
+        int firstOfMonth = DateUtils.toEpochDay(year, month, 1);
+        int daysUntil = Math.floorMod(dayOfWeek - DateUtils.getDayOfWeek(firstOfMonth), 7);
+        return firstOfMonth + daysUntil + (n - 1) * 7;
+    }
+
+    private static int lastDayOfWeek(final int year, final int month, final int dayOfWeek) {
+        int lastOfMonth = DateUtils.toEpochDay(month == 12 ? year + 1 : year, month == 12 ? 1 : month + 1, 1) - 1;
+        return lastOfMonth - Math.floorMod(DateUtils.getDayOfWeek(lastOfMonth) - dayOfWeek, 7);
+    }
+
+    /**
+     * Computes Easter Sunday with the anonymous Gregorian algorithm.
+     */
+    private static int getEaster(final int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return DateUtils.toEpochDay(year, month, day);
+    }
+
+    private static final class DefaultCalendarHolder {
+        private static final TradingCalendar INSTANCE = new TradingCalendar(DEFAULT_FIRST_YEAR, DEFAULT_LAST_YEAR);
+    }
+}
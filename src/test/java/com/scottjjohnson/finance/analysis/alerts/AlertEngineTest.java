@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.alerts;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.calculators.MaxPriceCalculator;
+import com.scottjjohnson.finance.analysis.calculators.RelativeStrengthPercentOfPeakCalculator;
+import com.scottjjohnson.finance.analysis.calculators.SMACalculator;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.testdata.ComparisonQuotesTestData;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AlertEngineTest {
+
+    private static final String SYMBOL = "AAPL";
+
+    private static List<DailyQuoteBean> quotes = null;
+    private static Map<Date, DailyQuoteBean> comparisonQuotes = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = FinanceQuotesTestData.getTestData();
+        comparisonQuotes = ComparisonQuotesTestData.getTestData();
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+        comparisonQuotes = null;
+    }
+
+    @Test
+    public void testSmaCrossings() {
+
+        List<AlertEvent> events = new ArrayList<>();
+        AlertEngine engine = new AlertEngine(events::add);
+        engine.register(SYMBOL, AlertCondition.crossesAbove(Indicator.close(), Indicator.sma(50)));
+        engine.register(SYMBOL, AlertCondition.crossesBelow(Indicator.close(), Indicator.sma(50)).named("below"));
+
+        for (DailyQuoteBean quote : quotes) {
+            engine.update(SYMBOL, quote.getEpochDay(), quote.getHigh(), quote.getClose());
+        }
+
+        QuoteSeries series = ColumnarQuoteSeries.fromQuotes(quotes);
+        double[] sma = new SMACalculator().calculateSeries(series, 50);
+        List<String> expected = new ArrayList<>();
+        for (int i = 1; i < series.size(); i++) {
+            if (series.getClose(i) > sma[i] && !(series.getClose(i - 1) > sma[i - 1])) {
+                expected.add("close crosses above sma(50) " + series.getEpochDay(i));
+            }
+            if (series.getClose(i) < sma[i] && !(series.getClose(i - 1) < sma[i - 1])) {
+                expected.add("below " + series.getEpochDay(i));
+            }
+        }
+
+        List<String> actual = new ArrayList<>();
+        for (AlertEvent event : events) {
+            actual.add(event.getCondition().getName() + " " + event.getEpochDay());
+        }
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+        assertEquals(2, engine.getConditionCount());
+        assertEquals(sma[sma.length - 1], engine.getValue(SYMBOL, Indicator.sma(50)), 0.0d);
+    }
+
+    @Test
+    public void testNewHighsAndRelativeStrength() {
+
+        List<AlertEvent> events = new ArrayList<>();
+        AlertEngine engine = new AlertEngine(events::add);
+        engine.register(SYMBOL, AlertCondition.crossesAbove(Indicator.high(), Indicator.priorMaxHigh(252)));
+        engine.register(SYMBOL, AlertCondition.reaches(Indicator.relativeStrengthPercentOfPeak(1), 100.0d));
+
+        QuoteSeries series = ColumnarQuoteSeries.fromQuotes(quotes);
+        double[] maxHigh = new MaxPriceCalculator().calculateSeries(series, 252);
+        RelativeStrengthPercentOfPeakCalculator rsCalculator = new RelativeStrengthPercentOfPeakCalculator();
+
+        for (int i = 0; i < quotes.size(); i++) {
+            DailyQuoteBean quote = quotes.get(i);
+            engine.updateComparison(quote.getEpochDay(), comparisonQuotes.get(quote.getDate()).getClose());
+            engine.update(SYMBOL, quote.getEpochDay(), quote.getHigh(), quote.getClose());
+
+            if (i > 0 && i % 50 == 0) {
+                assertEquals(maxHigh[i - 1], engine.getValue(SYMBOL, Indicator.priorMaxHigh(252)), 0.0d);
+                assertEquals(rsCalculator.calculate(quotes.subList(0, i + 1), comparisonQuotes, 1),
+                        engine.getValue(SYMBOL, Indicator.relativeStrengthPercentOfPeak(1)), 1e-9d);
+            }
+        }
+
+        assertFalse(events.isEmpty());
+        for (AlertEvent event : events) {
+            assertEquals(SYMBOL, event.getSymbol());
+            if (event.getCondition().getName().startsWith("rsPercentOfPeak")) {
+                assertEquals(100.0d, event.getValue(), 0.0d);
+            }
+        }
+    }
+
+    @Test
+    public void testNoAlertWithoutKnownPreviousOutcome() {
+
+        List<AlertEvent> events = new ArrayList<>();
+        AlertEngine engine = new AlertEngine(events::add);
+        engine.register(SYMBOL, AlertCondition.crossesAbove(Indicator.close(), 10.0d));
+
+        assertEquals(0, engine.update(SYMBOL, 100, 21.0d, 20.0d));
+        assertEquals(0, engine.update(SYMBOL, 101, 21.0d, 20.0d));
+        assertEquals(0, engine.update(SYMBOL, 102, 9.0d, 5.0d));
+        assertEquals(1, engine.update(SYMBOL, 103, 21.0d, 20.0d));
+        assertEquals(0, engine.update("MSFT", 103, 21.0d, 20.0d));
+        assertTrue(events.get(0).toString().contains("19700414"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfOrderBars() {
+
+        AlertEngine engine = new AlertEngine(e -> { });
+        engine.register(SYMBOL, AlertCondition.crossesAbove(Indicator.close(), Indicator.sma(5)));
+        engine.update(SYMBOL, 100, 1.0d, 1.0d);
+        engine.update(SYMBOL, 100, 1.0d, 1.0d);
+    }
+}
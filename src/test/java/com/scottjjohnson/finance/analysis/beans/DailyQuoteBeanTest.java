@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.beans;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.scottjjohnson.util.DateUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DailyQuoteBeanTest {
+
+    @Test
+    public void testSetDateAfterGetDate() {
+
+        DailyQuoteBean quote = new DailyQuoteBean();
+        quote.setDate("2019-08-21");
+        assertEquals(DateUtils.getMidnightForEpochDay(18129), quote.getDate());
+
+        quote.setDate("2019-08-22");
+        assertEquals(18130, quote.getEpochDay());
+        assertEquals(DateUtils.getMidnightForEpochDay(18130), quote.getDate());
+    }
+
+    @Test
+    public void testDatePrecedence() {
+
+        DailyQuoteBean quote = new DailyQuoteBean();
+        quote.setDate("2019-08-21");
+        quote.setTimestamp(DateUtils.getMidnightMillisForEpochDay(18130) + 36_000_000L);
+        assertEquals(18130, quote.getEpochDay());
+        assertEquals(DateUtils.getMidnightForEpochDay(18130), quote.getDate());
+
+        // a date object is returned as set, not moved to midnight
+        Date dateObj = new Date(DateUtils.getMidnightMillisForEpochDay(18131) + 36_000_000L);
+        quote.setDateObj(dateObj);
+        assertEquals(18131, quote.getEpochDay());
+        assertEquals(dateObj, quote.getDate());
+    }
+
+    @Test
+    public void testNoDate() {
+
+        DailyQuoteBean quote = new DailyQuoteBean();
+        assertEquals(DateUtils.INVALID_EPOCH_DAY, quote.getEpochDay());
+        assertNull(quote.getDate());
+
+        quote.setDate("2019-02-30");
+        assertEquals(DateUtils.INVALID_EPOCH_DAY, quote.getEpochDay());
+        assertNull(quote.getDate());
+    }
+
+    @Test
+    public void testEpochDayAfterDeserialization() throws Exception {
+
+        DailyQuoteBean quote = new DailyQuoteBean();
+        quote.setDate("2019-08-21");
+        assertEquals(18129, quote.getEpochDay());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(quote);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(18129, ((DailyQuoteBean) in.readObject()).getEpochDay());
+        }
+    }
+}
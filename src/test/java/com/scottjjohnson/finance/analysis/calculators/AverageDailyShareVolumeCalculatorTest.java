@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
 import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
 
 import static org.junit.Assert.assertEquals;
@@ -65,4 +66,16 @@ public class AverageDailyShareVolumeCalculatorTest {
 
         assertEquals(correctAnswer, calculatedAnswer, allowableError);
     }
+
+    @Test
+    public void testCalculateFromQuoteSeries() {
+
+        long allowableError = 1L;
+        long correctAnswer = 25718955L;
+        int period = 50; // market sessions
+        long calculatedAnswer = new AverageDailyShareVolumeCalculator().calculate(ColumnarQuoteSeries.fromQuotes(quotes),
+                period);
+
+        assertEquals(correctAnswer, calculatedAnswer, allowableError);
+    }
 }
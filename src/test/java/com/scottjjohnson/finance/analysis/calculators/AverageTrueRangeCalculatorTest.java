@@ -27,9 +27,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
 import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class AverageTrueRangeCalculatorTest {
 
@@ -66,4 +68,39 @@ public class AverageTrueRangeCalculatorTest {
         assertEquals(correctAnswer, calculatedAnswer, allowableError);
     }
 
+    @Test
+    public void testCalculateFromQuoteSeries() {
+
+        double allowableError = 0.01d;
+        double correctAnswer = 4.42d;
+        int period = 40; // market sessions
+        double calculatedAnswer = new AverageTrueRangeCalculator().calculate(ColumnarQuoteSeries.fromQuotes(quotes),
+                period);
+
+        assertEquals(correctAnswer, calculatedAnswer, allowableError);
+    }
+
+    @Test
+    public void testCalculateSeriesMatchesCalculate() {
+
+        ColumnarQuoteSeries series = ColumnarQuoteSeries.fromQuotes(quotes);
+        double[] trueRanges = new double[series.size()];
+        for (int i = 1; i < trueRanges.length; i++) {
+            double high = series.getHigh(i);
+            double low = series.getLow(i);
+            double previousClose = series.getClose(i - 1);
+            trueRanges[i] = Math.max(high - low,
+                    Math.max(Math.abs(high - previousClose), Math.abs(low - previousClose)));
+        }
+
+        int period = 14;
+        AverageTrueRangeCalculator calculator = new AverageTrueRangeCalculator();
+        double[] calculatedAnswers = calculator.calculateSeries(trueRanges, period);
+
+        assertTrue(Double.isNaN(calculatedAnswers[0]));
+        for (int i = 1; i < quotes.size(); i += 37) {
+            assertEquals(calculator.calculate(quotes.subList(0, i + 1), period), calculatedAnswers[i], 0.0d);
+        }
+        assertEquals(calculator.calculate(series, period), calculatedAnswers[series.size() - 1], 0.0d);
+    }
 }
@@ -30,11 +30,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.AlignedPairSeries;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
 import com.scottjjohnson.finance.analysis.testdata.ComparisonQuotesTestData;
 import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
 import com.scottjjohnson.util.DateUtils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class BetaCalculatorTest {
 
@@ -79,4 +83,51 @@ public class BetaCalculatorTest {
 
         assertEquals(correctAnswer, calculatedAnswer, allowableError);
     }
+
+    @Test
+    public void testCalculateSeries() {
+
+        Date lastQuoteDate = quotes.get(quotes.size() - 1).getDate();
+        Date oneYearBeforeLastQuoteDate = DateUtils.addYearsToDate(lastQuoteDate, -1);
+
+        List<DailyQuoteBean> lastYearOfQuotes = quotes.stream()
+                                                      .filter(q -> q.getDate().after(oneYearBeforeLastQuoteDate))
+                                                      .collect(Collectors.toList());
+
+        BetaCalculator calculator = new BetaCalculator();
+        double[] series = calculator.calculateSeries(quotes, comparisonQuotes, lastYearOfQuotes.size() - 1);
+
+        assertEquals(quotes.size(), series.length);
+        assertTrue(Double.isNaN(series[1]));
+        assertEquals(calculator.calculate(lastYearOfQuotes, comparisonQuotes), series[series.length - 1], 1e-9d);
+        assertEquals(calculator.calculate(quotes.subList(0, 101), comparisonQuotes),
+                calculator.calculateSeries(quotes.subList(0, 101), comparisonQuotes, 100)[100], 1e-9d);
+    }
+
+    @Test
+    public void testCalculateFromDateIndexedAndAlignedSeries() {
+
+        BetaCalculator calculator = new BetaCalculator();
+        double correctAnswer = calculator.calculate(quotes, comparisonQuotes);
+        DateIndexedSeries comparisonCloses = DateIndexedSeries.fromMap(comparisonQuotes);
+
+        assertEquals(correctAnswer, calculator.calculate(quotes, comparisonCloses), 0.0d);
+        assertEquals(correctAnswer,
+                calculator.calculate(AlignedPairSeries.join(ColumnarQuoteSeries.fromQuotes(quotes), comparisonCloses)),
+                0.0d);
+    }
+
+    @Test
+    public void testCalculateTrailingDays() {
+
+        BetaCalculator calculator = new BetaCalculator();
+        AlignedPairSeries closes = AlignedPairSeries.join(ColumnarQuoteSeries.fromQuotes(quotes),
+                DateIndexedSeries.fromMap(comparisonQuotes));
+
+        // a window covering every return gives the full-history beta
+        assertEquals(calculator.calculate(closes), calculator.calculate(closes, closes.size()), 1e-12);
+        assertEquals(calculator.calculateSeries(quotes, comparisonQuotes, 60)[quotes.size() - 1],
+                calculator.calculate(closes, 60), 1e-12);
+        assertTrue(Double.isNaN(calculator.calculate(closes, 1)));
+    }
 }
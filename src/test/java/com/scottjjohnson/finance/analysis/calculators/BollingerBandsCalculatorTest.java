@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.calculators;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.BollingerBandsBean;
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BollingerBandsCalculatorTest {
+
+    private static List<DailyQuoteBean> quotes = null;
+    private static QuoteSeries series = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = FinanceQuotesTestData.getTestData();
+        series = ColumnarQuoteSeries.fromQuotes(quotes);
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+        series = null;
+    }
+
+    @Test
+    public void testCalculate() {
+
+        int period = 20; // market sessions
+        double sum = 0.0d;
+        for (int i = quotes.size() - period; i < quotes.size(); i++) {
+            sum += quotes.get(i).getClose();
+        }
+        double mean = sum / period;
+        double sumOfSquaredDeviations = 0.0d;
+        for (int i = quotes.size() - period; i < quotes.size(); i++) {
+            sumOfSquaredDeviations += Math.pow(quotes.get(i).getClose() - mean, 2.0d);
+        }
+        double standardDeviation = Math.sqrt(sumOfSquaredDeviations / period);
+        double close = quotes.get(quotes.size() - 1).getClose();
+
+        BollingerBandsBean bands = new BollingerBandsCalculator().calculate(quotes, period,
+                BollingerBandsCalculator.DEFAULT_MULTIPLIER);
+
+        assertEquals(new SMACalculator().calculate(quotes, period), bands.getMiddle(), 0.0d);
+        assertEquals(mean + 2.0d * standardDeviation, bands.getUpper(), 1e-9d);
+        assertEquals(mean - 2.0d * standardDeviation, bands.getLower(), 1e-9d);
+        assertEquals((close - bands.getLower()) / (4.0d * standardDeviation), bands.getPercentB(), 1e-9d);
+        assertEquals(4.0d * standardDeviation / mean, bands.getBandwidth(), 1e-9d);
+
+        BollingerBandsBean seriesBands = new BollingerBandsCalculator().calculate(series, period,
+                BollingerBandsCalculator.DEFAULT_MULTIPLIER);
+
+        assertEquals(new SMACalculator().calculate(series, period), seriesBands.getMiddle(), 0.0d);
+        assertEquals(bands.getUpper(), seriesBands.getUpper(), 1e-9d);
+    }
+
+    @Test
+    public void testCalculateSeries() {
+
+        int period = 20;
+        BollingerBandsCalculator calculator = new BollingerBandsCalculator();
+        BollingerBandsBean[] bandsSeries = calculator.calculateSeries(series, period, 2.5d);
+        double[] smaSeries = new SMACalculator().calculateSeries(series, period);
+
+        for (int i = 0; i < series.size(); i++) {
+            assertEquals(smaSeries[i], bandsSeries[i].getMiddle(), 0.0d);
+        }
+
+        for (int i = 0; i < series.size(); i += 41) {
+            BollingerBandsBean bands = calculator.calculate(ColumnarQuoteSeries.fromQuotes(quotes.subList(0, i + 1)),
+                    period, 2.5d);
+            assertEquals(bands.getUpper(), bandsSeries[i].getUpper(), 1e-9d);
+            assertEquals(bands.getLower(), bandsSeries[i].getLower(), 1e-9d);
+        }
+    }
+
+    @Test
+    public void testMiddleBandMatchesSMAInEveryMode() {
+
+        int period = 20;
+        BollingerBandsCalculator calculator = new BollingerBandsCalculator();
+        SMACalculator smaCalculator = new SMACalculator();
+        BollingerBandsBean[] bandsSeries = calculator.calculateSeries(series, period, 2.0d);
+        BollingerBandsCalculator.State state = new BollingerBandsCalculator.State(period, 2.0d);
+
+        for (int i = 0; i < series.size(); i++) {
+            state.update(series.getClose(i));
+            List<DailyQuoteBean> prefix = quotes.subList(0, i + 1);
+            double sma = smaCalculator.calculate(prefix, period);
+
+            assertEquals(sma, calculator.calculate(prefix, period, 2.0d).getMiddle(), 0.0d);
+            assertEquals(sma, bandsSeries[i].getMiddle(), 0.0d);
+            assertEquals(sma, state.getBands().getMiddle(), 0.0d);
+        }
+    }
+
+    @Test
+    public void testCalculateWithNoQuotes() {
+
+        BollingerBandsCalculator calculator = new BollingerBandsCalculator();
+
+        assertNull(calculator.calculate(new ArrayList<>(), 20, 2.0d));
+        assertNull(calculator.calculate(new ColumnarQuoteSeries("EMPTY"), 20, 2.0d));
+        assertEquals(0, calculator.calculateSeries(new ColumnarQuoteSeries("EMPTY"), 20, 2.0d).length);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.calculators;
+
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.alerts.AlertCondition;
+import com.scottjjohnson.finance.analysis.alerts.AlertEngine;
+import com.scottjjohnson.finance.analysis.alerts.Indicator;
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.AlignedPairSeries;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
+import com.scottjjohnson.finance.analysis.stats.OrderStatisticWindow;
+import com.scottjjohnson.finance.analysis.stats.RollingCovariance;
+import com.scottjjohnson.finance.analysis.stats.RollingStatistics;
+import com.scottjjohnson.finance.analysis.testdata.ComparisonQuotesTestData;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+import com.scottjjohnson.util.AllocationMeter;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds the calculators' primitive and streaming paths to allocation budgets so boxing, streams, iterators or
+ * temporary objects don't creep back into them.
+ */
+public class CalculatorAllocationTest {
+
+    private static List<DailyQuoteBean> quotes = null;
+    private static ColumnarQuoteSeries series = null;
+    private static DateIndexedSeries comparisonCloses = null;
+    private static double[] closes = null;
+
+    // results are written here so the JIT can't drop the calls being measured
+    private static double sink;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        Assume.assumeTrue(AllocationMeter.isSupported());
+        quotes = FinanceQuotesTestData.getTestData();
+        series = ColumnarQuoteSeries.fromQuotes(quotes);
+        comparisonCloses = DateIndexedSeries.fromMap(ComparisonQuotesTestData.getTestData());
+        closes = new double[series.size()];
+        for (int i = 0; i < closes.length; i++) {
+            closes[i] = series.getClose(i);
+        }
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+        series = null;
+        comparisonCloses = null;
+        closes = null;
+    }
+
+    @Test
+    public void testListCalculatorsDoNotAllocate() {
+
+        SMACalculator sma = new SMACalculator();
+        EMACalculator ema = new EMACalculator();
+        AverageDailyShareVolumeCalculator adv = new AverageDailyShareVolumeCalculator();
+        AverageTrueRangeCalculator atr = new AverageTrueRangeCalculator();
+        MaxPriceCalculator maxPrice = new MaxPriceCalculator();
+        UpDownVolumeRatioCalculator upDown = new UpDownVolumeRatioCalculator();
+        RelativeStrengthPercentOfPeakCalculator rs = new RelativeStrengthPercentOfPeakCalculator();
+
+        assertBudget("SMA", 0L, () -> sink = sma.calculate(quotes, 50));
+        assertBudget("EMA", 0L, () -> sink = ema.calculate(quotes, 21));
+        assertBudget("ADV", 0L, () -> sink = adv.calculate(quotes, 50));
+        assertBudget("ATR", 0L, () -> sink = atr.calculate(quotes, 14));
+        assertBudget("MaxPrice", 0L, () -> sink = maxPrice.calculate(quotes));
+        assertBudget("UpDown", 0L, () -> sink = upDown.calculate(quotes, 50));
+        assertBudget("RS", 0L, () -> sink = rs.calculate(quotes, comparisonCloses, 1));
+    }
+
+    @Test
+    public void testSeriesCalculatorsDoNotAllocate() {
+
+        SMACalculator sma = new SMACalculator();
+        EMACalculator ema = new EMACalculator();
+        AverageDailyShareVolumeCalculator adv = new AverageDailyShareVolumeCalculator();
+        AverageTrueRangeCalculator atr = new AverageTrueRangeCalculator();
+        MaxPriceCalculator maxPrice = new MaxPriceCalculator();
+        UpDownVolumeRatioCalculator upDown = new UpDownVolumeRatioCalculator();
+
+        assertBudget("SMA", 0L, () -> sink = sma.calculate(series, 50));
+        assertBudget("EMA", 0L, () -> sink = ema.calculate(series, 21));
+        assertBudget("EMA with tolerance", 0L, () -> sink = ema.calculate(series, 21, 1e-9d));
+        assertBudget("ADV", 0L, () -> sink = adv.calculate(series, 50));
+        assertBudget("ATR", 0L, () -> sink = atr.calculate(series, 14));
+        assertBudget("MaxPrice", 0L, () -> sink = maxPrice.calculate(series));
+        assertBudget("UpDown", 0L, () -> sink = upDown.calculate(series, 50));
+    }
+
+    @Test
+    public void testStreamingStatesDoNotAllocate() {
+
+        int[] bar = new int[1];
+        EMACalculator.State ema = new EMACalculator.State(21);
+        RSICalculator.State rsi = new RSICalculator.State(14);
+        MACDCalculator.State macd = new MACDCalculator.State(12, 26, 9);
+        VolatilityCalculator.State volatility = new VolatilityCalculator.State(20);
+        BollingerBandsCalculator.State bollinger = new BollingerBandsCalculator.State(20, 2.0d);
+        RollingStatistics statistics = new RollingStatistics(50);
+        RollingCovariance covariance = new RollingCovariance(50);
+        OrderStatisticWindow window = new OrderStatisticWindow(50);
+
+        assertBudget("EMA state", 0L, () -> {
+            ema.update(nextClose(bar));
+            sink = ema.getEma();
+        });
+        assertBudget("RSI state", 0L, () -> {
+            rsi.update(nextClose(bar));
+            sink = rsi.getRsi();
+        });
+        assertBudget("MACD state", 0L, () -> {
+            macd.update(nextClose(bar));
+            sink = macd.getHistogram();
+        });
+        assertBudget("Volatility state", 0L, () -> {
+            volatility.update(nextClose(bar));
+            sink = volatility.getVolatility();
+        });
+        assertBudget("Bollinger state", 0L, () -> bollinger.update(nextClose(bar)));
+        assertBudget("Rolling statistics", 0L, () -> {
+            statistics.push(nextClose(bar));
+            sink = statistics.getZScore(closes[0]);
+        });
+        assertBudget("Rolling covariance", 0L, () -> {
+            double close = nextClose(bar);
+            covariance.push(close, close * close);
+            sink = covariance.getBeta();
+        });
+        assertBudget("Order statistic window", 0L, () -> {
+            window.push(nextClose(bar));
+            sink = window.getMedian();
+        });
+    }
+
+    @Test
+    public void testAlertEngineDoesNotAllocateWithoutAlerts() {
+
+        int[] bar = new int[1];
+        AlertEngine engine = new AlertEngine(event -> {
+        });
+        // thresholds no close reaches, so no events are created
+        engine.register("AAPL", AlertCondition.crossesAbove(Indicator.close(), 1e9d));
+        engine.register("AAPL", AlertCondition.crossesBelow(Indicator.sma(50), -1d));
+        engine.register("AAPL", AlertCondition.crossesAbove(Indicator.high(), Indicator.priorMaxHigh(252))
+                                               .named("never"));
+
+        assertBudget("Alert engine", 0L, () -> {
+            int day = bar[0]++;
+            double close = closes[day % closes.length];
+            engine.update("AAPL", day, close * 0.0d, close);
+        });
+    }
+
+    @Test
+    public void testBoundedAllocations() {
+
+        AlignedPairSeries alignedCloses = AlignedPairSeries.join(series, comparisonCloses);
+        BetaCalculator beta = new BetaCalculator();
+        BollingerBandsCalculator bollinger = new BollingerBandsCalculator();
+
+        // the two return arrays plus headers
+        long returnArrays = 2L * 8L * alignedCloses.size() + 128L;
+        assertBudget("Beta", returnArrays, () -> sink = beta.calculate(alignedCloses));
+        assertBudget("Bollinger", 64L, () -> sink = bollinger.calculate(series, 20, 2.0d).getUpper());
+    }
+
+    private static double nextClose(int[] bar) {
+        return closes[bar[0]++ % closes.length];
+    }
+
+    private static void assertBudget(String name, long budgetBytesPerCall, Runnable call) {
+        long bytesPerCall = AllocationMeter.measureBytesPerCall(call);
+        assertTrue(name + " allocated " + bytesPerCall + " bytes per call; the budget is " + budgetBytesPerCall,
+                bytesPerCall <= budgetBytesPerCall);
+    }
+}
@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
 import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
 
 import static org.junit.Assert.assertEquals;
@@ -83,4 +84,51 @@ public class EMACalculatorTest {
         assertEquals(correctAnswer, calculatedAnswer, allowableError);
     }
 
+    @Test
+    public void testCalculateEMAFromQuoteSeries() {
+
+        double allowableError = 0.01d;
+        double correctAnswer = 205.42d;
+        int period = 21; // market sessions
+        double calculatedAnswer = new EMACalculator().calculate(ColumnarQuoteSeries.fromQuotes(quotes), period);
+
+        assertEquals(correctAnswer, calculatedAnswer, allowableError);
+    }
+
+    @Test
+    public void testCalculateSeriesMatchesLatestValue() {
+
+        int period = 21; // market sessions
+        double[] calculatedAnswers = new EMACalculator().calculateSeries(ColumnarQuoteSeries.fromQuotes(quotes), period);
+
+        for (int i = 0; i < quotes.size(); i += 50) {
+            double correctAnswer = new EMACalculator().calculate(quotes.subList(0, i + 1), period);
+            assertEquals(correctAnswer, calculatedAnswers[i], 0.0d);
+        }
+    }
+
+    @Test
+    public void testCalculateWithTolerance() {
+
+        int period = 21; // market sessions
+        double tolerance = 1e-9d;
+        EMACalculator calculator = new EMACalculator();
+
+        double highest = quotes.stream().mapToDouble(DailyQuoteBean::getClose).max().getAsDouble();
+        double lowest = quotes.stream().mapToDouble(DailyQuoteBean::getClose).min().getAsDouble();
+        double errorBound = tolerance * (highest - lowest);
+
+        // (10/11)^754 is about 1e-31, so the full-history EMA is effectively exact
+        double fullHistoryAnswer = calculator.calculate(quotes, period);
+
+        assertEquals(239, calculator.getLookback(period, tolerance));
+        assertEquals(fullHistoryAnswer, calculator.calculate(quotes, period, tolerance), errorBound);
+        assertEquals(fullHistoryAnswer, calculator.calculate(ColumnarQuoteSeries.fromQuotes(quotes), period, tolerance),
+                errorBound);
+
+        // fewer quotes than the lookback seeds from the first quotes
+        List<DailyQuoteBean> firstQuotes = quotes.subList(0, 10);
+        double sma = new SMACalculator().calculate(firstQuotes, period);
+        assertEquals(sma, calculator.calculate(firstQuotes, period, tolerance), 1e-12d);
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.calculators;
+
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.beans.MACDBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MACDCalculatorTest {
+
+    private static List<DailyQuoteBean> quotes = null;
+    private static QuoteSeries series = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = FinanceQuotesTestData.getTestData();
+        series = ColumnarQuoteSeries.fromQuotes(quotes);
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+        series = null;
+    }
+
+    @Test
+    public void testCalculate() {
+
+        double fastEma = quotes.get(0).getClose();
+        double slowEma = fastEma;
+        double signal = 0.0d;
+        for (int i = 1; i < quotes.size(); i++) {
+            double close = quotes.get(i).getClose();
+            fastEma += (close - fastEma) * 2.0d / 13.0d;
+            slowEma += (close - slowEma) * 2.0d / 27.0d;
+            signal += (fastEma - slowEma - signal) * 2.0d / 10.0d;
+        }
+
+        MACDBean macd = new MACDCalculator().calculate(quotes, MACDCalculator.DEFAULT_FAST_DAYS,
+                MACDCalculator.DEFAULT_SLOW_DAYS, MACDCalculator.DEFAULT_SIGNAL_DAYS);
+
+        assertEquals(fastEma - slowEma, macd.getLine(), 1e-9d);
+        assertEquals(signal, macd.getSignal(), 1e-9d);
+        assertEquals(fastEma - slowEma - signal, macd.getHistogram(), 1e-9d);
+    }
+
+    @Test
+    public void testCalculateSeries() {
+
+        MACDCalculator calculator = new MACDCalculator();
+        MACDBean[] macdSeries = calculator.calculateSeries(series, 12, 26, 9);
+
+        assertEquals(0.0d, macdSeries[0].getLine(), 0.0d);
+        for (int i = 0; i < series.size(); i += 43) {
+            MACDBean macd = calculator.calculate(ColumnarQuoteSeries.fromQuotes(quotes.subList(0, i + 1)), 12, 26, 9);
+            assertEquals(macd.getLine(), macdSeries[i].getLine(), 0.0d);
+            assertEquals(macd.getSignal(), macdSeries[i].getSignal(), 0.0d);
+        }
+        assertNull(calculator.calculate(ColumnarQuoteSeries.fromQuotes(quotes.subList(0, 0)), 12, 26, 9));
+    }
+
+    @Test
+    public void testPackedState() {
+
+        int half = series.size() / 2;
+        double[] packed = new double[MACDCalculator.State.PACKED_SIZE];
+
+        MACDCalculator.State state = new MACDCalculator.State(12, 26, 9);
+        for (int i = 0; i < half; i++) {
+            state.update(series.getClose(i));
+        }
+        state.pack(packed, 0);
+
+        MACDCalculator.State restored = new MACDCalculator.State(12, 26, 9);
+        restored.unpack(packed, 0);
+        for (int i = half; i < series.size(); i++) {
+            restored.update(series.getClose(i));
+        }
+
+        assertEquals(new MACDCalculator().calculate(series, 12, 26, 9).getHistogram(), restored.getHistogram(), 0.0d);
+    }
+}
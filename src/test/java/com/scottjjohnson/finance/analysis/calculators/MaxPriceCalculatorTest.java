@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
 import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
 
 import static org.junit.Assert.assertEquals;
@@ -65,4 +66,40 @@ public class MaxPriceCalculatorTest {
         assertEquals(correctAnswer, calculatedAnswer, allowableError);
     }
 
+    @Test
+    public void testCalculateFromQuoteSeries() {
+
+        double allowableError = 0.00d;
+        double correctAnswer = 233.47d;
+        double calculatedAnswer = new MaxPriceCalculator().calculate(ColumnarQuoteSeries.fromQuotes(quotes));
+
+        assertEquals(correctAnswer, calculatedAnswer, allowableError);
+    }
+
+    @Test
+    public void testCalculateSeriesMatchesLatestValue() {
+
+        int period = 252; // market sessions
+        double[] calculatedAnswers = new MaxPriceCalculator().calculateSeries(ColumnarQuoteSeries.fromQuotes(quotes),
+                period);
+
+        for (int i = 0; i < quotes.size(); i++) {
+            double correctAnswer = new MaxPriceCalculator().calculate(quotes.subList(Math.max(0, i - period + 1), i + 1));
+            assertEquals(correctAnswer, calculatedAnswers[i], 0.0d);
+        }
+    }
+
+    @Test
+    public void testCalculateTrailingDays() {
+
+        ColumnarQuoteSeries series = ColumnarQuoteSeries.fromQuotes(quotes);
+        MaxPriceCalculator calculator = new MaxPriceCalculator();
+
+        for (int period : new int[] { 1, 20, 252, quotes.size() + 5 }) {
+            double correctAnswer = calculator.calculate(quotes.subList(Math.max(0, quotes.size() - period),
+                    quotes.size()));
+            assertEquals(correctAnswer, calculator.calculate(series, period), 0.0d);
+        }
+        assertEquals(quotes.get(quotes.size() - 1).getHigh(), calculator.calculate(series, 1), 0.0d);
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.calculators;
+
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RSICalculatorTest {
+
+    private static List<DailyQuoteBean> quotes = null;
+    private static QuoteSeries series = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = FinanceQuotesTestData.getTestData();
+        series = ColumnarQuoteSeries.fromQuotes(quotes);
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+        series = null;
+    }
+
+    @Test
+    public void testCalculate() {
+
+        // Wilder's original form: average = (previous average * (n - 1) + current) / n
+        int period = RSICalculator.DEFAULT_DAYS;
+        double averageGain = 0.0d;
+        double averageLoss = 0.0d;
+        for (int i = 1; i < quotes.size(); i++) {
+            double change = quotes.get(i).getClose() - quotes.get(i - 1).getClose();
+            double gain = Math.max(change, 0.0d);
+            double loss = Math.max(-change, 0.0d);
+            if (i <= period) {
+                averageGain += gain / period;
+                averageLoss += loss / period;
+            } else {
+                averageGain = (averageGain * (period - 1) + gain) / period;
+                averageLoss = (averageLoss * (period - 1) + loss) / period;
+            }
+        }
+        double correctAnswer = 100.0d - 100.0d / (1.0d + averageGain / averageLoss);
+
+        RSICalculator calculator = new RSICalculator();
+
+        assertEquals(correctAnswer, calculator.calculate(quotes, period), 1e-9d);
+        assertEquals(correctAnswer, calculator.calculate(series, period), 1e-9d);
+    }
+
+    @Test
+    public void testCalculateSeries() {
+
+        int period = RSICalculator.DEFAULT_DAYS;
+        RSICalculator calculator = new RSICalculator();
+        double[] rsiSeries = calculator.calculateSeries(series, period);
+
+        assertTrue(Double.isNaN(rsiSeries[period - 1]));
+        for (int i = period; i < series.size(); i += 31) {
+            assertEquals(calculator.calculate(quotes.subList(0, i + 1), period), rsiSeries[i], 0.0d);
+            assertTrue(rsiSeries[i] >= 0.0d && rsiSeries[i] <= 100.0d);
+        }
+    }
+
+    @Test
+    public void testPackedState() {
+
+        int period = RSICalculator.DEFAULT_DAYS;
+        int half = series.size() / 2;
+        double[] packed = new double[RSICalculator.State.PACKED_SIZE * 2];
+
+        RSICalculator.State state = new RSICalculator.State(period);
+        for (int i = 0; i < half; i++) {
+            state.update(series.getClose(i));
+        }
+        state.pack(packed, RSICalculator.State.PACKED_SIZE);
+
+        RSICalculator.State restored = new RSICalculator.State(period);
+        restored.unpack(packed, RSICalculator.State.PACKED_SIZE);
+        for (int i = half; i < series.size(); i++) {
+            restored.update(series.getClose(i));
+        }
+
+        assertEquals(new RSICalculator().calculate(series, period), restored.getRsi(), 0.0d);
+    }
+}
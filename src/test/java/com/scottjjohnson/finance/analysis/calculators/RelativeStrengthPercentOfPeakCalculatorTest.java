@@ -16,6 +16,7 @@
 
 package com.scottjjohnson.finance.analysis.calculators;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +30,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.AlignedPairSeries;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
 import com.scottjjohnson.finance.analysis.testdata.ComparisonQuotesTestData;
 import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
 
@@ -73,4 +77,57 @@ public class RelativeStrengthPercentOfPeakCalculatorTest {
         assertEquals(correctAnswer, calculatedAnswer, allowableError);
     }
 
+    @Test
+    public void testCalculateFromDateIndexedSeries() {
+
+        RelativeStrengthPercentOfPeakCalculator calculator = new RelativeStrengthPercentOfPeakCalculator();
+        double correctAnswer = calculator.calculate(quotes, comparisonQuotes, 1);
+
+        assertEquals(correctAnswer, calculator.calculate(quotes, DateIndexedSeries.fromMap(comparisonQuotes), 1), 0.0d);
+    }
+
+    @Test
+    public void testCalculateFromAlignedPairSeries() {
+
+        List<DailyQuoteBean> sortedComparisonQuotes = new ArrayList<>(comparisonQuotes.values());
+        sortedComparisonQuotes.sort((a, b) -> Integer.compare(a.getEpochDay(), b.getEpochDay()));
+        AlignedPairSeries closes = AlignedPairSeries.join(ColumnarQuoteSeries.fromQuotes(quotes),
+                ColumnarQuoteSeries.fromQuotes(sortedComparisonQuotes));
+
+        RelativeStrengthPercentOfPeakCalculator calculator = new RelativeStrengthPercentOfPeakCalculator();
+
+        assertEquals(calculator.calculate(quotes, comparisonQuotes, 1), calculator.calculate(closes, 1), 1e-9d);
+    }
+
+    @Test
+    public void testCalculateMultipleHorizons() {
+
+        RelativeStrengthPercentOfPeakCalculator calculator = new RelativeStrengthPercentOfPeakCalculator();
+        int[] years = {3, 1, RelativeStrengthPercentOfPeakCalculator.ALL_TIME, 2, 1};
+
+        double[] calculatedAnswers = calculator.calculate(quotes, comparisonQuotes, years);
+
+        assertEquals(years.length, calculatedAnswers.length);
+        assertEquals(63.3318764d, calculatedAnswers[1], 0.02d);
+        assertEquals(calculator.calculate(quotes, comparisonQuotes, 3), calculatedAnswers[0], 0.0d);
+        assertEquals(calculator.calculate(quotes, comparisonQuotes, 1), calculatedAnswers[1], 0.0d);
+        assertEquals(calculator.calculate(quotes, comparisonQuotes, 2), calculatedAnswers[3], 0.0d);
+        assertEquals(calculatedAnswers[1], calculatedAnswers[4], 0.0d);
+        // every quote is within 100 years of the last one
+        assertEquals(calculator.calculate(quotes, comparisonQuotes, 100), calculatedAnswers[2], 0.0d);
+    }
+
+    @Test
+    public void testCalculateMultipleHorizonsWithinTheFirstQuotes() {
+
+        RelativeStrengthPercentOfPeakCalculator calculator = new RelativeStrengthPercentOfPeakCalculator();
+        List<DailyQuoteBean> firstQuotes = quotes.subList(0, 30);
+
+        double[] calculatedAnswers = calculator.calculate(firstQuotes, comparisonQuotes, new int[] {0, 1, 2});
+
+        assertEquals(calculator.calculate(firstQuotes, comparisonQuotes, 0), calculatedAnswers[0], 0.0d);
+        assertEquals(calculator.calculate(firstQuotes, comparisonQuotes, 1), calculatedAnswers[1], 0.0d);
+        assertEquals(calculatedAnswers[1], calculatedAnswers[2], 0.0d);
+        assertEquals(0, calculator.calculate(new ArrayList<>(), comparisonQuotes, new int[0]).length);
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.calculators;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+
+public class RollingPercentileCalculatorTest {
+
+    private static List<DailyQuoteBean> quotes = null;
+    private static QuoteSeries series = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = FinanceQuotesTestData.getTestData();
+        series = ColumnarQuoteSeries.fromQuotes(quotes);
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+        series = null;
+    }
+
+    @Test
+    public void testCalculateVolumeMedian() {
+
+        int period = 50; // market sessions
+        double[] volumes = new double[period];
+        for (int i = 0; i < period; i++) {
+            volumes[i] = quotes.get(quotes.size() - period + i).getVolume();
+        }
+        Arrays.sort(volumes);
+        double median = (volumes[24] + volumes[25]) / 2.0d;
+
+        RollingPercentileCalculator calculator = new RollingPercentileCalculator();
+
+        assertEquals(median, calculator.calculateVolume(quotes, period, 50.0d), 0.0d);
+        assertEquals(median, calculator.calculateVolume(series, period, 50.0d), 0.0d);
+    }
+
+    @Test
+    public void testSeriesMatchesLatestValue() {
+
+        int period = 50;
+        RollingPercentileCalculator calculator = new RollingPercentileCalculator();
+        double[] volumeSeries = calculator.calculateVolumeSeries(series, period, 90.0d);
+        double[] closeSeries = calculator.calculateCloseSeries(series, period, 10.0d);
+        double[] closeRangeSeries = calculator.calculateCloseRangeSeries(series, period);
+
+        for (int i = 0; i < series.size(); i += 37) {
+            QuoteSeries prefix = ColumnarQuoteSeries.fromQuotes(quotes.subList(0, i + 1));
+            assertEquals(calculator.calculateVolume(prefix, period, 90.0d), volumeSeries[i], 0.0d);
+            assertEquals(calculator.calculateClose(prefix, period, 10.0d), closeSeries[i], 0.0d);
+
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (int j = Math.max(0, i + 1 - period); j <= i; j++) {
+                min = Math.min(min, series.getClose(j));
+                max = Math.max(max, series.getClose(j));
+            }
+            assertEquals(max - min, closeRangeSeries[i], 0.0d);
+        }
+    }
+}
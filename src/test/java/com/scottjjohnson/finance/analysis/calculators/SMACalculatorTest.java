@@ -17,6 +17,7 @@
 package com.scottjjohnson.finance.analysis.calculators;
 
 import java.util.List;
+import java.util.Random;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -27,9 +28,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
 import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class SMACalculatorTest {
 
@@ -79,4 +82,69 @@ public class SMACalculatorTest {
         assertEquals(correctAnswer, calculatedAnswer, allowableError);
     }
 
+    @Test
+    public void testCalculateDailySMAFromQuoteSeries() {
+
+        double allowableError = 0.01d;
+        double correctAnswer = 202.72d;
+        double calculatedAnswer = new SMACalculator().calculate(ColumnarQuoteSeries.fromQuotes(quotes), 50);
+
+        assertEquals(correctAnswer, calculatedAnswer, allowableError);
+    }
+
+    @Test
+    public void testCalculateSeriesMatchesLatestValue() {
+
+        ColumnarQuoteSeries series = ColumnarQuoteSeries.fromQuotes(quotes);
+        double[] calculatedAnswers = new SMACalculator().calculateSeries(series, 50);
+
+        for (int i = 0; i < quotes.size(); i++) {
+            double correctAnswer = new SMACalculator().calculate(quotes.subList(0, i + 1), 50);
+            assertEquals(correctAnswer, calculatedAnswers[i], 0.0d);
+        }
+    }
+
+    @Test
+    public void testCalculateSeriesRecoversFromNaNClose() {
+
+        int days = 50;
+        ColumnarQuoteSeries series = createRandomSeries(5000, 100);
+        SMACalculator calculator = new SMACalculator();
+        double[] calculatedAnswers = calculator.calculateSeries(series, days);
+
+        assertTrue(Double.isNaN(calculatedAnswers[100]));
+        assertTrue(Double.isNaN(calculatedAnswers[100 + days - 1]));
+        // the same seed gives the same bars, so this is the series up to the first bar after the NaN leaves
+        assertEquals(calculator.calculate(createRandomSeries(100 + days + 1, 100), days),
+                calculatedAnswers[100 + days], 0.0d);
+        assertTrue(!Double.isNaN(calculatedAnswers[100 + days]));
+
+        // no drift over a long series: every element is the window summed from scratch
+        for (int i = 0; i < series.size(); i += 97) {
+            int from = Math.max(0, i + 1 - days);
+            double sum = 0.0d;
+            for (int j = from; j <= i; j++) {
+                sum += series.getClose(j);
+            }
+            double expected = sum / (i + 1 - from);
+            if (i >= 100 && i < 100 + days) {
+                assertTrue(Double.isNaN(calculatedAnswers[i]));
+            } else {
+                assertEquals(expected, calculatedAnswers[i], 1e-9d);
+            }
+        }
+        assertEquals(calculator.calculate(series, days), calculatedAnswers[series.size() - 1], 0.0d);
+    }
+
+    private static ColumnarQuoteSeries createRandomSeries(int size, int nanBar) {
+        Random random = new Random(7L);
+        ColumnarQuoteSeries series = new ColumnarQuoteSeries("RND", size);
+        double close = 100.0d;
+        for (int i = 0; i < size; i++) {
+            close *= 1.0d + random.nextGaussian() * 0.02d;
+            double value = i == nanBar ? Double.NaN : close;
+            series.append(i, value, value, value, value, 1000L);
+        }
+        return series;
+    }
 }
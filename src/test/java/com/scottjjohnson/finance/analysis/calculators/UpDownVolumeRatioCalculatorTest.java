@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
 import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
 
 import static org.junit.Assert.assertEquals;
@@ -66,4 +67,28 @@ public class UpDownVolumeRatioCalculatorTest {
         assertEquals(correctAnswer, calculatedAnswer, allowableError);
     }
 
+    @Test
+    public void testCalculateFromQuoteSeries() {
+
+        double allowableError = 0.01d;
+        double correctAnswer = 0.96d;
+        int period = 50; // market sessions
+        double calculatedAnswer = new UpDownVolumeRatioCalculator().calculate(ColumnarQuoteSeries.fromQuotes(quotes),
+                period);
+
+        assertEquals(correctAnswer, calculatedAnswer, allowableError);
+    }
+
+    @Test
+    public void testCalculateSeriesMatchesLatestValue() {
+
+        int period = 50; // market sessions
+        float[] calculatedAnswers = new UpDownVolumeRatioCalculator().calculateSeries(
+                ColumnarQuoteSeries.fromQuotes(quotes), period);
+
+        for (int i = 0; i < quotes.size(); i++) {
+            float correctAnswer = new UpDownVolumeRatioCalculator().calculate(quotes.subList(0, i + 1), period);
+            assertEquals(correctAnswer, calculatedAnswers[i], 0.0f);
+        }
+    }
 }
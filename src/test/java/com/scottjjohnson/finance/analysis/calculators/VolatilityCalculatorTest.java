@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.calculators;
+
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VolatilityCalculatorTest {
+
+    private static List<DailyQuoteBean> quotes = null;
+    private static QuoteSeries series = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = FinanceQuotesTestData.getTestData();
+        series = ColumnarQuoteSeries.fromQuotes(quotes);
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+        series = null;
+    }
+
+    @Test
+    public void testCalculate() {
+
+        int period = 252; // market sessions
+        int numberOfQuotes = quotes.size();
+        double[] returns = new double[period];
+        double sum = 0.0d;
+        for (int i = 0; i < period; i++) {
+            int quoteIndex = numberOfQuotes - period + i;
+            returns[i] = Math.log(quotes.get(quoteIndex).getClose() / quotes.get(quoteIndex - 1).getClose());
+            sum += returns[i];
+        }
+        double mean = sum / period;
+        double sumOfSquaredDeviations = 0.0d;
+        for (double r : returns) {
+            sumOfSquaredDeviations += (r - mean) * (r - mean);
+        }
+        double correctAnswer = Math.sqrt(sumOfSquaredDeviations / (period - 1)) * Math.sqrt(252.0d);
+
+        VolatilityCalculator calculator = new VolatilityCalculator();
+
+        assertEquals(correctAnswer, calculator.calculate(quotes, period), 1e-12d);
+        assertEquals(correctAnswer, calculator.calculate(series, period), 1e-12d);
+    }
+
+    @Test
+    public void testCalculateSeries() {
+
+        int period = 20;
+        VolatilityCalculator calculator = new VolatilityCalculator();
+        double[] volatilitySeries = calculator.calculateSeries(series, period);
+
+        assertTrue(Double.isNaN(volatilitySeries[0]));
+        assertTrue(Double.isNaN(volatilitySeries[1]));
+
+        for (int i = 2; i < series.size(); i += 29) {
+            assertEquals(calculator.calculate(quotes.subList(0, i + 1), period), volatilitySeries[i], 1e-12d);
+        }
+    }
+}
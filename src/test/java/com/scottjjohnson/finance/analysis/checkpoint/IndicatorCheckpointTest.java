@@ -0,0 +1,178 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.checkpoint;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.calculators.BollingerBandsCalculator;
+import com.scottjjohnson.finance.analysis.calculators.EMACalculator;
+import com.scottjjohnson.finance.analysis.calculators.MACDCalculator;
+import com.scottjjohnson.finance.analysis.calculators.RSICalculator;
+import com.scottjjohnson.finance.analysis.calculators.VolatilityCalculator;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.stats.OrderStatisticWindow;
+import com.scottjjohnson.finance.analysis.stats.RollingStatistics;
+import com.scottjjohnson.finance.analysis.stats.StreamingState;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+
+public class IndicatorCheckpointTest {
+
+    private static ColumnarQuoteSeries quotes = null;
+
+    private Path file;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = ColumnarQuoteSeries.fromQuotes(FinanceQuotesTestData.getTestData());
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("indicators", ".icp");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testRestoreResumesWithNewBarsOnly() throws Exception {
+
+        int checkpointBars = 600;
+        Map<String, StreamingState> uninterrupted = createStates();
+        Map<String, StreamingState> beforeRestart = createStates();
+
+        for (int i = 0; i < quotes.size(); i++) {
+            feed(uninterrupted, quotes.getClose(i));
+            if (i < checkpointBars) {
+                feed(beforeRestart, quotes.getClose(i));
+            }
+        }
+
+        IndicatorCheckpoint checkpoint = new IndicatorCheckpoint();
+        checkpoint.put("AAPL", quotes.getEpochDay(checkpointBars - 1), quotes.getClose(checkpointBars - 1),
+                beforeRestart);
+        checkpoint.write(file);
+
+        IndicatorCheckpoint restored = IndicatorCheckpoint.read(file);
+        assertEquals(quotes.getEpochDay(checkpointBars - 1), restored.getLastEpochDay("AAPL"));
+
+        Map<String, StreamingState> afterRestart = createStates();
+        int firstNewBar = restored.restore("AAPL", afterRestart, quotes);
+        assertEquals(checkpointBars, firstNewBar);
+
+        for (int i = firstNewBar; i < quotes.size(); i++) {
+            feed(afterRestart, quotes.getClose(i));
+        }
+
+        assertEquals(((EMACalculator.State) uninterrupted.get("ema21")).getEma(),
+                ((EMACalculator.State) afterRestart.get("ema21")).getEma(), 0.0d);
+        assertEquals(((RollingStatistics) uninterrupted.get("sma50")).getMean(),
+                ((RollingStatistics) afterRestart.get("sma50")).getMean(), 0.0d);
+        assertEquals(((OrderStatisticWindow) uninterrupted.get("median50")).getMedian(),
+                ((OrderStatisticWindow) afterRestart.get("median50")).getMedian(), 0.0d);
+        assertEquals(((RSICalculator.State) uninterrupted.get("rsi14")).getRsi(),
+                ((RSICalculator.State) afterRestart.get("rsi14")).getRsi(), 0.0d);
+        assertEquals(((MACDCalculator.State) uninterrupted.get("macd")).getHistogram(),
+                ((MACDCalculator.State) afterRestart.get("macd")).getHistogram(), 0.0d);
+        assertEquals(((BollingerBandsCalculator.State) uninterrupted.get("bollinger")).getBands().getUpper(),
+                ((BollingerBandsCalculator.State) afterRestart.get("bollinger")).getBands().getUpper(), 0.0d);
+        assertEquals(((VolatilityCalculator.State) uninterrupted.get("volatility")).getVolatility(),
+                ((VolatilityCalculator.State) afterRestart.get("volatility")).getVolatility(), 0.0d);
+    }
+
+    @Test
+    public void testStaleCheckpointReplaysAll() throws Exception {
+
+        IndicatorCheckpoint checkpoint = new IndicatorCheckpoint();
+        checkpoint.put("AAPL", quotes.getEpochDay(99), quotes.getClose(99) + 1.0d, createStates());
+        checkpoint.put("MSFT", quotes.getEpochDay(99) + 1, quotes.getClose(99), createStates());
+
+        assertEquals(IndicatorCheckpoint.REPLAY_ALL, checkpoint.restore("AAPL", createStates(), quotes));
+        assertEquals(IndicatorCheckpoint.REPLAY_ALL, checkpoint.restore("MSFT", createStates(), quotes));
+        assertEquals(IndicatorCheckpoint.REPLAY_ALL, checkpoint.restore("IBM", createStates(), quotes));
+    }
+
+    @Test(expected = IOException.class)
+    public void testConfigurationMismatch() throws Exception {
+
+        Map<String, StreamingState> states = new LinkedHashMap<>();
+        states.put("ema", new EMACalculator.State(21));
+
+        IndicatorCheckpoint checkpoint = new IndicatorCheckpoint();
+        checkpoint.put("AAPL", quotes.getEpochDay(0), quotes.getClose(0), states);
+
+        states.put("ema", new EMACalculator.State(50));
+        checkpoint.restore("AAPL", states, quotes);
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptFile() throws Exception {
+
+        IndicatorCheckpoint checkpoint = new IndicatorCheckpoint();
+        checkpoint.put("AAPL", quotes.getEpochDay(0), quotes.getClose(0), createStates());
+        checkpoint.write(file);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(20);
+            raf.write(raf.read() ^ 0xFF);
+        }
+
+        IndicatorCheckpoint.read(file);
+    }
+
+    private static Map<String, StreamingState> createStates() {
+        Map<String, StreamingState> states = new LinkedHashMap<>();
+        states.put("ema21", new EMACalculator.State(21));
+        states.put("sma50", new RollingStatistics(50));
+        states.put("median50", new OrderStatisticWindow(50));
+        states.put("rsi14", new RSICalculator.State(14));
+        states.put("macd", new MACDCalculator.State(12, 26, 9));
+        states.put("bollinger", new BollingerBandsCalculator.State(20, 2.0d));
+        states.put("volatility", new VolatilityCalculator.State(20));
+        return states;
+    }
+
+    private static void feed(Map<String, StreamingState> states, double close) {
+        ((EMACalculator.State) states.get("ema21")).update(close);
+        ((RollingStatistics) states.get("sma50")).push(close);
+        ((OrderStatisticWindow) states.get("median50")).push(close);
+        ((RSICalculator.State) states.get("rsi14")).update(close);
+        ((MACDCalculator.State) states.get("macd")).update(close);
+        ((BollingerBandsCalculator.State) states.get("bollinger")).update(close);
+        ((VolatilityCalculator.State) states.get("volatility")).update(close);
+    }
+}
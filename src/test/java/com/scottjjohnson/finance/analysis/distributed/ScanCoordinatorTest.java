@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.distributed;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.store.OffHeapUniverseStore;
+import com.scottjjohnson.finance.analysis.testdata.ComparisonQuotesTestData;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScanCoordinatorTest {
+
+    private static final List<ScanMetric> METRICS = Arrays.asList(ScanMetric.sma(50), ScanMetric.ema(21),
+            ScanMetric.averageTrueRange(14), ScanMetric.averageDailyVolume(50), ScanMetric.upDownVolumeRatio(50),
+            ScanMetric.maxHigh(252), ScanMetric.rsi(14), ScanMetric.volatility(20),
+            ScanMetric.relativeStrengthPercentOfPeak(1), ScanMetric.beta(60));
+
+    private static List<QuoteSeries> universe = null;
+    private static DateIndexedSeries comparison = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+
+        List<DailyQuoteBean> comparisonQuotes = new ArrayList<>(ComparisonQuotesTestData.getTestData().values());
+        comparisonQuotes.sort((a, b) -> Integer.compare(a.getEpochDay(), b.getEpochDay()));
+        comparison = DateIndexedSeries.fromSeries(ColumnarQuoteSeries.fromQuotes(comparisonQuotes));
+
+        // scaled copies of the test data make a universe big enough to spread over several partitions
+        ColumnarQuoteSeries aapl = ColumnarQuoteSeries.fromQuotes(FinanceQuotesTestData.getTestData());
+        universe = new ArrayList<>();
+        universe.add(aapl);
+        for (int s = 1; s < 40; s++) {
+            ColumnarQuoteSeries copy = new ColumnarQuoteSeries("SYM" + s, aapl.size());
+            double scale = 1.0d + s / 10.0d;
+            for (int i = 0; i < aapl.size(); i++) {
+                copy.append(aapl.getEpochDay(i), aapl.getOpen(i) * scale, aapl.getHigh(i) * scale,
+                        aapl.getLow(i) * scale, aapl.getClose(i) * scale, aapl.getVolume(i) * s);
+            }
+            universe.add(copy);
+        }
+        universe.add(new ColumnarQuoteSeries("EMPTY"));
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        universe = null;
+        comparison = null;
+    }
+
+    @Test
+    public void testInProcessWorkers() throws IOException {
+
+        List<ScanWorkerEndpoint> workers = Arrays.asList(ScanWorkerEndpoint.inProcess(new ScanWorker(universe)),
+                ScanWorkerEndpoint.inProcess(new ScanWorker(universe)),
+                ScanWorkerEndpoint.inProcess(new ScanWorker(universe)));
+
+        assertMatchesLocalScan(new ScanCoordinator(workers, 8).run(METRICS, comparison));
+    }
+
+    @Test
+    public void testFailedWorkersPartitionsAreReassigned() throws IOException {
+
+        ScanWorkerEndpoint unreachable = () -> {
+            throw new IOException("Connection refused");
+        };
+        List<ScanWorkerEndpoint> workers = Arrays.asList(unreachable,
+                failingAfter(1, ScanWorkerEndpoint.inProcess(new ScanWorker(universe))),
+                ScanWorkerEndpoint.inProcess(new ScanWorker(universe)));
+
+        assertMatchesLocalScan(new ScanCoordinator(workers, 8).run(METRICS, comparison));
+    }
+
+    @Test(expected = IOException.class)
+    public void testAllWorkersFailed() throws IOException {
+
+        List<ScanWorkerEndpoint> workers = Arrays.asList(
+                failingAfter(1, ScanWorkerEndpoint.inProcess(new ScanWorker(universe))),
+                failingAfter(2, ScanWorkerEndpoint.inProcess(new ScanWorker(universe))));
+
+        new ScanCoordinator(workers, 8).run(METRICS, comparison);
+    }
+
+    @Test
+    public void testWithoutComparison() throws IOException {
+
+        Map<String, double[]> results = new ScanCoordinator(
+                Collections.singletonList(ScanWorkerEndpoint.inProcess(new ScanWorker(universe))), 4).run(METRICS,
+                        null);
+
+        assertEquals(universe.size(), results.size());
+        assertTrue(Double.isNaN(results.get("AAPL")[8]));
+        assertTrue(Double.isNaN(results.get("AAPL")[9]));
+        assertEquals(METRICS.get(0).evaluate(universe.get(0), null), results.get("AAPL")[0], 0.0d);
+    }
+
+    @Test
+    public void testSocketWorkers() throws IOException {
+
+        ScanWorker worker = new ScanWorker(universe);
+        try (ServerSocket first = new ServerSocket(0); ServerSocket second = new ServerSocket(0)) {
+            for (ServerSocket serverSocket : Arrays.asList(first, second)) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        worker.listen(serverSocket);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                thread.setDaemon(true);
+                thread.start();
+            }
+
+            List<ScanWorkerEndpoint> workers = Arrays.asList(
+                    ScanWorkerEndpoint.socket("localhost", first.getLocalPort()),
+                    ScanWorkerEndpoint.socket("localhost", second.getLocalPort()));
+
+            assertMatchesLocalScan(new ScanCoordinator(workers, 8).run(METRICS, comparison));
+        }
+    }
+
+    @Test
+    public void testWorkerProcesses() throws Exception {
+
+        Path store = Files.createTempFile("universe", ".uqs");
+        List<Process> processes = new ArrayList<>();
+        try {
+            OffHeapUniverseStore.write(store, universe);
+
+            List<ScanWorkerEndpoint> workers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Process process = new ProcessBuilder(
+                        System.getProperty("java.home") + File.separator + "bin" + File.separator + "java", "-cp",
+                        System.getProperty("java.class.path"), ScanWorker.class.getName(), "0", store.toString())
+                                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                                .start();
+                processes.add(process);
+
+                String line = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII)).readLine();
+                assertTrue(line, line != null && line.startsWith("listening on "));
+                workers.add(ScanWorkerEndpoint.socket("localhost",
+                        Integer.parseInt(line.substring("listening on ".length()))));
+            }
+
+            // a worker process that died before the scan
+            processes.get(0).destroyForcibly().waitFor();
+
+            assertMatchesLocalScan(new ScanCoordinator(workers, 8).run(METRICS, comparison));
+        } finally {
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+            Files.deleteIfExists(store);
+        }
+    }
+
+    @Test
+    public void testGetPartition() {
+
+        // a symbol with a negative hash code still maps to a valid partition
+        assertTrue("polygenelubricants".hashCode() < 0);
+        int partition = ScanCoordinator.getPartition("polygenelubricants", 7);
+        assertTrue(partition >= 0 && partition < 7);
+    }
+
+    private static void assertMatchesLocalScan(final Map<String, double[]> results) {
+
+        assertEquals(universe.size(), results.size());
+        for (QuoteSeries quotes : universe) {
+            double[] expected = new double[METRICS.size()];
+            for (int m = 0; m < expected.length; m++) {
+                expected[m] = METRICS.get(m).evaluate(quotes, comparison);
+            }
+            assertArrayEquals(quotes.getSymbol(), expected, results.get(quotes.getSymbol()), 0.0d);
+        }
+    }
+
+    /**
+     * Wraps an endpoint so its connection breaks when the coordinator sends the scan after the given number.
+     */
+    private static ScanWorkerEndpoint failingAfter(final int scans, final ScanWorkerEndpoint endpoint) {
+        return () -> {
+            ScanConnection connection = endpoint.connect();
+            FilterOutputStream out = new FilterOutputStream(connection.getOutput()) {
+
+                private int flushes = 0;
+
+                @Override
+                public void flush() throws IOException {
+                    // the coordinator flushes once per scan request
+                    if (++flushes > scans) {
+                        throw new IOException("Worker crashed");
+                    }
+                    super.flush();
+                }
+            };
+            return new ScanConnection(connection.getInput(), out, connection);
+        };
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.calculators.AverageTrueRangeCalculator;
+import com.scottjjohnson.finance.analysis.calculators.BetaCalculator;
+import com.scottjjohnson.finance.analysis.calculators.RelativeStrengthPercentOfPeakCalculator;
+import com.scottjjohnson.finance.analysis.calculators.SMACalculator;
+import com.scottjjohnson.finance.analysis.calculators.UpDownVolumeRatioCalculator;
+import com.scottjjohnson.finance.analysis.series.AlignedPairSeries;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
+import com.scottjjohnson.finance.analysis.testdata.ComparisonQuotesTestData;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IndicatorGraphTest {
+
+    private static List<DailyQuoteBean> quotes = null;
+    private static DateIndexedSeries benchmark = null;
+
+    private ColumnarQuoteSeries series;
+    private IndicatorGraph graph;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = FinanceQuotesTestData.getTestData();
+        benchmark = DateIndexedSeries.fromMap(ComparisonQuotesTestData.getTestData());
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        // all but the last bar, which the tests append
+        series = ColumnarQuoteSeries.fromQuotes(new ArrayList<>(quotes.subList(0, quotes.size() - 1)));
+        graph = new IndicatorGraph(series, benchmark);
+    }
+
+    @Test
+    public void testValuesMatchCalculators() {
+
+        appendLastBar();
+        int last = series.size() - 1;
+        AlignedPairSeries aligned = AlignedPairSeries.join(series, benchmark);
+
+        assertEquals(new SMACalculator().calculate(series, 50), graph.get(IndicatorNode.sma(50))[last], 1e-9);
+        assertEquals(new AverageTrueRangeCalculator().calculate(series, 14),
+                graph.get(IndicatorNode.averageTrueRange(14))[last], 0.0d);
+        float[] upDown = new UpDownVolumeRatioCalculator().calculateSeries(series, 50);
+        double[] graphUpDown = graph.get(IndicatorNode.upDownVolumeRatio(50));
+        for (int i = 0; i < upDown.length; i++) {
+            assertEquals(upDown[i], graphUpDown[i], 0.0d);
+        }
+        assertEquals(new RelativeStrengthPercentOfPeakCalculator().calculate(aligned, 1),
+                graph.get(IndicatorNode.relativeStrengthPercentOfPeak(1)), 0.0d);
+        assertEquals(new BetaCalculator().calculate(aligned, 60), graph.get(IndicatorNode.beta(60)), 0.0d);
+    }
+
+    @Test
+    public void testSharedIntermediatesComputedOnce() {
+
+        graph.get(IndicatorNode.relativeStrengthPercentOfPeak(1));
+        graph.get(IndicatorNode.beta(60));
+        graph.get(IndicatorNode.averageTrueRange(14));
+        graph.get(IndicatorNode.upDownVolumeRatio(50));
+        double[] sma = graph.get(IndicatorNode.sma(50));
+
+        assertEquals(1, graph.getComputationCount(IndicatorNode.ALIGNED_CLOSES));
+        assertEquals(1, graph.getComputationCount(IndicatorNode.PREVIOUS_CLOSES));
+        // equal nodes created separately share one memoized value
+        assertSame(sma, graph.get(IndicatorNode.sma(50)));
+        assertEquals(1, graph.getComputationCount(IndicatorNode.sma(50)));
+    }
+
+    @Test
+    public void testAppendInvalidatesOnlyDownstreamNodes() {
+
+        int[] benchmarkOnlyComputations = new int[1];
+        IndicatorNode<Integer> benchmarkOnly = IndicatorNode.of("BENCHMARK_CLOSES", g -> {
+            benchmarkOnlyComputations[0]++;
+            return g.get(IndicatorNode.BENCHMARK).getNumberOfCloses();
+        }, IndicatorNode.BENCHMARK);
+
+        graph.get(IndicatorNode.beta(60));
+        graph.get(IndicatorNode.averageTrueRange(14));
+        graph.get(benchmarkOnly);
+        long version = graph.getDataVersion();
+
+        appendLastBar();
+
+        assertTrue(graph.getDataVersion() > version);
+        assertFalse(graph.isValid(IndicatorNode.ALIGNED_CLOSES));
+        assertFalse(graph.isValid(IndicatorNode.beta(60)));
+        assertFalse(graph.isValid(IndicatorNode.PREVIOUS_CLOSES));
+        assertFalse(graph.isValid(IndicatorNode.averageTrueRange(14)));
+        assertTrue(graph.isValid(benchmarkOnly));
+
+        assertEquals(series.size(), graph.get(IndicatorNode.averageTrueRange(14)).length);
+        graph.get(benchmarkOnly);
+        assertEquals(1, benchmarkOnlyComputations[0]);
+        assertEquals(2, graph.getComputationCount(IndicatorNode.TRUE_RANGE));
+    }
+
+    @Test
+    public void testSetBenchmarkInvalidatesOnlyDownstreamNodes() {
+
+        graph.get(IndicatorNode.relativeStrengthPercentOfPeak(1));
+        graph.get(IndicatorNode.sma(50));
+
+        graph.setBenchmark(null);
+
+        assertFalse(graph.isValid(IndicatorNode.relativeStrengthPercentOfPeak(1)));
+        assertTrue(graph.isValid(IndicatorNode.sma(50)));
+        assertTrue(Double.isNaN(graph.get(IndicatorNode.relativeStrengthPercentOfPeak(1))));
+    }
+
+    @Test
+    public void testInvalidate() {
+
+        graph.get(IndicatorNode.averageTrueRange(14));
+        graph.invalidate(IndicatorNode.TRUE_RANGE);
+
+        assertTrue(graph.isValid(IndicatorNode.PREVIOUS_CLOSES));
+        assertFalse(graph.isValid(IndicatorNode.TRUE_RANGE));
+        assertFalse(graph.isValid(IndicatorNode.averageTrueRange(14)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUndeclaredDependency() {
+        graph.get(IndicatorNode.of("UNDECLARED", g -> g.get(IndicatorNode.sma(50))[0]));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCycle() {
+
+        // nodes are identified by name, so a stand-in lets A declare B before B exists
+        IndicatorNode<Double> b = IndicatorNode.of("B", g -> 0.0d);
+        IndicatorNode<Double> a = IndicatorNode.of("A", g -> g.get(b), b);
+
+        graph.get(IndicatorNode.of("B", g -> g.get(a), a));
+    }
+
+    private void appendLastBar() {
+        DailyQuoteBean quote = quotes.get(quotes.size() - 1);
+        graph.append(quote.getEpochDay(), quote.getOpen(), quote.getHigh(), quote.getLow(), quote.getClose(),
+                quote.getVolume());
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.intraday;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.scottjjohnson.util.DateUtils;
+import com.scottjjohnson.util.TradingCalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IntradayVolumeCurveTest {
+
+    static final TradingCalendar CALENDAR = TradingCalendar.getNyseCalendar(2019, 2019);
+
+    // 2019-11-18 through 2019-12-06: 13 full sessions, Thanksgiving, and the early close the day after
+    static final int FIRST_DAY = DateUtils.toEpochDay(2019, 11, 18);
+    static final int LAST_DAY = DateUtils.toEpochDay(2019, 12, 6);
+    static final int EARLY_CLOSE = DateUtils.toEpochDay(2019, 11, 29);
+
+    /**
+     * U-shaped volume, heaviest at the open and close.
+     */
+    static long getBaseVolume(final int minute) {
+        return 1000L + 10L * Math.abs(minute - 195);
+    }
+
+    /**
+     * Builds minute bars for every trading day in the test range, scaling each full session's volume by 1, 2 or 3.
+     * The early close gets its whole volume in three hours.
+     */
+    static Bars buildBars() {
+
+        Bars bars = new Bars();
+        for (int day = FIRST_DAY; day <= LAST_DAY; day++) {
+            if (!CALENDAR.isTradingDay(day)) {
+                continue;
+            }
+            if (day == EARLY_CLOSE) {
+                for (int m = 0; m < 210; m++) {
+                    bars.add(day, m, 50000L);
+                }
+            } else {
+                long scale = 1 + day % 3;
+                for (int m = 0; m < IntradayVolumeCurve.MINUTES_PER_SESSION; m++) {
+                    bars.add(day, m, getBaseVolume(m) * scale);
+                }
+            }
+        }
+        // an after-hours bar is ignored
+        bars.add(LAST_DAY, IntradayVolumeCurve.getMinuteOfSession(16, 30), 1000000L);
+
+        return bars;
+    }
+
+    @Test
+    public void testFromBars() {
+
+        Bars bars = buildBars();
+        IntradayVolumeCurve curve = IntradayVolumeCurve.fromBars("TEST", CALENDAR, bars.epochDays(),
+                bars.minutes(), bars.volumes(), 100);
+
+        assertEquals(13, curve.getNumberOfDays());
+
+        long total = 0L;
+        for (int m = 0; m < IntradayVolumeCurve.MINUTES_PER_SESSION; m++) {
+            total += getBaseVolume(m);
+        }
+        long cumulative = 0L;
+        for (int m = 0; m < IntradayVolumeCurve.MINUTES_PER_SESSION; m++) {
+            cumulative += getBaseVolume(m);
+            assertEquals((double) cumulative / total, curve.getCumulativeFraction(m),
+                    1.0d / IntradayVolumeCurve.FRACTION_SCALE);
+        }
+        assertEquals(1.0d, curve.getCumulativeFraction(IntradayVolumeCurve.MINUTES_PER_SESSION - 1), 0.0d);
+
+        double scaleSum = 0.0d;
+        for (int day = FIRST_DAY; day <= LAST_DAY; day++) {
+            if (CALENDAR.isTradingDay(day) && day != EARLY_CLOSE) {
+                scaleSum += 1 + day % 3;
+            }
+        }
+        assertEquals(total * scaleSum / 13, curve.getAverageDailyVolume(), 1e-6);
+    }
+
+    @Test
+    public void testFromBarsUsesMostRecentDays() {
+
+        Bars bars = buildBars();
+        IntradayVolumeCurve curve = IntradayVolumeCurve.fromBars("TEST", CALENDAR, bars.epochDays(),
+                bars.minutes(), bars.volumes(), 3);
+
+        long total = 0L;
+        for (int m = 0; m < IntradayVolumeCurve.MINUTES_PER_SESSION; m++) {
+            total += getBaseVolume(m);
+        }
+        double scaleSum = 0.0d;
+        for (int day = LAST_DAY - 2; day <= LAST_DAY; day++) {
+            scaleSum += 1 + day % 3;
+        }
+
+        assertEquals(3, curve.getNumberOfDays());
+        assertEquals(total * scaleSum / 3, curve.getAverageDailyVolume(), 1e-6);
+    }
+
+    @Test
+    public void testNoFullSessions() {
+
+        IntradayVolumeCurve curve = IntradayVolumeCurve.fromBars("TEST", CALENDAR, new int[] { EARLY_CLOSE },
+                new int[] { 0 }, new long[] { 100L }, 20);
+
+        assertEquals(0, curve.getNumberOfDays());
+        assertEquals(0.0d, curve.getAverageDailyVolume(), 0.0d);
+        assertTrue(curve.getCumulativeFraction(100) == 0.0d);
+    }
+
+    @Test
+    public void testGetMinuteOfSession() {
+        assertEquals(0, IntradayVolumeCurve.getMinuteOfSession(9, 30));
+        assertEquals(60, IntradayVolumeCurve.getMinuteOfSession(10, 30));
+        assertEquals(389, IntradayVolumeCurve.getMinuteOfSession(15, 59));
+    }
+
+    /**
+     * Growable parallel arrays of minute bars.
+     */
+    static final class Bars {
+
+        private int[] epochDays = new int[1024];
+        private int[] minutes = new int[1024];
+        private long[] volumes = new long[1024];
+        private int size;
+
+        void add(final int epochDay, final int minute, final long volume) {
+            if (size == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, size * 2);
+                minutes = Arrays.copyOf(minutes, size * 2);
+                volumes = Arrays.copyOf(volumes, size * 2);
+            }
+            epochDays[size] = epochDay;
+            minutes[size] = minute;
+            volumes[size] = volume;
+            size++;
+        }
+
+        int[] epochDays() {
+            return Arrays.copyOf(epochDays, size);
+        }
+
+        int[] minutes() {
+            return Arrays.copyOf(minutes, size);
+        }
+
+        long[] volumes() {
+            return Arrays.copyOf(volumes, size);
+        }
+    }
+}
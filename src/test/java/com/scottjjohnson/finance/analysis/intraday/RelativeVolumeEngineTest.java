@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.intraday;
+
+import java.util.Arrays;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.util.AllocationMeter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RelativeVolumeEngineTest {
+
+    private static IntradayVolumeCurve curve = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        IntradayVolumeCurveTest.Bars bars = IntradayVolumeCurveTest.buildBars();
+        curve = IntradayVolumeCurve.fromBars("TEST", IntradayVolumeCurveTest.CALENDAR, bars.epochDays(),
+                bars.minutes(), bars.volumes(), 20);
+    }
+
+    @Test
+    public void testUpdate() {
+
+        IntradayVolumeCurve empty = IntradayVolumeCurve.fromBars("EMPTY", IntradayVolumeCurveTest.CALENDAR,
+                new int[0], new int[0], new long[0], 20);
+        RelativeVolumeEngine engine = new RelativeVolumeEngine(Arrays.asList(empty, curve));
+        int test = engine.getSymbolIndex("TEST");
+
+        assertEquals(2, engine.size());
+        assertEquals(1, test);
+        assertEquals(-1, engine.getSymbolIndex("MISSING"));
+
+        // trade at 2.5 times the average session through 10:30am
+        double scale = 2.5d * curve.getAverageDailyVolume() / getBaseSessionVolume();
+        double relativeVolume = Double.NaN;
+        for (int m = 0; m <= 60; m++) {
+            relativeVolume = engine.update(test, m, Math.round(IntradayVolumeCurveTest.getBaseVolume(m) * scale));
+        }
+
+        assertEquals(2.5d, relativeVolume, 1e-3);
+        assertEquals(2.5d, engine.getRelativeVolume(test, 60), 1e-3);
+        assertTrue(Double.isNaN(engine.update(0, 60, 100L)));
+
+        engine.startSession();
+        assertEquals(0L, engine.getSessionVolume(test));
+        assertEquals(0.0d, engine.getRelativeVolume(test, 60), 0.0d);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinuteOutOfRange() {
+        new RelativeVolumeEngine(Arrays.asList(curve)).getRelativeVolume(0, IntradayVolumeCurve.MINUTES_PER_SESSION);
+    }
+
+    @Test
+    public void testUpdateWithMinuteOutOfRangeKeepsVolume() {
+
+        RelativeVolumeEngine engine = new RelativeVolumeEngine(Arrays.asList(curve));
+        engine.update(0, 10, 1000L);
+
+        try {
+            engine.update(0, IntradayVolumeCurve.MINUTES_PER_SESSION, 500L);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        assertEquals(1000L, engine.getSessionVolume(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateSymbol() {
+        new RelativeVolumeEngine(Arrays.asList(curve, curve));
+    }
+
+    @Test
+    public void testUpdateDoesNotAllocate() {
+
+        Assume.assumeTrue(AllocationMeter.isSupported());
+
+        RelativeVolumeEngine engine = new RelativeVolumeEngine(Arrays.asList(curve));
+        long bytesPerCall = AllocationMeter.measureBytesPerCall(() -> engine.update(0, 120, 1000L));
+
+        assertTrue(bytesPerCall + " bytes per update", bytesPerCall <= 0L);
+    }
+
+    private static double getBaseSessionVolume() {
+        double total = 0.0d;
+        for (int m = 0; m < IntradayVolumeCurve.MINUTES_PER_SESSION; m++) {
+            total += IntradayVolumeCurveTest.getBaseVolume(m);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.calculators.RSICalculator;
+import com.scottjjohnson.finance.analysis.calculators.SMACalculator;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnarResultWriterTest {
+
+    private static ColumnarQuoteSeries quotes = null;
+
+    private Path file;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = ColumnarQuoteSeries.fromQuotes(FinanceQuotesTestData.getTestData());
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("results", ".rcf");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testWriteAndReadSeries() throws IOException {
+
+        int[] epochDays = new int[quotes.size()];
+        for (int i = 0; i < epochDays.length; i++) {
+            epochDays[i] = quotes.getEpochDay(i);
+        }
+        double[] sma = new SMACalculator().calculateSeries(quotes, 50);
+        double[] rsi = new RSICalculator().calculateSeries(quotes, 14);
+
+        // a small batch size spreads the rows over many batches, with a partial one at the end
+        try (ResultWriter writer = new ColumnarResultWriter(file, Arrays.asList("SMA50", "RSI14"), 7)) {
+            writer.writeSeries("AAPL", epochDays, sma, rsi);
+            writer.writeSeries("AAPL\u00c9", epochDays, rsi, sma);
+        }
+
+        ColumnarResultReader reader = ColumnarResultReader.open(file);
+
+        assertEquals(Arrays.asList("SMA50", "RSI14"), reader.getColumnNames());
+        assertEquals(2L * epochDays.length, reader.getRowCount());
+        for (int i = 0; i < epochDays.length; i++) {
+            long row = i;
+            assertEquals("AAPL", reader.getSymbol(row));
+            assertEquals(epochDays[i], reader.getEpochDay(row));
+            assertEquals(sma[i], reader.getValue(row, 0), 0.0d);
+            assertEquals(rsi[i], reader.getValue(row, 1), 0.0d);
+
+            row = epochDays.length + i;
+            assertEquals("AAPL\u00c9", reader.getSymbol(row));
+            assertEquals(epochDays[i], reader.getEpochDay(row));
+            assertEquals(rsi[i], reader.getValue(row, 0), 0.0d);
+            assertEquals(sma[i], reader.getValue(row, 1), 0.0d);
+        }
+    }
+
+    @Test
+    public void testBatchLargerThanWriteBuffer() throws IOException {
+
+        // the symbol offsets alone are over 1 MB, more than the writer's buffer holds at once
+        int rowsPerBatch = 300_000;
+        int rowCount = rowsPerBatch + 3;
+        try (ResultWriter writer = new ColumnarResultWriter(file, Collections.singletonList("A"), rowsPerBatch)) {
+            for (int i = 0; i < rowCount; i++) {
+                writer.write(i % 2 == 0 ? "AAPL" : "MSFT", 18000 + i, new double[] { i * 0.5d });
+            }
+        }
+
+        ColumnarResultReader reader = ColumnarResultReader.open(file);
+
+        assertEquals(rowCount, reader.getRowCount());
+        for (int i = 0; i < rowCount; i += 997) {
+            assertEquals(i % 2 == 0 ? "AAPL" : "MSFT", reader.getSymbol(i));
+            assertEquals(18000 + i, reader.getEpochDay(i));
+            assertEquals(i * 0.5d, reader.getValue(i, 0), 0.0d);
+        }
+        assertEquals("MSFT", reader.getSymbol(rowCount - 2));
+        assertEquals((rowCount - 1) * 0.5d, reader.getValue(rowCount - 1, 0), 0.0d);
+    }
+
+    @Test
+    public void testWriteAllAndNaN() throws IOException {
+
+        Map<String, double[]> results = new LinkedHashMap<>();
+        results.put("AAPL", new double[] { 1.5d, Double.NaN });
+        results.put("MSFT", new double[] { -2.0d, 3.0d });
+
+        try (ResultWriter writer = new ColumnarResultWriter(file, Arrays.asList("A", "B"))) {
+            writer.writeAll(results, 18130);
+        }
+
+        ColumnarResultReader reader = ColumnarResultReader.open(file);
+
+        assertEquals(2L, reader.getRowCount());
+        assertEquals("MSFT", reader.getSymbol(1));
+        assertEquals(18130, reader.getEpochDay(1));
+        assertEquals(1.5d, reader.getValue(0, 0), 0.0d);
+        assertTrue(Double.isNaN(reader.getValue(0, 1)));
+        assertEquals(3.0d, reader.getValue(1, 1), 0.0d);
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+
+        new ColumnarResultWriter(file, Collections.singletonList("A")).close();
+
+        ColumnarResultReader reader = ColumnarResultReader.open(file);
+
+        assertEquals(0L, reader.getRowCount());
+        assertEquals(Collections.singletonList("A"), reader.getColumnNames());
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnclosedFile() throws IOException {
+
+        List<String> columns = Collections.singletonList("A");
+        ColumnarResultWriter writer = new ColumnarResultWriter(file, columns, 2);
+        for (int i = 0; i < 5; i++) {
+            writer.write("AAPL", 18000 + i, new double[] { i });
+        }
+
+        // copy what has reached the file so far, as if the writer had crashed
+        Path partial = Files.createTempFile("partial", ".rcf");
+        try {
+            Files.copy(file, partial, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            ColumnarResultReader.open(partial);
+        } finally {
+            writer.close();
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRowOutOfRange() throws IOException {
+
+        try (ResultWriter writer = new ColumnarResultWriter(file, Collections.singletonList("A"))) {
+            writer.write("AAPL", 18000, new double[] { 1.0d });
+        }
+
+        ColumnarResultReader.open(file).getValue(1, 0);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.util.DateUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CsvResultWriterTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("results", ".csv");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+
+        try (ResultWriter writer = new CsvResultWriter(file, Arrays.asList("Close", "SMA50"))) {
+            writer.write("AAPL", DateUtils.toEpochDay(2019, 8, 5), new double[] { 193.34d, 203.5d });
+            writer.write("AAPL", DateUtils.toEpochDay(2019, 10, 15), new double[] { 235.32d, Double.NaN });
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+
+        assertEquals(Arrays.asList("Symbol,Date,Close,SMA50", "AAPL,2019-08-05,193.34,203.5", "AAPL,2019-10-15,235.32,"),
+                lines);
+    }
+
+    @Test
+    public void testReadableByQuoteFileParser() throws IOException {
+
+        try (ResultWriter writer = new CsvResultWriter(file, Arrays.asList("Close", "RSI14"))) {
+            writer.writeSeries("AAPL", new int[] { 18113, 18114, 18115 }, new double[] { 1.0d, 2.0d, 3.0d },
+                    new double[] { 50.0d, 60.0d, 70.0d });
+        }
+
+        Map<String, ColumnarQuoteSeries> parsed = new QuoteFileParser().parse(file);
+        ColumnarQuoteSeries series = parsed.get("AAPL");
+
+        assertTrue(series != null);
+        assertEquals(3, series.size());
+        assertEquals(18114, series.getEpochDay(1));
+        assertEquals(3.0d, series.getClose(2), 0.0d);
+    }
+}
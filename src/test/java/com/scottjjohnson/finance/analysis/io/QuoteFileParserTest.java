@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.testdata.ComparisonQuotesTestData;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+import com.scottjjohnson.util.DateUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuoteFileParserTest {
+
+    private static List<DailyQuoteBean> quotes = null;
+    private static List<DailyQuoteBean> comparisonQuotes = null;
+
+    private Path file;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = FinanceQuotesTestData.getTestData();
+        comparisonQuotes = new ArrayList<>(ComparisonQuotesTestData.getTestData().values());
+        comparisonQuotes.sort((a, b) -> Integer.compare(a.getEpochDay(), b.getEpochDay()));
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+        comparisonQuotes = null;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("quotes", ".csv");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testParseSingleSymbolFile() throws IOException {
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Date,Open,High,Low,Close,Adj Close,Volume\n");
+            writeRows(writer, quotes, false);
+        }
+
+        Map<String, ColumnarQuoteSeries> result = new QuoteFileParser().parse(file, "AAPL");
+
+        assertEquals(1, result.size());
+        assertSeriesMatches(quotes, result.get("AAPL"));
+    }
+
+    @Test
+    public void testParseMultiSymbolFileInParallelChunks() throws IOException {
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Symbol,Date,Open,High,Low,Close,Adj Close,Volume\r\n");
+            writeRows(writer, quotes, true);
+            writeRows(writer, comparisonQuotes, true);
+        }
+
+        // small chunks so symbols are split across chunk boundaries
+        Map<String, ColumnarQuoteSeries> result = new QuoteFileParser(4096, 8).parse(file);
+
+        assertEquals(2, result.size());
+        assertSeriesMatches(quotes, result.get("AAPL"));
+        assertSeriesMatches(comparisonQuotes, result.get("SPX"));
+    }
+
+    @Test
+    public void testParseNullAndMalformedRows() throws IOException {
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Date,Open,High,Low,Close,Adj Close,Volume\n");
+            writer.write("2019-08-19,210.62,212.73,210.03,210.35,210.35,24613700\n");
+            writer.write("2019-08-20,null,null,null,null,null,null\n");
+            writer.write("2019-08-2x,210.88,213.35,210.32,210.36,210.36,26884300\n");
+            writer.write("2019-08-21,212.99,213.65,211.6032,212.64,212.64,21564747\n");
+            writer.write("2019-08-22,213.19,214.44,210.75,1.2e2,212.46,22253700");
+        }
+
+        ColumnarQuoteSeries series = new QuoteFileParser().parse(file, "AAPL").get("AAPL");
+
+        assertEquals(4, series.size());
+        assertTrue(Double.isNaN(series.getClose(1)));
+        assertEquals(0L, series.getVolume(1));
+        assertEquals(DateUtils.toEpochDay(2019, 8, 21), series.getEpochDay(2));
+        assertEquals(211.6032d, series.getLow(2), 0.0d);
+        assertEquals(120.0d, series.getClose(3), 0.0d);
+        assertEquals(22253700L, series.getVolume(3));
+    }
+
+    @Test
+    public void testParseRejectsDaysPastEndOfMonth() throws IOException {
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Date,Open,High,Low,Close,Adj Close,Volume\n");
+            writer.write("2019-02-28,100,101,99,100,100,1000\n");
+            writer.write("2019-02-29,100,101,99,100,100,1000\n");
+            writer.write("2019-02-31,100,101,99,100,100,1000\n");
+            writer.write("2019-04-31,100,101,99,100,100,1000\n");
+            writer.write("2020-02-29,100,101,99,100,100,1000\n");
+        }
+
+        ColumnarQuoteSeries series = new QuoteFileParser().parse(file, "AAPL").get("AAPL");
+
+        assertEquals(2, series.size());
+        assertEquals(DateUtils.toEpochDay(2019, 2, 28), series.getEpochDay(0));
+        assertEquals(DateUtils.toEpochDay(2020, 2, 29), series.getEpochDay(1));
+    }
+
+    @Test
+    public void testParseRejectsVolumesTooLongForALong() throws IOException {
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Date,Open,High,Low,Close,Adj Close,Volume\n");
+            writer.write("2019-08-19,100,101,99,100,100,9223372036854775807\n");
+            writer.write("2019-08-20,100,101,99,100,100,9223372036854775808\n");
+            writer.write("2019-08-21,100,101,99,100,100,123456789012345678901234\n");
+            writer.write("2019-08-22,100,101,99,100,100,1000\n");
+        }
+
+        ColumnarQuoteSeries series = new QuoteFileParser().parse(file, "AAPL").get("AAPL");
+
+        assertEquals(2, series.size());
+        assertEquals(Long.MAX_VALUE, series.getVolume(0));
+        assertEquals(DateUtils.toEpochDay(2019, 8, 22), series.getEpochDay(1));
+        assertEquals(1000L, series.getVolume(1));
+    }
+
+    @Test
+    public void testDefaultSymbolIgnoredWhenFileHasSymbolColumn() throws IOException {
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Symbol,Date,Open,High,Low,Close,Adj Close,Volume\n");
+            writeRows(writer, quotes, true);
+        }
+
+        Map<String, ColumnarQuoteSeries> result = new QuoteFileParser(4096, 8).parse(file, "DEFAULT");
+
+        assertEquals(1, result.size());
+        assertSeriesMatches(quotes, result.get("AAPL"));
+    }
+
+    private static void writeRows(final Writer writer, final List<DailyQuoteBean> rows, final boolean withSymbol)
+            throws IOException {
+
+        for (DailyQuoteBean quote : rows) {
+            int yearMonthDay = DateUtils.toYearMonthDay(quote.getEpochDay());
+            if (withSymbol) {
+                writer.write(quote.getSymbol() + ",");
+            }
+            writer.write(String.format("%04d-%02d-%02d,%s,%s,%s,%s,%s,%d%n", yearMonthDay / 10000,
+                    yearMonthDay / 100 % 100, yearMonthDay % 100, quote.getOpen(), quote.getHigh(), quote.getLow(),
+                    quote.getClose(), quote.getClose(), quote.getVolume()));
+        }
+    }
+
+    private static void assertSeriesMatches(final List<DailyQuoteBean> expected, final ColumnarQuoteSeries series) {
+
+        assertEquals(expected.size(), series.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            DailyQuoteBean quote = expected.get(i);
+            assertEquals(quote.getEpochDay(), series.getEpochDay(i));
+            assertEquals(quote.getOpen(), series.getOpen(i), 0.0d);
+            assertEquals(quote.getHigh(), series.getHigh(i), 0.0d);
+            assertEquals(quote.getLow(), series.getLow(i), 0.0d);
+            assertEquals(quote.getClose(), series.getClose(i), 0.0d);
+            assertEquals(quote.getVolume(), series.getVolume(i));
+        }
+
+        Date lastDate = series.toQuotes().get(series.size() - 1).getDate();
+        assertEquals(expected.get(expected.size() - 1).getDate(), lastDate);
+    }
+}
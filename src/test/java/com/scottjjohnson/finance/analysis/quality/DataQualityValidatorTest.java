@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.quality;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.calculators.BetaCalculator;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.DateIndexedSeries;
+import com.scottjjohnson.finance.analysis.testdata.ComparisonQuotesTestData;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+import com.scottjjohnson.util.DateUtils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DataQualityValidatorTest {
+
+    private static List<DailyQuoteBean> quotes = null;
+    private static Map<Date, DailyQuoteBean> comparisonQuotes = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = FinanceQuotesTestData.getTestData();
+        comparisonQuotes = ComparisonQuotesTestData.getTestData();
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+        comparisonQuotes = null;
+    }
+
+    @Test
+    public void testCleanData() {
+
+        DataQualityValidator validator = new DataQualityValidator();
+        DateIndexedSeries comparisonCloses = DateIndexedSeries.fromMap(comparisonQuotes);
+
+        DataQualityReport report = validator.validate("AAPL", quotes, comparisonCloses);
+        assertEquals(quotes.size(), report.getNumberOfBars());
+        assertTrue(report.toString(), report.isClean());
+
+        assertTrue(validator.validate(ColumnarQuoteSeries.fromQuotes(quotes), comparisonCloses).isClean());
+    }
+
+    @Test
+    public void testDirtyData() {
+
+        int monday = DateUtils.toEpochDay(2019, 8, 5);
+        List<DailyQuoteBean> dirty = new ArrayList<>(Arrays.asList(
+                createQuote(monday, 10.0d, 100L),
+                createQuote(monday + 1, -9999d, 100L),
+                // Wednesday through Friday missing
+                createQuote(monday + 5, 10.0d, 100L), // Saturday
+                createQuote(monday + 7, 10.0d, -9999L),
+                createQuote(monday + 7, 10.0d, 100L)));
+        DailyQuoteBean noOpen = new DailyQuoteBean();
+        noOpen.setDate("2019-08-13");
+        noOpen.setClose(10.0d);
+        noOpen.setVolume(100L);
+        dirty.add(noOpen);
+        // no date, and the close and volume are still placeholders
+        dirty.add(new DailyQuoteBean());
+
+        // the comparison is missing the Tuesday
+        DailyQuoteBean comparison = createQuote(monday, 2900.0d, 100L);
+        Map<Date, DailyQuoteBean> comparisons = new HashMap<>();
+        comparisons.put(comparison.getDate(), comparison);
+        for (int day = monday + 2; day <= monday + 8; day++) {
+            DailyQuoteBean q = createQuote(day, 2900.0d, 100L);
+            comparisons.put(q.getDate(), q);
+        }
+
+        DataQualityReport report = new DataQualityValidator().validate("DIRTY", dirty,
+                DateIndexedSeries.fromMap(comparisons));
+
+        assertEquals(7, report.getNumberOfBars());
+        assertEquals(1L, report.getCount(DataQualityIssue.UNPARSEABLE_DATE));
+        assertEquals(1L, report.getCount(DataQualityIssue.NON_MONOTONIC_DATE));
+        assertEquals(1L, report.getCount(DataQualityIssue.NON_TRADING_DAY));
+        assertEquals(3L, report.getCount(DataQualityIssue.CALENDAR_GAP));
+        assertArrayEquals(new int[] {monday + 2}, report.getSampleEpochDays(DataQualityIssue.CALENDAR_GAP));
+        assertEquals(1L, report.getCount(DataQualityIssue.MISSING_COMPARISON));
+        assertArrayEquals(new int[] {monday + 1}, report.getSampleEpochDays(DataQualityIssue.MISSING_COMPARISON));
+        assertEquals(2L, report.getCount(DataQualityIssue.MISSING_PRICE));
+        assertEquals(3L, report.getCount(DataQualityIssue.SENTINEL_VALUE));
+        assertEquals(12L, report.getTotalCount());
+    }
+
+    @Test
+    public void testSentinelInEachPrice() {
+
+        DataQualityValidator validator = new DataQualityValidator();
+        int monday = DateUtils.toEpochDay(2019, 8, 5);
+
+        for (int price = 0; price < 4; price++) {
+            DailyQuoteBean quote = createQuote(monday, 10.0d, 100L);
+            switch (price) {
+                case 0:
+                    quote.setOpen(-9999d);
+                    break;
+                case 1:
+                    quote.setHigh(-9999d);
+                    break;
+                case 2:
+                    quote.setLow(-9999d);
+                    break;
+                default:
+                    quote.setClose(-9999d);
+                    break;
+            }
+            List<DailyQuoteBean> bars = Arrays.asList(createQuote(monday - 3, 10.0d, 100L), quote);
+
+            DataQualityReport listReport = validator.validate("BAD", bars, null);
+            assertEquals("price " + price, 1L, listReport.getCount(DataQualityIssue.SENTINEL_VALUE));
+            assertArrayEquals(new int[] {monday}, listReport.getSampleEpochDays(DataQualityIssue.SENTINEL_VALUE));
+
+            DataQualityReport seriesReport = validator.validate(ColumnarQuoteSeries.fromQuotes(bars), null);
+            assertEquals("price " + price, 1L, seriesReport.getCount(DataQualityIssue.SENTINEL_VALUE));
+            assertArrayEquals(new int[] {monday}, seriesReport.getSampleEpochDays(DataQualityIssue.SENTINEL_VALUE));
+        }
+    }
+
+    @Test
+    public void testCalculatorsCountMissingComparisons() {
+
+        Map<Date, DailyQuoteBean> incompleteComparisonQuotes = new HashMap<>(comparisonQuotes);
+        incompleteComparisonQuotes.remove(quotes.get(100).getDate());
+        incompleteComparisonQuotes.remove(quotes.get(200).getDate());
+
+        long before = DataQualityCounter.get(DataQualityIssue.MISSING_COMPARISON);
+        new BetaCalculator().calculate(quotes, incompleteComparisonQuotes);
+
+        assertEquals(2L, DataQualityCounter.get(DataQualityIssue.MISSING_COMPARISON) - before);
+    }
+
+    private static DailyQuoteBean createQuote(int epochDay, double close, long volume) {
+        DailyQuoteBean quote = new DailyQuoteBean();
+        int yearMonthDay = DateUtils.toYearMonthDay(epochDay);
+        quote.setDate(String.format("%04d-%02d-%02d", yearMonthDay / 10000, yearMonthDay / 100 % 100,
+                yearMonthDay % 100));
+        quote.setOpen(close);
+        quote.setHigh(close);
+        quote.setLow(close);
+        quote.setClose(close);
+        quote.setVolume(volume);
+        return quote;
+    }
+}
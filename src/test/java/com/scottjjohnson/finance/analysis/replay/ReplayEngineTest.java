@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.replay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.calculators.RSICalculator;
+import com.scottjjohnson.finance.analysis.calculators.SMACalculator;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.stats.RollingStatistics;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayEngineTest {
+
+    private static List<QuoteSeries> universe = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+
+        ColumnarQuoteSeries aapl = ColumnarQuoteSeries.fromQuotes(FinanceQuotesTestData.getTestData());
+        universe = new ArrayList<>();
+        universe.add(aapl);
+
+        // copies that start late or skip days, so dates don't line up across symbols
+        for (int s = 1; s < 10; s++) {
+            ColumnarQuoteSeries copy = new ColumnarQuoteSeries("SYM" + s);
+            double scale = 1.0d + s / 10.0d;
+            for (int i = s * 10; i < aapl.size(); i++) {
+                if (s % 3 == 0 && i % 7 == 0) {
+                    continue;
+                }
+                double drift = 1.0d + (i % (s + 2)) / 100.0d;
+                copy.append(aapl.getEpochDay(i), aapl.getOpen(i) * scale, aapl.getHigh(i) * scale * drift,
+                        aapl.getLow(i) * scale, aapl.getClose(i) * scale * drift, aapl.getVolume(i));
+            }
+            universe.add(copy);
+        }
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        universe = null;
+    }
+
+    @Test
+    public void testEpochDaysAreTheUnionOfEveryDate() {
+
+        // disjoint and interleaved days, and an empty series, on top of the overlapping copies
+        ColumnarQuoteSeries early = new ColumnarQuoteSeries("EARLY");
+        ColumnarQuoteSeries odd = new ColumnarQuoteSeries("ODD");
+        for (int day = 1000; day < 1010; day++) {
+            early.append(day, 1.0d, 1.0d, 1.0d, 1.0d, 1L);
+            if (day % 2 == 1) {
+                odd.append(day, 1.0d, 1.0d, 1.0d, 1.0d, 1L);
+            }
+        }
+        List<QuoteSeries> series = new ArrayList<>(universe);
+        series.add(new ColumnarQuoteSeries("EMPTY"));
+        series.add(odd);
+        series.add(early);
+
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (QuoteSeries quotes : series) {
+            for (int i = 0; i < quotes.size(); i++) {
+                expected.add(quotes.getEpochDay(i));
+            }
+        }
+
+        int[] epochDays = new ReplayEngine(series, 2).getEpochDays();
+
+        assertEquals(expected.size(), epochDays.length);
+        int i = 0;
+        for (int day : expected) {
+            assertEquals(day, epochDays[i++]);
+        }
+        assertEquals(0, new ReplayEngine(new ArrayList<QuoteSeries>(), 1).getEpochDays().length);
+    }
+
+    @Test
+    public void testStatesMatchCalculators() throws InterruptedException {
+
+        List<Indicators> states = new ReplayEngine(universe, 4).run(new Leaders());
+
+        for (int s = 0; s < universe.size(); s++) {
+            QuoteSeries quotes = universe.get(s);
+            assertEquals(quotes.getSymbol(), new SMACalculator().calculate(quotes, 50), states.get(s).sma.getMean(),
+                    1e-9);
+            assertEquals(quotes.getSymbol(), new RSICalculator().calculate(quotes, 14), states.get(s).rsi.getRsi(),
+                    1e-9);
+        }
+    }
+
+    @Test
+    public void testSnapshotsAreConsistent() throws InterruptedException {
+
+        ReplayEngine engine = new ReplayEngine(universe, 3);
+        int[] epochDays = engine.getEpochDays();
+        List<Integer> seenDays = new ArrayList<>();
+
+        engine.run(new Leaders() {
+
+            @Override
+            public void onDate(final ReplaySnapshot<Indicators> snapshot) {
+
+                int day = snapshot.getEpochDay();
+                seenDays.add(day);
+                for (int s = 0; s < snapshot.size(); s++) {
+                    QuoteSeries quotes = snapshot.getSeries(s);
+                    int index = snapshot.getBarIndex(s);
+                    // every bar on or before the date, and none after it, has been folded in
+                    assertEquals(index + 1, snapshot.getState(s).bars);
+                    assertTrue(index < 0 || quotes.getEpochDay(index) <= day);
+                    assertTrue(index + 1 >= quotes.size() || quotes.getEpochDay(index + 1) > day);
+                    assertEquals(index >= 0 && quotes.getEpochDay(index) == day, snapshot.hasBar(s));
+                }
+            }
+        });
+
+        assertEquals(epochDays.length, seenDays.size());
+        for (int i = 0; i < epochDays.length; i++) {
+            assertEquals(epochDays[i], (int) seenDays.get(i));
+        }
+    }
+
+    @Test
+    public void testRepeatableAcrossThreadCounts() throws InterruptedException {
+
+        Leaders single = new Leaders();
+        new ReplayEngine(universe, 1).run(single);
+
+        for (int threads : new int[] { 2, 4, 16 }) {
+            Leaders parallel = new Leaders();
+            new ReplayEngine(universe, threads).run(parallel);
+            assertEquals(single.leaders, parallel.leaders);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testListenerFailure() throws InterruptedException {
+
+        new ReplayEngine(universe, 4).run(new Leaders() {
+
+            @Override
+            public void onBar(final Indicators state, final QuoteSeries quotes, final int index) {
+                if (quotes.getSymbol().equals("SYM5") && index == 100) {
+                    throw new IllegalStateException("bad bar");
+                }
+                super.onBar(state, quotes, index);
+            }
+        });
+    }
+
+    /**
+     * Per-symbol streaming states.
+     */
+    static final class Indicators {
+        final RollingStatistics sma = new RollingStatistics(50);
+        final RSICalculator.State rsi = new RSICalculator.State(14);
+        int bars;
+    }
+
+    /**
+     * Records the symbol with the highest RSI among those that traded on each date.
+     */
+    static class Leaders implements ReplayListener<Indicators> {
+
+        final List<String> leaders = new ArrayList<>();
+
+        @Override
+        public Indicators createState(final QuoteSeries quotes) {
+            return new Indicators();
+        }
+
+        @Override
+        public void onBar(final Indicators state, final QuoteSeries quotes, final int index) {
+            state.sma.push(quotes.getClose(index));
+            state.rsi.update(quotes.getClose(index));
+            state.bars++;
+        }
+
+        @Override
+        public void onDate(final ReplaySnapshot<Indicators> snapshot) {
+
+            int leader = -1;
+            for (int s = 0; s < snapshot.size(); s++) {
+                if (snapshot.hasBar(s) && (leader < 0
+                        || snapshot.getState(s).rsi.getRsi() > snapshot.getState(leader).rsi.getRsi())) {
+                    leader = s;
+                }
+            }
+            leaders.add(snapshot.getEpochDay() + ":" + (leader < 0 ? "" : snapshot.getSeries(leader).getSymbol()));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.screens;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.calculators.MaxPriceCalculator;
+import com.scottjjohnson.finance.analysis.calculators.SMACalculator;
+import com.scottjjohnson.finance.analysis.calculators.UpDownVolumeRatioCalculator;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScreenEngineTest {
+
+    private static List<DailyQuoteBean> quotes = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = FinanceQuotesTestData.getTestData();
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+    }
+
+    @Test
+    public void testScreenMatchesCalculatorsAtEveryDate() {
+
+        // close > SMA50 > SMA200, within 25% of the 52-week high, up/down volume > 1.2
+        Condition screen = Conditions.hasHistory(200)
+                                     .and(Conditions.greaterThan(Column.close(), Column.sma(50)))
+                                     .and(Conditions.greaterThan(Column.sma(50), Column.sma(200)))
+                                     .and(Conditions.withinPercentBelow(Column.close(), Column.maxHigh(252), 25.0d))
+                                     .and(Conditions.greaterThan(Column.upDownVolumeRatio(50), 1.2d));
+
+        int[] calculatedAnswer = new ScreenEngine().run(ColumnarQuoteSeries.fromQuotes(quotes), screen);
+
+        int[] correctAnswer = new int[quotes.size()];
+        int passed = 0;
+        for (int i = 199; i < quotes.size(); i++) {
+            List<DailyQuoteBean> history = quotes.subList(0, i + 1);
+            double close = quotes.get(i).getClose();
+            double sma50 = new SMACalculator().calculate(history, 50);
+            double sma200 = new SMACalculator().calculate(history, 200);
+            double high = new MaxPriceCalculator().calculate(quotes.subList(Math.max(0, i - 251), i + 1));
+            double upDown = new UpDownVolumeRatioCalculator().calculate(history, 50);
+            if (close > sma50 && sma50 > sma200 && close >= high * 0.75d && upDown > 1.2d) {
+                correctAnswer[passed++] = quotes.get(i).getEpochDay();
+            }
+        }
+
+        assertTrue(passed > 0);
+        assertArrayEquals(Arrays.copyOf(correctAnswer, passed), calculatedAnswer);
+    }
+
+    @Test
+    public void testRunUniverse() {
+
+        ColumnarQuoteSeries aapl = ColumnarQuoteSeries.fromQuotes(quotes);
+        ColumnarQuoteSeries empty = new ColumnarQuoteSeries("EMPTY");
+
+        Condition screen = Conditions.greaterThan(Column.close(), Column.ema(21)).negate();
+        Map<String, int[]> results = new ScreenEngine().run(Arrays.asList(aapl, empty), screen);
+
+        assertEquals(2, results.size());
+        assertEquals(0, results.get("EMPTY").length);
+        assertArrayEquals(new ScreenEngine().run(aapl, screen), results.get("AAPL"));
+    }
+}
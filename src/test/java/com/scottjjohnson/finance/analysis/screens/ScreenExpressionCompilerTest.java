@@ -0,0 +1,193 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.screens;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScreenExpressionCompilerTest {
+
+    private static ColumnarQuoteSeries quotes = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        List<DailyQuoteBean> quoteList = FinanceQuotesTestData.getTestData();
+        quotes = ColumnarQuoteSeries.fromQuotes(quoteList);
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+    }
+
+    @Test
+    public void testCompiledScreenMatchesHandBuiltScreen() {
+
+        Condition compiled = ScreenExpressionCompiler.compile(
+                "history(200) && close > sma(50) && sma(50) > sma(200) && close >= 0.75 * max(252) "
+                        + "&& updown(50) > 1.2");
+
+        Condition handBuilt = Conditions.hasHistory(200)
+                                        .and(Conditions.greaterThan(Column.close(), Column.sma(50)))
+                                        .and(Conditions.greaterThan(Column.sma(50), Column.sma(200)))
+                                        .and(Conditions.withinPercentBelow(Column.close(), Column.maxHigh(252), 25.0d))
+                                        .and(Conditions.greaterThan(Column.upDownVolumeRatio(50), 1.2d));
+
+        ScreenEngine engine = new ScreenEngine();
+        int[] correctAnswer = engine.run(quotes, handBuilt);
+
+        assertTrue(correctAnswer.length > 0);
+        assertArrayEquals(correctAnswer, engine.run(quotes, compiled));
+    }
+
+    @Test
+    public void testPrecedenceAndNegation() {
+
+        ScreenEngine engine = new ScreenEngine();
+
+        int[] all = engine.run(quotes, ScreenExpressionCompiler.compile("1 + 2 * 3 == 7"));
+        int[] none = engine.run(quotes, ScreenExpressionCompiler.compile("!(close > 0) || -close > 0"));
+        int[] above = engine.run(quotes, ScreenExpressionCompiler.compile("close > ema(21)"));
+        int[] notAbove = engine.run(quotes, ScreenExpressionCompiler.compile("!(ema(21) < close)"));
+
+        assertEquals(quotes.size(), all.length);
+        assertEquals(0, none.length);
+        assertEquals(quotes.size(), above.length + notAbove.length);
+    }
+
+    @Test
+    public void testEveryOperatorWithConstantsOnEitherSide() {
+
+        ScreenEngine engine = new ScreenEngine();
+        String[] comparisons = { ">", ">=", "<", "<=", "==", "!=" };
+        double threshold = quotes.getClose(quotes.size() / 2);
+
+        for (String op : comparisons) {
+            String constant = Double.toString(threshold);
+            assertArrayEquals(op, expectedDays(op, threshold, false),
+                    engine.run(quotes, ScreenExpressionCompiler.compile("close " + op + " " + constant)));
+            assertArrayEquals(op, expectedDays(op, threshold, true),
+                    engine.run(quotes, ScreenExpressionCompiler.compile(constant + " " + op + " close")));
+            assertArrayEquals(op, expectedDays(op, threshold, false),
+                    engine.run(quotes, ScreenExpressionCompiler.compile(
+                            "(close * 2 - " + constant + ") / 1 + 0 " + op + " " + constant)));
+        }
+    }
+
+    @Test
+    public void testNegatedComparisonIsUnknownWhileAnOperandIsNaN() {
+
+        // bar 10 has no close, so sma(5) is NaN through bar 14
+        ColumnarQuoteSeries gappy = new ColumnarQuoteSeries("GAP", 30);
+        for (int i = 0; i < 30; i++) {
+            double close = i == 10 ? Double.NaN : 100.0d + (i % 3);
+            gappy.append(i, close, close, close, close, 1000L);
+        }
+
+        ScreenEngine engine = new ScreenEngine();
+        int[] above = engine.run(gappy, ScreenExpressionCompiler.compile("close > sma(5)"));
+        int[] notAbove = engine.run(gappy, ScreenExpressionCompiler.compile("!(close > sma(5))"));
+        int[] notEqual = engine.run(gappy, ScreenExpressionCompiler.compile("close != sma(5)"));
+        int[] handBuilt = engine.run(gappy, Conditions.greaterThan(Column.close(), Column.sma(5)).negate());
+
+        assertEquals(gappy.size() - 5, above.length + notAbove.length);
+        for (int day = 10; day < 15; day++) {
+            assertTrue(Arrays.binarySearch(above, day) < 0);
+            assertTrue(Arrays.binarySearch(notAbove, day) < 0);
+            assertTrue(Arrays.binarySearch(notEqual, day) < 0);
+        }
+        assertArrayEquals(notAbove, handBuilt);
+        assertEquals(0, engine.run(gappy, ScreenExpressionCompiler.compile("0 / 0 != 1")).length);
+        assertEquals(0, engine.run(gappy, ScreenExpressionCompiler.compile("!(0 / 0 != 1)")).length);
+        assertEquals(gappy.size() - 1, engine.run(gappy, ScreenExpressionCompiler.compile("!(1 > close)")).length);
+
+        // unknown && false is false, so its negation passes; unknown || true is true
+        assertTrue(Arrays.binarySearch(engine.run(gappy, ScreenExpressionCompiler.compile(
+                "!(close > sma(5) && close < 0)")), 12) >= 0);
+        assertTrue(Arrays.binarySearch(engine.run(gappy, ScreenExpressionCompiler.compile(
+                "close > sma(5) || close < 1000")), 10) < 0);
+        assertTrue(Arrays.binarySearch(engine.run(gappy, ScreenExpressionCompiler.compile(
+                "close > sma(5) || volume > 0")), 12) >= 0);
+    }
+
+    @Test
+    public void testSharedSubexpressionsAreComputedOnce() {
+
+        ScreenContext context = new ScreenContext(quotes);
+        ScreenExpressionCompiler.compile("(high - low) / close > 0.03 || (high - low) / close < 0.005")
+                                .evaluate(context);
+
+        double[] range = context.getDerivedColumn("((high-low)/close)", c -> {
+            throw new AssertionError("should have been cached");
+        });
+
+        int last = quotes.size() - 1;
+        assertEquals((quotes.getHigh(last) - quotes.getLow(last)) / quotes.getClose(last), range[last], 1e-12d);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNumericExpressionIsRejected() {
+        ScreenExpressionCompiler.compile("sma(50) + 1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownIndicatorIsRejected() {
+        ScreenExpressionCompiler.compile("rsi(14) > 70");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTrailingInputIsRejected() {
+        ScreenExpressionCompiler.compile("close > 1 )");
+    }
+
+    private static int[] expectedDays(final String op, final double threshold, final boolean constantOnLeft) {
+        return IntStream.range(0, quotes.size())
+                        .filter(i -> {
+                            double l = constantOnLeft ? threshold : quotes.getClose(i);
+                            double r = constantOnLeft ? quotes.getClose(i) : threshold;
+                            switch (op) {
+                                case ">":
+                                    return l > r;
+                                case ">=":
+                                    return l >= r;
+                                case "<":
+                                    return l < r;
+                                case "<=":
+                                    return l <= r;
+                                case "==":
+                                    return l == r;
+                                default:
+                                    return l != r;
+                            }
+                        })
+                        .map(quotes::getEpochDay)
+                        .toArray();
+    }
+}
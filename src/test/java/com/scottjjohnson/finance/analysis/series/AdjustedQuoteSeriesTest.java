@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.calculators.SMACalculator;
+import com.scottjjohnson.finance.analysis.series.AdjustedQuoteSeries.Adjustment;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdjustedQuoteSeriesTest {
+
+    private static final int FIRST_DAY = 18000;
+
+    private ColumnarQuoteSeries raw;
+    private CorporateActionTable actions;
+
+    @Before
+    public void setUp() throws Exception {
+
+        // closes of 100 for five days, then 50 after a 2-for-1 split
+        raw = new ColumnarQuoteSeries("TEST");
+        for (int i = 0; i < 10; i++) {
+            double price = i < 5 ? 100.0d : 50.0d;
+            long volume = i < 5 ? 1000L : 2000L;
+            raw.append(FIRST_DAY + i, price, price + 1.0d, price - 1.0d, price, volume);
+        }
+
+        actions = new CorporateActionTable();
+        actions.recordSplit(FIRST_DAY + 5, 2.0d);
+    }
+
+    @Test
+    public void testUnadjustedViewReturnsRawValues() {
+
+        AdjustedQuoteSeries unadjusted = new AdjustedQuoteSeries(raw, actions, Adjustment.NONE);
+
+        assertEquals(100.0d, unadjusted.getClose(0), 0.0d);
+        assertEquals(1000L, unadjusted.getVolume(0));
+    }
+
+    @Test
+    public void testSplitAdjustedView() {
+
+        AdjustedQuoteSeries adjusted = new AdjustedQuoteSeries(raw, actions, Adjustment.SPLITS);
+
+        assertEquals(50.0d, adjusted.getClose(0), 0.0d);
+        assertEquals(50.5d, adjusted.getHigh(4), 0.0d);
+        assertEquals(2000L, adjusted.getVolume(4));
+        assertEquals(50.0d, adjusted.getClose(5), 0.0d);
+        assertEquals(50.0d, new SMACalculator().calculate(adjusted, 10), 0.0d);
+    }
+
+    @Test
+    public void testDividendOnlyAffectsDividendAdjustedView() {
+
+        AdjustedQuoteSeries splitsOnly = new AdjustedQuoteSeries(raw, actions, Adjustment.SPLITS);
+        AdjustedQuoteSeries splitsAndDividends = new AdjustedQuoteSeries(raw, actions,
+                Adjustment.SPLITS_AND_DIVIDENDS);
+
+        // read once so the views have cached segments that the new action must invalidate
+        assertEquals(50.0d, splitsAndDividends.getClose(0), 0.0d);
+
+        actions.recordDividend(FIRST_DAY + 8, 1.0d, raw.getClose(7));
+
+        assertEquals(50.0d, splitsOnly.getClose(0), 0.0d);
+        assertEquals(49.0d, splitsAndDividends.getClose(0), 1e-12d);
+        assertEquals(49.0d, splitsAndDividends.getClose(7), 1e-12d);
+        assertEquals(50.0d, splitsAndDividends.getClose(8), 0.0d);
+        assertEquals(2000L, splitsAndDividends.getVolume(0));
+    }
+
+    @Test
+    public void testActionsRecordedOutOfOrder() {
+
+        actions.recordSplit(FIRST_DAY + 2, 0.5d); // 1-for-2 reverse split before the 2-for-1 split
+
+        AdjustedQuoteSeries adjusted = new AdjustedQuoteSeries(raw, actions, Adjustment.SPLITS);
+
+        assertEquals(FIRST_DAY + 2, actions.getExEpochDay(0));
+        assertEquals(100.0d, adjusted.getClose(0), 1e-12d);
+        assertEquals(50.0d, adjusted.getClose(2), 1e-12d);
+        assertEquals(50.0d, adjusted.getClose(9), 0.0d);
+    }
+
+    @Test
+    public void testAppendedBarsAreCovered() {
+
+        AdjustedQuoteSeries adjusted = new AdjustedQuoteSeries(raw, actions, Adjustment.SPLITS);
+        assertEquals(10, adjusted.size());
+
+        raw.append(FIRST_DAY + 10, 52.0d, 53.0d, 51.0d, 52.0d, 3000L);
+
+        assertEquals(11, adjusted.size());
+        assertEquals(52.0d, adjusted.getClose(10), 0.0d);
+        assertEquals(3000L, adjusted.getVolume(10));
+    }
+
+    @Test
+    public void testBarsAppendedOneAtATimeAcrossFutureExDates() {
+
+        // announced actions whose ex-dates are past the last bar, plus one on a day with no bar
+        actions.recordSplit(FIRST_DAY + 13, 2.0d);
+        actions.recordDividend(FIRST_DAY + 13, 0.5d, 25.0d);
+        actions.recordSplit(FIRST_DAY + 16, 0.5d);
+
+        AdjustedQuoteSeries adjusted = new AdjustedQuoteSeries(raw, actions, Adjustment.SPLITS_AND_DIVIDENDS);
+        assertEquals(49.0d, adjusted.getClose(0), 1e-12d);
+
+        for (int day = 10; day < 20; day++) {
+            if (day == 15) {
+                continue;
+            }
+            raw.append(FIRST_DAY + day, 25.0d, 26.0d, 24.0d, 25.0d, 4000L);
+
+            AdjustedQuoteSeries rebuilt = new AdjustedQuoteSeries(raw, actions, Adjustment.SPLITS_AND_DIVIDENDS);
+            for (int i = 0; i < raw.size(); i++) {
+                assertEquals(rebuilt.getPriceFactor(i), adjusted.getPriceFactor(i), 0.0d);
+                assertEquals(rebuilt.getVolume(i), adjusted.getVolume(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.calculators.AverageTrueRangeCalculator;
+import com.scottjjohnson.finance.analysis.calculators.UpDownVolumeRatioCalculator;
+import com.scottjjohnson.finance.analysis.series.CompressedQuoteSeries.Field;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompressedQuoteSeriesTest {
+
+    private static ColumnarQuoteSeries quotes = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        List<DailyQuoteBean> quoteList = FinanceQuotesTestData.getTestData();
+        quotes = ColumnarQuoteSeries.fromQuotes(quoteList);
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+    }
+
+    @Test
+    public void testRoundTripIsExactAtTickPrecision() {
+
+        CompressedQuoteSeries compressed = CompressedQuoteSeries.encode(quotes, 4);
+
+        assertEquals(quotes.size(), compressed.size());
+        for (int i = 0; i < quotes.size(); i++) {
+            assertEquals(quotes.getEpochDay(i), compressed.getEpochDay(i));
+            assertEquals(quotes.getOpen(i), compressed.getOpen(i), 0.0d);
+            assertEquals(quotes.getHigh(i), compressed.getHigh(i), 0.0d);
+            assertEquals(quotes.getLow(i), compressed.getLow(i), 0.0d);
+            assertEquals(quotes.getClose(i), compressed.getClose(i), 0.0d);
+            assertEquals(quotes.getVolume(i), compressed.getVolume(i));
+        }
+    }
+
+    @Test
+    public void testCompressionRatio() {
+
+        CompressedQuoteSeries compressed = CompressedQuoteSeries.encode(quotes, 4);
+
+        // an int and five 8 byte values per bar in primitive columns
+        long columnarBytes = 44L * quotes.size();
+
+        assertTrue(compressed.toString(), compressed.getEncodedSizeInBytes() * 3 < columnarBytes);
+    }
+
+    @Test
+    public void testDecodeBlock() {
+
+        CompressedQuoteSeries compressed = CompressedQuoteSeries.encode(quotes, 4);
+        double[] block = new double[CompressedQuoteSeries.BLOCK_SIZE];
+
+        int lastBlock = compressed.getBlockCount() - 1;
+        int count = compressed.decodeBlock(Field.HIGH, lastBlock, block);
+
+        assertEquals(quotes.size() - lastBlock * CompressedQuoteSeries.BLOCK_SIZE, count);
+        assertEquals(quotes.getHigh(quotes.size() - 1), block[count - 1], 0.0d);
+
+        compressed.decodeBlock(Field.VOLUME, 0, block);
+        assertEquals(quotes.getVolume(5), block[5], 0.0d);
+    }
+
+    @Test
+    public void testCalculatorsReadCompressedSeries() {
+
+        CompressedQuoteSeries compressed = CompressedQuoteSeries.encode(quotes, 4);
+
+        assertEquals(new AverageTrueRangeCalculator().calculate(quotes, 40),
+                new AverageTrueRangeCalculator().calculate(compressed, 40), 0.0d);
+        assertEquals(new UpDownVolumeRatioCalculator().calculate(quotes, 50),
+                new UpDownVolumeRatioCalculator().calculate(compressed, 50), 0.0f);
+    }
+
+    @Test
+    public void testMissingPricesAndConstantBlocks() {
+
+        ColumnarQuoteSeries series = new ColumnarQuoteSeries("TEST");
+        series.append(18000, 10.0d, 10.0d, 10.0d, 10.0d, 500L);
+        series.append(18001, Double.NaN, 11.0d, 9.5d, 10.25d, 500L);
+        series.append(18002, 10.0d, 10.0d, 10.0d, Double.NaN, 500L);
+
+        CompressedQuoteSeries compressed = CompressedQuoteSeries.encode(series, 2);
+
+        assertTrue(Double.isNaN(compressed.getOpen(1)));
+        assertEquals(11.0d, compressed.getHigh(1), 0.0d);
+        assertEquals(10.25d, compressed.getClose(1), 0.0d);
+        assertTrue(Double.isNaN(compressed.getClose(2)));
+        assertEquals(500L, compressed.getVolume(2));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.testdata.ComparisonQuotesTestData;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DateIndexedSeriesTest {
+
+    private static List<DailyQuoteBean> quotes = null;
+    private static Map<Date, DailyQuoteBean> comparisonQuotes = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = FinanceQuotesTestData.getTestData();
+        comparisonQuotes = ComparisonQuotesTestData.getTestData();
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+        comparisonQuotes = null;
+    }
+
+    @Test
+    public void testFromMap() {
+
+        DateIndexedSeries closes = DateIndexedSeries.fromMap(comparisonQuotes);
+
+        assertEquals(comparisonQuotes.size(), closes.getNumberOfCloses());
+        for (DailyQuoteBean quote : comparisonQuotes.values()) {
+            assertEquals(quote.getClose(), closes.getClose(quote.getEpochDay()), 0.0d);
+        }
+
+        // 2019-08-17 was a Saturday
+        int saturday = 18125;
+        assertFalse(closes.contains(saturday));
+        assertTrue(Double.isNaN(closes.getClose(saturday)));
+        assertFalse(closes.contains(closes.getFirstEpochDay() - 1));
+        assertFalse(closes.contains(closes.getLastEpochDay() + 1));
+    }
+
+    @Test
+    public void testOf() {
+
+        DateIndexedSeries closes = DateIndexedSeries.of("SPX", new int[] { 18122, 18123, 18126 },
+                new double[] { 10.0d, 11.0d, 12.0d });
+
+        assertEquals(3, closes.getNumberOfCloses());
+        assertEquals(18122, closes.getFirstEpochDay());
+        assertEquals(18126, closes.getLastEpochDay());
+        assertEquals(11.0d, closes.getClose(18123), 0.0d);
+        assertFalse(closes.contains(18124));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfRejectsUnsortedDays() {
+        DateIndexedSeries.of(null, new int[] { 18123, 18122 }, new double[] { 1.0d, 2.0d });
+    }
+
+    @Test
+    public void testFromSeriesAndJoin() {
+
+        ColumnarQuoteSeries stock = ColumnarQuoteSeries.fromQuotes(quotes);
+        List<DailyQuoteBean> sortedComparisonQuotes = new ArrayList<>(comparisonQuotes.values());
+        sortedComparisonQuotes.sort((a, b) -> Integer.compare(a.getEpochDay(), b.getEpochDay()));
+        // drop a day from the benchmark so the join has to skip it
+        sortedComparisonQuotes.remove(100);
+        ColumnarQuoteSeries benchmark = ColumnarQuoteSeries.fromQuotes(sortedComparisonQuotes);
+
+        DateIndexedSeries stockCloses = DateIndexedSeries.fromSeries(stock);
+        assertEquals(stock.size(), stockCloses.getNumberOfCloses());
+        assertEquals(stock.getEpochDay(0), stockCloses.getFirstEpochDay());
+
+        AlignedPairSeries merged = AlignedPairSeries.join(stock, benchmark);
+        AlignedPairSeries lookedUp = AlignedPairSeries.join(stock, DateIndexedSeries.fromSeries(benchmark));
+
+        assertEquals(merged.size(), lookedUp.size());
+        for (int i = 0; i < merged.size(); i++) {
+            int epochDay = merged.getEpochDay(i);
+            assertEquals(epochDay, lookedUp.getEpochDay(i));
+            assertEquals(stockCloses.getClose(epochDay), merged.getClose(i), 0.0d);
+            assertEquals(merged.getBenchmarkClose(i), lookedUp.getBenchmarkClose(i), 0.0d);
+            assertTrue(i == 0 || epochDay > merged.getEpochDay(i - 1));
+        }
+        assertEquals(stock.size() - 1, merged.size());
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+
+public class QuoteAccessorTest {
+
+    @Test
+    public void testListAndSeriesAccessorsAgree() {
+
+        List<DailyQuoteBean> quotes = FinanceQuotesTestData.getTestData();
+        QuoteSeries series = ColumnarQuoteSeries.fromQuotes(quotes);
+
+        assertEquals(QuoteAccessor.SERIES.size(series), QuoteAccessor.LIST.size(quotes));
+        for (int i = 0; i < quotes.size(); i++) {
+            assertEquals(QuoteAccessor.SERIES.getHigh(series, i), QuoteAccessor.LIST.getHigh(quotes, i), 0.0d);
+            assertEquals(QuoteAccessor.SERIES.getLow(series, i), QuoteAccessor.LIST.getLow(quotes, i), 0.0d);
+            assertEquals(QuoteAccessor.SERIES.getClose(series, i), QuoteAccessor.LIST.getClose(quotes, i), 0.0d);
+            assertEquals(QuoteAccessor.SERIES.getVolume(series, i), QuoteAccessor.LIST.getVolume(quotes, i));
+        }
+    }
+}
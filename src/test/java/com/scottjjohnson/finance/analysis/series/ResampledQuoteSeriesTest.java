@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.series;
+
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.calculators.SMACalculator;
+import com.scottjjohnson.finance.analysis.series.ResampledQuoteSeries.Period;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+import com.scottjjohnson.util.DateUtils;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResampledQuoteSeriesTest {
+
+    private static List<DailyQuoteBean> quotes = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        quotes = FinanceQuotesTestData.getTestData();
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        quotes = null;
+    }
+
+    @Test
+    public void testWeeklyBars() {
+
+        ResampledQuoteSeries weekly = new ResampledQuoteSeries(ColumnarQuoteSeries.fromQuotes(quotes), Period.WEEKLY);
+
+        // the last week in the test data is Monday 2019-08-19 through Wednesday 2019-08-21
+        int last = weekly.size() - 1;
+        List<DailyQuoteBean> lastWeek = quotes.subList(quotes.size() - 3, quotes.size());
+
+        assertEquals(DateUtils.toEpochDay(2019, 8, 21), weekly.getEpochDay(last));
+        assertEquals(lastWeek.get(0).getOpen(), weekly.getOpen(last), 0.0d);
+        assertEquals(lastWeek.get(2).getClose(), weekly.getClose(last), 0.0d);
+        assertEquals(lastWeek.stream().mapToDouble(DailyQuoteBean::getHigh).max().getAsDouble(),
+                weekly.getHigh(last), 0.0d);
+        assertEquals(lastWeek.stream().mapToDouble(DailyQuoteBean::getLow).min().getAsDouble(), weekly.getLow(last),
+                0.0d);
+        assertEquals(lastWeek.stream().mapToLong(DailyQuoteBean::getVolume).sum(), weekly.getVolume(last));
+
+        long totalVolume = 0L;
+        for (int i = 0; i < weekly.size(); i++) {
+            totalVolume += weekly.getVolume(i);
+        }
+        assertEquals(quotes.stream().mapToLong(DailyQuoteBean::getVolume).sum(), totalVolume);
+    }
+
+    @Test
+    public void testMonthlyBars() {
+
+        ResampledQuoteSeries monthly = new ResampledQuoteSeries(ColumnarQuoteSeries.fromQuotes(quotes),
+                Period.MONTHLY);
+
+        // 2016-08-23 through 2019-08-21
+        assertEquals(37, monthly.size());
+        assertEquals(DateUtils.toEpochDay(2016, 8, 31), monthly.getEpochDay(0));
+    }
+
+    @Test
+    public void testAppendedDailyBarUpdatesLastBucket() {
+
+        ColumnarQuoteSeries daily = ColumnarQuoteSeries.fromQuotes(quotes);
+        ResampledQuoteSeries weekly = new ResampledQuoteSeries(daily, Period.WEEKLY);
+
+        int weeks = weekly.size();
+        long volume = weekly.getVolume(weeks - 1);
+
+        // Thursday of the same week, then the following Monday
+        daily.append(DateUtils.toEpochDay(2019, 8, 22), 213.0d, 300.0d, 200.0d, 212.0d, 1000L);
+        assertEquals(weeks, weekly.size());
+        assertEquals(300.0d, weekly.getHigh(weeks - 1), 0.0d);
+        assertEquals(212.0d, weekly.getClose(weeks - 1), 0.0d);
+        assertEquals(volume + 1000L, weekly.getVolume(weeks - 1));
+
+        daily.append(DateUtils.toEpochDay(2019, 8, 26), 205.0d, 207.0d, 204.0d, 206.0d, 2000L);
+        assertEquals(weeks + 1, weekly.size());
+        assertEquals(205.0d, weekly.getOpen(weeks), 0.0d);
+    }
+
+    @Test
+    public void testCalculatorsReadResampledSeries() {
+
+        ResampledQuoteSeries weekly = new ResampledQuoteSeries(ColumnarQuoteSeries.fromQuotes(quotes), Period.WEEKLY);
+
+        double sum = 0.0d;
+        for (int i = weekly.size() - 10; i < weekly.size(); i++) {
+            sum += weekly.getClose(i);
+        }
+
+        assertEquals(sum / 10, new SMACalculator().calculate(weekly, 10), 1e-9d);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.stats;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ExactSumTest {
+
+    @Test
+    public void testCancellation() {
+
+        ExactSum sum = new ExactSum();
+        sum.add(1e100);
+        sum.add(1.0d);
+        sum.add(-1e100);
+
+        assertEquals(1.0d, sum.getSum(), 0.0d);
+
+        sum.clear();
+        assertEquals(0.0d, sum.getSum(), 0.0d);
+
+        for (int i = 0; i < 10; i++) {
+            sum.add(0.1d);
+        }
+        assertEquals(new BigDecimal(0.1d).multiply(BigDecimal.TEN).doubleValue(), sum.getSum(), 0.0d);
+    }
+
+    @Test
+    public void testMatchesCorrectlyRoundedSum() {
+
+        Random random = new Random(3L);
+        ExactSum sum = new ExactSum();
+        BigDecimal exact = BigDecimal.ZERO;
+
+        for (int i = 0; i < 2000; i++) {
+            double value = random.nextGaussian() * Math.pow(10.0d, random.nextInt(30) - 15);
+            if (random.nextBoolean()) {
+                sum.add(value);
+                exact = exact.add(new BigDecimal(value));
+            } else {
+                sum.subtract(value);
+                exact = exact.subtract(new BigDecimal(value));
+            }
+            assertEquals(exact.doubleValue(), sum.getSum(), 0.0d);
+        }
+    }
+
+    @Test
+    public void testOrderDoesNotMatter() {
+
+        double[] values = {0.1d, 0.2d, 0.3d, 1e16d, -1e16d, 123.456d, 7e-20d};
+        ExactSum forward = new ExactSum();
+        ExactSum backward = new ExactSum();
+        for (int i = 0; i < values.length; i++) {
+            forward.add(values[i]);
+            backward.add(values[values.length - 1 - i]);
+        }
+
+        assertEquals(forward.getSum(), backward.getSum(), 0.0d);
+    }
+}
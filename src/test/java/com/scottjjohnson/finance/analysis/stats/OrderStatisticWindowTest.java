@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.stats;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OrderStatisticWindowTest {
+
+    @Test
+    public void testMatchesSortedWindow() {
+
+        Random random = new Random(11L);
+        int windowSize = 50;
+        OrderStatisticWindow window = new OrderStatisticWindow(windowSize);
+        double[] values = new double[2000];
+
+        for (int i = 0; i < values.length; i++) {
+            // few distinct values so the window holds plenty of duplicates
+            values[i] = random.nextInt(40);
+            window.push(values[i]);
+
+            int from = Math.max(0, i + 1 - windowSize);
+            double[] sorted = Arrays.copyOfRange(values, from, i + 1);
+            Arrays.sort(sorted);
+
+            assertEquals(sorted.length, window.getCount());
+            for (int rank = 0; rank < sorted.length; rank++) {
+                assertEquals(sorted[rank], window.select(rank), 0.0d);
+            }
+            assertEquals(sorted[sorted.length - 1] - sorted[0], window.getRange(), 0.0d);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+
+        OrderStatisticWindow window = new OrderStatisticWindow(4);
+        for (double value : new double[] {100.0d, 4.0d, 1.0d, 3.0d, 2.0d}) {
+            window.push(value);
+        }
+
+        assertEquals(2.5d, window.getMedian(), 1e-12d);
+        assertEquals(1.0d, window.getPercentile(0.0d), 0.0d);
+        assertEquals(4.0d, window.getPercentile(100.0d), 0.0d);
+        assertEquals(1.75d, window.getPercentile(25.0d), 1e-12d);
+        assertEquals(3.0d, window.getRange(), 0.0d);
+    }
+
+    @Test
+    public void testEmptyAndCleared() {
+
+        OrderStatisticWindow window = new OrderStatisticWindow(3);
+        assertTrue(Double.isNaN(window.getMedian()));
+
+        window.push(5.0d);
+        window.clear();
+        window.push(7.0d);
+
+        assertEquals(1, window.getCount());
+        assertEquals(7.0d, window.getMedian(), 0.0d);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPercentileOutOfRange() {
+        new OrderStatisticWindow(3).getPercentile(101.0d);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.stats;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RollingCovarianceTest {
+
+    @Test
+    public void testMatchesTwoPassCalculation() {
+
+        Random random = new Random(7L);
+        double[] x = new double[500];
+        double[] y = new double[500];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = random.nextGaussian() * 0.01d;
+            y[i] = 1.5d * x[i] + random.nextGaussian() * 0.005d;
+        }
+
+        int windowSize = 60;
+        RollingCovariance covariance = new RollingCovariance(windowSize);
+
+        for (int i = 0; i < x.length; i++) {
+            covariance.push(x[i], y[i]);
+
+            int from = Math.max(0, i + 1 - windowSize);
+            int n = i + 1 - from;
+            double meanX = 0.0d;
+            double meanY = 0.0d;
+            for (int j = from; j <= i; j++) {
+                meanX += x[j];
+                meanY += y[j];
+            }
+            meanX /= n;
+            meanY /= n;
+            double varianceX = 0.0d;
+            double varianceY = 0.0d;
+            double coMoment = 0.0d;
+            for (int j = from; j <= i; j++) {
+                varianceX += (x[j] - meanX) * (x[j] - meanX);
+                varianceY += (y[j] - meanY) * (y[j] - meanY);
+                coMoment += (x[j] - meanX) * (y[j] - meanY);
+            }
+
+            assertEquals(coMoment / n, covariance.getCovariance(), 1e-12d);
+            if (n > 1) {
+                assertEquals(coMoment / varianceX, covariance.getBeta(), 1e-9d);
+                assertEquals(coMoment / Math.sqrt(varianceX * varianceY), covariance.getCorrelation(), 1e-9d);
+            }
+        }
+
+        assertEquals(1.5d, covariance.getBeta(), 0.2d);
+    }
+
+    @Test
+    public void testNoDispersion() {
+
+        RollingCovariance covariance = new RollingCovariance(5);
+        covariance.push(1.0d, 2.0d);
+        covariance.push(1.0d, 3.0d);
+
+        assertTrue(Double.isNaN(covariance.getBeta()));
+        assertTrue(Double.isNaN(covariance.getCorrelation()));
+        assertEquals(0.0d, covariance.getCovariance(), 0.0d);
+    }
+
+    @Test
+    public void testRecoversOnceNaNLeavesWindow() {
+
+        Random random = new Random(11L);
+        RollingCovariance covariance = new RollingCovariance(5);
+        RollingCovariance fresh = new RollingCovariance(5);
+
+        covariance.push(Double.NaN, 0.01d);
+        for (int i = 0; i < 50; i++) {
+            double x = random.nextGaussian() * 0.01d;
+            double y = 1.5d * x + random.nextGaussian() * 0.005d;
+            covariance.push(x, y);
+            if (i < 4) {
+                assertTrue(Double.isNaN(covariance.getBeta()));
+                assertTrue(Double.isNaN(covariance.getCovariance()));
+            }
+            if (i >= 45) {
+                fresh.push(x, y);
+            }
+        }
+
+        assertEquals(fresh.getBeta(), covariance.getBeta(), 1e-9d);
+        assertEquals(fresh.getCorrelation(), covariance.getCorrelation(), 1e-9d);
+        assertEquals(fresh.getMeanY(), covariance.getMeanY(), 1e-15d);
+
+        covariance.push(0.01d, Double.POSITIVE_INFINITY);
+        assertTrue(Double.isNaN(covariance.getMeanX()));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.stats;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RollingExtremesTest {
+
+    @Test
+    public void testMatchesScanOfWindow() {
+
+        Random random = new Random(3L);
+        double[] values = new double[3000];
+        RollingExtremes extremes = new RollingExtremes();
+        int windowSize = 100;
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(1000);
+            extremes.evictBefore(i - windowSize + 1);
+            extremes.push(i, values[i]);
+
+            double max = -Double.MAX_VALUE;
+            double min = Double.MAX_VALUE;
+            for (int j = Math.max(0, i - windowSize + 1); j <= i; j++) {
+                max = Math.max(max, values[j]);
+                min = Math.min(min, values[j]);
+            }
+
+            assertEquals(max, extremes.getMax(), 0.0d);
+            assertEquals(min, extremes.getMin(), 0.0d);
+        }
+    }
+
+    @Test
+    public void testEvictingEverything() {
+
+        RollingExtremes extremes = new RollingExtremes();
+        extremes.push(1, 5.0d);
+        extremes.push(2, Double.NaN);
+        extremes.push(2, 3.0d);
+        extremes.evictBefore(3);
+
+        assertTrue(extremes.isEmpty());
+        assertTrue(Double.isNaN(extremes.getMax()));
+        assertTrue(Double.isNaN(extremes.getMin()));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.stats;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RollingStatisticsTest {
+
+    @Test
+    public void testMatchesTwoPassCalculation() {
+
+        Random random = new Random(42L);
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 150.0d + random.nextGaussian() * 10.0d;
+        }
+
+        int windowSize = 20;
+        RollingStatistics statistics = new RollingStatistics(windowSize);
+
+        for (int i = 0; i < values.length; i++) {
+            statistics.push(values[i]);
+
+            int from = Math.max(0, i + 1 - windowSize);
+            int n = i + 1 - from;
+            double mean = 0.0d;
+            for (int j = from; j <= i; j++) {
+                mean += values[j];
+            }
+            mean /= n;
+            double squaredDeviations = 0.0d;
+            for (int j = from; j <= i; j++) {
+                squaredDeviations += (values[j] - mean) * (values[j] - mean);
+            }
+
+            assertEquals(n, statistics.getCount());
+            assertEquals(mean, statistics.getMean(), 1e-9d);
+            assertEquals(squaredDeviations / n, statistics.getVariance(), 1e-7d);
+            if (n > 1) {
+                assertEquals(squaredDeviations / (n - 1), statistics.getSampleVariance(), 1e-7d);
+                assertEquals((values[i] - mean) / Math.sqrt(squaredDeviations / n), statistics.getZScore(values[i]),
+                        1e-7d);
+            }
+        }
+    }
+
+    @Test
+    public void testWindowAccess() {
+
+        RollingStatistics statistics = new RollingStatistics(3);
+        assertTrue(Double.isNaN(statistics.getMean()));
+        assertTrue(Double.isNaN(statistics.getSampleVariance()));
+
+        for (int i = 1; i <= 5; i++) {
+            statistics.push(i);
+        }
+
+        assertTrue(statistics.isFull());
+        assertEquals(5.0d, statistics.get(0), 0.0d);
+        assertEquals(3.0d, statistics.get(2), 0.0d);
+        assertEquals(12.0d, statistics.getSum(), 0.0d);
+        assertEquals(1.0d, statistics.getSampleVariance(), 1e-12d);
+
+        statistics.clear();
+        assertFalse(statistics.isFull());
+        assertEquals(0, statistics.getCount());
+    }
+
+    @Test
+    public void testConstantValuesHaveNoDispersion() {
+
+        RollingStatistics statistics = new RollingStatistics(1);
+        statistics.push(10.0d);
+        statistics.push(12.0d);
+
+        assertEquals(12.0d, statistics.getMean(), 0.0d);
+        assertEquals(0.0d, statistics.getVariance(), 0.0d);
+        assertTrue(Double.isNaN(statistics.getZScore(12.0d)));
+    }
+
+    @Test
+    public void testRecoversOnceNaNLeavesWindow() {
+
+        RollingStatistics statistics = new RollingStatistics(3);
+        statistics.push(1.0d);
+        statistics.push(Double.NaN);
+        statistics.push(3.0d);
+
+        assertEquals(3, statistics.getCount());
+        assertTrue(Double.isNaN(statistics.getMean()));
+        assertTrue(Double.isNaN(statistics.getSum()));
+        assertTrue(Double.isNaN(statistics.getVariance()));
+
+        statistics.push(5.0d);
+        assertTrue(Double.isNaN(statistics.getMean()));
+        assertTrue(Double.isNaN(statistics.get(2)));
+
+        statistics.push(7.0d);
+        assertEquals(5.0d, statistics.getMean(), 0.0d);
+        assertEquals(15.0d, statistics.getSum(), 0.0d);
+        assertEquals(8.0d / 3.0d, statistics.getVariance(), 1e-12d);
+
+        statistics.push(Double.POSITIVE_INFINITY);
+        assertTrue(Double.isNaN(statistics.getMean()));
+    }
+
+    @Test
+    public void testMeanMatchesWindowSummedFromScratch() {
+
+        Random random = new Random(11L);
+        int windowSize = 50;
+        double[] values = new double[5000];
+        RollingStatistics statistics = new RollingStatistics(windowSize);
+        ExactSum sum = new ExactSum();
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 100.0d * Math.exp(random.nextGaussian());
+            statistics.push(values[i]);
+
+            sum.clear();
+            int from = Math.max(0, i + 1 - windowSize);
+            for (int j = from; j <= i; j++) {
+                sum.add(values[j]);
+            }
+            assertEquals(sum.getSum() / (i + 1 - from), statistics.getMean(), 0.0d);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyWindow() {
+        new RollingStatistics(0);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.finance.analysis.store;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.calculators.SMACalculator;
+import com.scottjjohnson.finance.analysis.series.ColumnarQuoteSeries;
+import com.scottjjohnson.finance.analysis.series.QuoteSeries;
+import com.scottjjohnson.finance.analysis.testdata.ComparisonQuotesTestData;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OffHeapUniverseStoreTest {
+
+    private static List<ColumnarQuoteSeries> universe = null;
+
+    private Path file;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+
+        List<DailyQuoteBean> comparisonQuotes = new ArrayList<>(ComparisonQuotesTestData.getTestData().values());
+        comparisonQuotes.sort((a, b) -> Integer.compare(a.getEpochDay(), b.getEpochDay()));
+
+        // an odd number of bars exercises the padding after the epoch day column
+        ColumnarQuoteSeries odd = new ColumnarQuoteSeries("ODD");
+        odd.append(18000, 1.0d, 2.0d, 0.5d, 1.5d, 100L);
+
+        universe = Arrays.asList(ColumnarQuoteSeries.fromQuotes(FinanceQuotesTestData.getTestData()),
+                ColumnarQuoteSeries.fromQuotes(comparisonQuotes), odd, new ColumnarQuoteSeries("EMPTY"));
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        universe = null;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("universe", ".uqs");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testWriteAndOpen() throws IOException {
+
+        OffHeapUniverseStore.write(file, universe);
+        OffHeapUniverseStore store = OffHeapUniverseStore.open(file);
+
+        assertEquals(universe.size(), store.size());
+        assertArrayEquals(new Object[] { "AAPL", "SPX", "ODD", "EMPTY" }, store.getSymbols().toArray());
+        for (QuoteSeries expected : universe) {
+            assertSeriesMatches(expected, store.getSeries(expected.getSymbol()));
+        }
+        assertNull(store.getSeries("MISSING"));
+    }
+
+    @Test
+    public void testAllocate() {
+
+        OffHeapUniverseStore store = OffHeapUniverseStore.allocate(universe);
+
+        for (QuoteSeries expected : universe) {
+            assertSeriesMatches(expected, store.getSeries(expected.getSymbol()));
+        }
+    }
+
+    @Test
+    public void testConcurrentReaders() throws IOException {
+
+        OffHeapUniverseStore.write(file, universe);
+        OffHeapQuoteSeries aapl = OffHeapUniverseStore.open(file).getSeries("AAPL");
+
+        double correctAnswer = new SMACalculator().calculate(universe.get(0), 50);
+        double[] calculatedAnswers = IntStream.range(0, 64)
+                                              .parallel()
+                                              .mapToDouble(i -> new SMACalculator().calculate(aapl, 50))
+                                              .toArray();
+
+        for (double calculatedAnswer : calculatedAnswers) {
+            assertEquals(correctAnswer, calculatedAnswer, 0.0d);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenRejectsOtherFiles() throws IOException {
+        Files.write(file, "Date,Open,High,Low,Close,Adj Close,Volume\n".getBytes());
+        OffHeapUniverseStore.open(file);
+    }
+
+    private static void assertSeriesMatches(final QuoteSeries expected, final QuoteSeries actual) {
+
+        assertEquals(expected.getSymbol(), actual.getSymbol());
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getEpochDay(i), actual.getEpochDay(i));
+            assertEquals(expected.getOpen(i), actual.getOpen(i), 0.0d);
+            assertEquals(expected.getHigh(i), actual.getHigh(i), 0.0d);
+            assertEquals(expected.getLow(i), actual.getLow(i), 0.0d);
+            assertEquals(expected.getClose(i), actual.getClose(i), 0.0d);
+            assertEquals(expected.getVolume(i), actual.getVolume(i));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the heap bytes a piece of code allocates on the calling thread, for tests that hold hot paths to an
+ * allocation budget.
+ * <p>
+ * Uses HotSpot's per-thread allocation counter, {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ * The code is run enough times first for the JIT to compile it, since allocations that escape analysis removes in
+ * compiled code still happen in the interpreter, and production hot paths run compiled.
+ */
+public final class AllocationMeter {
+
+    private static final int WARM_UP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 10_000;
+    private static final int TRIALS = 5;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+    private AllocationMeter() {
+    }
+
+    /**
+     * @return true if the JVM can count allocated bytes per thread
+     */
+    public static boolean isSupported() {
+        return THREAD_MX_BEAN != null;
+    }
+
+    /**
+     * Measures the average bytes one call allocates once compiled. The lowest of several trials is used, so a GC or
+     * JIT event during one trial doesn't fail a test.
+     *
+     * @param call code to measure
+     *
+     * @return bytes allocated per call, rounded down, so a one-time allocation such as growing a buffer reads as 0
+     */
+    public static long measureBytesPerCall(Runnable call) {
+
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Thread allocation counting isn't supported by this JVM");
+        }
+
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            call.run();
+        }
+
+        // the counter read itself may allocate, so measure it and subtract it
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < TRIALS; i++) {
+            long start = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+            overhead = Math.min(overhead, THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - start);
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            long start = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_CALLS; i++) {
+                call.run();
+            }
+            long allocated = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - start - overhead;
+            best = Math.min(best, Math.max(allocated, 0L));
+        }
+
+        return best / MEASURED_CALLS;
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean hotSpotBean = (com.sun.management.ThreadMXBean) bean;
+                if (hotSpotBean.isThreadAllocatedMemorySupported()) {
+                    hotSpotBean.setThreadAllocatedMemoryEnabled(true);
+                    return hotSpotBean;
+                }
+            }
+        } catch (UnsupportedOperationException | NoClassDefFoundError e) {
+            // fall through; tests that need the meter are skipped
+        }
+
+        return null;
+    }
+}
@@ -19,17 +19,23 @@ package com.scottjjohnson.util;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.TimeZone;
 
 import org.junit.After;
+import org.junit.Assume;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class DateUtilsTest {
 
+    // written by the allocation test so the JIT can't drop the calls
+    private static volatile int result;
+
     @BeforeClass
     public static void setUpBeforeClass() throws Exception {
     }
@@ -99,8 +105,117 @@ public class DateUtilsTest {
         assertEquals(correctAnswer, calculatedAnswer);
     }
 
+    @Test
+    public void testEpochDayRoundTrip() {
+
+        Date inputDate = getTestDate(2019, Calendar.AUGUST, 21);
+        int epochDay = DateUtils.getEpochDay(inputDate);
+
+        assertEquals(18129, epochDay);
+        assertEquals(18129, DateUtils.toEpochDay(2019, 8, 21));
+        assertEquals(20190821, DateUtils.toYearMonthDay(epochDay));
+        assertEquals(3, DateUtils.getDayOfWeek(epochDay)); // Wednesday
+        assertEquals(DateUtils.getMidnightForDate(inputDate), DateUtils.getMidnightForEpochDay(epochDay));
+    }
+
+    @Test
+    public void testEpochDayBeforeEpoch() {
+        assertEquals(-1, DateUtils.toEpochDay(1969, 12, 31));
+        assertEquals(19691231, DateUtils.toYearMonthDay(-1));
+    }
+
+    @Test
+    public void testAddYearsToEpochDayFromLeapDay() {
+
+        int leapDay = DateUtils.toEpochDay(2016, 2, 29);
+
+        assertEquals(DateUtils.toEpochDay(2015, 2, 28), DateUtils.addYearsToEpochDay(leapDay, -1));
+        assertEquals(DateUtils.toEpochDay(2020, 2, 29), DateUtils.addYearsToEpochDay(leapDay, 4));
+    }
+
+    @Test
+    public void testParseEpochDay() {
+
+        assertEquals(DateUtils.toEpochDay(2019, 8, 21), DateUtils.parseEpochDay("2019-08-21"));
+        assertEquals(DateUtils.toEpochDay(2019, 8, 1), DateUtils.parseEpochDay("2019-8-1"));
+        assertEquals(DateUtils.toEpochDay(2016, 2, 29), DateUtils.parseEpochDay("2016-02-29"));
+        assertEquals(DateUtils.toEpochDay(2019, 8, 21), DateUtils.parseEpochDay("2019-08-21T16:00:00-04:00"));
+        assertEquals(DateUtils.toEpochDay(2019, 8, 21), DateUtils.parseEpochDay("2019-08-21 16:00"));
+        assertEquals(-1, DateUtils.parseEpochDay("1969-12-31"));
+    }
+
+    @Test
+    public void testParseEpochDayInvalid() {
+
+        String[] invalid = {"", "2019", "2019-08", "2019-08-", "19-08-21", "2019/08/21", "2019-13-01", "2019-00-10",
+                "2019-08-00", "2019-08-32", "2019-04-31", "2019-02-29", "1900-02-29", "2019-08-21x", "2019-008-21",
+                "2019-08-211"};
+
+        for (String text : invalid) {
+            assertEquals(text, DateUtils.INVALID_EPOCH_DAY, DateUtils.parseEpochDay(text));
+        }
+    }
+
+    @Test
+    public void testGetEpochDayAroundDaylightSavingTransitions() {
+
+        Calendar exchange = new GregorianCalendar(TimeZone.getTimeZone("America/New_York"));
+
+        // spring forward and fall back in 2019, 1974's year-round DST, and a date past the end of the offset table
+        int[][] days = {{2019, 3, 10}, {2019, 11, 3}, {1974, 1, 6}, {1965, 4, 25}, {2150, 3, 10}};
+
+        for (int[] day : days) {
+            int epochDay = DateUtils.toEpochDay(day[0], day[1], day[2]);
+
+            exchange.clear();
+            exchange.set(day[0], day[1] - 1, day[2]);
+            long midnight = exchange.getTimeInMillis();
+            assertEquals(midnight, DateUtils.getMidnightMillisForEpochDay(epochDay));
+
+            for (long millis = midnight - 3_600_000L; millis < midnight + 86_400_000L; millis += 900_000L) {
+                exchange.setTimeInMillis(millis);
+                int expected = DateUtils.toEpochDay(exchange.get(Calendar.YEAR), exchange.get(Calendar.MONTH) + 1,
+                        exchange.get(Calendar.DAY_OF_MONTH));
+                assertEquals(expected, DateUtils.getEpochDay(millis));
+                assertEquals(exchange.get(Calendar.ZONE_OFFSET) + exchange.get(Calendar.DST_OFFSET),
+                        DateUtils.getExchangeOffsetMillis(millis));
+            }
+        }
+    }
+
+    @Test
+    public void testAddYearsToDateKeepsTimeOfDay() {
+
+        Calendar exchange = DateUtils.getStockExchangeCalendar();
+        exchange.clear();
+        exchange.set(2019, Calendar.JANUARY, 15, 16, 0);
+        Date winterClose = exchange.getTime();
+
+        exchange.set(2018, Calendar.JULY, 15, 16, 0);
+        Date summerClose = exchange.getTime();
+
+        exchange.set(2019, Calendar.JULY, 15, 16, 0);
+        assertEquals(exchange.getTime(), DateUtils.addYearsToDate(summerClose, 1));
+
+        exchange.set(2020, Calendar.JANUARY, 15, 16, 0);
+        assertEquals(exchange.getTime(), DateUtils.addYearsToDate(winterClose, 1));
+    }
+
+    @Test
+    public void testGetEpochDayDoesNotAllocate() {
+
+        Assume.assumeTrue(AllocationMeter.isSupported());
+
+        long millis = DateUtils.getMidnightMillisForEpochDay(DateUtils.toEpochDay(2019, 3, 10)) + 10_800_000L;
+        long bytesPerCall = AllocationMeter.measureBytesPerCall(
+                () -> result = DateUtils.getEpochDay(millis) + DateUtils.parseEpochDay("2019-03-10"));
+
+        assertTrue(bytesPerCall + " bytes per call", bytesPerCall <= 0L);
+    }
+
     /**
-     * Utility method to build a date object for midnight.
+     * Utility method to build a date object for midnight at the stock exchange, so the tests don't depend on the JVM's
+     * default time zone.
      *
      * @param year  year
      * @param month month
@@ -113,7 +228,7 @@ public class DateUtilsTest {
     }
 
     /**
-     * Utility method to build a date object with hour/minute/seconds.
+     * Utility method to build a date object with hour/minute/seconds at the stock exchange.
      *
      * @param year    year
      * @param month   month
@@ -126,6 +241,9 @@ public class DateUtilsTest {
      */
     private Date getTestDate(int year, final int month, final int day, final int hours, final int minutes,
             final int seconds) {
-        return new GregorianCalendar(year, month, day, hours, minutes, seconds).getTime();
+        Calendar calendar = DateUtils.getStockExchangeCalendar();
+        calendar.clear();
+        calendar.set(year, month, day, hours, minutes, seconds);
+        return calendar.getTime();
     }
 }
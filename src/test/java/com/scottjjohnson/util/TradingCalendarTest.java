@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 Scott J. Johnson (https://scottjjohnson.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS-IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottjjohnson.util;
+
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.scottjjohnson.finance.analysis.beans.DailyQuoteBean;
+import com.scottjjohnson.finance.analysis.testdata.FinanceQuotesTestData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TradingCalendarTest {
+
+    private static TradingCalendar calendar = null;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        calendar = TradingCalendar.getNyseCalendar(2015, 2025);
+    }
+
+    @Test
+    public void testHolidays() {
+
+        assertTrue(calendar.isHoliday(DateUtils.toEpochDay(2019, 1, 21))); // MLK Day
+        assertTrue(calendar.isHoliday(DateUtils.toEpochDay(2019, 4, 19))); // Good Friday
+        assertTrue(calendar.isHoliday(DateUtils.toEpochDay(2019, 11, 28))); // Thanksgiving
+        assertTrue(calendar.isHoliday(DateUtils.toEpochDay(2020, 7, 3))); // Independence Day observed on Friday
+        assertTrue(calendar.isHoliday(DateUtils.toEpochDay(2022, 6, 20))); // Juneteenth observed on Monday
+        assertTrue(calendar.isHoliday(DateUtils.toEpochDay(2018, 12, 5))); // President George H.W. Bush's funeral
+        assertFalse(calendar.isHoliday(DateUtils.toEpochDay(2021, 6, 18))); // before Juneteenth was a holiday
+        assertFalse(calendar.isHoliday(DateUtils.toEpochDay(2021, 12, 31))); // New Year's Day on a Saturday
+        assertFalse(calendar.isHoliday(DateUtils.toEpochDay(2019, 8, 24))); // weekend, not a holiday
+        assertFalse(calendar.isTradingDay(DateUtils.toEpochDay(2019, 8, 24)));
+    }
+
+    @Test
+    public void testEarlyCloses() {
+
+        assertTrue(calendar.isEarlyClose(DateUtils.toEpochDay(2019, 7, 3)));
+        assertTrue(calendar.isEarlyClose(DateUtils.toEpochDay(2019, 11, 29)));
+        assertTrue(calendar.isEarlyClose(DateUtils.toEpochDay(2019, 12, 24)));
+        assertFalse(calendar.isEarlyClose(DateUtils.toEpochDay(2020, 7, 2))); // July 4th on a Saturday
+        assertFalse(calendar.isEarlyClose(DateUtils.toEpochDay(2019, 12, 26)));
+    }
+
+    @Test
+    public void testTradingDaysPerYear() {
+
+        int firstOf2019 = DateUtils.toEpochDay(2019, 1, 1);
+        int firstOf2020 = DateUtils.toEpochDay(2020, 1, 1);
+
+        assertEquals(252, calendar.getTradingDaysBetween(firstOf2019 - 1, firstOf2020 - 1));
+    }
+
+    @Test
+    public void testTradingDayIndexIsDense() {
+
+        int thursday = DateUtils.toEpochDay(2019, 11, 27);
+        int friday = DateUtils.toEpochDay(2019, 11, 29);
+        int monday = DateUtils.toEpochDay(2019, 12, 2);
+
+        assertEquals(TradingCalendar.NOT_A_TRADING_DAY, calendar.getTradingDayIndex(thursday + 1));
+        assertEquals(calendar.getTradingDayIndex(thursday) + 1, calendar.getTradingDayIndex(friday));
+        assertEquals(calendar.getTradingDayIndex(friday) + 1, calendar.getTradingDayIndex(monday));
+        assertEquals(calendar.getTradingDayIndex(friday), calendar.getTradingDayIndexOnOrBefore(monday - 1));
+        assertEquals(monday, calendar.getEpochDay(calendar.getTradingDayIndex(monday)));
+        assertEquals(thursday, calendar.getEpochDay(calendar.getTradingDayIndexTradingDaysBefore(monday, 2)));
+    }
+
+    @Test
+    public void testTradingDayIndexYearsBefore() {
+
+        // 2019-08-21 minus 1 year is Tuesday 2018-08-21
+        int index = calendar.getTradingDayIndexYearsBefore(DateUtils.toEpochDay(2019, 8, 21), 1);
+        assertEquals(DateUtils.toEpochDay(2018, 8, 21), calendar.getEpochDay(index));
+
+        // 2019-07-04 minus 1 year is a holiday so the previous session is used
+        index = calendar.getTradingDayIndexYearsBefore(DateUtils.toEpochDay(2019, 7, 4), 1);
+        assertEquals(DateUtils.toEpochDay(2018, 7, 3), calendar.getEpochDay(index));
+
+        assertEquals(-1, calendar.getTradingDayIndexYearsBefore(DateUtils.toEpochDay(2019, 7, 4), 10));
+    }
+
+    @Test
+    public void testTestDataQuotesAreTradingDays() {
+
+        List<DailyQuoteBean> quotes = FinanceQuotesTestData.getTestData();
+        int previousIndex = -1;
+
+        for (DailyQuoteBean quote : quotes) {
+            int index = quote.getTradingDayIndex(calendar);
+            assertTrue(index > previousIndex);
+            previousIndex = index;
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDayOutsideCalendar() {
+        calendar.isTradingDay(DateUtils.toEpochDay(2030, 1, 2));
+    }
+}